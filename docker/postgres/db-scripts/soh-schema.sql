@@ -147,11 +147,10 @@ create table if not exists channel_configured_inputs
 create index channel_configured_inputs_channel_name on channel_configured_inputs (channel_name);
 create index channel_configured_inputs_related_channel_name on channel_configured_inputs (related_channel_name);
 
+-- The ACEI tables are partitioned by day of start_time, see maintain_soh_partitions
 create table if not exists channel_env_issue_analog
 (
-	id uuid not null
-		constraint channel_env_issue_analog_pkey
-			primary key,
+	id uuid not null,
 	natural_id integer not null,
 	channel_name varchar(255) not null
 		     constraint channel_env_issue_analog_channel
@@ -160,9 +159,12 @@ create table if not exists channel_env_issue_analog
 	start_time timestamp with time zone not null,
 	status double precision not null,
 	type varchar(255) not null,
+	constraint channel_env_issue_analog_pkey
+		primary key (id, start_time),
 	constraint analog_channel_type_start
 		unique (channel_name, type, start_time)
-);
+) partition by range (start_time);
+create table if not exists channel_env_issue_analog_default partition of channel_env_issue_analog default;
 create index analog_channel_type_start_idx
 	on channel_env_issue_analog (channel_name, type, start_time);
 create index analog_acei_natural_id_idx
@@ -170,9 +172,7 @@ create index analog_acei_natural_id_idx
 		
 create table if not exists channel_env_issue_boolean
 (
-	id uuid not null
-		constraint channel_env_issue_boolean_pkey
-			primary key,
+	id uuid not null,
 	natural_id integer not null, 
 	channel_name varchar(255) not null
 		constraint channel_env_issue_boolean_channel
@@ -181,9 +181,12 @@ create table if not exists channel_env_issue_boolean
 	start_time timestamp with time zone not null,
 	status boolean not null,
 	type varchar(255) not null,
+	constraint channel_env_issue_boolean_pkey
+		primary key (id, start_time),
 	constraint boolean_channel_type_start
 		unique (channel_name, type, start_time)
-);
+) partition by range (start_time);
+create table if not exists channel_env_issue_boolean_default partition of channel_env_issue_boolean default;
 
 create index boolean_channel_type_start_idx
 	on channel_env_issue_boolean (channel_name, type, start_time);
@@ -233,6 +236,8 @@ create table if not exists frequency_amplitude_phase
 	phase_response_units varchar(255)
 );
 
+-- raw_station_data_frame stays on delete-based retention, see delete_stale_records, since its
+-- element-collection children have no time column to partition them by.
 create table if not exists raw_station_data_frame
 (
 	id uuid not null
@@ -246,6 +251,8 @@ create table if not exists raw_station_data_frame
 	reception_time timestamp not null,
 	station_name varchar(255)
 );
+CREATE INDEX rsdf_payload_data_end_time_idx ON raw_station_data_frame (payload_data_end_time);
+CREATE INDEX rsdf_reception_time_idx ON raw_station_data_frame (reception_time);
 
 create table if not exists raw_station_data_frame_channel_names
 (
@@ -888,6 +895,10 @@ create table if not exists workspace_layout_supported_ui_modes
 	supported_user_interface_mode varchar(255)
 );			  
 
+-- waveform_summary is not partitioned. Its rows are removed with their raw_station_data_frame by
+-- the ON DELETE CASCADE below, so it follows the delete-based retention of raw_station_data_frame.
+-- Dropping its partitions on their own would remove the summaries of frames that are still
+-- retained, and would not remove any deletes while the frames are still deleted row by row.
 create table if not exists waveform_summary
 (
 	id bigint not null
@@ -906,35 +917,42 @@ create index channel_name_end_time_idx on waveform_summary (channel_name, end_ti
 -- new state of health objects (as part of the SOH capability guidance)
 create sequence if not exists smvs_sequence increment by 10 minvalue 1 no maxvalue start with 1 no cycle;
 
+-- The station SOH tables are partitioned by day of the StationSoh creation_time, which is copied
+-- to each of the child tables so that a day of StationSoh is dropped with all of its children, see
+-- maintain_soh_partitions. Partitions can not have foreign keys to the other partitioned tables,
+-- so the children reference their StationSoh without constraints.
 create sequence if not exists station_soh_sequence increment by 5 minvalue 1 no maxvalue start with 1 no cycle;
 create table if not exists station_soh(
-	id int not null
-	   	constraint station_soh_pkey
-			primary key,
-	coi_id uuid not null constraint coi_id_unique unique,
+	id int not null,
+	coi_id uuid not null,
 	creation_time timestamp not null,
 	station_name varchar(255) not null
 		constraint fk_station_soh_station
 			references station(name),
-	soh_status public.soh_status_enum not null
-);
-CREATE INDEX station_soh_station_name_idx ON station_soh (station_name);
+	soh_status public.soh_status_enum not null,
+	constraint station_soh_pkey
+		primary key (id, creation_time),
+	constraint coi_id_unique
+		unique (coi_id, creation_time)
+) partition by range (creation_time);
+create table if not exists station_soh_default partition of station_soh default;
+CREATE INDEX station_soh_station_name_idx ON station_soh (station_name, creation_time);
 CREATE INDEX station_soh_coi_id_idx ON station_soh (coi_id);
 
 create sequence if not exists channel_soh_sequence increment by 5 minvalue 1 no maxvalue start with 1 no cycle;
 
 create table if not exists channel_soh(
-    id int not null
-	   	constraint channel_soh_pkey
-			primary key,
+    id int not null,
 	channel_name varchar(255) not null
 		constraint fk_channel_soh_channel_name
 			references channel(name),			
 	soh_status public.soh_status_enum not null,
-	station_soh_id int
-		constraint fk_station_soh_channel_soh
-			references station_soh(id) ON DELETE CASCADE
-);
+	station_soh_id int,
+	creation_time timestamp not null,
+	constraint channel_soh_pkey
+		primary key (id, creation_time)
+) partition by range (creation_time);
+create table if not exists channel_soh_default partition of channel_soh default;
 CREATE INDEX channel_soh_channel_name_idx ON channel_soh (channel_name);
 CREATE INDEX channel_soh_station_soh_id_idx ON channel_soh (station_soh_id);
 
@@ -942,35 +960,33 @@ CREATE INDEX channel_soh_station_soh_id_idx ON channel_soh (station_soh_id);
 create sequence if not exists station_aggregate_sequence increment by 50 minvalue 1 no maxvalue start with 1 no cycle;
 
 create table if not exists station_aggregate(
-    id bigint not null
-      constraint station_aggregate_pkey
-      primary key,
-    station_soh_id int
-    	constraint fk_station_soh_station_aggregate
-    		references station_soh(id) ON DELETE CASCADE,    
+    id bigint not null,
+    station_soh_id int,
     duration bigint,
     percent double precision,
     aggregate_type public.station_aggregate_type_enum not null,
-    type varchar(255) not null
-);
+    type varchar(255) not null,
+    creation_time timestamp not null,
+    constraint station_aggregate_pkey
+      primary key (id, creation_time)
+) partition by range (creation_time);
+create table if not exists station_aggregate_default partition of station_aggregate default;
 CREATE INDEX sa_station_soh_id_idx ON station_aggregate (station_soh_id);
 
 create table if not exists soh_monitor_value_status(
 
-    id int not null
-	   	constraint soh_monitor_value_status_pkey
-			primary key,
+    id int not null,
 	duration int,
 	percent real,
-	channel_soh_id int
-		constraint fk_channel_smvs_channel_soh
-			references channel_soh(id) ON DELETE CASCADE,
-	station_soh_id int
-		constraint fk_station_soh_soh_monitor_rollup
-			references station_soh(id) ON DELETE CASCADE,
+	channel_soh_id int,
+	station_soh_id int,
 	status smallint not null,
-	monitor_type smallint not null
-);
+	monitor_type smallint not null,
+	creation_time timestamp not null,
+	constraint soh_monitor_value_status_pkey
+		primary key (id, creation_time)
+) partition by range (creation_time);
+create table if not exists soh_monitor_value_status_default partition of soh_monitor_value_status default;
 CREATE INDEX smvs_channel_soh_id_idx ON soh_monitor_value_status (channel_soh_id);
 CREATE INDEX smvs_station_smvs_idx ON soh_monitor_value_status (station_soh_id);
 
@@ -1112,6 +1128,10 @@ $$
     ttl_time := now() - (ssoh_ttl_in_hours || ' hours')::interval;
     raise notice 'Deleting Station SOH with creation_time before %', ttl_time;
     ssoh_removal_start_time := clock_timestamp();
+    -- The children of a StationSoh are not deleted by cascade, they are partitioned with it by its creation_time
+    delete from gms_soh.soh_monitor_value_status where creation_time < ttl_time;
+    delete from gms_soh.channel_soh where creation_time < ttl_time;
+    delete from gms_soh.station_aggregate where creation_time < ttl_time;
     with station_soh_deleted as (delete from gms_soh.station_soh where creation_time < ttl_time returning *) select count(*) from station_soh_deleted into num_station_soh_deleted;
     ssoh_removal_end_time := clock_timestamp();
     ssoh_elapsed_time := 1000 * ( extract(epoch from ssoh_removal_end_time) - extract(epoch from ssoh_removal_start_time) );
@@ -1124,6 +1144,64 @@ $$
   end
 $$;
 
+-- Creates the daily partitions of the partitioned SOH tables for today and the next days_ahead
+-- days, and drops the daily partitions that ended more than retention_days days ago. Rows outside
+-- the daily partitions go to the default partition of each table, where delete_stale_records
+-- removes them. Called periodically by the OSD service.
+create or replace procedure public.maintain_soh_partitions(days_ahead int, retention_days int)
+language plpgsql
+security definer
+set search_path = gms_soh, pg_temp
+set timezone = 'UTC'
+as
+$$
+  declare
+    partitioned_tables text[] := array['station_soh', 'channel_soh', 'station_aggregate',
+      'soh_monitor_value_status', 'channel_env_issue_analog', 'channel_env_issue_boolean'];
+    partitioned_table text;
+    partition_day date;
+    partition_name text;
+    num_partitions_created int := 0;
+    num_partitions_dropped int := 0;
+  begin
+    -- Only one caller changes the partitions at a time
+    perform pg_advisory_xact_lock(hashtext('public.maintain_soh_partitions'));
+
+    foreach partitioned_table in array partitioned_tables loop
+      for partition_day in select generate_series(current_date, current_date + days_ahead, interval '1 day')::date loop
+        partition_name := partitioned_table || '_p' || to_char(partition_day, 'YYYYMMDD');
+        if to_regclass('gms_soh.' || partition_name) is null then
+          begin
+            execute format('create table gms_soh.%I partition of gms_soh.%I for values from (%L) to (%L)',
+              partition_name, partitioned_table, partition_day, partition_day + 1);
+            num_partitions_created := num_partitions_created + 1;
+          exception when check_violation then
+            -- The default partition already has rows for the day, which stay there until they expire
+            raise warning 'Not creating partition %, the default partition has rows for the day', partition_name;
+          end;
+        end if;
+      end loop;
+
+      for partition_name in
+        select child.relname
+        from pg_inherits
+          join pg_class parent on pg_inherits.inhparent = parent.oid
+          join pg_class child on pg_inherits.inhrelid = child.oid
+          join pg_namespace on parent.relnamespace = pg_namespace.oid
+        where pg_namespace.nspname = 'gms_soh'
+          and parent.relname = partitioned_table
+          and child.relname ~ '_p[0-9]{8}$'
+          and to_date(right(child.relname, 8), 'YYYYMMDD') < current_date - retention_days
+      loop
+        execute format('drop table gms_soh.%I', partition_name);
+        num_partitions_dropped := num_partitions_dropped + 1;
+      end loop;
+    end loop;
+
+    raise notice 'Created % and dropped % SOH partitions', num_partitions_created, num_partitions_dropped;
+  end
+$$;
+
 -- Set gms_admin user for system to use with database
 revoke all on schema gms_soh from gms_admin;
 grant usage on schema gms_soh to gms_admin;
@@ -1349,3 +1427,16 @@ alter table capability_soh_rollup owner to gms_admin;
 alter table capability_station_soh_uuids owner to gms_admin;
 alter table capability_station_soh_status_map owner to gms_admin;
 alter table system_message owner to gms_admin;
+alter table channel_env_issue_analog_default owner to gms_admin;
+alter table channel_env_issue_boolean_default owner to gms_admin;
+alter table channel_soh_default owner to gms_admin;
+alter table soh_monitor_value_status_default owner to gms_admin;
+alter table station_aggregate_default owner to gms_admin;
+alter table station_soh_default owner to gms_admin;
+
+-- The partition maintenance runs as gms_admin, which owns the partitioned tables
+alter procedure public.maintain_soh_partitions(int, int) owner to gms_admin;
+revoke all on procedure public.maintain_soh_partitions(int, int) from public;
+grant execute on procedure public.maintain_soh_partitions(int, int) to gms_soh_application;
+
+call public.maintain_soh_partitions(3, 31);
@@ -137,6 +137,34 @@ class ChannelSohCalculationUtility {
     ).next();
   }
 
+  /**
+   * Synchronous version of buildChannelSohSetMono, which computes each monitor type in turn on
+   * the calling thread. Used when the whole StationSoh computation for a station runs as a single
+   * task.
+   *
+   * @param waveformSummaryAndReceptionTimes map with channel names as keys mapped to each
+   * channel's {@link WaveformSummaryAndReceptionTime}s
+   * @param aceiBooleanMap map with channel names as keys mapped to each channel's {@link
+   * AcquiredChannelEnvironmentIssueBoolean}s
+   * @param stationSohDefinition definition for single station
+   * @return set of ChannelSoh objects
+   */
+  Set<ChannelSoh> buildChannelSohSet(
+      Map<String, Set<WaveformSummaryAndReceptionTime>> waveformSummaryAndReceptionTimes,
+      Map<String, Set<AcquiredChannelEnvironmentIssueBoolean>> aceiBooleanMap,
+      StationSohDefinition stationSohDefinition,
+      Instant stationSohTime
+  ) {
+
+    return calculateChannelSohSet(
+        stationChannelEnvironmentStatuses(aceiBooleanMap, stationSohDefinition),
+        stationChannelLagStatuses(waveformSummaryAndReceptionTimes, stationSohDefinition),
+        stationChannelMissingStatuses(waveformSummaryAndReceptionTimes, stationSohDefinition),
+        stationChannelTimelinessStatuses(stationSohDefinition, stationSohTime),
+        stationSohDefinition
+    );
+  }
+
 
   /**
    * Computes the {@link DurationSohMonitorValueAndStatus} for {@link SohMonitorType#TIMELINESS}
@@ -0,0 +1,161 @@
+package gms.core.performancemonitoring.soh.control;
+
+import gms.shared.frameworks.osd.coi.channel.dataacquisitionstatus.AcquiredStationSohExtract;
+import gms.shared.frameworks.osd.coi.channel.soh.AcquiredChannelEnvironmentIssueBoolean;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Snapshot of a {@link StationSohExtractIndex}: the set of extracts it held, along with the
+ * waveform summaries and boolean environment issues of those extracts, already grouped by station
+ * and then by channel. Each station's slice can be passed directly to the calculation utilities.
+ * <p>
+ * The entries of each station are immutable, so snapshots taken one after another share the
+ * entries of the stations that did not change in between.
+ */
+public class IndexedStationSohExtracts {
+
+  /**
+   * The immutable entries of one station, grouped by channel.
+   */
+  static final class StationEntries {
+
+    static final StationEntries EMPTY = new StationEntries(Map.of(), Map.of(), Map.of());
+
+    private final Map<String, Set<WaveformSummaryAndReceptionTime>>
+        waveformSummaryAndReceptionTimes;
+
+    private final Map<String, Set<AcquiredChannelEnvironmentIssueBoolean>> aceiBooleans;
+
+    private final Map<String, Instant> latestEndTimeByChannel;
+
+    private StationEntries(
+        Map<String, Set<WaveformSummaryAndReceptionTime>> waveformSummaryAndReceptionTimes,
+        Map<String, Set<AcquiredChannelEnvironmentIssueBoolean>> aceiBooleans,
+        Map<String, Instant> latestEndTimeByChannel) {
+
+      this.waveformSummaryAndReceptionTimes = waveformSummaryAndReceptionTimes;
+      this.aceiBooleans = aceiBooleans;
+      this.latestEndTimeByChannel = latestEndTimeByChannel;
+    }
+
+    /**
+     * Create the entries of a station, copying the given maps.
+     */
+    static StationEntries create(
+        Map<String, Set<WaveformSummaryAndReceptionTime>> waveformSummaryAndReceptionTimes,
+        Map<String, Set<AcquiredChannelEnvironmentIssueBoolean>> aceiBooleans) {
+
+      Map<String, Instant> latestEndTimeByChannel = new HashMap<>();
+
+      waveformSummaryAndReceptionTimes.forEach((channelName, entries) -> entries.forEach(entry ->
+          latestEndTimeByChannel.merge(channelName, entry.getWaveformSummary().getEndTime(),
+              (a, b) -> a.isAfter(b) ? a : b)));
+
+      return new StationEntries(
+          copyOf(waveformSummaryAndReceptionTimes),
+          copyOf(aceiBooleans),
+          Map.copyOf(latestEndTimeByChannel)
+      );
+    }
+
+    /**
+     * Merge the entries of one station from several indexes into one.
+     */
+    static StationEntries merge(List<StationEntries> parts) {
+
+      if (parts.size() == 1) {
+        return parts.get(0);
+      }
+
+      Map<String, Set<WaveformSummaryAndReceptionTime>> waveformSummaryAndReceptionTimes =
+          new HashMap<>();
+      Map<String, Set<AcquiredChannelEnvironmentIssueBoolean>> aceiBooleans = new HashMap<>();
+
+      parts.forEach(part -> {
+        part.waveformSummaryAndReceptionTimes.forEach((channelName, entries) ->
+            waveformSummaryAndReceptionTimes
+                .computeIfAbsent(channelName, key -> new HashSet<>()).addAll(entries));
+        part.aceiBooleans.forEach((channelName, entries) ->
+            aceiBooleans.computeIfAbsent(channelName, key -> new HashSet<>()).addAll(entries));
+      });
+
+      return create(waveformSummaryAndReceptionTimes, aceiBooleans);
+    }
+
+    boolean isEmpty() {
+      return waveformSummaryAndReceptionTimes.isEmpty() && aceiBooleans.isEmpty();
+    }
+
+    private static <T> Map<String, Set<T>> copyOf(Map<String, ? extends Collection<T>> map) {
+      Map<String, Set<T>> copy = new HashMap<>();
+      map.forEach((channelName, entries) -> copy.put(channelName, Set.copyOf(entries)));
+      return Map.copyOf(copy);
+    }
+  }
+
+  private final Set<AcquiredStationSohExtract> extracts;
+
+  private final Map<String, StationEntries> entriesByStation;
+
+  IndexedStationSohExtracts(
+      Set<AcquiredStationSohExtract> extracts,
+      Map<String, StationEntries> entriesByStation) {
+
+    this.extracts = Objects.requireNonNull(extracts);
+    this.entriesByStation = Objects.requireNonNull(entriesByStation);
+  }
+
+  /**
+   * Index the given extracts. Used where the extracts were not received through a
+   * {@link StationSohExtractIndex}.
+   *
+   * @param extracts the extracts to index
+   * @return the indexed extracts
+   */
+  public static IndexedStationSohExtracts from(Collection<AcquiredStationSohExtract> extracts) {
+    Objects.requireNonNull(extracts, "Null extracts");
+    return StationSohExtractIndex.index(extracts);
+  }
+
+  /**
+   * @return the set of all extracts in the snapshot
+   */
+  public Set<AcquiredStationSohExtract> getExtracts() {
+    return extracts;
+  }
+
+  /**
+   * @return map of channel name to the waveform summaries and reception times for that channel,
+   * for the channels of the given station. Empty if there are none.
+   */
+  Map<String, Set<WaveformSummaryAndReceptionTime>> getWaveformSummaryAndReceptionTimes(
+      String stationName) {
+    return entriesByStation.getOrDefault(stationName, StationEntries.EMPTY)
+        .waveformSummaryAndReceptionTimes;
+  }
+
+  /**
+   * @return map of channel name to the boolean environment issues for that channel, for the
+   * channels of the given station. Empty if there are none.
+   */
+  Map<String, Set<AcquiredChannelEnvironmentIssueBoolean>> getAceiBooleans(String stationName) {
+    return entriesByStation.getOrDefault(stationName, StationEntries.EMPTY).aceiBooleans;
+  }
+
+  /**
+   * @return map of channel name to the latest waveform summary end time for that channel.
+   */
+  Map<String, Instant> getLatestEndTimeByChannel() {
+    Map<String, Instant> latestEndTimeByChannel = new HashMap<>();
+    entriesByStation.values().forEach(stationEntries ->
+        latestEndTimeByChannel.putAll(stationEntries.latestEndTimeByChannel));
+    return latestEndTimeByChannel;
+  }
+}
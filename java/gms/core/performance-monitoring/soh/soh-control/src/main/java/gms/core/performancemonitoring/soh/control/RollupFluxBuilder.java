@@ -28,6 +28,8 @@ class RollupFluxBuilder {
 
   private final ConnectableFlux<StationSoh> stationSohFlux;
 
+  private final Instant now;
+
   /**
    * Construct a new RollupFluxBuilder
    *
@@ -43,13 +45,51 @@ class RollupFluxBuilder {
       Duration rollupStationSohTimeTolerance,
       AcquiredSampleTimesByChannel acquiredSampleTimesByChannel) {
 
+    this(
+        IndexedStationSohExtracts.from(acquiredStationSohExtractSet),
+        stationSohDefinitionSet,
+        capabilitySohRollupDefinitionSet,
+        rollupStationSohTimeTolerance,
+        acquiredSampleTimesByChannel,
+        StationSohComputationMode.PIPELINED,
+        StationSohChangeDetector.disabled()
+    );
+  }
+
+  /**
+   * Construct a new RollupFluxBuilder
+   *
+   * @param indexedExtracts The AcquiredStationSohExtracts - the input SOH data - indexed by
+   * station and channel
+   * @param stationSohDefinitionSet Set of configurations specifying "pure" rollup behavior
+   * @param capabilitySohRollupDefinitionSet Set of configurations specifying "capability" rollup
+   * behavior
+   * @param stationSohComputationMode How the StationSoh for each station is computed
+   * @param stationSohChangeDetector Detects stations that have not changed since they were last
+   * published. Capability rollups are computed using the previously published StationSoh of
+   * unchanged stations, and only changed StationSohs are emitted by {@link #getStationSohFlux()}.
+   */
+  RollupFluxBuilder(
+      IndexedStationSohExtracts indexedExtracts,
+      Set<StationSohDefinition> stationSohDefinitionSet,
+      Set<CapabilitySohRollupDefinition> capabilitySohRollupDefinitionSet,
+      Duration rollupStationSohTimeTolerance,
+      AcquiredSampleTimesByChannel acquiredSampleTimesByChannel,
+      StationSohComputationMode stationSohComputationMode,
+      StationSohChangeDetector stationSohChangeDetector) {
+
     Instant now = Instant.now();
 
+    this.now = now;
+
     this.stationSohFlux = buildStationSohFlux(
-        acquiredStationSohExtractSet,
+        indexedExtracts,
         stationSohDefinitionSet,
         now,
-        acquiredSampleTimesByChannel
+        acquiredSampleTimesByChannel,
+        stationSohComputationMode,
+        stationSohChangeDetector,
+        rollupStationSohTimeTolerance
     );
 
     this.capabilitySohRollupFlux = buildCapabilityRollupFlux(
@@ -76,11 +116,16 @@ class RollupFluxBuilder {
   }
 
   /**
-   * @return Flux of StationSoh
+   * @return Flux of StationSoh calculated by this RollupFluxBuilder. StationSohs of unchanged
+   * stations, which were published previously, are not included.
    */
   Flux<StationSoh> getStationSohFlux() {
 
-    return stationSohFlux;
+    //
+    // Every StationSoh calculated here has its time set to now, so anything older is a
+    // StationSoh of an unchanged station that was repeated by the change detector.
+    //
+    return stationSohFlux.filter(stationSoh -> now.equals(stationSoh.getTime()));
   }
 
   /**
@@ -120,25 +165,38 @@ class RollupFluxBuilder {
   /**
    * Build the Flux of StationSoh
    *
-   * @param acquiredStationSohExtractFlux Flux of AcquiredStationSohExtract used to build the "pure"
-   * rollups
+   * @param indexedExtracts Indexed AcquiredStationSohExtracts used to build the "pure" rollups
    * @param stationSohDefinitionSet Set of configs specifying pure rollup behavior
+   * @param stationSohComputationMode How the StationSoh for each station is computed
+   * @param stationSohChangeDetector Replaces StationSohs of unchanged stations with the StationSoh
+   * that was last published
+   * @param rollupStationSohTimeTolerance How old a repeated StationSoh may be
    * @return Flux of StationSoh
    */
   private static ConnectableFlux<StationSoh> buildStationSohFlux(
-      Set<AcquiredStationSohExtract> acquiredStationSohExtractSet,
+      IndexedStationSohExtracts indexedExtracts,
       Set<StationSohDefinition> stationSohDefinitionSet,
       Instant now,
-      AcquiredSampleTimesByChannel acquiredSampleTimesByChannel
+      AcquiredSampleTimesByChannel acquiredSampleTimesByChannel,
+      StationSohComputationMode stationSohComputationMode,
+      StationSohChangeDetector stationSohChangeDetector,
+      Duration rollupStationSohTimeTolerance
   ) {
 
     AtomicInteger restartCount = new AtomicInteger(0);
 
     return StationSohCalculationUtility.buildStationSohFlux(
-        acquiredStationSohExtractSet,
+        indexedExtracts,
         stationSohDefinitionSet,
         now,
-        acquiredSampleTimesByChannel)
+        acquiredSampleTimesByChannel,
+        stationSohComputationMode)
+        //
+        // Repeat the previously published StationSoh of any station that has not changed, so
+        // that capability rollups refer to a StationSoh that has already been published.
+        //
+        .map(stationSoh -> stationSohChangeDetector.deduplicate(
+            stationSoh, rollupStationSohTimeTolerance))
         .doFirst(() ->
             logger.debug(
                 "RollupFluxBuilder: stationSohFlux restarting for {}th time",
@@ -160,6 +160,95 @@ public class StationAggregateCalculationUtility {
         .collect(Collectors.toSet());
   }
 
+  /**
+   * Synchronous version of buildStationAggregateMono, which computes each aggregate in turn on the
+   * calling thread. Used when the whole StationSoh computation for a station runs as a single
+   * task.
+   *
+   * @param waveformSummaryAndReceptionTimes The map of channel to set of
+   * WaveformSummaryAndReceptionTime, for calculations that need waveform data
+   * @param aceiBooleanMap The map of channel to set of ACEIs, for calculations that need
+   * environment data
+   * @param stationSohDefinition the StationSohDefinition for the station
+   * @return Set of StationAggregates, for LAG, TIMELINESS, MISSING, ENVIRONMENT_ISSUES
+   */
+  Set<StationAggregate<?>> buildStationAggregateSet(
+      Map<String, Set<WaveformSummaryAndReceptionTime>> waveformSummaryAndReceptionTimes,
+      Map<String, Set<AcquiredChannelEnvironmentIssueBoolean>> aceiBooleanMap,
+      StationSohDefinition stationSohDefinition
+  ) {
+
+    Objects.requireNonNull(
+        waveformSummaryAndReceptionTimes,
+        "waveformSummaryAndReceptionTimes is null!"
+    );
+
+    Objects.requireNonNull(
+        aceiBooleanMap,
+        "aceiBooleanMap is null!"
+    );
+
+    Objects.requireNonNull(
+        stationSohDefinition,
+        "stationSohDefinition is null!"
+    );
+
+    Set<StationAggregate<?>> stationAggregates = new HashSet<>();
+
+    lag(
+        flattenWaveformSummaries(
+            filterWaveformSummaries(
+                waveformSummaryAndReceptionTimes,
+                stationSohDefinition,
+                SohMonitorType.LAG
+            )
+        ),
+        stationSohDefinition.getTimeWindowBySohMonitorType().get(SohMonitorType.LAG)
+    ).ifPresent(stationAggregates::add);
+
+    stationAggregates.add(
+        environmentIssues(
+            filterAndFlattenAceis(
+                aceiBooleanMap,
+                stationSohDefinition,
+                now
+            )
+        )
+    );
+
+    stationAggregates.add(
+        missing(
+            flattenWaveformSummaries(
+                filterWaveformSummaries(
+                    waveformSummaryAndReceptionTimes,
+                    stationSohDefinition,
+                    SohMonitorType.MISSING
+                )
+            ),
+            stationSohDefinition
+        )
+    );
+
+    timeliness(
+        filterWaveformSummaries(
+            waveformSummaryAndReceptionTimes,
+            stationSohDefinition,
+            SohMonitorType.TIMELINESS
+        ),
+        stationSohDefinition.getChannelsBySohMonitorType().get(SohMonitorType.TIMELINESS)
+    ).ifPresent(stationAggregates::add);
+
+    return stationAggregates;
+  }
+
+  private static Set<WaveformSummaryAndReceptionTime> flattenWaveformSummaries(
+      Map<String, Set<WaveformSummaryAndReceptionTime>> waveformSummaryAndReceptionTimeMap
+  ) {
+    return waveformSummaryAndReceptionTimeMap.values().stream()
+        .flatMap(Collection::stream)
+        .collect(Collectors.toSet());
+  }
+
   /**
    * Calculate the average lag of all channels of the station
    *
@@ -1,7 +1,9 @@
 package gms.core.performancemonitoring.soh.control;
 
 import com.google.common.collect.Comparators;
+import gms.core.performancemonitoring.soh.control.StationSohComputationTimer.Stage;
 import gms.core.performancemonitoring.soh.control.configuration.StationSohDefinition;
+import gms.core.performancemonitoring.soh.control.reactor.SohSchedulers;
 import gms.shared.frameworks.osd.coi.channel.dataacquisitionstatus.AcquiredStationSohExtract;
 import gms.shared.frameworks.osd.coi.channel.soh.AcquiredChannelEnvironmentIssue;
 import gms.shared.frameworks.osd.coi.channel.soh.AcquiredChannelEnvironmentIssueBoolean;
@@ -13,7 +15,6 @@ import gms.shared.frameworks.osd.coi.soh.StationAggregate;
 import gms.shared.frameworks.osd.coi.soh.StationSoh;
 import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrameMetadata;
 import java.time.Instant;
-import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -31,7 +32,6 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 /**
  * Static utility class for calculating Station SOH averages, rollups, summaries, etc.
@@ -63,14 +63,42 @@ public final class StationSohCalculationUtility {
       final Set<StationSohDefinition> stationSohDefinitions,
       final Instant stationSohTime,
       final AcquiredSampleTimesByChannel acquiredSampleTimesByChannel
+  ) {
+    Validate.notNull(acquiredStationSohExtracts,
+        "acquiredStationSohExtracts is required");
+
+    return buildStationSohFlux(
+        IndexedStationSohExtracts.from(acquiredStationSohExtracts),
+        stationSohDefinitions,
+        stationSohTime,
+        acquiredSampleTimesByChannel,
+        StationSohComputationMode.PIPELINED
+    );
+  }
+
+  /**
+   * Given {@code AcquiredStationSohExtract}s that are already indexed by station and channel,
+   * computes a set of {@code StationSoh}, using the given {@link StationSohComputationMode}.
+   *
+   * @param indexedExtracts The indexed state of health extracts, which must not be null.
+   * @param stationSohDefinitions Defines which stations to compute state of health for. Must not be null.
+   * @param computationMode How the StationSoh for each station is computed. Must not be null.
+   */
+  static Flux<StationSoh> buildStationSohFlux(
+      final IndexedStationSohExtracts indexedExtracts,
+      final Set<StationSohDefinition> stationSohDefinitions,
+      final Instant stationSohTime,
+      final AcquiredSampleTimesByChannel acquiredSampleTimesByChannel,
+      final StationSohComputationMode computationMode
   ) {
     return buildStationSohFlux(
-        acquiredStationSohExtracts,
+        indexedExtracts,
         stationSohDefinitions,
         stationSohTime,
         new ChannelSohCalculationUtility(stationSohTime, acquiredSampleTimesByChannel),
         new StationAggregateCalculationUtility(acquiredSampleTimesByChannel, stationSohTime),
-        acquiredSampleTimesByChannel);
+        acquiredSampleTimesByChannel,
+        computationMode);
   }
 
   /**
@@ -86,89 +114,256 @@ public final class StationSohCalculationUtility {
 
     Validate.notNull(acquiredStationSohExtracts,
         "acquiredStationSohExtracts is required");
+
+    return buildStationSohFlux(
+        IndexedStationSohExtracts.from(acquiredStationSohExtracts),
+        stationSohDefinitions,
+        stationSohTime,
+        channelSohCalculationUtility,
+        stationAggregateCalculationUtility,
+        acquiredSampleTimesByChannel,
+        StationSohComputationMode.PIPELINED);
+  }
+
+  /**
+   * Version of computeStationSohFlux that takes indexed extracts, a ChannelSohCalculationUtility
+   * and a StationSohComputationMode. The waveform summaries and environment issues for each station
+   * are taken directly from the index, without regrouping the extracts.
+   */
+  static Flux<StationSoh> buildStationSohFlux(
+      final IndexedStationSohExtracts indexedExtracts,
+      final Set<StationSohDefinition> stationSohDefinitions,
+      final Instant stationSohTime,
+      final ChannelSohCalculationUtility channelSohCalculationUtility,
+      final StationAggregateCalculationUtility stationAggregateCalculationUtility,
+      final AcquiredSampleTimesByChannel acquiredSampleTimesByChannel,
+      final StationSohComputationMode computationMode) {
+
+    Validate.notNull(indexedExtracts,
+        "indexedExtracts is required");
     Validate.notNull(stationSohDefinitions,
         "stationSohDefinitions is required");
     Validate.notNull(stationSohTime,
         "stationSohTime is required");
+    Validate.notNull(computationMode,
+        "computationMode is required");
 
     // Handle the trivial case.
     if (stationSohDefinitions.isEmpty()) {
       return Flux.empty();
     }
 
+    var timer = new StationSohComputationTimer();
+
     // get earliest Instant of the extracts not included in the last call to
     // this method for each station.
     Map<String, Instant> earliestReceptionMap =
-        getEarliestReceptionMap(acquiredStationSohExtracts);
+        getEarliestReceptionMap(indexedExtracts.getExtracts());
 
-    var waveformSummaryAndReceptionTimeSetMono =
-        Mono.just(
-            createWsRtMapAndPopulateSampleTimes(acquiredStationSohExtracts, acquiredSampleTimesByChannel)
-        ).cache();
+    //
+    // The extracts are already grouped by station and channel, so all that is left to do
+    // up front is populate the latest end times.
+    //
+    timer.time(
+        Stage.GROUPING,
+        () -> {
+          indexedExtracts.getLatestEndTimeByChannel()
+              .forEach(acquiredSampleTimesByChannel::update);
+          return null;
+        }
+    );
 
-    var aceiStationMonoMap = Mono.just(createAceiBooleanStationChannelMap(
-        acquiredStationSohExtracts
-    ));
+    Flux<StationSoh> stationSohFlux;
+
+    if (computationMode == StationSohComputationMode.FUSED) {
+      stationSohFlux = Flux.fromIterable(stationSohDefinitions)
+          .parallel()
+          .runOn(SohSchedulers.sohComputation())
+          .map(stationSohDefinition -> computeStationSohFused(
+              indexedExtracts.getWaveformSummaryAndReceptionTimes(
+                  stationSohDefinition.getStationName()),
+              indexedExtracts.getAceiBooleans(stationSohDefinition.getStationName()),
+              stationSohDefinition,
+              stationSohTime,
+              channelSohCalculationUtility,
+              stationAggregateCalculationUtility,
+              timer
+          ))
+          .filter(Optional::isPresent)
+          .map(Optional::get)
+          .sequential();
+    } else {
+      stationSohFlux = buildPipelinedStationSohFlux(
+          indexedExtracts,
+          stationSohDefinitions,
+          stationSohTime,
+          channelSohCalculationUtility,
+          stationAggregateCalculationUtility,
+          timer
+      );
+    }
+
+    return stationSohFlux
+        //
+        // Log timing to verify that incoming data is being processed within required timeframe
+        //
+        .doOnNext(stationSoh -> {
+          if (TIMING_LEVEL_ENABLED &&
+              earliestReceptionMap.containsKey(stationSoh.getStationName())) {
+
+            logger.log(TIMING_LEVEL,
+                String.format("Timing Point A: SOH object <%s> earliest RSDF <%s>",
+                    stationSoh.getId(),
+                    earliestReceptionMap.get(stationSoh.getStationName())));
+          }
+        })
+        .doOnComplete(timer::publish)
+        .subscribeOn(SohSchedulers.sohComputation());
+  }
+
+  /**
+   * Build the StationSoh Flux with the channel SOH and station aggregates for each station
+   * computed as separate reactive tasks, which are zipped together and rolled up.
+   */
+  private static Flux<StationSoh> buildPipelinedStationSohFlux(
+      IndexedStationSohExtracts indexedExtracts,
+      Set<StationSohDefinition> stationSohDefinitions,
+      Instant stationSohTime,
+      ChannelSohCalculationUtility channelSohCalculationUtility,
+      StationAggregateCalculationUtility stationAggregateCalculationUtility,
+      StationSohComputationTimer timer
+  ) {
 
     return Flux.concat(Flux.fromIterable(stationSohDefinitions)
         .parallel()
-        .runOn(Schedulers.boundedElastic())
+        .runOn(SohSchedulers.sohComputation())
         .map(stationSohDefinition ->
         {
-          var aceisForStationMono = aceiStationMonoMap.map(
-              stationChannelMap -> Optional.ofNullable(
-                  stationChannelMap.get(stationSohDefinition.getStationName())
-              ).orElse(Map.of())
-          ).cache();
-
-          var channelSohsSetMono = channelSohCalculationUtility.buildChannelSohSetMono(
-              waveformSummaryAndReceptionTimeSetMono,
-              aceisForStationMono,
-              stationSohDefinition,
-              stationSohTime
-          ).subscribeOn(Schedulers.boundedElastic());
+          var waveformSummaryAndReceptionTimeSetMono = Mono.just(
+              indexedExtracts.getWaveformSummaryAndReceptionTimes(
+                  stationSohDefinition.getStationName())
+          );
 
-          var stationAggregateMono = stationAggregateCalculationUtility
-              .buildStationAggregateMono(waveformSummaryAndReceptionTimeSetMono,
+          var aceisForStationMono = Mono.just(
+              indexedExtracts.getAceiBooleans(stationSohDefinition.getStationName())
+          );
+
+          var channelSohsSetMono = timer.timeMono(
+              Stage.CHANNEL_METRICS,
+              () -> channelSohCalculationUtility.buildChannelSohSetMono(
+                  waveformSummaryAndReceptionTimeSetMono,
                   aceisForStationMono,
-                  stationSohDefinition).subscribeOn(Schedulers.boundedElastic());
+                  stationSohDefinition,
+                  stationSohTime
+              )
+          ).subscribeOn(SohSchedulers.sohComputation());
+
+          var stationAggregateMono = timer.timeMono(
+              Stage.STATION_AGGREGATES,
+              () -> stationAggregateCalculationUtility.buildStationAggregateMono(
+                  waveformSummaryAndReceptionTimeSetMono,
+                  aceisForStationMono,
+                  stationSohDefinition
+              )
+          ).subscribeOn(SohSchedulers.sohComputation());
 
           return Mono.zip(stationAggregateMono, channelSohsSetMono).map(
-              tuple -> {
-                Set<SohMonitorValueAndStatus<?>> sohMonitorValueAndStatusSet =
-                    getWorstStatusSet(
-                        tuple.getT2(),
-                        stationSohDefinition
-                    );
-
-                return ChannelSohCalculationUtility.rollup(
-                    sohMonitorValueAndStatusSet,
-                    stationSohDefinition.getSohMonitorTypesForRollup()).map(
-                    rollupStationSohMapClosure(
-                        stationSohDefinition,
-                        sohMonitorValueAndStatusSet,
-                        tuple.getT2(),
-                        tuple.getT1(),
-                        stationSohTime
-                    )
-                );
-              }).filter(Optional::isPresent)
-              .map(Optional::get)
-              //
-              // Log timing to verify that incoming data is being processed within required timeframe
-              //
-              .doOnNext(stationSoh -> {
-                if (TIMING_LEVEL_ENABLED &&
-                    earliestReceptionMap.containsKey(stationSoh.getStationName())) {
-
-                  logger.log(TIMING_LEVEL,
-                      String.format("Timing Point A: SOH object <%s> earliest RSDF <%s>",
-                          stationSoh.getId(),
-                          earliestReceptionMap.get(stationSoh.getStationName())));
-                }
-              })
-              ;
-        })).subscribeOn(Schedulers.boundedElastic());
+              tuple -> timer.time(
+                  Stage.ROLLUP,
+                  () -> rollupStationSoh(
+                      stationSohDefinition,
+                      tuple.getT2(),
+                      tuple.getT1(),
+                      stationSohTime
+                  )
+              )).filter(Optional::isPresent)
+              .map(Optional::get);
+        }));
+  }
+
+  /**
+   * Compute the StationSoh for a single station synchronously, on the calling thread, as a single
+   * fused task.
+   *
+   * @return the StationSoh, or empty if it could not be computed.
+   */
+  private static Optional<StationSoh> computeStationSohFused(
+      Map<String, Set<WaveformSummaryAndReceptionTime>> waveformSummaryAndReceptionTimeMap,
+      Map<String, Set<AcquiredChannelEnvironmentIssueBoolean>> aceisForStation,
+      StationSohDefinition stationSohDefinition,
+      Instant stationSohTime,
+      ChannelSohCalculationUtility channelSohCalculationUtility,
+      StationAggregateCalculationUtility stationAggregateCalculationUtility,
+      StationSohComputationTimer timer
+  ) {
+
+    try {
+      var channelSohs = timer.time(
+          Stage.CHANNEL_METRICS,
+          () -> channelSohCalculationUtility.buildChannelSohSet(
+              waveformSummaryAndReceptionTimeMap,
+              aceisForStation,
+              stationSohDefinition,
+              stationSohTime
+          )
+      );
+
+      var stationAggregates = timer.time(
+          Stage.STATION_AGGREGATES,
+          () -> stationAggregateCalculationUtility.buildStationAggregateSet(
+              waveformSummaryAndReceptionTimeMap,
+              aceisForStation,
+              stationSohDefinition
+          )
+      );
+
+      return timer.time(
+          Stage.ROLLUP,
+          () -> rollupStationSoh(
+              stationSohDefinition,
+              channelSohs,
+              stationAggregates,
+              stationSohTime
+          )
+      );
+    } catch (RuntimeException e) {
+      // Remember to NEVER throw exceptions because of bad data. Log it, filter it, but
+      // don't throw an exception.
+      logger.error("Error computing StationSoh for station "
+          + stationSohDefinition.getStationName(), e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Roll up the ChannelSohs of a station into its StationSoh.
+   *
+   * @return the StationSoh, or empty if no monitor type could be included in the rollup.
+   */
+  private static Optional<StationSoh> rollupStationSoh(
+      StationSohDefinition stationSohDefinition,
+      Set<ChannelSoh> channelSohs,
+      Set<StationAggregate<?>> stationAggregates,
+      Instant stationSohTime
+  ) {
+
+    Set<SohMonitorValueAndStatus<?>> sohMonitorValueAndStatusSet =
+        getWorstStatusSet(
+            channelSohs,
+            stationSohDefinition
+        );
+
+    return ChannelSohCalculationUtility.rollup(
+        sohMonitorValueAndStatusSet,
+        stationSohDefinition.getSohMonitorTypesForRollup()).map(
+        rollupStationSohMapClosure(
+            stationSohDefinition,
+            sohMonitorValueAndStatusSet,
+            channelSohs,
+            stationAggregates,
+            stationSohTime
+        )
+    );
   }
 
   /*
@@ -252,52 +447,6 @@ public final class StationSohCalculationUtility {
         );
   }
 
-  /**
-   * From A collection of AcquiredStationSohExtracts, create a Map of station -> Map of channel to
-   * set of ACEIs.
-   *
-   * @param acquiredStationSohExtractSet The set to trans form
-   * @return Map of a map: station -> channel -> set of ACEIs for the channel
-   */
-  static Map<String, Map<String, Set<AcquiredChannelEnvironmentIssueBoolean>>> createAceiBooleanStationChannelMap(
-      Collection<AcquiredStationSohExtract> acquiredStationSohExtractSet
-  ) {
-
-    var acquiredChannelEnvironmentIssueBooleanStream = acquiredStationSohExtractSet.stream()
-        .flatMap(acquiredStationSohExtract -> acquiredStationSohExtract
-            .getAcquiredChannelEnvironmentIssues().stream())
-        .filter(acquiredChannelEnvironmentIssue ->
-            acquiredChannelEnvironmentIssue instanceof AcquiredChannelEnvironmentIssueBoolean)
-        .map(acquiredChannelEnvironmentIssue ->
-            (AcquiredChannelEnvironmentIssueBoolean) acquiredChannelEnvironmentIssue);
-
-    var stationMap = acquiredChannelEnvironmentIssueBooleanStream
-        .collect(Collectors.groupingBy(
-            acquiredChannelEnvironmentIssueBoolean -> {
-              var channelName = acquiredChannelEnvironmentIssueBoolean.getChannelName();
-
-              return channelName.substring(
-                  0, channelName.indexOf(".")
-              );
-            }
-        ));
-
-    return stationMap.entrySet().stream()
-        .map(entry -> {
-              var channelMap = entry.getValue().stream()
-                  .collect(Collectors.groupingBy(
-                      AcquiredChannelEnvironmentIssue::getChannelName,
-                      Collectors.toSet()
-                  ));
-
-              return Map.entry(
-                  entry.getKey(),
-                  channelMap
-              );
-            }
-        ).collect(Collectors.toMap(Entry::getKey, Entry::getValue));
-  }
-
   /**
    * Returns a closure that transforms an SohMonitorAndStatusRollup into a StationSoh, using the given definition, set
    * of StationSohMonitorAndValueStatuses, set of ChannelSohs, and receive time.
@@ -427,6 +576,8 @@ public final class StationSohCalculationUtility {
    *
    * @return Mono of Map channel name to WaveformSummaryAndReceptionTime
    */
+  // The extracts are now indexed by station and channel as they are received, so this is only
+  // used in tests.
   static Map<String, Set<WaveformSummaryAndReceptionTime>> createWsRtMapAndPopulateSampleTimes(
       Set<AcquiredStationSohExtract> acquiredStationSohExtractSet,
       AcquiredSampleTimesByChannel acquiredSampleTimesByChannel
@@ -0,0 +1,294 @@
+package gms.core.performancemonitoring.soh.control;
+
+import gms.shared.frameworks.osd.coi.soh.ChannelSoh;
+import gms.shared.frameworks.osd.coi.soh.SohMonitorValueAndStatus;
+import gms.shared.frameworks.osd.coi.soh.StationAggregate;
+import gms.shared.frameworks.osd.coi.soh.StationSoh;
+import gms.shared.metrics.CustomMetric;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.commons.lang3.Validate;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Detects StationSoh objects that have not changed since the StationSoh that was last published
+ * for the same station, so that unchanged stations are only published at a heartbeat rate.
+ * <p>
+ * Each station is reduced to a fingerprint of its rollup status, and of the status and value of
+ * every station-level and channel-level monitor and station aggregate. Percent values are compared
+ * to a configurable number of decimal places, and durations to a configurable precision, so that
+ * insignificant jitter does not count as a change.
+ * <p>
+ * When a station is unchanged, {@link #deduplicate(StationSoh, Duration)} returns the previously
+ * published StationSoh in place of the new one. Capability rollups computed downstream then refer
+ * to a StationSoh that consumers have already received, and the repeated StationSoh can be
+ * recognized, and left unpublished, because its time is not the time of the current calculation.
+ */
+class StationSohChangeDetector {
+
+  private static final Logger logger = LogManager.getLogger(StationSohChangeDetector.class);
+
+  private static final Duration REPORTING_PERIOD = Duration.ofHours(1);
+
+  private static final CustomMetric<Long, Long> stationSohSuppressedCount =
+      CustomMetric.create(CustomMetric::incrementer,
+          "stationSohControlUnchangedStationSohSuppressed_hits:type=Counter", 0L);
+
+  private static final CustomMetric<Long, Long> stationSohBytesSavedPerHour =
+      CustomMetric.create(CustomMetric::updateTimingData,
+          "stationSohControlStationSohBytesSavedPerHour:type=Value", 0L);
+
+  /**
+   * The last StationSoh published for a station, along with its fingerprint and serialized size.
+   */
+  private static class PublishedStationSoh {
+
+    final long fingerprint;
+
+    final StationSoh stationSoh;
+
+    volatile int serializedSize;
+
+    PublishedStationSoh(long fingerprint, StationSoh stationSoh) {
+      this.fingerprint = fingerprint;
+      this.stationSoh = stationSoh;
+    }
+  }
+
+  private final boolean enabled;
+
+  private final Duration heartbeatPeriod;
+
+  private final double percentScale;
+
+  private final Duration durationPrecision;
+
+  private final Map<String, PublishedStationSoh> lastPublishedByStation =
+      new ConcurrentHashMap<>();
+
+  private final LongAdder suppressedCount = new LongAdder();
+
+  private final LongAdder bytesSaved = new LongAdder();
+
+  private Instant reportingPeriodStart;
+
+  private StationSohChangeDetector(
+      boolean enabled,
+      Duration heartbeatPeriod,
+      int percentDecimalPlaces,
+      Duration durationPrecision) {
+
+    this.enabled = enabled;
+    this.heartbeatPeriod = heartbeatPeriod;
+    this.percentScale = Math.pow(10, percentDecimalPlaces);
+    this.durationPrecision = durationPrecision;
+  }
+
+  /**
+   * Create a StationSohChangeDetector that detects unchanged stations.
+   *
+   * @param heartbeatPeriod how often an unchanged station is published anyway. Must be positive.
+   * @param percentDecimalPlaces number of decimal places to which percent values are compared.
+   * Must not be negative.
+   * @param durationPrecision precision to which duration values are compared. Must be positive.
+   */
+  static StationSohChangeDetector create(
+      Duration heartbeatPeriod,
+      int percentDecimalPlaces,
+      Duration durationPrecision) {
+
+    Objects.requireNonNull(heartbeatPeriod, "Null heartbeatPeriod");
+    Objects.requireNonNull(durationPrecision, "Null durationPrecision");
+    Validate.isTrue(!heartbeatPeriod.isNegative() && !heartbeatPeriod.isZero(),
+        "heartbeatPeriod must be positive");
+    Validate.isTrue(percentDecimalPlaces >= 0,
+        "percentDecimalPlaces must not be negative");
+    Validate.isTrue(!durationPrecision.isNegative() && !durationPrecision.isZero(),
+        "durationPrecision must be positive");
+
+    return new StationSohChangeDetector(
+        true, heartbeatPeriod, percentDecimalPlaces, durationPrecision);
+  }
+
+  /**
+   * @return a StationSohChangeDetector that treats every StationSoh as changed.
+   */
+  static StationSohChangeDetector disabled() {
+    return new StationSohChangeDetector(false, Duration.ZERO, 0, Duration.ofNanos(1));
+  }
+
+  boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Compare a newly calculated StationSoh with the last one published for the station.
+   *
+   * @param stationSoh newly calculated StationSoh
+   * @param maximumHeartbeatPeriod upper bound on the heartbeat period; a repeated StationSoh must
+   * not be older than this. Used to keep repeats within the capability rollup time tolerance.
+   * May be null, in which case only the configured heartbeat period applies.
+   * @return the previously published StationSoh if the station is unchanged and its heartbeat is
+   * not yet due, otherwise the given StationSoh, which becomes the last published StationSoh.
+   */
+  StationSoh deduplicate(StationSoh stationSoh, Duration maximumHeartbeatPeriod) {
+
+    if (!enabled) {
+      return stationSoh;
+    }
+
+    long fingerprint = fingerprint(stationSoh);
+
+    Duration effectiveHeartbeatPeriod = maximumHeartbeatPeriod == null
+        || heartbeatPeriod.compareTo(maximumHeartbeatPeriod) <= 0 ?
+        heartbeatPeriod : maximumHeartbeatPeriod;
+
+    PublishedStationSoh published = lastPublishedByStation.compute(
+        stationSoh.getStationName(),
+        (stationName, previous) -> {
+          if (previous != null
+              && previous.fingerprint == fingerprint
+              && Duration.between(previous.stationSoh.getTime(), stationSoh.getTime())
+              .compareTo(effectiveHeartbeatPeriod) < 0) {
+            return previous;
+          }
+          return new PublishedStationSoh(fingerprint, stationSoh);
+        }
+    );
+
+    if (published.stationSoh != stationSoh) {
+      suppressedCount.increment();
+      bytesSaved.add(published.serializedSize);
+      stationSohSuppressedCount.updateMetric(1L);
+    }
+
+    return published.stationSoh;
+  }
+
+  /**
+   * Record the serialized size of a published StationSoh, which is counted as bytes saved each
+   * time the StationSoh is repeated instead of publishing an unchanged one.
+   */
+  void recordPublishedSize(StationSoh stationSoh, int serializedSize) {
+
+    if (!enabled) {
+      return;
+    }
+
+    var published = lastPublishedByStation.get(stationSoh.getStationName());
+    if (published != null && published.stationSoh == stationSoh) {
+      published.serializedSize = serializedSize;
+    }
+  }
+
+  /**
+   * Report the bytes saved by not publishing unchanged StationSohs, once per hour.
+   *
+   * @param now current time
+   */
+  synchronized void reportIfDue(Instant now) {
+
+    if (!enabled) {
+      return;
+    }
+
+    if (reportingPeriodStart == null) {
+      reportingPeriodStart = now;
+      return;
+    }
+
+    if (Duration.between(reportingPeriodStart, now).compareTo(REPORTING_PERIOD) >= 0) {
+
+      long savedBytes = bytesSaved.sumThenReset();
+      long suppressed = suppressedCount.sumThenReset();
+
+      stationSohBytesSavedPerHour.updateMetric(savedBytes);
+
+      logger.info(
+          "StationSoh change detection: {} unchanged StationSoh not published, {} bytes saved "
+              + "since {}",
+          suppressed, savedBytes, reportingPeriodStart);
+
+      reportingPeriodStart = now;
+    }
+  }
+
+  /**
+   * Compute a fingerprint of everything in a StationSoh except its id and time.
+   */
+  long fingerprint(StationSoh stationSoh) {
+
+    long hash = mix(stationSoh.getStationName().hashCode());
+    hash = combine(hash, stationSoh.getSohStatusRollup().ordinal());
+    hash = combine(hash, fingerprintValueAndStatuses(stationSoh.getSohMonitorValueAndStatuses()));
+
+    long channelHash = 0;
+    for (ChannelSoh channelSoh : stationSoh.getChannelSohs()) {
+      long h = mix(channelSoh.getChannelName().hashCode());
+      h = combine(h, channelSoh.getSohStatusRollup().ordinal());
+      h = combine(h, fingerprintValueAndStatuses(channelSoh.getAllSohMonitorValueAndStatuses()));
+      // Sum, so that the order of the set does not matter.
+      channelHash += mix(h);
+    }
+    hash = combine(hash, channelHash);
+
+    long aggregateHash = 0;
+    for (StationAggregate<?> stationAggregate : stationSoh.getAllStationAggregates()) {
+      long h = mix(stationAggregate.getAggregateType().ordinal());
+      h = combine(h, fingerprintValue(stationAggregate.getValue()));
+      aggregateHash += mix(h);
+    }
+
+    return combine(hash, aggregateHash);
+  }
+
+  private long fingerprintValueAndStatuses(
+      Collection<SohMonitorValueAndStatus<?>> sohMonitorValueAndStatuses) {
+
+    long hash = 0;
+    for (SohMonitorValueAndStatus<?> sohMonitorValueAndStatus : sohMonitorValueAndStatuses) {
+      long h = mix(sohMonitorValueAndStatus.getMonitorType().ordinal());
+      h = combine(h, sohMonitorValueAndStatus.getStatus().ordinal());
+      h = combine(h, fingerprintValue(sohMonitorValueAndStatus.getValue()));
+      hash += mix(h);
+    }
+    return hash;
+  }
+
+  private long fingerprintValue(Optional<?> value) {
+
+    if (value.isEmpty()) {
+      return -1L;
+    }
+
+    Object v = value.get();
+
+    if (v instanceof Double) {
+      return Math.round((Double) v * percentScale);
+    } else if (v instanceof Duration) {
+      return ((Duration) v).dividedBy(durationPrecision);
+    } else {
+      return v.hashCode();
+    }
+  }
+
+  private static long combine(long hash, long value) {
+    return mix(hash * 31 + value);
+  }
+
+  /**
+   * SplitMix64 finalizer, to spread the bits of the values being combined.
+   */
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+}
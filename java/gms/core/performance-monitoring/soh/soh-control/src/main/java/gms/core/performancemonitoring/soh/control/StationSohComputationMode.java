@@ -0,0 +1,20 @@
+package gms.core.performancemonitoring.soh.control;
+
+/**
+ * How the StationSoh for a single station is computed.
+ */
+public enum StationSohComputationMode {
+
+  /**
+   * Channel SOH and station aggregates for a station are computed as separate reactive tasks that
+   * are zipped together, with each monitor type computed by its own subscribed processor.
+   */
+  PIPELINED,
+
+  /**
+   * The entire StationSoh computation for a station (channel SOH, station aggregates and rollup)
+   * runs synchronously as a single task on the SOH computation scheduler.
+   */
+  FUSED
+
+}
@@ -0,0 +1,116 @@
+package gms.core.performancemonitoring.soh.control;
+
+import gms.shared.metrics.CustomMetric;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import reactor.core.publisher.Mono;
+
+/**
+ * Accumulates the time spent in each stage of a single StationSoh computation tick, across all
+ * stations, and publishes the totals as metrics when the tick completes.
+ */
+class StationSohComputationTimer {
+
+  /**
+   * The stages of StationSoh computation that are timed.
+   */
+  enum Stage {
+    GROUPING,
+    CHANNEL_METRICS,
+    STATION_AGGREGATES,
+    ROLLUP
+  }
+
+  // We must use apache log4j to have custom log levels
+  private static final Logger logger = LogManager.getLogger(StationSohComputationTimer.class);
+
+  private static final Level SOH_TIMING = Level.getLevel("SOH_TIMING");
+
+  private static final Map<Stage, CustomMetric<Long, Long>> stageDurationMetrics =
+      new EnumMap<>(Map.of(
+          Stage.GROUPING, CustomMetric.create(CustomMetric::updateTimingData,
+              "stationSohControlGrouping_duration:type=Value", 0L),
+          Stage.CHANNEL_METRICS, CustomMetric.create(CustomMetric::updateTimingData,
+              "stationSohControlChannelMetrics_duration:type=Value", 0L),
+          Stage.STATION_AGGREGATES, CustomMetric.create(CustomMetric::updateTimingData,
+              "stationSohControlStationAggregates_duration:type=Value", 0L),
+          Stage.ROLLUP, CustomMetric.create(CustomMetric::updateTimingData,
+              "stationSohControlRollup_duration:type=Value", 0L)
+      ));
+
+  private static final CustomMetric<Long, Long> stationSohComputationDuration =
+      CustomMetric.create(CustomMetric::updateTimingData,
+          "stationSohControlStationSohComputation_duration:type=Value", 0L);
+
+  private final Map<Stage, LongAdder> stageNanos = new EnumMap<>(Stage.class);
+
+  private final long startNanos = System.nanoTime();
+
+  StationSohComputationTimer() {
+    for (Stage stage : Stage.values()) {
+      stageNanos.put(stage, new LongAdder());
+    }
+  }
+
+  /**
+   * Run the given supplier, adding its execution time to the given stage.
+   */
+  <T> T time(Stage stage, Supplier<T> supplier) {
+    long start = System.nanoTime();
+    try {
+      return supplier.get();
+    } finally {
+      record(stage, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Defer creation of the Mono returned by the given supplier until subscription, adding the time
+   * from subscription until the Mono emits to the given stage.
+   */
+  <T> Mono<T> timeMono(Stage stage, Supplier<Mono<T>> monoSupplier) {
+    return Mono.defer(() -> {
+      long start = System.nanoTime();
+      return monoSupplier.get()
+          .doOnSuccess(result -> record(stage, System.nanoTime() - start));
+    });
+  }
+
+  void record(Stage stage, long elapsedNanos) {
+    stageNanos.get(stage).add(elapsedNanos);
+  }
+
+  /**
+   * @return the total milliseconds recorded for the given stage so far.
+   */
+  long getStageMillis(Stage stage) {
+    return TimeUnit.NANOSECONDS.toMillis(stageNanos.get(stage).sum());
+  }
+
+  /**
+   * Publish the stage totals, and the elapsed time since this timer was created, as metrics.
+   */
+  void publish() {
+
+    long totalMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+    stageDurationMetrics.forEach(
+        (stage, metric) -> metric.updateMetric(getStageMillis(stage)));
+    stationSohComputationDuration.updateMetric(totalMillis);
+
+    logger.log(SOH_TIMING,
+        "StationSoh computation took {} ms: grouping {} ms, channel metrics {} ms, "
+            + "station aggregates {} ms, rollup {} ms (stage times summed over stations)",
+        totalMillis,
+        getStageMillis(Stage.GROUPING),
+        getStageMillis(Stage.CHANNEL_METRICS),
+        getStageMillis(Stage.STATION_AGGREGATES),
+        getStageMillis(Stage.ROLLUP));
+  }
+}
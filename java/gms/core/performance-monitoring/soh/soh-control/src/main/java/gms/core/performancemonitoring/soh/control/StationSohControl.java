@@ -54,6 +54,15 @@ import static gms.core.performancemonitoring.soh.control.StationSohControlConsta
 import static gms.core.performancemonitoring.soh.control.StationSohControlConstants.MONITOR_LOGGING_DEFAULT_OUTPUT_PERIOD;
 import static gms.core.performancemonitoring.soh.control.StationSohControlConstants.MONITOR_LOGGING_FORMAT;
 import static gms.core.performancemonitoring.soh.control.StationSohControlConstants.MONITOR_LOGGING_PERIOD;
+import static gms.core.performancemonitoring.soh.control.StationSohControlConstants.STATION_SOH_CHANGE_DETECTION_DURATION_PRECISION;
+import static gms.core.performancemonitoring.soh.control.StationSohControlConstants.STATION_SOH_CHANGE_DETECTION_DURATION_PRECISION_DEFAULT;
+import static gms.core.performancemonitoring.soh.control.StationSohControlConstants.STATION_SOH_CHANGE_DETECTION_ENABLED;
+import static gms.core.performancemonitoring.soh.control.StationSohControlConstants.STATION_SOH_CHANGE_DETECTION_PERCENT_DECIMAL_PLACES;
+import static gms.core.performancemonitoring.soh.control.StationSohControlConstants.STATION_SOH_CHANGE_DETECTION_PERCENT_DECIMAL_PLACES_DEFAULT;
+import static gms.core.performancemonitoring.soh.control.StationSohControlConstants.STATION_SOH_COMPUTATION_MODE;
+import static gms.core.performancemonitoring.soh.control.StationSohControlConstants.STATION_SOH_COMPUTATION_MODE_DEFAULT;
+import static gms.core.performancemonitoring.soh.control.StationSohControlConstants.STATION_SOH_HEARTBEAT_PERIOD;
+import static gms.core.performancemonitoring.soh.control.StationSohControlConstants.STATION_SOH_HEARTBEAT_PERIOD_DEFAULT;
 import static gms.core.performancemonitoring.soh.control.StationSohControlConstants.STATION_SOH_OUTPUT_TOPIC;
 import static gms.core.performancemonitoring.soh.control.StationSohControlConstants.STATION_SOH_OUTPUT_TOPIC_DEFAULT;
 
@@ -104,6 +113,10 @@ public class StationSohControl implements StationSohControlInterface {
 
   private final Duration monitorLoggingPeriod;
 
+  private final StationSohComputationMode stationSohComputationMode;
+
+  private final StationSohChangeDetector stationSohChangeDetector;
+
   private SohExtractReceiver sohExtractReceiver;
 
   private Instant nextMonitorLoggingInstant;
@@ -141,13 +154,17 @@ public class StationSohControl implements StationSohControlInterface {
     this.sohRepository = sohRepository;
 
     this.sohExtractReceiver = sohExtractReceiver;
+
+    this.stationSohChangeDetector = getStationSohChangeDetector(systemConfig);
+
     this.kafkaSohExtractConsumerFactory = new KafkaSohExtractConsumerFactory(
         preconfiguredKafkaSender,
         getSystemConfig(systemConfig, STATION_SOH_OUTPUT_TOPIC,
             STATION_SOH_OUTPUT_TOPIC_DEFAULT),
         getSystemConfig(systemConfig,
             CAPABILITY_SOH_ROLLUP_OUTPUT_TOPIC, CAPABILITY_SOH_ROLLUP_OUTPUT_TOPIC_DEFAULT),
-        this::monitor
+        this::monitor,
+        stationSohChangeDetector::recordPublishedSize
     );
 
     this.acquiredSampleTimesByChannel = new AcquiredSampleTimesByChannel();
@@ -168,6 +185,8 @@ public class StationSohControl implements StationSohControlInterface {
     this.monitorLoggingPeriod = tentativMonitorLoggingPeriod != null ?
         tentativMonitorLoggingPeriod : MONITOR_LOGGING_DEFAULT_OUTPUT_PERIOD;
 
+    this.stationSohComputationMode = getStationSohComputationMode(systemConfig);
+
     logger.info("******** Log level is {} *********", logger.getLevel());
   }
 
@@ -192,13 +211,16 @@ public class StationSohControl implements StationSohControlInterface {
 
     this.systemConfig = systemConfig;
 
+    this.stationSohChangeDetector = getStationSohChangeDetector(systemConfig);
+
     this.kafkaSohExtractConsumerFactory = new KafkaSohExtractConsumerFactory(
         KafkaSender.create(SenderOptions.create(senderProperties())),
         getSystemConfig(systemConfig, STATION_SOH_OUTPUT_TOPIC,
             STATION_SOH_OUTPUT_TOPIC_DEFAULT),
         getSystemConfig(systemConfig,
             CAPABILITY_SOH_ROLLUP_OUTPUT_TOPIC, CAPABILITY_SOH_ROLLUP_OUTPUT_TOPIC_DEFAULT),
-        this::monitor
+        this::monitor,
+        stationSohChangeDetector::recordPublishedSize
     );
 
     this.acquiredSampleTimesByChannel = new AcquiredSampleTimesByChannel();
@@ -218,6 +240,8 @@ public class StationSohControl implements StationSohControlInterface {
 
     this.monitorLoggingPeriod = dur != null ? dur : MONITOR_LOGGING_DEFAULT_OUTPUT_PERIOD;
 
+    this.stationSohComputationMode = getStationSohComputationMode(systemConfig);
+
     logger.info("******** Log level is {} *********", logger.getLevel());
   }
 
@@ -471,6 +495,19 @@ public class StationSohControl implements StationSohControlInterface {
   public StationSohMonitoringResultsFluxPair monitor(
       Set<AcquiredStationSohExtract> acquiredStationSohExtracts) {
 
+    return monitor(IndexedStationSohExtracts.from(acquiredStationSohExtracts));
+  }
+
+  /**
+   * Version of monitor that takes AcquiredStationSohExtracts that have already been indexed by
+   * station and channel, as they are by the SohExtractReceiver, so that each station's waveform
+   * summaries and environment issues can be handed directly to the calculation.
+   */
+  StationSohMonitoringResultsFluxPair monitor(IndexedStationSohExtracts indexedExtracts) {
+
+    final Set<AcquiredStationSohExtract> acquiredStationSohExtracts =
+        indexedExtracts.getExtracts();
+
     if (logger.isDebugEnabled()) {
       logger.debug("monitor called with {} extracts", acquiredStationSohExtracts.size());
     }
@@ -513,14 +550,18 @@ public class StationSohControl implements StationSohControlInterface {
       // Use RollupFluxBuilder to build up our StationSoh Flux and CapabilitySohRollup Flux
       //
       RollupFluxBuilder rollupFluxBuilder = new RollupFluxBuilder(
-          acquiredStationSohExtracts,
+          indexedExtracts,
           stationSohDefinitions,
           configurationPairRef.get().getStationSohMonitoringDefinition()
               .getCapabilitySohRollupDefinitions(),
           rollupStationSohTimeTolerance,
-          acquiredSampleTimesByChannel
+          acquiredSampleTimesByChannel,
+          stationSohComputationMode,
+          stationSohChangeDetector
       );
 
+      stationSohChangeDetector.reportIfDue(Instant.now());
+
       long startMs = System.currentTimeMillis();
 
       AtomicInteger stationSohCount = new AtomicInteger(0);
@@ -608,6 +649,76 @@ public class StationSohControl implements StationSohControlInterface {
     return value;
   }
 
+  /**
+   * Get the StationSohComputationMode from the system config, returning the default mode if it
+   * is not defined or is not a valid mode.
+   */
+  private static StationSohComputationMode getStationSohComputationMode(
+      SystemConfig systemConfig) {
+
+    String modeStr = getSystemConfig(systemConfig, STATION_SOH_COMPUTATION_MODE,
+        STATION_SOH_COMPUTATION_MODE_DEFAULT.name());
+
+    StationSohComputationMode mode = STATION_SOH_COMPUTATION_MODE_DEFAULT;
+    if (modeStr != null) {
+      try {
+        mode = StationSohComputationMode.valueOf(modeStr.trim().toUpperCase(Locale.ENGLISH));
+      } catch (IllegalArgumentException e) {
+        logger.error("Not a valid StationSoh computation mode: {}", modeStr);
+      }
+    }
+
+    logger.info("Computing StationSoh in {} mode", mode);
+    return mode;
+  }
+
+  /**
+   * Create the StationSohChangeDetector from the system config. Change detection is disabled
+   * unless it is enabled in the system config and all of its parameters are valid.
+   */
+  private static StationSohChangeDetector getStationSohChangeDetector(
+      SystemConfig systemConfig) {
+
+    String enabledStr = getSystemConfig(systemConfig, STATION_SOH_CHANGE_DETECTION_ENABLED,
+        Boolean.FALSE.toString());
+
+    if (!Boolean.parseBoolean(enabledStr == null ? null : enabledStr.trim())) {
+      return StationSohChangeDetector.disabled();
+    }
+
+    try {
+      String heartbeatPeriodStr = STATION_SOH_HEARTBEAT_PERIOD_DEFAULT.toString();
+      String percentDecimalPlacesStr =
+          String.valueOf(STATION_SOH_CHANGE_DETECTION_PERCENT_DECIMAL_PLACES_DEFAULT);
+      String durationPrecisionStr =
+          STATION_SOH_CHANGE_DETECTION_DURATION_PRECISION_DEFAULT.toString();
+
+      Duration heartbeatPeriod = Duration.parse(Objects.requireNonNullElse(
+          getSystemConfig(systemConfig, STATION_SOH_HEARTBEAT_PERIOD, heartbeatPeriodStr),
+          heartbeatPeriodStr).trim());
+      int percentDecimalPlaces = Integer.parseInt(Objects.requireNonNullElse(
+          getSystemConfig(systemConfig, STATION_SOH_CHANGE_DETECTION_PERCENT_DECIMAL_PLACES,
+              percentDecimalPlacesStr),
+          percentDecimalPlacesStr).trim());
+      Duration durationPrecision = Duration.parse(Objects.requireNonNullElse(
+          getSystemConfig(systemConfig, STATION_SOH_CHANGE_DETECTION_DURATION_PRECISION,
+              durationPrecisionStr),
+          durationPrecisionStr).trim());
+
+      logger.info("StationSoh change detection enabled: heartbeat period {}, percent values to "
+              + "{} decimal places, durations to {}",
+          heartbeatPeriod, percentDecimalPlaces, durationPrecision);
+
+      return StationSohChangeDetector.create(
+          heartbeatPeriod, percentDecimalPlaces, durationPrecision);
+
+    } catch (RuntimeException e) {
+      logger.error("Invalid StationSoh change detection configuration, change detection is "
+          + "disabled", e);
+      return StationSohChangeDetector.disabled();
+    }
+  }
+
   /**
    * Determine the time between now and the next minute and return the difference in seconds.
    *
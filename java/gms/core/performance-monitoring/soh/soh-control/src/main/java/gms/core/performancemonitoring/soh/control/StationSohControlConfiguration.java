@@ -6,6 +6,7 @@ import gms.core.performancemonitoring.soh.control.configuration.StationGroupName
 import gms.core.performancemonitoring.soh.control.configuration.StationSohDefinition;
 import gms.core.performancemonitoring.soh.control.configuration.StationSohMonitoringDefinition;
 import gms.core.performancemonitoring.soh.control.configuration.TimeWindowDefinition;
+import gms.shared.frameworks.configuration.Configuration;
 import gms.shared.frameworks.configuration.ConfigurationRepository;
 import gms.shared.frameworks.configuration.Selector;
 import gms.shared.frameworks.configuration.repository.client.ConfigurationConsumerUtility;
@@ -13,16 +14,22 @@ import gms.shared.frameworks.osd.api.OsdRepositoryInterface;
 import gms.shared.frameworks.osd.api.station.StationGroupRepositoryInterface;
 import gms.shared.frameworks.osd.coi.signaldetection.Station;
 import gms.shared.frameworks.osd.coi.signaldetection.StationGroup;
+import gms.shared.metrics.CustomMetric;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
@@ -54,6 +61,17 @@ public class StationSohControlConfiguration {
 
   private static final String NULL_CONFIGURATION_CONSUMER_UTILITY = "Null configurationConsumerUtility";
 
+  private static final String STATION_GROUP_NAMES_CONFIGURATION_NAME =
+      STATION_SOH_PREFIX + ".station-group-names";
+
+  private static final CustomMetric<Long, Long> fullResolutionTime =
+      CustomMetric.create(CustomMetric::updateTimingData,
+          "stationSohControlConfigurationFullResolutionTime:type=Value", 0L);
+
+  private static final CustomMetric<Long, Long> incrementalResolutionTime =
+      CustomMetric.create(CustomMetric::updateTimingData,
+          "stationSohControlConfigurationIncrementalResolutionTime:type=Value", 0L);
+
   private Flux<ConfigurationPair> configurationPairFlux;
 
   private ConfigurationPair initialConfigurationPair;
@@ -66,6 +84,21 @@ public class StationSohControlConfiguration {
 
   private final Collection<Station> stations;
 
+  private final Map<String, Station> stationsByName;
+
+  private final Map<String, String> stationNameByChannelName;
+
+  //
+  // State of the most recent resolution, which refreshes update incrementally. Only accessed
+  // while resolving, which happens once at construction and then serially on the refresh Flux.
+  //
+  private final Map<String, StationSohDefinition> stationSohDefinitionsByStationName =
+      new HashMap<>();
+
+  private final Map<String, Configuration> stationSohDefinitionConfigurations = new HashMap<>();
+
+  private ConfigurationPair currentConfigurationPair;
+
   private Disposable configurationPairFluxDisposable;
 
   private Duration refreshInterval;
@@ -168,6 +201,13 @@ public class StationSohControlConfiguration {
         .flatMap(staGroup -> staGroup.getStations().stream()).collect(
             Collectors.toSet());
 
+    this.stationsByName = stations.stream()
+        .collect(Collectors.toMap(Station::getName, Function.identity(), (a, b) -> a));
+
+    this.stationNameByChannelName = new HashMap<>();
+    stations.forEach(station -> station.getChannels().forEach(
+        channel -> stationNameByChannelName.put(channel.getName(), station.getName())));
+
     if (SOH_TIMING_ENABLED) {
       logger.log(
           SOH_TIMING,
@@ -317,21 +357,18 @@ public class StationSohControlConfiguration {
         ));
   }
 
+  /**
+   * Resolves the complete {@link ConfigurationPair}: the {@link StationSohDefinition}s of every
+   * station, and all {@link CapabilitySohRollupDefinition}s.
+   */
   private ConfigurationPair resolveConfigurationPair() {
 
-    // Start timing "CONFIG TIMING: Creating CapabilityRollupConfigurationUtility"
-    var startMs = System.currentTimeMillis();
-
-    if (SOH_TIMING_ENABLED) {
-      logger.log(
-          SOH_TIMING,
-          "CONFIG TIMING: Creating CapabilityRollupConfigurationUtility took {} ms",
-          System.currentTimeMillis() - startMs
-      );
-    }
+    var fullStartMs = System.currentTimeMillis();
 
     // Start timing "CONFIG TIMING: Resolving StationSohDefinitions"
-    startMs = System.currentTimeMillis();
+    var startMs = System.currentTimeMillis();
+
+    snapshotStationSohDefinitionConfigurations();
 
     Set<StationSohDefinition> stationSohDefinitions =
         StationSohControlUtility.resolveStationSohDefinitions(
@@ -339,6 +376,10 @@ public class StationSohControlConfiguration {
             stations
         );
 
+    stationSohDefinitionsByStationName.clear();
+    stationSohDefinitions.forEach(stationSohDefinition -> stationSohDefinitionsByStationName
+        .put(stationSohDefinition.getStationName(), stationSohDefinition));
+
     if (SOH_TIMING_ENABLED) {
       logger.log(
           SOH_TIMING,
@@ -348,12 +389,125 @@ public class StationSohControlConfiguration {
       );
     }
 
+    this.currentConfigurationPair = createConfigurationPair(
+        stationSohDefinitions,
+        resolveCapabilitySohRollupDefinitions()
+    );
+
+    var elapsedMs = System.currentTimeMillis() - fullStartMs;
+    fullResolutionTime.updateMetric(elapsedMs);
+    logger.info(
+        "CONFIG TIMING: Full resolution of configuration for {} stations took {} ms",
+        stationSohDefinitions.size(),
+        elapsedMs
+    );
+
+    return this.currentConfigurationPair;
+  }
+
+  /**
+   * Refreshes the configurations from the {@link ConfigurationRepository} and, if any changed,
+   * resolves a new {@link ConfigurationPair}.  Only the {@link StationSohDefinition}s of stations
+   * that the changed options can apply to are resolved again; the rest are carried over from the
+   * current ConfigurationPair.  Likewise, the {@link CapabilitySohRollupDefinition}s are only
+   * resolved again if one of the capability rollup configurations changed.
+   *
+   * @return the new ConfigurationPair, or empty if no configuration changed.
+   */
+  Optional<ConfigurationPair> refreshConfigurationPair() {
+
+    var startMs = System.currentTimeMillis();
+
+    Set<String> changedConfigurationNames = configurationConsumerUtility.refreshConfigurations();
+
+    if (changedConfigurationNames.isEmpty()) {
+      return Optional.empty();
+    }
+
+    if (changedConfigurationNames.contains(STATION_GROUP_NAMES_CONFIGURATION_NAME)) {
+      logger.warn(
+          "{} changed, but station groups are only resolved at startup. Restart to apply it.",
+          STATION_GROUP_NAMES_CONFIGURATION_NAME
+      );
+    }
+
+    var affectedStationNames = new HashSet<String>();
+
+    changedConfigurationNames.stream()
+        .filter(StationSohControlUtility.STATION_SOH_DEFINITION_CONFIGURATION_NAMES::contains)
+        .forEach(configurationName -> configurationConsumerUtility
+            .getConfiguration(configurationName)
+            .ifPresent(configuration -> affectedStationNames.addAll(
+                StationSohControlUtility.resolveAffectedStationNames(
+                    stationSohDefinitionConfigurations.get(configurationName),
+                    configuration,
+                    stationsByName.keySet(),
+                    stationNameByChannelName
+                )
+            )));
+
+    snapshotStationSohDefinitionConfigurations();
+
+    StationSohControlUtility.resolveStationSohDefinitions(
+        configurationConsumerUtility,
+        affectedStationNames.stream().map(stationsByName::get).collect(Collectors.toList())
+    ).forEach(stationSohDefinition -> stationSohDefinitionsByStationName
+        .put(stationSohDefinition.getStationName(), stationSohDefinition));
+
+    var capabilityConfigurationChanged = changedConfigurationNames.stream()
+        .anyMatch(configurationName ->
+            !StationSohControlUtility.STATION_SOH_DEFINITION_CONFIGURATION_NAMES
+                .contains(configurationName)
+                && !STATION_SOH_PREFIX.equals(configurationName)
+                && !STATION_GROUP_NAMES_CONFIGURATION_NAME.equals(configurationName));
+
+    this.currentConfigurationPair = createConfigurationPair(
+        Set.copyOf(stationSohDefinitionsByStationName.values()),
+        capabilityConfigurationChanged ?
+            resolveCapabilitySohRollupDefinitions() :
+            currentConfigurationPair.getStationSohMonitoringDefinition()
+                .getCapabilitySohRollupDefinitions()
+    );
+
+    var elapsedMs = System.currentTimeMillis() - startMs;
+    incrementalResolutionTime.updateMetric(elapsedMs);
+    logger.info(
+        "CONFIG TIMING: Incremental resolution after changes to {} took {} ms; resolved {} of {} "
+            + "StationSohDefinitions{}",
+        changedConfigurationNames,
+        elapsedMs,
+        affectedStationNames.size(),
+        stationSohDefinitionsByStationName.size(),
+        capabilityConfigurationChanged ? " and all CapabilityRollupDefinitions" : ""
+    );
+
+    return Optional.of(this.currentConfigurationPair);
+  }
+
+  /**
+   * Records the configurations that StationSohDefinitions are resolved against, as they are now,
+   * so that a later change can be compared with them.
+   */
+  private void snapshotStationSohDefinitionConfigurations() {
+
+    StationSohControlUtility.STATION_SOH_DEFINITION_CONFIGURATION_NAMES.forEach(
+        configurationName -> configurationConsumerUtility.getConfiguration(configurationName)
+            .ifPresentOrElse(
+                configuration ->
+                    stationSohDefinitionConfigurations.put(configurationName, configuration),
+                () -> stationSohDefinitionConfigurations.remove(configurationName)
+            )
+    );
+  }
+
+  private Set<CapabilitySohRollupDefinition> resolveCapabilitySohRollupDefinitions() {
+
     // Start timing "CONFIG TIMING: Resolving CapabilityRollupDefinitions"
-    startMs = System.currentTimeMillis();
+    var startMs = System.currentTimeMillis();
 
     Set<CapabilitySohRollupDefinition> capabilitySohRollupDefinitions =
         capabilityRollupConfigurationUtility.resolveCapabilitySohRollupDefinitions();
-    
+
     if (SOH_TIMING_ENABLED) {
       logger.log(
           SOH_TIMING,
@@ -363,6 +517,13 @@ public class StationSohControlConfiguration {
       );
     }
 
+    return capabilitySohRollupDefinitions;
+  }
+
+  private ConfigurationPair createConfigurationPair(
+      Set<StationSohDefinition> stationSohDefinitions,
+      Set<CapabilitySohRollupDefinition> capabilitySohRollupDefinitions) {
+
     var stationSohMonitoringDefinition = StationSohMonitoringDefinition.create(
         capabilityRollupConfigurationUtility.resolveRollupStationSohTimeTolerance(),
         stationGroups.stream().map(StationGroup::getName).collect(Collectors.toSet()),
@@ -371,7 +532,7 @@ public class StationSohControlConfiguration {
     );
 
     // Start timing "CONFIG TIMING: Calculating the cache expiration"
-    startMs = System.currentTimeMillis();
+    var startMs = System.currentTimeMillis();
 
     var cacheExpirationDuration = calculateCacheExpirationDuration(stationSohMonitoringDefinition);
 
@@ -400,8 +561,11 @@ public class StationSohControlConfiguration {
 
     return intervalOrOnce(refreshInterval)
         .map(
-            dummy -> resolveConfigurationPair()
-        ).doOnNext(
+            dummy -> refreshConfigurationPair()
+        )
+        .filter(Optional::isPresent)
+        .map(Optional::get)
+        .doOnNext(
             configurationPair -> {
               //
               // If the reprocessing period changed, we need to signal this.
@@ -458,13 +622,10 @@ public class StationSohControlConfiguration {
 
     Objects.requireNonNull(configurationConsumerUtility, NULL_CONFIGURATION_CONSUMER_UTILITY);
 
-    final String stationGroupNamesConfigurationName =
-        STATION_SOH_PREFIX + ".station-group-names";
-
     final List<Selector> selectors = new ArrayList<>();
 
     return configurationConsumerUtility.resolve(
-        stationGroupNamesConfigurationName,
+        STATION_GROUP_NAMES_CONFIGURATION_NAME,
         selectors,
         StationGroupNamesConfigurationOption.class
     );
@@ -20,6 +20,19 @@ final class StationSohControlConstants {
   static final String CAPABILITY_SOH_ROLLUP_OUTPUT_TOPIC = "capabilitySohRollupOutputTopic";
   static final String CAPABILITY_SOH_ROLLUP_OUTPUT_TOPIC_DEFAULT = "soh.capability-rollup";
   static final String MONITOR_LOGGING_PERIOD = "monitorLoggingPeriod";
+  static final String STATION_SOH_COMPUTATION_MODE = "stationSohComputationMode";
+  static final StationSohComputationMode STATION_SOH_COMPUTATION_MODE_DEFAULT =
+      StationSohComputationMode.PIPELINED;
+  static final String STATION_SOH_CHANGE_DETECTION_ENABLED = "stationSohChangeDetectionEnabled";
+  static final String STATION_SOH_HEARTBEAT_PERIOD = "stationSohHeartbeatPeriod";
+  static final Duration STATION_SOH_HEARTBEAT_PERIOD_DEFAULT = Duration.ofMinutes(1);
+  static final String STATION_SOH_CHANGE_DETECTION_PERCENT_DECIMAL_PLACES =
+      "stationSohChangeDetectionPercentDecimalPlaces";
+  static final int STATION_SOH_CHANGE_DETECTION_PERCENT_DECIMAL_PLACES_DEFAULT = 1;
+  static final String STATION_SOH_CHANGE_DETECTION_DURATION_PRECISION =
+      "stationSohChangeDetectionDurationPrecision";
+  static final Duration STATION_SOH_CHANGE_DETECTION_DURATION_PRECISION_DEFAULT =
+      Duration.ofSeconds(1);
 
   // How ofter to output logging stats in the monitor method. This might be made a
   // configurable parameter. But to start, use 10 minutes.
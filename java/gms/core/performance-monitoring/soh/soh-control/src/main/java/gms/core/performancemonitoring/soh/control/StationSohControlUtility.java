@@ -8,8 +8,12 @@ import gms.core.performancemonitoring.soh.control.configuration.SohMonitorStatus
 import gms.core.performancemonitoring.soh.control.configuration.SohMonitorTypesForRollupConfigurationOption;
 import gms.core.performancemonitoring.soh.control.configuration.StationSohDefinition;
 import gms.core.performancemonitoring.soh.control.configuration.TimeWindowDefinition;
+import gms.shared.frameworks.configuration.Configuration;
+import gms.shared.frameworks.configuration.ConfigurationOption;
 import gms.shared.frameworks.configuration.ConfigurationRepository;
+import gms.shared.frameworks.configuration.Constraint;
 import gms.shared.frameworks.configuration.Selector;
+import gms.shared.frameworks.configuration.constraints.StringConstraint;
 import gms.shared.frameworks.configuration.repository.client.ConfigurationConsumerUtility;
 import gms.shared.frameworks.osd.coi.channel.Channel;
 import gms.shared.frameworks.osd.coi.signaldetection.Station;
@@ -25,6 +29,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.Validate;
@@ -44,6 +49,18 @@ public class StationSohControlUtility {
 
   private static final String NULL_STATION_NAME = "Null stationName";
 
+  /**
+   * Names of the configurations that {@link #resolveStationSohDefinitions(ConfigurationConsumerUtility,
+   * Collection)} resolves against.
+   */
+  static final Set<String> STATION_SOH_DEFINITION_CONFIGURATION_NAMES = Set.of(
+      STATION_SOH_PREFIX + ".channels-by-monitor-type",
+      STATION_SOH_PREFIX + ".soh-monitor-thresholds",
+      STATION_SOH_PREFIX + ".soh-monitor-timewindows",
+      STATION_SOH_PREFIX + ".soh-monitor-types-for-rollup-channel",
+      STATION_SOH_PREFIX + ".soh-monitor-types-for-rollup-station"
+  );
+
   /* Hiding default public constructor */
   private StationSohControlUtility() {
   }
@@ -106,6 +123,98 @@ public class StationSohControlUtility {
     }).collect(Collectors.toSet());
   }
 
+  /**
+   * Determines which stations may resolve differently after a {@link Configuration} changed.  Only
+   * the options that were added, removed or modified are considered.  A changed option constrained
+   * to particular station names, or to particular channel names, only affects those stations; any
+   * other changed option (a default, a wildcard, or a negated constraint) may affect every
+   * station.
+   *
+   * @param previousConfiguration the Configuration before the change.  Null if it did not exist.
+   * @param currentConfiguration the Configuration after the change.  Not null.
+   * @param stationNames names of all of the stations being monitored.  Not null.
+   * @param stationNameByChannelName station name of each channel being monitored.  Not null.
+   * @return the subset of stationNames whose resolved configuration may have changed.
+   */
+  static Set<String> resolveAffectedStationNames(
+      Configuration previousConfiguration,
+      Configuration currentConfiguration,
+      Set<String> stationNames,
+      Map<String, String> stationNameByChannelName) {
+
+    Objects.requireNonNull(currentConfiguration, "Null currentConfiguration");
+    Objects.requireNonNull(stationNames, "Null stationNames");
+    Objects.requireNonNull(stationNameByChannelName, "Null stationNameByChannelName");
+
+    if (previousConfiguration == null) {
+      return stationNames;
+    }
+
+    var previousOptions = Set.copyOf(previousConfiguration.getConfigurationOptions());
+    var currentOptions = Set.copyOf(currentConfiguration.getConfigurationOptions());
+
+    var changedOptions = new HashSet<ConfigurationOption>();
+    previousOptions.stream().filter(option -> !currentOptions.contains(option))
+        .forEach(changedOptions::add);
+    currentOptions.stream().filter(option -> !previousOptions.contains(option))
+        .forEach(changedOptions::add);
+
+    var affectedStationNames = new HashSet<String>();
+
+    for (ConfigurationOption option : changedOptions) {
+
+      var constrainedStationNames = resolveConstrainedStationNames(
+          option, stationNameByChannelName);
+
+      if (constrainedStationNames.isEmpty()) {
+        return stationNames;
+      }
+
+      affectedStationNames.addAll(constrainedStationNames.get());
+    }
+
+    affectedStationNames.retainAll(stationNames);
+
+    return affectedStationNames;
+  }
+
+  /**
+   * @return the names of the only stations the provided {@link ConfigurationOption} can match, or
+   * empty if it is not constrained to particular stations or channels.
+   */
+  private static Optional<Set<String>> resolveConstrainedStationNames(
+      ConfigurationOption option,
+      Map<String, String> stationNameByChannelName) {
+
+    var stationNames = option.getConstraints().stream()
+        .filter(constraint -> STATION_NAME_SELECTOR_KEY.equals(constraint.getCriterion()))
+        .flatMap(constraint -> constrainedValues(constraint).stream())
+        .findFirst();
+
+    if (stationNames.isPresent()) {
+      return stationNames;
+    }
+
+    return option.getConstraints().stream()
+        .filter(constraint -> CHANNEL_NAME_SELECTOR_KEY.equals(constraint.getCriterion()))
+        .flatMap(constraint -> constrainedValues(constraint).stream())
+        .findFirst()
+        .map(channelNames -> channelNames.stream()
+            .map(stationNameByChannelName::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet()));
+  }
+
+  private static Optional<Set<String>> constrainedValues(Constraint<?, ?> constraint) {
+
+    if (constraint instanceof StringConstraint
+        && !constraint.getOperator().isNegated()) {
+      return Optional.of(((StringConstraint) constraint).getValue());
+    }
+
+    return Optional.empty();
+  }
+
   /**
    * Converts the provided {@link Object} to a {@link Set} of {@link String}s.  Intermediately
    * converts the Object into a {@link List} because the Object read in from config is an
@@ -0,0 +1,425 @@
+package gms.core.performancemonitoring.soh.control;
+
+import gms.core.performancemonitoring.soh.control.IndexedStationSohExtracts.StationEntries;
+import gms.shared.frameworks.osd.coi.channel.dataacquisitionstatus.AcquiredStationSohExtract;
+import gms.shared.frameworks.osd.coi.channel.soh.AcquiredChannelEnvironmentIssueBoolean;
+import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrameMetadata;
+import java.time.Instant;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Index of {@link AcquiredStationSohExtract}s, maintained as extracts are received, that groups
+ * the waveform summaries and boolean environment issues of the extracts by station and channel.
+ * Within a channel, entries are ordered by the latest payload end time of the extract they came
+ * from, so that expiring old extracts only touches the expired entries.
+ * <p>
+ * Snapshots are maintained incrementally: the immutable entries of a station are only rebuilt
+ * when the station's entries changed since the previous snapshot, and are otherwise shared with
+ * it.
+ * <p>
+ * This class is not thread-safe; callers must synchronize access to it.
+ */
+public class StationSohExtractIndex {
+
+  //
+  // Keys are the latest payload end time contained in the extract. It's a NavigableMap so
+  // when iterated over, the earliest payload end times come first. This makes it more efficient
+  // to prune out old extracts. Values are list of the extracts with those payload end times.
+  //
+  private final NavigableMap<Instant, List<AcquiredStationSohExtract>> extractsByPayloadEndTime =
+      new TreeMap<>();
+
+  // station name -> channel name -> extract payload end time -> entries
+  private final Map<String, Map<String, NavigableMap<Instant, List<WaveformSummaryAndReceptionTime>>>>
+      waveformSummaryAndReceptionTimesByStation = new HashMap<>();
+
+  // station name -> channel name -> extract payload end time -> entries
+  private final Map<String, Map<String, NavigableMap<Instant, List<AcquiredChannelEnvironmentIssueBoolean>>>>
+      aceiBooleansByStation = new HashMap<>();
+
+  // Immutable entries of each station as of the last snapshot, and the stations changed since
+  private final Map<String, StationEntries> stationEntriesSnapshot = new HashMap<>();
+  private final Set<String> changedStations = new HashSet<>();
+
+  // Immutable set of the extracts as of the last snapshot, and whether they changed since
+  private Set<AcquiredStationSohExtract> extractsSnapshot = Set.of();
+  private boolean extractsChanged;
+
+  /**
+   * Determine the latest payload end time of the RawStationDataFrameMetadata in an extract, which
+   * is the time used to order and expire the extract.
+   *
+   * @param extract the extract
+   * @return the latest payload end time, or empty if the extract has no acquisition metadata.
+   */
+  public static Optional<Instant> latestPayloadEndTime(AcquiredStationSohExtract extract) {
+    return extract.getAcquisitionMetadata().stream()
+        .map(RawStationDataFrameMetadata::getPayloadEndTime)
+        .max(Comparator.naturalOrder());
+  }
+
+  /**
+   * Add an extract to the index.
+   *
+   * @param payloadEndTime the latest payload end time of the extract, used to expire it.
+   * @param extract the extract to add.
+   */
+  public void add(Instant payloadEndTime, AcquiredStationSohExtract extract) {
+
+    extractsByPayloadEndTime.computeIfAbsent(payloadEndTime, key -> new ArrayList<>())
+        .add(extract);
+    extractsChanged = true;
+
+    forEachWaveformSummaryAndReceptionTime(extract, (channelName, waveformSummaryAndReceptionTime) ->
+        addEntry(waveformSummaryAndReceptionTimesByStation, channelName, payloadEndTime,
+            waveformSummaryAndReceptionTime)
+    );
+
+    forEachAceiBoolean(extract, (channelName, aceiBoolean) ->
+        addEntry(aceiBooleansByStation, channelName, payloadEndTime, aceiBoolean)
+    );
+  }
+
+  private <T> void addEntry(
+      Map<String, Map<String, NavigableMap<Instant, List<T>>>> index,
+      String channelName,
+      Instant payloadEndTime,
+      T entry) {
+
+    String stationName = stationNameOf(channelName);
+
+    index.computeIfAbsent(stationName, key -> new HashMap<>())
+        .computeIfAbsent(channelName, key -> new TreeMap<>())
+        .computeIfAbsent(payloadEndTime, key -> new ArrayList<>())
+        .add(entry);
+
+    changedStations.add(stationName);
+  }
+
+  /**
+   * Remove all extracts whose latest payload end time is not after the given limit, along with
+   * their entries in the station and channel index.
+   *
+   * @param payloadEndTimeLimit the time before which we want no extracts
+   * @return the removed extracts, one list per payload end time, earliest first.
+   */
+  public List<List<AcquiredStationSohExtract>> expire(Instant payloadEndTimeLimit) {
+
+    List<List<AcquiredStationSohExtract>> expired = new ArrayList<>();
+
+    // Use an iterator to remove extracts with too old payloadEndTimes. Since it's a
+    // NavigableMap, they are in sorted order.
+    Iterator<Map.Entry<Instant, List<AcquiredStationSohExtract>>> it =
+        extractsByPayloadEndTime.entrySet().iterator();
+
+    while (it.hasNext()) {
+      Map.Entry<Instant, List<AcquiredStationSohExtract>> entry = it.next();
+      Instant payloadEndTime = entry.getKey();
+
+      if (payloadEndTime.isAfter(payloadEndTimeLimit)) {
+        // All the rest will be good, so break.
+        break;
+      }
+
+      entry.getValue().forEach(extract -> {
+        forEachWaveformSummaryAndReceptionTime(extract, (channelName, ignored) ->
+            removeEntries(waveformSummaryAndReceptionTimesByStation, channelName, payloadEndTime));
+        forEachAceiBoolean(extract, (channelName, ignored) ->
+            removeEntries(aceiBooleansByStation, channelName, payloadEndTime));
+      });
+
+      expired.add(entry.getValue());
+      extractsChanged = true;
+
+      // Remove it using the iterator in order not to get a ConcurrentModificationException.
+      it.remove();
+    }
+
+    return expired;
+  }
+
+  /**
+   * @return the set of all extracts currently in the index.
+   */
+  public Set<AcquiredStationSohExtract> getExtracts() {
+    return extractsByPayloadEndTime.values()
+        .stream()
+        .flatMap(List::stream)
+        .collect(Collectors.toSet());
+  }
+
+  /**
+   * Call the consumer with each extract in the index, and the payload end time it was added with.
+   */
+  void forEachExtract(BiConsumer<Instant, AcquiredStationSohExtract> consumer) {
+    extractsByPayloadEndTime.forEach((payloadEndTime, extracts) ->
+        extracts.forEach(extract -> consumer.accept(payloadEndTime, extract)));
+  }
+
+  /**
+   * Take a snapshot of the index, with the entries for each station already grouped by channel, so
+   * that it can be used for calculation while the index continues to be updated. Only the entries
+   * of stations that changed since the previous snapshot are copied.
+   *
+   * @return the snapshot
+   */
+  public IndexedStationSohExtracts snapshot() {
+    refreshSnapshot();
+    return new IndexedStationSohExtracts(extractsSnapshot, Map.copyOf(stationEntriesSnapshot));
+  }
+
+  /**
+   * Take a single snapshot of several indexes, as if all of their extracts were in one index. An
+   * extract must not be in more than one of the indexes.
+   * <p>
+   * The entries of a station held by more than one index are merged. Merged entries are kept in
+   * the given cache, and reused as long as the station did not change in any of the indexes.
+   *
+   * @param indexes the indexes to snapshot
+   * @param mergedEntriesCache merged entries from previous snapshots of the same indexes, by
+   * station name. Updated with the merged entries of this snapshot.
+   * @return the snapshot
+   */
+  static IndexedStationSohExtracts snapshot(
+      Collection<StationSohExtractIndex> indexes,
+      Map<String, MergedStationEntries> mergedEntriesCache) {
+
+    Map<String, List<StationEntries>> partsByStation = new HashMap<>();
+    List<Set<AcquiredStationSohExtract>> extractSets = new ArrayList<>();
+
+    indexes.forEach(index -> {
+      index.refreshSnapshot();
+      extractSets.add(index.extractsSnapshot);
+      index.stationEntriesSnapshot.forEach((stationName, stationEntries) ->
+          partsByStation.computeIfAbsent(stationName, key -> new ArrayList<>())
+              .add(stationEntries));
+    });
+
+    mergedEntriesCache.keySet().retainAll(partsByStation.keySet());
+
+    Map<String, StationEntries> entriesByStation = new HashMap<>();
+
+    partsByStation.forEach((stationName, parts) -> {
+      if (parts.size() == 1) {
+        mergedEntriesCache.remove(stationName);
+        entriesByStation.put(stationName, parts.get(0));
+        return;
+      }
+
+      MergedStationEntries merged = mergedEntriesCache.get(stationName);
+      if (merged == null || !merged.isMergeOf(parts)) {
+        merged = new MergedStationEntries(parts, StationEntries.merge(parts));
+        mergedEntriesCache.put(stationName, merged);
+      }
+      entriesByStation.put(stationName, merged.entries);
+    });
+
+    return new IndexedStationSohExtracts(
+        extractSets.size() == 1 ? extractSets.get(0) : new DisjointUnionSet<>(extractSets),
+        entriesByStation
+    );
+  }
+
+  /**
+   * Rebuild the immutable extract set if any extracts were added or expired, and the immutable
+   * entries of each station whose entries changed, since the last snapshot.
+   */
+  private void refreshSnapshot() {
+
+    if (extractsChanged) {
+      extractsSnapshot = extractsByPayloadEndTime.values().stream()
+          .flatMap(List::stream)
+          .collect(Collectors.toUnmodifiableSet());
+      extractsChanged = false;
+    }
+
+    changedStations.forEach(stationName -> {
+      StationEntries stationEntries = StationEntries.create(
+          flatten(waveformSummaryAndReceptionTimesByStation.getOrDefault(stationName, Map.of())),
+          flatten(aceiBooleansByStation.getOrDefault(stationName, Map.of())));
+
+      if (stationEntries.isEmpty()) {
+        stationEntriesSnapshot.remove(stationName);
+      } else {
+        stationEntriesSnapshot.put(stationName, stationEntries);
+      }
+    });
+
+    changedStations.clear();
+  }
+
+  private static <T> Map<String, Set<T>> flatten(
+      Map<String, NavigableMap<Instant, List<T>>> channelMap) {
+
+    Map<String, Set<T>> flattened = new HashMap<>();
+
+    channelMap.forEach((channelName, entriesByTime) -> {
+      Set<T> entries = flattened.computeIfAbsent(channelName, key -> new HashSet<>());
+      entriesByTime.values().forEach(entries::addAll);
+    });
+
+    return flattened;
+  }
+
+  /**
+   * The entries of a station merged from several indexes, along with the per-index entries they
+   * were merged from.
+   */
+  static final class MergedStationEntries {
+
+    private final List<StationEntries> parts;
+
+    private final StationEntries entries;
+
+    private MergedStationEntries(List<StationEntries> parts, StationEntries entries) {
+      this.parts = parts;
+      this.entries = entries;
+    }
+
+    /**
+     * Per-index entries are replaced whenever they change, so comparing them by identity tells
+     * whether the station changed in any of the indexes.
+     */
+    private boolean isMergeOf(List<StationEntries> otherParts) {
+      if (parts.size() != otherParts.size()) {
+        return false;
+      }
+      for (int i = 0; i < parts.size(); i++) {
+        if (parts.get(i) != otherParts.get(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Read-only view of the union of several sets that have no elements in common, so that the
+   * extracts of several indexes can be snapshotted without copying them.
+   */
+  private static final class DisjointUnionSet<T> extends AbstractSet<T> {
+
+    private final List<Set<T>> sets;
+
+    private DisjointUnionSet(List<Set<T>> sets) {
+      this.sets = sets;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+      return sets.stream().flatMap(Set::stream).iterator();
+    }
+
+    @Override
+    public int size() {
+      return sets.stream().mapToInt(Set::size).sum();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return sets.stream().anyMatch(set -> set.contains(o));
+    }
+
+    @Override
+    public Stream<T> stream() {
+      return sets.stream().flatMap(Set::stream);
+    }
+  }
+
+  private <T> void removeEntries(
+      Map<String, Map<String, NavigableMap<Instant, List<T>>>> index,
+      String channelName,
+      Instant payloadEndTime) {
+
+    String stationName = stationNameOf(channelName);
+
+    Map<String, NavigableMap<Instant, List<T>>> channelMap = index.get(stationName);
+    if (channelMap == null) {
+      return;
+    }
+
+    changedStations.add(stationName);
+
+    NavigableMap<Instant, List<T>> entriesByTime = channelMap.get(channelName);
+    if (entriesByTime == null) {
+      return;
+    }
+
+    entriesByTime.remove(payloadEndTime);
+
+    if (entriesByTime.isEmpty()) {
+      channelMap.remove(channelName);
+      if (channelMap.isEmpty()) {
+        index.remove(stationName);
+      }
+    }
+  }
+
+  private static void forEachWaveformSummaryAndReceptionTime(
+      AcquiredStationSohExtract extract,
+      BiConsumer<String, WaveformSummaryAndReceptionTime> consumer) {
+
+    extract.getAcquisitionMetadata().forEach(rawStationDataFrameMetadata ->
+        rawStationDataFrameMetadata.getWaveformSummaries().values().forEach(waveformSummary ->
+            consumer.accept(
+                waveformSummary.getChannelName(),
+                WaveformSummaryAndReceptionTime.create(
+                    waveformSummary, rawStationDataFrameMetadata.getReceptionTime())
+            )
+        )
+    );
+  }
+
+  private static void forEachAceiBoolean(
+      AcquiredStationSohExtract extract,
+      BiConsumer<String, AcquiredChannelEnvironmentIssueBoolean> consumer) {
+
+    extract.getAcquiredChannelEnvironmentIssues().stream()
+        .filter(acquiredChannelEnvironmentIssue ->
+            acquiredChannelEnvironmentIssue instanceof AcquiredChannelEnvironmentIssueBoolean)
+        .map(acquiredChannelEnvironmentIssue ->
+            (AcquiredChannelEnvironmentIssueBoolean) acquiredChannelEnvironmentIssue)
+        .forEach(aceiBoolean -> consumer.accept(aceiBoolean.getChannelName(), aceiBoolean));
+  }
+
+  /**
+   * Channel names are of the form STATION.GROUP.CODE, so the station is everything before the
+   * first period.
+   */
+  static String stationNameOf(String channelName) {
+    int index = channelName.indexOf('.');
+    return index < 0 ? channelName : channelName.substring(0, index);
+  }
+
+  /**
+   * Build an index from a collection of extracts, and take a snapshot of it. Extracts without
+   * acquisition metadata are included with a payload end time of {@link Instant#MIN}.
+   *
+   * @param extracts the extracts to index
+   * @return the snapshot of the index
+   */
+  static IndexedStationSohExtracts index(Collection<AcquiredStationSohExtract> extracts) {
+
+    var index = new StationSohExtractIndex();
+
+    extracts.forEach(extract ->
+        index.add(latestPayloadEndTime(extract).orElse(Instant.MIN), extract));
+
+    return index.snapshot();
+  }
+}
@@ -0,0 +1,504 @@
+package gms.core.performancemonitoring.soh.control;
+
+import gms.shared.frameworks.osd.coi.channel.dataacquisitionstatus.AcquiredStationSohExtract;
+import gms.shared.metrics.CustomMetric;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Thread-safe cache of {@link AcquiredStationSohExtract}s, which lets extracts be added without
+ * ever waiting on the computation that reads them.
+ * <p>
+ * Extracts are kept in a ring of buckets, one per slice of time, selected by the latest payload
+ * end time of the extract. Adding an extract only appends it to the pending queue of its bucket,
+ * or, when the slot still holds the bucket of an older slice, atomically rotates in a new bucket
+ * first. No locks are taken when adding; an add only waits, by retrying, while
+ * {@link #ensureSpan(Duration)} replaces the ring.
+ * <p>
+ * Reading is done by {@link #expireAndSnapshot(Instant, Consumer)}, which moves pending extracts
+ * into a {@link StationSohExtractIndex} owned by each bucket, expires whole buckets by atomically
+ * clearing their slot, expires the individual extracts of the one bucket that straddles the
+ * expiration limit, and then takes a snapshot of the remaining buckets. Readers are serialized
+ * with one another, but never with writers.
+ * <p>
+ * Extracts too far in the future for the ring to span, such as those of a station whose clock is
+ * ahead, are clamped into the newest bucket, and carried forward into the newest bucket again
+ * whenever their bucket expires before they do.
+ */
+public class StationSohExtractRing {
+
+  private static final CustomMetric<Long, Long> ringAddRetryCount =
+      CustomMetric.create(CustomMetric::incrementer,
+          "stationSohControlExtractRingAddRetries_hits:type=Counter", 0L);
+
+  private static final CustomMetric<Long, Long> ringClampedAddCount =
+      CustomMetric.create(CustomMetric::incrementer,
+          "stationSohControlExtractRingClampedAdds_hits:type=Counter", 0L);
+
+  private static final CustomMetric<Long, Long> ringBucketRotationCount =
+      CustomMetric.create(CustomMetric::incrementer,
+          "stationSohControlExtractRingBucketRotations_hits:type=Counter", 0L);
+
+  private static final CustomMetric<Long, Long> ringReaderWaitTime =
+      CustomMetric.create(CustomMetric::updateTimingData,
+          "stationSohControlExtractRingReaderWaitTime:type=Value", 0L);
+
+  /**
+   * The extracts for one slice of time.
+   */
+  private static class Bucket {
+
+    final long slice;
+
+    // Written by any number of adders, drained by the reader
+    final Queue<TimedExtract> pending = new ConcurrentLinkedQueue<>();
+
+    // Only accessed by the reader, under readLock
+    final StationSohExtractIndex index = new StationSohExtractIndex();
+
+    Bucket(long slice) {
+      this.slice = slice;
+    }
+
+    void drainPending() {
+      TimedExtract timedExtract;
+      while ((timedExtract = pending.poll()) != null) {
+        index.add(timedExtract.payloadEndTime, timedExtract.extract);
+      }
+    }
+  }
+
+  private static class TimedExtract {
+
+    final Instant payloadEndTime;
+
+    final AcquiredStationSohExtract extract;
+
+    TimedExtract(Instant payloadEndTime, AcquiredStationSohExtract extract) {
+      this.payloadEndTime = payloadEndTime;
+      this.extract = extract;
+    }
+  }
+
+  /**
+   * The ring itself. Replaced as a whole when the slice duration changes.
+   * <p>
+   * Adders register in activeWriters before checking retired, and ensureSpan sets retired before
+   * waiting for activeWriters to drop to zero. So either an adder sees the ring is retired and
+   * retries on its replacement, or ensureSpan waits for the add to finish before moving the
+   * extracts of the retired ring.
+   */
+  private static class Slots {
+
+    final long sliceMillis;
+
+    final AtomicReferenceArray<Bucket> buckets;
+
+    final AtomicInteger activeWriters = new AtomicInteger();
+
+    volatile boolean retired;
+
+    Slots(long sliceMillis, int bucketCount) {
+      this.sliceMillis = sliceMillis;
+      this.buckets = new AtomicReferenceArray<>(bucketCount);
+    }
+
+    Duration getSpan() {
+      return Duration.ofMillis(sliceMillis * buckets.length());
+    }
+  }
+
+  private final int bucketCount;
+
+  private final AtomicReference<Slots> slotsRef;
+
+  // Buckets rotated out by adders, whose extracts the reader reports as expired
+  private final Queue<Bucket> rotatedOutBuckets = new ConcurrentLinkedQueue<>();
+
+  private final ReentrantLock readLock = new ReentrantLock();
+
+  // Entries of stations held by more than one bucket, merged by the last snapshot. Read lock only.
+  private final Map<String, StationSohExtractIndex.MergedStationEntries> mergedEntriesCache =
+      new HashMap<>();
+
+  private final LongAdder addRetries = new LongAdder();
+
+  private final LongAdder bucketRotations = new LongAdder();
+
+  private final LongAdder clampedAdds = new LongAdder();
+
+  private final LongAdder readerWaitNanos = new LongAdder();
+
+  /**
+   * Create a ring.
+   *
+   * @param sliceDuration the slice of time covered by each bucket. Must be at least a millisecond.
+   * @param bucketCount the number of buckets in the ring. Must be at least 2.
+   */
+  public StationSohExtractRing(Duration sliceDuration, int bucketCount) {
+
+    Objects.requireNonNull(sliceDuration, "Null sliceDuration");
+    Validate.isTrue(sliceDuration.toMillis() >= 1, "sliceDuration must be at least 1 ms");
+    Validate.isTrue(bucketCount >= 2, "bucketCount must be at least 2");
+
+    this.bucketCount = bucketCount;
+    this.slotsRef = new AtomicReference<>(new Slots(sliceDuration.toMillis(), bucketCount));
+  }
+
+  /**
+   * @return the total time covered by the ring. Extracts further apart than this cannot be held in
+   * their own buckets at the same time; adding the later one rotates out the bucket of the earlier
+   * one, unless the later one is clamped into the newest bucket.
+   */
+  public Duration getSpan() {
+    return slotsRef.get().getSpan();
+  }
+
+  /**
+   * Add an extract. Never blocks.
+   *
+   * @param payloadEndTime the latest payload end time of the extract, used to place and expire it.
+   * @param extract the extract to add.
+   * @param payloadEndTimeLimit the current expiration limit. Extracts at or before it are not
+   * added. Extracts so far after it that they would rotate out buckets that have not yet expired
+   * are clamped into the newest bucket the ring can hold.
+   * @return whether the extract was added.
+   */
+  public boolean add(
+      Instant payloadEndTime,
+      AcquiredStationSohExtract extract,
+      Instant payloadEndTimeLimit) {
+
+    while (true) {
+
+      Slots slots = slotsRef.get();
+      slots.activeWriters.incrementAndGet();
+
+      try {
+
+        if (slots.retired) {
+          // ensureSpan replaced the ring, so add to the replacement instead.
+          continue;
+        }
+
+        if (!payloadEndTime.isAfter(payloadEndTimeLimit)) {
+          return false;
+        }
+
+        long newestSlice = newestSlice(slots, payloadEndTimeLimit);
+        long slice = Math.floorDiv(payloadEndTime.toEpochMilli(), slots.sliceMillis);
+
+        if (slice > newestSlice) {
+          clampedAdds.increment();
+          ringClampedAddCount.updateMetric(1L);
+          slice = newestSlice;
+        }
+
+        return add(slots, slice, payloadEndTime, extract);
+
+      } finally {
+        slots.activeWriters.decrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * @return the newest slice the ring can hold without rotating out a bucket that has not expired
+   * at the given limit.
+   */
+  private static long newestSlice(Slots slots, Instant payloadEndTimeLimit) {
+    return Math.floorDiv(payloadEndTimeLimit.toEpochMilli(), slots.sliceMillis)
+        + slots.buckets.length() - 1;
+  }
+
+  private boolean add(
+      Slots slots,
+      long slice,
+      Instant payloadEndTime,
+      AcquiredStationSohExtract extract) {
+
+    int slot = (int) Math.floorMod(slice, (long) slots.buckets.length());
+
+    while (true) {
+
+      Bucket bucket = slots.buckets.get(slot);
+
+      if (bucket != null && bucket.slice == slice) {
+        bucket.pending.add(new TimedExtract(payloadEndTime, extract));
+        return true;
+      }
+
+      if (bucket != null && bucket.slice > slice) {
+        // The slot already holds a newer slice of time, so this extract has expired.
+        return false;
+      }
+
+      // The slot is empty, or holds a bucket for an older slice of time, which this replaces.
+      if (slots.buckets.compareAndSet(slot, bucket, new Bucket(slice))) {
+        if (bucket != null) {
+          rotatedOutBuckets.add(bucket);
+          bucketRotations.increment();
+          ringBucketRotationCount.updateMetric(1L);
+        }
+      } else {
+        addRetries.increment();
+        ringAddRetryCount.updateMetric(1L);
+      }
+    }
+  }
+
+  /**
+   * Remove all extracts whose latest payload end time is not after the given limit, and take a
+   * snapshot of the remaining extracts.
+   *
+   * @param payloadEndTimeLimit the time before which we want no extracts
+   * @param expiredConsumer consumer of the expired extracts
+   * @return the snapshot of the remaining extracts, indexed by station and channel
+   */
+  public IndexedStationSohExtracts expireAndSnapshot(
+      Instant payloadEndTimeLimit,
+      Consumer<List<AcquiredStationSohExtract>> expiredConsumer) {
+
+    lockForRead();
+
+    try {
+
+      Slots slots = slotsRef.get();
+
+      for (int slot = 0; slot < slots.buckets.length(); slot++) {
+
+        Bucket bucket = slots.buckets.get(slot);
+
+        if (bucket == null) {
+          continue;
+        }
+
+        bucket.drainPending();
+
+        Instant sliceStart = Instant.ofEpochMilli(bucket.slice * slots.sliceMillis);
+        Instant sliceEnd = Instant.ofEpochMilli((bucket.slice + 1) * slots.sliceMillis);
+
+        if (!sliceEnd.isAfter(payloadEndTimeLimit)) {
+
+          // The bucket's slice is at or before the limit, so expire the whole bucket. An adder
+          // may rotate it out first, in which case it is expired with the rotated-out ones.
+          if (slots.buckets.compareAndSet(slot, bucket, null)) {
+            expireBucket(slots, bucket, payloadEndTimeLimit, expiredConsumer);
+          }
+
+        } else if (!sliceStart.isAfter(payloadEndTimeLimit)) {
+          bucket.index.expire(payloadEndTimeLimit).forEach(expiredConsumer);
+        }
+      }
+
+      // Expired after the slots, since carrying clamped extracts forward can rotate out a bucket
+      drainRotatedOutBuckets(slots, payloadEndTimeLimit, expiredConsumer);
+
+      List<StationSohExtractIndex> liveIndexes = new ArrayList<>();
+
+      forEachBucket(slots, bucket -> {
+        bucket.drainPending();
+        liveIndexes.add(bucket.index);
+      });
+
+      return StationSohExtractIndex.snapshot(liveIndexes, mergedEntriesCache);
+
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  /**
+   * Change the slice duration so that the ring spans at least the given duration. Extracts are
+   * moved to the new ring. Does nothing if the ring already spans the duration.
+   *
+   * @param minimumSpan the minimum duration the ring must span.
+   */
+  public void ensureSpan(Duration minimumSpan) {
+
+    Objects.requireNonNull(minimumSpan, "Null minimumSpan");
+
+    lockForRead();
+
+    try {
+
+      Slots slots = slotsRef.get();
+
+      if (slots.getSpan().compareTo(minimumSpan) >= 0) {
+        return;
+      }
+
+      long sliceMillis = Math.max(1L,
+          (minimumSpan.toMillis() + bucketCount - 1) / bucketCount);
+
+      Slots newSlots = new Slots(sliceMillis, bucketCount);
+
+      slotsRef.set(newSlots);
+      slots.retired = true;
+
+      // Adders that read the old slots before the swap may still be adding to it. Wait for them,
+      // so that nothing is added to it after it is drained. Adds are short and never block.
+      while (slots.activeWriters.get() > 0) {
+        Thread.onSpinWait();
+      }
+
+      // Extracts clamped into the newest bucket of the old ring are clamped into the slice of
+      // the new ring holding the end of that bucket, which the new ring spans as well.
+      long oldNewestSlice = Long.MIN_VALUE;
+      for (int slot = 0; slot < slots.buckets.length(); slot++) {
+        Bucket bucket = slots.buckets.get(slot);
+        if (bucket != null) {
+          oldNewestSlice = Math.max(oldNewestSlice, bucket.slice);
+        }
+      }
+
+      long newestSlice = oldNewestSlice == Long.MIN_VALUE
+          ? Long.MAX_VALUE
+          : Math.floorDiv((oldNewestSlice + 1) * slots.sliceMillis - 1, sliceMillis);
+
+      forEachBucket(slots, bucket -> {
+        bucket.drainPending();
+        bucket.index.forEachExtract((payloadEndTime, extract) -> add(
+            newSlots,
+            Math.min(newestSlice,
+                Math.floorDiv(payloadEndTime.toEpochMilli(), newSlots.sliceMillis)),
+            payloadEndTime,
+            extract));
+      });
+
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  /**
+   * @return the set of all extracts currently in the ring.
+   */
+  public Set<AcquiredStationSohExtract> getExtracts() {
+
+    lockForRead();
+
+    try {
+
+      List<StationSohExtractIndex> indexes = new ArrayList<>();
+
+      forEachBucket(slotsRef.get(), bucket -> {
+        bucket.drainPending();
+        indexes.add(bucket.index);
+      });
+
+      return StationSohExtractIndex.snapshot(indexes, new HashMap<>()).getExtracts();
+
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  /**
+   * @return the number of times an add had to retry because another add changed its slot first.
+   */
+  public long getAddRetryCount() {
+    return addRetries.sum();
+  }
+
+  /**
+   * @return the number of extracts clamped into the newest bucket because they were too far in the
+   * future for the ring to span.
+   */
+  public long getClampedAddCount() {
+    return clampedAdds.sum();
+  }
+
+  /**
+   * @return the number of buckets rotated out by adds.
+   */
+  public long getBucketRotationCount() {
+    return bucketRotations.sum();
+  }
+
+  /**
+   * @return the total time readers have waited for each other, in nanoseconds.
+   */
+  public long getReaderWaitNanos() {
+    return readerWaitNanos.sum();
+  }
+
+  private void lockForRead() {
+
+    if (readLock.tryLock()) {
+      return;
+    }
+
+    long startNanos = System.nanoTime();
+    readLock.lock();
+    long waitedNanos = System.nanoTime() - startNanos;
+
+    readerWaitNanos.add(waitedNanos);
+    ringReaderWaitTime.updateMetric(TimeUnit.NANOSECONDS.toMillis(waitedNanos));
+  }
+
+  private void drainRotatedOutBuckets(
+      Slots slots,
+      Instant payloadEndTimeLimit,
+      Consumer<List<AcquiredStationSohExtract>> expiredConsumer) {
+
+    Bucket bucket;
+    while ((bucket = rotatedOutBuckets.poll()) != null) {
+      expireBucket(slots, bucket, payloadEndTimeLimit, expiredConsumer);
+    }
+  }
+
+  /**
+   * Expire the extracts of a bucket removed from the ring, carrying those clamped into it that
+   * have not yet expired forward into the newest bucket.
+   */
+  private void expireBucket(
+      Slots slots,
+      Bucket bucket,
+      Instant payloadEndTimeLimit,
+      Consumer<List<AcquiredStationSohExtract>> expiredConsumer) {
+
+    bucket.drainPending();
+    bucket.index.expire(payloadEndTimeLimit).forEach(expiredConsumer);
+
+    // An adder with a later limit may already have filled the slot with a newer slice, in which
+    // case the extracts are expired instead.
+    long newestSlice = newestSlice(slots, payloadEndTimeLimit);
+    List<AcquiredStationSohExtract> notCarried = new ArrayList<>();
+    bucket.index.forEachExtract((payloadEndTime, extract) -> {
+      if (!add(slots, newestSlice, payloadEndTime, extract)) {
+        notCarried.add(extract);
+      }
+    });
+
+    if (!notCarried.isEmpty()) {
+      expiredConsumer.accept(notCarried);
+    }
+  }
+
+  private static void forEachBucket(Slots slots, Consumer<Bucket> bucketConsumer) {
+
+    for (int slot = 0; slot < slots.buckets.length(); slot++) {
+      Bucket bucket = slots.buckets.get(slot);
+      if (bucket != null) {
+        bucketConsumer.accept(bucket);
+      }
+    }
+  }
+}
@@ -2,17 +2,32 @@ package gms.core.performancemonitoring.soh.control.kafka;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import gms.core.performancemonitoring.soh.control.IndexedStationSohExtracts;
 import gms.core.performancemonitoring.soh.control.api.StationSohMonitoringResultsFluxPair;
-import gms.shared.frameworks.osd.coi.channel.dataacquisitionstatus.AcquiredStationSohExtract;
 import gms.shared.frameworks.osd.coi.datatransferobjects.CoiObjectMapperFactory;
 import gms.shared.frameworks.osd.coi.soh.CapabilitySohRollup;
 import gms.shared.frameworks.osd.coi.soh.StationSoh;
+import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrameMetadata;
+import gms.shared.metrics.LatencyHistogram;
+import gms.shared.metrics.LatencyTrace;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
+import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeader;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import reactor.core.Exceptions;
@@ -23,9 +38,9 @@ import reactor.kafka.sender.SenderRecord;
 import reactor.util.function.Tuple2;
 
 /**
- * "Factory" for creating a consumer that consumes a pair of Set of AcquiredStationSohExtract
- * and collection of receiver offsets. The consumer is responsible for commiting the offsets,
- * once it has determined that its task has completed.
+ * "Factory" for creating a consumer that consumes a pair of AcquiredStationSohExtracts, indexed
+ * by station and channel, and collection of receiver offsets. The consumer is responsible for
+ * commiting the offsets, once it has determined that its task has completed.
  */
 public class KafkaSohExtractConsumerFactory {
 
@@ -35,18 +50,26 @@ public class KafkaSohExtractConsumerFactory {
    * and interface to extend Consumer, just so we arent carrying the complex type around.
    */
   public interface SohExtractKafkaConsumer extends
-      Consumer<Tuple2<Set<AcquiredStationSohExtract>,
+      Consumer<Tuple2<IndexedStationSohExtracts,
           Collection<ReceiverOffset>>> {
 
   }
 
+  private static final LatencyHistogram rsdfToStationSohLatency =
+      LatencyHistogram.create("sohLatencyRsdfToStationSoh");
+
+  private static final LatencyHistogram rsdfToCapabilitySohRollupLatency =
+      LatencyHistogram.create("sohLatencyRsdfToCapabilitySohRollup");
+
   private final KafkaSender<String, String> kafkaSender;
   private final String stationSohOutputTopic;
   private final String capabilitySohRollupOutputTopic;
 
-  private final Function<Set<AcquiredStationSohExtract>, StationSohMonitoringResultsFluxPair>
+  private final Function<IndexedStationSohExtracts, StationSohMonitoringResultsFluxPair>
       resultsPublisher;
 
+  private final ObjIntConsumer<StationSoh> publishedStationSohSizeConsumer;
+
   private final ObjectMapper objectMapper;
 
   /**
@@ -62,7 +85,36 @@ public class KafkaSohExtractConsumerFactory {
       KafkaSender<String, String> kafkaSender,
       String stationSohOutputTopic,
       String capabilitySohRollupOutputTopic,
-      Function<Set<AcquiredStationSohExtract>, StationSohMonitoringResultsFluxPair> resultsPublisher) {
+      Function<IndexedStationSohExtracts, StationSohMonitoringResultsFluxPair> resultsPublisher) {
+
+    this(
+        kafkaSender,
+        stationSohOutputTopic,
+        capabilitySohRollupOutputTopic,
+        resultsPublisher,
+        (stationSoh, size) -> { /* noop */ }
+    );
+  }
+
+  /**
+   * Constructor which also takes a consumer that is given each StationSoh that is sent, along with
+   * the size of its serialized form.
+   *
+   * @param kafkaSender The KafkaSender for StationSoh
+   * @param stationSohOutputTopic the StationSoh Kafka output topic
+   * @param capabilitySohRollupOutputTopic the CapabilitySohRollup kafka output topic
+   * @param resultsPublisher The publisher that publishes computed state-of-health.
+   * @param publishedStationSohSizeConsumer Consumer of each StationSoh sent and its serialized
+   * size in bytes
+   */
+  public KafkaSohExtractConsumerFactory(
+      KafkaSender<String, String> kafkaSender,
+      String stationSohOutputTopic,
+      String capabilitySohRollupOutputTopic,
+      Function<IndexedStationSohExtracts, StationSohMonitoringResultsFluxPair> resultsPublisher,
+      ObjIntConsumer<StationSoh> publishedStationSohSizeConsumer) {
+
+    this.publishedStationSohSizeConsumer = publishedStationSohSizeConsumer;
 
     this.objectMapper = CoiObjectMapperFactory.getJsonObjectMapper();
 
@@ -74,28 +126,37 @@ public class KafkaSohExtractConsumerFactory {
   }
 
   /**
-   * Get a consumer which takes the tuple of SOH set and offsets, applies resultsPublisher to them,
-   * sends them, and then commits the Soh extract offsets.
+   * Get a consumer which takes the tuple of indexed SOH extracts and offsets, applies
+   * resultsPublisher to them, sends them, and then commits the Soh extract offsets.
    * @return SohExtractKafkaConsumer
    */
   public SohExtractKafkaConsumer getConsumer() {
 
     return asseSetAndOffsetsTuple -> {
 
-      Set<AcquiredStationSohExtract> extracts = asseSetAndOffsetsTuple.getT1();
+      IndexedStationSohExtracts extracts = asseSetAndOffsetsTuple.getT1();
       Collection<ReceiverOffset> offsets = asseSetAndOffsetsTuple.getT2();
       if (logger.isDebugEnabled()) {
-        logger.debug("Handling {} extracts", extracts.size());
+        logger.debug("Handling {} extracts", extracts.getExtracts().size());
       }
 
       var monitoringResults = resultsPublisher.apply(extracts);
 
+      Map<String, Instant> latestReceptionTimeByStation =
+          latestReceptionTimeByStation(extracts);
+
       sendMessages(
           StationSoh.class,
           monitoringResults.getStationSohPublisher(),
           kafkaSender,
           stationSohOutputTopic,
-          "StationSoh"
+          "StationSoh",
+          publishedStationSohSizeConsumer,
+          stationSoh -> trace(
+              Stream.of(stationSoh.getStationName()),
+              latestReceptionTimeByStation,
+              LatencyTrace.STATION_SOH_SENT,
+              rsdfToStationSohLatency)
       );
 
 
@@ -104,7 +165,13 @@ public class KafkaSohExtractConsumerFactory {
           monitoringResults.getCapabilitySohRollupPublisher(),
           kafkaSender,
           capabilitySohRollupOutputTopic,
-          "CapabilitySohRollup"
+          "CapabilitySohRollup",
+          (capabilitySohRollup, size) -> { /* noop */ },
+          capabilitySohRollup -> trace(
+              capabilitySohRollup.getRollupSohStatusByStation().keySet().stream(),
+              latestReceptionTimeByStation,
+              LatencyTrace.CAPABILITY_SOH_ROLLUP_SENT,
+              rsdfToCapabilitySohRollupLatency)
       );
 
       commitOffsets(offsets);
@@ -118,6 +185,9 @@ public class KafkaSohExtractConsumerFactory {
    * @param sender KafkaSender to use
    * @param topic topic to post to
    * @param messageType message type, used for logging
+   * @param serializedSizeConsumer consumer of each item and the size of its serialized form, in
+   * bytes
+   * @param traceFunction function giving the latency trace to send with each item
    * @param <T> type of dataFlux to send
    */
   private <T> void sendMessages(
@@ -125,21 +195,27 @@ public class KafkaSohExtractConsumerFactory {
       Flux<T> dataFlux,
       KafkaSender<String, String> sender,
       String topic,
-      String messageType) {
+      String messageType,
+      ObjIntConsumer<T> serializedSizeConsumer,
+      Function<T, LatencyTrace> traceFunction) {
 
       Flux<SenderRecord<String, String, Class<T>>> senderRecordFlux = dataFlux
           .map(item -> {
             try {
-              return Optional.of(objectMapper.writeValueAsString(item));
+              // The sender's StringSerializer encodes as UTF-8, which is what Jackson writes, so
+              // the size reported is the size of the message actually sent.
+              byte[] jsonBytes = objectMapper.writeValueAsBytes(item);
+              serializedSizeConsumer.accept(item, jsonBytes.length);
+              var json = new String(jsonBytes, StandardCharsets.UTF_8);
+              return Optional.of(producerRecord(topic, json, traceFunction.apply(item)));
             } catch (JsonProcessingException e) {
               Exceptions.propagate(e);
             }
             // Needs to be here for the sake of compilation, but should be unreachable unless
             // serialization to JSON throws something other than a JsonProcessingException.
-            return Optional.<String>empty();
+            return Optional.<ProducerRecord<String, String>>empty();
           }).filter(Optional::isPresent)
           .map(Optional::get)
-          .map(json -> new ProducerRecord<String, String>(topic, json))
           .map(producerRecord -> SenderRecord.create(producerRecord, dataType));
 
       sender.send(senderRecordFlux)
@@ -162,6 +238,64 @@ public class KafkaSohExtractConsumerFactory {
           );
   }
 
+  /**
+   * Create a ProducerRecord, carrying the latency trace in a header if it is not empty.
+   */
+  private static ProducerRecord<String, String> producerRecord(String topic, String json,
+      LatencyTrace latencyTrace) {
+
+    if (latencyTrace.isEmpty()) {
+      return new ProducerRecord<>(topic, json);
+    }
+
+    return new ProducerRecord<String, String>(topic, null, null, json,
+        List.<Header>of(new RecordHeader(LatencyTrace.HEADER, latencyTrace.encode())));
+  }
+
+  /**
+   * Build the latency trace of an object computed from the extracts of the given stations, and
+   * record how long after the newest of their RSDFs was received the object is being sent.
+   *
+   * @param stationNames the stations whose extracts the object was computed from
+   * @param latestReceptionTimeByStation the latest RSDF reception time of each station
+   * @param sentStage the stage that the object is being sent in
+   * @param latencyHistogram the histogram of the latency from RSDF reception to sending
+   * @return the latency trace, which is empty if there were no extracts for the stations
+   */
+  private static LatencyTrace trace(Stream<String> stationNames,
+      Map<String, Instant> latestReceptionTimeByStation, String sentStage,
+      LatencyHistogram latencyHistogram) {
+
+    Optional<Instant> rsdfReceived = stationNames
+        .map(latestReceptionTimeByStation::get)
+        .filter(Objects::nonNull)
+        .max(Comparator.naturalOrder());
+
+    if (rsdfReceived.isEmpty()) {
+      return LatencyTrace.empty();
+    }
+
+    Instant now = Instant.now();
+    latencyHistogram.record(Duration.between(rsdfReceived.get(), now));
+
+    return LatencyTrace.start(LatencyTrace.RSDF_RECEIVED, rsdfReceived.get())
+        .with(sentStage, now);
+  }
+
+  /**
+   * @return the latest reception time of the RSDFs in the extracts, by station
+   */
+  private static Map<String, Instant> latestReceptionTimeByStation(
+      IndexedStationSohExtracts extracts) {
+
+    return extracts.getExtracts().stream()
+        .flatMap(extract -> extract.getAcquisitionMetadata().stream())
+        .collect(Collectors.toMap(
+            RawStationDataFrameMetadata::getStationName,
+            RawStationDataFrameMetadata::getReceptionTime,
+            BinaryOperator.maxBy(Comparator.naturalOrder())));
+  }
+
   /**
    * Commit offsets to the Soh extract Kafka service
    * @param offsets offsets to commit
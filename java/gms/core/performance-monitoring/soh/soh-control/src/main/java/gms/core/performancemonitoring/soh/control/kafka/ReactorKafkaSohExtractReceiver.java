@@ -2,25 +2,22 @@ package gms.core.performancemonitoring.soh.control.kafka;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import gms.core.performancemonitoring.soh.control.IndexedStationSohExtracts;
+import gms.core.performancemonitoring.soh.control.StationSohExtractIndex;
+import gms.core.performancemonitoring.soh.control.StationSohExtractRing;
 import gms.core.performancemonitoring.soh.control.kafka.KafkaSohExtractConsumerFactory.SohExtractKafkaConsumer;
 import gms.shared.frameworks.osd.coi.channel.dataacquisitionstatus.AcquiredStationSohExtract;
 import gms.shared.frameworks.osd.coi.datatransferobjects.CoiObjectMapperFactory;
-import gms.shared.frameworks.osd.coi.waveforms.RawStationDataFrameMetadata;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.NavigableMap;
 import java.util.Optional;
 import java.util.Set;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
 import org.apache.commons.lang3.Validate;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.TopicPartition;
@@ -52,7 +49,13 @@ public class ReactorKafkaSohExtractReceiver implements SohExtractReceiver {
 
   private static final boolean SOH_TIMING_ENABLED = logger.isEnabled(SOH_TIMING);
 
-  private Duration cachingDuration;
+  //
+  // Number of buckets in the extract cache ring, which spans twice the caching duration: the
+  // caching duration itself, plus as much again for extracts with payload end times in the future.
+  //
+  private static final int EXTRACT_RING_BUCKET_COUNT = 128;
+
+  private volatile Duration cachingDuration;
 
   private Disposable extractFluxDisposable;
 
@@ -61,15 +64,14 @@ public class ReactorKafkaSohExtractReceiver implements SohExtractReceiver {
   private final KafkaReceiver<String, String> asseKafkaReciever;
 
   //
-  // Cache of extracts.
+  // Cache of extracts, bucketed by the latest payload end time contained in the extract, so old
+  // extracts can be pruned a bucket at a time. Extracts are indexed by station and channel
+  // within each bucket, so that the grouping does not have to be redone every processing
+  // interval. Adding to the cache never waits for the processing interval to finish with it.
   //
-  // Keys are the latest payload end time contained in the extract. It's a NavigableMap so
-  // when iterated over, the earliest payload end times come first. This makes it more efficient
-  // to prune out old extracts. Values are list of the extracts with those payload end times.
-  //
-  private final NavigableMap<Instant, List<AcquiredStationSohExtract>> extractCache = new TreeMap<>();
+  private final StationSohExtractRing extractCache;
 
-  private final Map<TopicPartition, ReceiverOffset> offsetMap = new HashMap<>();
+  private final Map<TopicPartition, ReceiverOffset> offsetMap = new ConcurrentHashMap<>();
 
   /**
    * Constructor
@@ -90,6 +92,7 @@ public class ReactorKafkaSohExtractReceiver implements SohExtractReceiver {
   ) {
 
     this.cachingDuration = initialCachingDuration;
+    this.extractCache = createExtractCache(initialCachingDuration);
 
     Map<String, Object> properties = new HashMap<>();
     properties.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
@@ -123,9 +126,18 @@ public class ReactorKafkaSohExtractReceiver implements SohExtractReceiver {
       Duration initialCachingDuration
   ) {
     this.cachingDuration = initialCachingDuration;
+    this.extractCache = createExtractCache(initialCachingDuration);
     this.asseKafkaReciever = mockKafkaReceiver;
   }
 
+  private static StationSohExtractRing createExtractCache(Duration cachingDuration) {
+    return new StationSohExtractRing(
+        Duration.ofMillis(Math.max(1L,
+            cachingDuration.multipliedBy(2).toMillis() / EXTRACT_RING_BUCKET_COUNT)),
+        EXTRACT_RING_BUCKET_COUNT
+    );
+  }
+
   /**
    * Begin receiving SohExtracts, by collecting them into a set eache processsing interval,
    * amd then applying sohExtractKafkaConsumer to that set.
@@ -140,9 +152,7 @@ public class ReactorKafkaSohExtractReceiver implements SohExtractReceiver {
       List<AcquiredStationSohExtract> cacheData
   ) {
 
-    synchronized (extractCache) {
-      cacheData.forEach(this::addToCache);
-    }
+    cacheData.forEach(this::addToCache);
 
     AtomicInteger extractCounter = new AtomicInteger();
 
@@ -210,18 +220,29 @@ public class ReactorKafkaSohExtractReceiver implements SohExtractReceiver {
                   extractCounter.getAndSet(0)
               );
 
-              Set<AcquiredStationSohExtract> extractSet;
+              var startMs = System.currentTimeMillis();
+
+              IndexedStationSohExtracts indexedExtracts = filterStationSohExtractCache(
+                  Instant.now().minus(cachingDuration),
+                  extractCache,
+                  discardedAsseSink
+              );
 
-              synchronized (extractCache) {
-                extractSet = filterStationSohExtractCache(
-                    Instant.now().minus(cachingDuration),
-                    extractCache,
-                    discardedAsseSink
+              if (SOH_TIMING_ENABLED) {
+                logger.log(
+                    SOH_TIMING,
+                    "Expiring and indexing {} cached extracts took {} ms; extract cache add "
+                        + "retries: {}, bucket rotations: {}, reader wait: {} ms",
+                    indexedExtracts.getExtracts().size(),
+                    System.currentTimeMillis() - startMs,
+                    extractCache.getAddRetryCount(),
+                    extractCache.getBucketRotationCount(),
+                    extractCache.getReaderWaitNanos() / 1_000_000
                 );
               }
 
               return Tuples.of(
-                  extractSet,
+                  indexedExtracts,
                   offsetMap.values()
               );
             }
@@ -266,26 +287,24 @@ public class ReactorKafkaSohExtractReceiver implements SohExtractReceiver {
    * @return The set of all AcquiredStationSohExtract objects that can be found in the cache.
    */
   Set<AcquiredStationSohExtract> getCachedExtractsSnapshot() {
-    synchronized (extractCache) {
-      return this.extractCache.values().stream()
-          .flatMap(List::stream)
-          .collect(Collectors.toSet());
-    }
+    return this.extractCache.getExtracts();
   }
 
   private void addToCache(AcquiredStationSohExtract extract) {
     Instant payloadEndTimeLimit = Instant.now().minus(cachingDuration);
-    Optional<Instant> possibleEnd = lastPayloadEndTime(extract);
-    if (possibleEnd.isPresent() && possibleEnd.get().isAfter(payloadEndTimeLimit)) {
-      extractCache.computeIfAbsent(possibleEnd.get(),
-          key -> new ArrayList<>()).add(extract);
+    Optional<Instant> possibleEnd = StationSohExtractIndex.latestPayloadEndTime(extract);
+    if (possibleEnd.isEmpty()) {
+      return;
+    }
+
+    // Extracts beyond the span of the ring, as from a station whose clock is ahead, are still
+    // cached, clamped into its newest bucket, but are worth knowing about.
+    if (possibleEnd.get().isAfter(payloadEndTimeLimit.plus(extractCache.getSpan()))) {
+      logger.warn("Extract with payload end time {} is further in the future than the cache spans,"
+          + " caching it in the newest bucket", possibleEnd.get());
     }
-  }
 
-  private Optional<Instant> lastPayloadEndTime(AcquiredStationSohExtract extract) {
-    return extract.getAcquisitionMetadata().stream()
-        .map(RawStationDataFrameMetadata::getPayloadEndTime)
-        .max(Comparator.naturalOrder());
+    extractCache.add(possibleEnd.get(), extract, payloadEndTimeLimit);
   }
 
   /**
@@ -300,6 +319,7 @@ public class ReactorKafkaSohExtractReceiver implements SohExtractReceiver {
         "cachingDuration must be non-null and positive");
 
     this.cachingDuration = cachingDuration;
+    this.extractCache.ensureSpan(cachingDuration.multipliedBy(2));
   }
 
   /**
@@ -323,9 +343,7 @@ public class ReactorKafkaSohExtractReceiver implements SohExtractReceiver {
                     AcquiredStationSohExtract.class
                 );
 
-                synchronized (extractCache) {
-                  addToCache(acquiredStationSohExtract);
-                }
+                addToCache(acquiredStationSohExtract);
 
                 extractCounter.incrementAndGet();
 
@@ -354,34 +372,16 @@ public class ReactorKafkaSohExtractReceiver implements SohExtractReceiver {
    *
    * @param payloadEndTimeLimit the time before which we want no extracts
    * @param extractCache cach to filter on
-   * @return set of extracts from the cache
+   * @return snapshot of the extracts remaining in the cache, indexed by station and channel
    */
-  private static Set<AcquiredStationSohExtract> filterStationSohExtractCache(
+  private static IndexedStationSohExtracts filterStationSohExtractCache(
       Instant payloadEndTimeLimit,
-      Map<Instant, List<AcquiredStationSohExtract>> extractCache,
+      StationSohExtractRing extractCache,
       FluxSink<List<AcquiredStationSohExtract>> discardedAsseSink
   ) {
-    // Use an iterator to remove extracts with too old payloadEndTimes. Since it's a
-    // NavigableMap, they are in sorted order.
-    Iterator<Instant> it = extractCache.keySet().iterator();
-    while (it.hasNext()) {
-      Instant payloadEndTime = it.next();
-      if (payloadEndTime.isAfter(payloadEndTimeLimit)) {
-        // All the rest will be good, so break.
-        break;
-      } else {
-        discardedAsseSink.next(
-            extractCache.get(payloadEndTime)
-        );
-        // Remove it using the iterator in order not to get a ConcurrentModificationException.
-        it.remove();
-      }
-    }
-    // Now return a Set containing all the surviving extracts.
-    return extractCache.values()
-        .stream()
-        .flatMap(List::stream)
-        .collect(Collectors.toSet());
+
+    // Returns a snapshot containing all the surviving extracts.
+    return extractCache.expireAndSnapshot(payloadEndTimeLimit, discardedAsseSink::next);
   }
 
 }
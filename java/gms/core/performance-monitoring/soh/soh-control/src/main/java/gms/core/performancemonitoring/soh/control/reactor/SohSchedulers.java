@@ -0,0 +1,35 @@
+package gms.core.performancemonitoring.soh.control.reactor;
+
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Holds the reactor Schedulers used for StationSoh computation.
+ */
+public class SohSchedulers {
+
+  private static final String SOH_COMPUTATION_THREAD_PREFIX = "soh-computation";
+
+  //
+  // StationSoh computation is CPU bound and never blocks, so it runs on a fixed-size parallel
+  // scheduler, one thread per processor, instead of an elastic scheduler that creates and
+  // evicts threads on every tick.
+  //
+  private static final Scheduler SOH_COMPUTATION_SCHEDULER = Schedulers.newParallel(
+      SOH_COMPUTATION_THREAD_PREFIX,
+      Runtime.getRuntime().availableProcessors(),
+      true
+  );
+
+  private SohSchedulers() {
+
+  }
+
+  /**
+   * @return the dedicated, CPU-sized Scheduler that StationSoh computation runs on.
+   */
+  public static Scheduler sohComputation() {
+    return SOH_COMPUTATION_SCHEDULER;
+  }
+
+}
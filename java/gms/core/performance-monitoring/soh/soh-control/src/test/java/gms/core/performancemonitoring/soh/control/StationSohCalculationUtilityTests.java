@@ -76,6 +76,56 @@ class StationSohCalculationUtilityTests {
     assertFalse(stationSohs.isEmpty());
   }
 
+  @Test
+  void testFusedComputationMatchesPipelinedComputation() throws IOException {
+
+    final Set<AcquiredStationSohExtract> extracts = new HashSet<>(TestFixture.loadExtracts());
+    final Set<StationSohDefinition> stationSohDefinitions =
+        TestFixture.computeStationSohDefinitions(extracts, new Random(0xDEADBEEF));
+
+    Instant calcTime = TestFixture.maxEndTime(extracts)
+        .orElseThrow(() -> new NullPointerException(""))
+        .plus(Duration.ofSeconds(10L));
+
+    UUID dummySohUUID = UUID.randomUUID();
+
+    Map<StationSohComputationMode, Set<StationSoh>> stationSohsByMode = Stream
+        .of(StationSohComputationMode.values())
+        .collect(Collectors.toMap(
+            mode -> mode,
+            mode -> {
+              AcquiredSampleTimesByChannel acquiredSampleTimesByChannel =
+                  new AcquiredSampleTimesByChannel();
+              acquiredSampleTimesByChannel.setLatestChannelToEndTime(Map.of());
+
+              return StationSohCalculationUtility.buildStationSohFlux(
+                  IndexedStationSohExtracts.from(extracts),
+                  stationSohDefinitions,
+                  calcTime,
+                  acquiredSampleTimesByChannel,
+                  mode
+              ).toStream()
+                  .map(stationSoh -> StationSoh.from(
+                      dummySohUUID,
+                      stationSoh.getTime(),
+                      stationSoh.getStationName(),
+                      stationSoh.getSohMonitorValueAndStatuses(),
+                      stationSoh.getSohStatusRollup(),
+                      stationSoh.getChannelSohs(),
+                      stationSoh.getAllStationAggregates()
+                  ))
+                  .collect(Collectors.toSet());
+            }
+        ));
+
+    assertFalse(stationSohsByMode.get(StationSohComputationMode.FUSED).isEmpty());
+
+    Assertions.assertEquals(
+        stationSohsByMode.get(StationSohComputationMode.PIPELINED),
+        stationSohsByMode.get(StationSohComputationMode.FUSED)
+    );
+  }
+
   /**
    * Test the station soh utility GIVEN that the channel soh utility returns the given set of
    * ChannelSoh objects. This is meant to (hopefuly) simplify testing by not having to come up with
@@ -0,0 +1,131 @@
+package gms.core.performancemonitoring.soh.control;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import gms.shared.frameworks.osd.coi.soh.ChannelSoh;
+import gms.shared.frameworks.osd.coi.soh.DurationSohMonitorValueAndStatus;
+import gms.shared.frameworks.osd.coi.soh.PercentSohMonitorValueAndStatus;
+import gms.shared.frameworks.osd.coi.soh.PercentStationAggregate;
+import gms.shared.frameworks.osd.coi.soh.SohMonitorType;
+import gms.shared.frameworks.osd.coi.soh.SohStatus;
+import gms.shared.frameworks.osd.coi.soh.StationAggregateType;
+import gms.shared.frameworks.osd.coi.soh.StationSoh;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class StationSohChangeDetectorTests {
+
+  private static final Instant START = Instant.parse("2020-06-01T00:00:00Z");
+
+  private static final Duration HEARTBEAT = Duration.ofMinutes(1);
+
+  private static final Duration TOLERANCE = Duration.ofMinutes(10);
+
+  @Test
+  void testDisabledDetectorPassesEverything() {
+
+    var detector = StationSohChangeDetector.disabled();
+
+    var first = stationSoh(START, 10.0, Duration.ofSeconds(5), SohStatus.GOOD);
+    var second = stationSoh(START.plusSeconds(20), 10.0, Duration.ofSeconds(5), SohStatus.GOOD);
+
+    assertSame(first, detector.deduplicate(first, TOLERANCE));
+    assertSame(second, detector.deduplicate(second, TOLERANCE));
+  }
+
+  @Test
+  void testUnchangedStationIsRepeatedUntilHeartbeat() {
+
+    var detector = StationSohChangeDetector.create(HEARTBEAT, 1, Duration.ofSeconds(1));
+
+    var first = stationSoh(START, 10.0, Duration.ofSeconds(5), SohStatus.GOOD);
+    assertSame(first, detector.deduplicate(first, TOLERANCE));
+
+    var unchanged = stationSoh(START.plusSeconds(20), 10.0, Duration.ofSeconds(5),
+        SohStatus.GOOD);
+    assertSame(first, detector.deduplicate(unchanged, TOLERANCE));
+
+    var heartbeat = stationSoh(START.plus(HEARTBEAT), 10.0, Duration.ofSeconds(5),
+        SohStatus.GOOD);
+    assertSame(heartbeat, detector.deduplicate(heartbeat, TOLERANCE));
+  }
+
+  @Test
+  void testChangesAreDetectedAtConfiguredPrecision() {
+
+    var detector = StationSohChangeDetector.create(HEARTBEAT, 1, Duration.ofSeconds(1));
+
+    var first = stationSoh(START, 10.0, Duration.ofSeconds(5), SohStatus.GOOD);
+    detector.deduplicate(first, TOLERANCE);
+
+    // Below the configured precision
+    var jitter = stationSoh(START.plusSeconds(20), 10.01, Duration.ofMillis(5400),
+        SohStatus.GOOD);
+    assertSame(first, detector.deduplicate(jitter, TOLERANCE));
+
+    var percentChanged = stationSoh(START.plusSeconds(40), 10.2, Duration.ofSeconds(5),
+        SohStatus.GOOD);
+    assertSame(percentChanged, detector.deduplicate(percentChanged, TOLERANCE));
+
+    var durationChanged = stationSoh(START.plusSeconds(60), 10.2, Duration.ofSeconds(7),
+        SohStatus.GOOD);
+    assertSame(durationChanged, detector.deduplicate(durationChanged, TOLERANCE));
+
+    var statusChanged = stationSoh(START.plusSeconds(80), 10.2, Duration.ofSeconds(7),
+        SohStatus.BAD);
+    assertSame(statusChanged, detector.deduplicate(statusChanged, TOLERANCE));
+  }
+
+  @Test
+  void testHeartbeatIsLimitedByMaximum() {
+
+    var detector = StationSohChangeDetector.create(HEARTBEAT, 1, Duration.ofSeconds(1));
+
+    var first = stationSoh(START, 10.0, Duration.ofSeconds(5), SohStatus.GOOD);
+    detector.deduplicate(first, TOLERANCE);
+
+    var unchanged = stationSoh(START.plusSeconds(20), 10.0, Duration.ofSeconds(5),
+        SohStatus.GOOD);
+    assertNotSame(first, detector.deduplicate(unchanged, Duration.ofSeconds(20)));
+  }
+
+  @Test
+  void testCreateValidation() {
+
+    assertThrows(IllegalArgumentException.class,
+        () -> StationSohChangeDetector.create(Duration.ZERO, 1, Duration.ofSeconds(1)));
+    assertThrows(IllegalArgumentException.class,
+        () -> StationSohChangeDetector.create(HEARTBEAT, -1, Duration.ofSeconds(1)));
+    assertThrows(IllegalArgumentException.class,
+        () -> StationSohChangeDetector.create(HEARTBEAT, 1, Duration.ZERO));
+  }
+
+  private static StationSoh stationSoh(
+      Instant time,
+      double missing,
+      Duration lag,
+      SohStatus status) {
+
+    var missingValueAndStatus = PercentSohMonitorValueAndStatus.from(
+        missing, status, SohMonitorType.MISSING);
+    var lagValueAndStatus = DurationSohMonitorValueAndStatus.from(
+        lag, status, SohMonitorType.LAG);
+
+    return StationSoh.create(
+        time,
+        "STA",
+        Set.of(missingValueAndStatus, lagValueAndStatus),
+        status,
+        Set.of(ChannelSoh.from(
+            "STA.STA01.BHZ",
+            status,
+            Set.of(missingValueAndStatus, lagValueAndStatus)
+        )),
+        Set.of(PercentStationAggregate.from(missing, StationAggregateType.MISSING))
+    );
+  }
+}
@@ -328,6 +328,12 @@ class StationSohControlConfigurationReactiveTests {
         )
     );
 
+    // Report the top-level configuration as changed on every refresh, so that each interval
+    // resolves the (mocked) reprocessing period again.
+    Mockito.when(
+        mockConfigurationConsumerUtility.refreshConfigurations()
+    ).thenReturn(Set.of("soh-control"));
+
     return mockConfigurationConsumerUtility;
 
   }
@@ -12,6 +12,9 @@ import gms.core.performancemonitoring.soh.control.configuration.StationRollupDef
 import gms.core.performancemonitoring.soh.control.configuration.StationSohDefinition;
 import gms.core.performancemonitoring.soh.control.configuration.StationSohMonitoringDefinition;
 import gms.core.performancemonitoring.soh.control.configuration.TimeWindowDefinition;
+import gms.shared.frameworks.configuration.Configuration;
+import gms.shared.frameworks.configuration.ConfigurationOption;
+import gms.shared.frameworks.configuration.ConfigurationRepository;
 import gms.shared.frameworks.configuration.repository.FileConfigurationRepository;
 import gms.shared.frameworks.osd.api.SohRepositoryInterface;
 import gms.shared.frameworks.osd.coi.channel.Channel;
@@ -30,6 +33,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Disabled;
@@ -49,6 +54,11 @@ class StationSohControlConfigurationTests {
     FileConfigurationRepository fileConfigurationRepository = FileConfigurationRepository
         .create(configurationBasePath);
 
+    init(fileConfigurationRepository);
+  }
+
+  void init(final ConfigurationRepository configurationRepository) {
+
     Channel mockChannelA = Mockito.mock(Channel.class);
     Mockito.when(mockChannelA.getName()).thenReturn("ChannelA");
     Mockito.when(mockChannelA.getStation()).thenReturn("StationA");
@@ -143,10 +153,81 @@ class StationSohControlConfigurationTests {
     );
     
     stationSohControlConfiguration = StationSohControlConfiguration.create(
-        fileConfigurationRepository,
+        configurationRepository,
         sohRepositoryInterface);
   }
 
+  @Test
+  void testRefreshResolvesOnlyAffectedStations() {
+
+    URL configBasePathUrl = Thread.currentThread().getContextClassLoader()
+        .getResource("gms/core/performancemonitoring/soh/configuration-base");
+    Objects.requireNonNull(configBasePathUrl, "Null configBasePathUrl");
+
+    FileConfigurationRepository fileConfigurationRepository = FileConfigurationRepository
+        .create(new File(configBasePathUrl.getFile()).toPath());
+
+    String changedConfigurationName = "soh-control.soh-monitor-types-for-rollup-station";
+
+    AtomicBoolean changed = new AtomicBoolean(false);
+
+    ConfigurationRepository configurationRepository = Mockito.mock(ConfigurationRepository.class);
+    Mockito.when(configurationRepository.getKeyRange(Mockito.anyString()))
+        .thenAnswer(invocation -> {
+          String prefix = invocation.getArgument(0);
+          return fileConfigurationRepository.getKeyRange(prefix).stream()
+              .map(configuration -> changed.get()
+                  && configuration.getName().equals(changedConfigurationName) ?
+                  changeStationARollupMonitorTypes(configuration) : configuration)
+              .collect(Collectors.toList());
+        });
+
+    init(configurationRepository);
+
+    Map<String, StationSohDefinition> initialDefinitions = stationSohControlConfiguration
+        .getInitialConfigurationPair().getStationSohMonitoringDefinition()
+        .getStationSohDefinitions().stream()
+        .collect(Collectors.toMap(StationSohDefinition::getStationName, Function.identity()));
+
+    Assertions.assertTrue(stationSohControlConfiguration.refreshConfigurationPair().isEmpty());
+
+    changed.set(true);
+
+    StationSohMonitoringDefinition refreshedMonitoringDefinition = stationSohControlConfiguration
+        .refreshConfigurationPair().orElseThrow().getStationSohMonitoringDefinition();
+
+    Map<String, StationSohDefinition> refreshedDefinitions = refreshedMonitoringDefinition
+        .getStationSohDefinitions().stream()
+        .collect(Collectors.toMap(StationSohDefinition::getStationName, Function.identity()));
+
+    Assertions.assertEquals(initialDefinitions.keySet(), refreshedDefinitions.keySet());
+
+    Assertions.assertEquals(Set.of(SohMonitorType.MISSING),
+        refreshedDefinitions.get("StationA").getSohMonitorTypesForRollup());
+
+    // Stations the change does not apply to keep their existing definitions
+    Assertions.assertSame(initialDefinitions.get("StationB"), refreshedDefinitions.get("StationB"));
+    Assertions.assertSame(initialDefinitions.get("StationC"), refreshedDefinitions.get("StationC"));
+
+    Assertions.assertTrue(stationSohControlConfiguration.refreshConfigurationPair().isEmpty());
+  }
+
+  private static Configuration changeStationARollupMonitorTypes(Configuration configuration) {
+
+    return Configuration.from(
+        configuration.getName(),
+        configuration.getConfigurationOptions().stream()
+            .map(option -> option.getName().equals("StationA") ?
+                ConfigurationOption.from(
+                    option.getName(),
+                    option.getConstraints(),
+                    Map.of("sohMonitorTypesForRollup", List.of("MISSING"))
+                ) : option)
+            .collect(Collectors.toList()),
+        configuration.getChangeTime()
+    );
+  }
+
   @Test
   void testGetStationSohMonitoringDefinition() {
 
@@ -31,7 +31,6 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
@@ -374,7 +373,7 @@ public class StationSohControlTests {
 
                 if (firstCall.compareAndExchange(true, false)) {
                   return Tuples.of(
-                      (Set<AcquiredStationSohExtract>) new HashSet<>(extracts1),
+                      IndexedStationSohExtracts.from(extracts1),
                       (Collection<ReceiverOffset>) Collections.<ReceiverOffset>singleton(
                           new ReceiverOffset() {
                             @Override
@@ -400,7 +399,7 @@ public class StationSohControlTests {
                   );
                 } else {
                   return Tuples.of(
-                      (Set<AcquiredStationSohExtract>) Collections.<AcquiredStationSohExtract>emptySet(),
+                      IndexedStationSohExtracts.from(Set.of()),
                       (Collection<ReceiverOffset>) Collections.<ReceiverOffset>emptySet());
                 }
               }
@@ -5,6 +5,11 @@ import gms.core.performancemonitoring.soh.control.configuration.PercentSohMonito
 import gms.core.performancemonitoring.soh.control.configuration.SohMonitorStatusThresholdDefinition;
 import gms.core.performancemonitoring.soh.control.configuration.StationSohDefinition;
 import gms.core.performancemonitoring.soh.control.configuration.TimeWindowDefinition;
+import gms.shared.frameworks.configuration.Configuration;
+import gms.shared.frameworks.configuration.ConfigurationOption;
+import gms.shared.frameworks.configuration.Operator;
+import gms.shared.frameworks.configuration.Operator.Type;
+import gms.shared.frameworks.configuration.constraints.StringConstraint;
 import gms.shared.frameworks.configuration.repository.FileConfigurationRepository;
 import gms.shared.frameworks.configuration.repository.client.ConfigurationConsumerUtility;
 import gms.shared.frameworks.osd.coi.channel.Channel;
@@ -24,6 +29,7 @@ import java.util.Set;
 import java.util.TreeSet;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -391,4 +397,82 @@ public class StationSohControlUtilityTests {
         )
     );
   }
+
+  @Test
+  void testResolveAffectedStationNames() {
+
+    Set<String> stationNames = Set.of("StationA", "StationB", "StationC");
+    Map<String, String> stationNameByChannelName = Map.of(
+        "ChannelA", "StationA",
+        "ChannelD", "StationB",
+        "ChannelF", "StationC"
+    );
+
+    ConfigurationOption defaultOption = ConfigurationOption.from(
+        "DEFAULT", List.of(), Map.of("value", 1));
+    ConfigurationOption stationAOption = ConfigurationOption.from(
+        "StationA",
+        List.of(StringConstraint.from("StationName", Operator.from(Type.EQ, false),
+            Set.of("StationA"), 1)),
+        Map.of("value", 2));
+    ConfigurationOption channelDOption = ConfigurationOption.from(
+        "ChannelD",
+        List.of(StringConstraint.from("ChannelName", Operator.from(Type.IN, false),
+            Set.of("ChannelD"), 1)),
+        Map.of("value", 3));
+
+    Configuration previous = Configuration.from(
+        "soh-control.test", List.of(defaultOption, stationAOption, channelDOption));
+
+    // Changing an option constrained by station name only affects that station
+    Assertions.assertEquals(Set.of("StationA"),
+        StationSohControlUtility.resolveAffectedStationNames(
+            previous,
+            Configuration.from("soh-control.test", List.of(defaultOption,
+                ConfigurationOption.from("StationA", stationAOption.getConstraints(),
+                    Map.of("value", 4)),
+                channelDOption)),
+            stationNames,
+            stationNameByChannelName));
+
+    // Removing an option constrained by channel name only affects the channel's station
+    Assertions.assertEquals(Set.of("StationB"),
+        StationSohControlUtility.resolveAffectedStationNames(
+            previous,
+            Configuration.from("soh-control.test", List.of(defaultOption, stationAOption)),
+            stationNames,
+            stationNameByChannelName));
+
+    // Changing the default affects every station
+    Assertions.assertEquals(stationNames,
+        StationSohControlUtility.resolveAffectedStationNames(
+            previous,
+            Configuration.from("soh-control.test", List.of(
+                ConfigurationOption.from("DEFAULT", List.of(), Map.of("value", 5)),
+                stationAOption, channelDOption)),
+            stationNames,
+            stationNameByChannelName));
+
+    // A negated station name constraint applies to every other station
+    Assertions.assertEquals(stationNames,
+        StationSohControlUtility.resolveAffectedStationNames(
+            previous,
+            Configuration.from("soh-control.test", List.of(defaultOption, stationAOption,
+                channelDOption,
+                ConfigurationOption.from("NotStationA",
+                    List.of(StringConstraint.from("StationName", Operator.from(Type.EQ, true),
+                        Set.of("StationA"), 1)),
+                    Map.of("value", 6)))),
+            stationNames,
+            stationNameByChannelName));
+
+    // Reordering options is not a change
+    Assertions.assertEquals(Set.of(),
+        StationSohControlUtility.resolveAffectedStationNames(
+            previous,
+            Configuration.from("soh-control.test",
+                List.of(channelDOption, stationAOption, defaultOption)),
+            stationNames,
+            stationNameByChannelName));
+  }
 }
@@ -0,0 +1,202 @@
+package gms.core.performancemonitoring.soh.control;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gms.shared.frameworks.osd.coi.channel.dataacquisitionstatus.AcquiredStationSohExtract;
+import gms.shared.frameworks.osd.coi.channel.soh.AcquiredChannelEnvironmentIssueBoolean;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+
+class StationSohExtractIndexTests {
+
+  @Test
+  void testIndexMatchesGroupingOfExtracts() throws IOException {
+
+    Set<AcquiredStationSohExtract> extracts = new HashSet<>(TestFixture.loadExtracts());
+
+    AcquiredSampleTimesByChannel acquiredSampleTimesByChannel = new AcquiredSampleTimesByChannel();
+    acquiredSampleTimesByChannel.setLatestChannelToEndTime(Map.of());
+
+    Map<String, Set<WaveformSummaryAndReceptionTime>> expectedWaveformMap =
+        StationSohCalculationUtility.createWsRtMapAndPopulateSampleTimes(
+            extracts, acquiredSampleTimesByChannel);
+
+    @SuppressWarnings("deprecation")
+    Map<String, Set<AcquiredChannelEnvironmentIssueBoolean>> expectedAceiMap =
+        StationSohCalculationUtility.createAceiBooleanMap(extracts);
+
+    IndexedStationSohExtracts indexedExtracts = IndexedStationSohExtracts.from(extracts);
+
+    assertEquals(extracts, indexedExtracts.getExtracts());
+
+    assertEquals(expectedWaveformMap, flatten(
+        expectedWaveformMap.keySet(), indexedExtracts::getWaveformSummaryAndReceptionTimes));
+
+    assertEquals(expectedAceiMap, flatten(
+        expectedAceiMap.keySet(), indexedExtracts::getAceiBooleans));
+
+    expectedWaveformMap.keySet().forEach(channelName -> assertEquals(
+        acquiredSampleTimesByChannel.getLatestEndTime(channelName).orElseThrow(),
+        indexedExtracts.getLatestEndTimeByChannel().get(channelName)
+    ));
+  }
+
+  @Test
+  void testExpireRemovesOldExtractsFromIndex() throws IOException {
+
+    List<AcquiredStationSohExtract> extracts = TestFixture.loadExtracts().stream()
+        .filter(extract -> !extract.getAcquisitionMetadata().isEmpty())
+        .sorted(Comparator.comparing(extract ->
+            StationSohExtractIndex.latestPayloadEndTime(extract).orElseThrow()))
+        .collect(Collectors.toList());
+
+    assertTrue(extracts.size() > 1);
+
+    StationSohExtractIndex index = new StationSohExtractIndex();
+    extracts.forEach(extract ->
+        index.add(StationSohExtractIndex.latestPayloadEndTime(extract).orElseThrow(), extract));
+
+    Instant limit = StationSohExtractIndex.latestPayloadEndTime(
+        extracts.get(extracts.size() / 2)).orElseThrow();
+
+    Set<AcquiredStationSohExtract> expectedExpired = extracts.stream()
+        .filter(extract ->
+            !StationSohExtractIndex.latestPayloadEndTime(extract).orElseThrow().isAfter(limit))
+        .collect(Collectors.toSet());
+
+    Set<AcquiredStationSohExtract> expectedRemaining = new HashSet<>(extracts);
+    expectedRemaining.removeAll(expectedExpired);
+
+    Set<AcquiredStationSohExtract> expired = index.expire(limit).stream()
+        .flatMap(List::stream)
+        .collect(Collectors.toSet());
+
+    assertFalse(expired.isEmpty());
+    assertEquals(expectedExpired, expired);
+    assertEquals(expectedRemaining, index.getExtracts());
+
+    //
+    // The snapshot after expiring must hold exactly what a fresh index of the remaining
+    // extracts would hold.
+    //
+    IndexedStationSohExtracts actual = index.snapshot();
+    IndexedStationSohExtracts expected = IndexedStationSohExtracts.from(expectedRemaining);
+
+    Set<String> stationNames = extracts.stream()
+        .flatMap(extract -> extract.getAcquisitionMetadata().stream())
+        .flatMap(metadata -> metadata.getWaveformSummaries().keySet().stream())
+        .map(StationSohExtractIndex::stationNameOf)
+        .collect(Collectors.toSet());
+
+    stationNames.forEach(stationName -> {
+      assertEquals(
+          expected.getWaveformSummaryAndReceptionTimes(stationName),
+          actual.getWaveformSummaryAndReceptionTimes(stationName));
+      assertEquals(
+          expected.getAceiBooleans(stationName),
+          actual.getAceiBooleans(stationName));
+    });
+
+    assertEquals(expected.getLatestEndTimeByChannel(), actual.getLatestEndTimeByChannel());
+
+    index.expire(Instant.MAX);
+
+    assertTrue(index.getExtracts().isEmpty());
+    stationNames.forEach(stationName ->
+        assertTrue(index.snapshot().getWaveformSummaryAndReceptionTimes(stationName).isEmpty()));
+  }
+
+  @Test
+  void testSnapshotSharesEntriesOfUnchangedStations() throws IOException {
+
+    List<AcquiredStationSohExtract> extracts = TestFixture.loadExtracts().stream()
+        .filter(extract -> !extract.getAcquisitionMetadata().isEmpty())
+        .collect(Collectors.toList());
+
+    StationSohExtractIndex index = new StationSohExtractIndex();
+    extracts.forEach(extract ->
+        index.add(StationSohExtractIndex.latestPayloadEndTime(extract).orElseThrow(), extract));
+
+    Set<String> stationNames = extracts.stream()
+        .flatMap(extract -> stationNamesOf(extract).stream())
+        .collect(Collectors.toSet());
+
+    AcquiredStationSohExtract changedExtract = extracts.get(0);
+    Set<String> changedStationNames = stationNamesOf(changedExtract);
+
+    assertTrue(stationNames.size() > changedStationNames.size());
+
+    IndexedStationSohExtracts before = index.snapshot();
+
+    // Re-adding an extract under a later payload end time changes only the stations it covers
+    index.add(Instant.MAX, changedExtract);
+
+    IndexedStationSohExtracts after = index.snapshot();
+
+    stationNames.forEach(stationName -> {
+      if (changedStationNames.contains(stationName)) {
+        if (after.getWaveformSummaryAndReceptionTimes(stationName).isEmpty()) {
+          return;
+        }
+        assertNotSame(before.getWaveformSummaryAndReceptionTimes(stationName),
+            after.getWaveformSummaryAndReceptionTimes(stationName));
+      } else {
+        assertSame(before.getWaveformSummaryAndReceptionTimes(stationName),
+            after.getWaveformSummaryAndReceptionTimes(stationName));
+        assertSame(before.getAceiBooleans(stationName), after.getAceiBooleans(stationName));
+      }
+    });
+
+    // With no changes in between, every station's entries are shared
+    IndexedStationSohExtracts unchanged = index.snapshot();
+
+    stationNames.forEach(stationName -> assertSame(
+        after.getWaveformSummaryAndReceptionTimes(stationName),
+        unchanged.getWaveformSummaryAndReceptionTimes(stationName)));
+    assertSame(after.getExtracts(), unchanged.getExtracts());
+  }
+
+  @Test
+  void testStationNameOf() {
+    assertEquals("STA", StationSohExtractIndex.stationNameOf("STA.STA01.BHZ"));
+    assertEquals("STA", StationSohExtractIndex.stationNameOf("STA"));
+  }
+
+  private static Set<String> stationNamesOf(AcquiredStationSohExtract extract) {
+    return Stream.concat(
+        extract.getAcquisitionMetadata().stream()
+            .flatMap(metadata -> metadata.getWaveformSummaries().keySet().stream()),
+        extract.getAcquiredChannelEnvironmentIssues().stream()
+            .map(acei -> acei.getChannelName()))
+        .map(StationSohExtractIndex::stationNameOf)
+        .collect(Collectors.toSet());
+  }
+
+  private static <T> Map<String, Set<T>> flatten(
+      Set<String> channelNames,
+      Function<String, Map<String, Set<T>>> stationSlice) {
+
+    Map<String, Set<T>> flattened = new HashMap<>();
+
+    channelNames.stream()
+        .map(StationSohExtractIndex::stationNameOf)
+        .distinct()
+        .forEach(stationName -> flattened.putAll(stationSlice.apply(stationName)));
+
+    return flattened;
+  }
+}
@@ -0,0 +1,262 @@
+package gms.core.performancemonitoring.soh.control;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import gms.shared.frameworks.osd.coi.channel.dataacquisitionstatus.AcquiredStationSohExtract;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class StationSohExtractRingTests {
+
+  private static final Duration SLICE = Duration.ofSeconds(10);
+
+  private static final int BUCKET_COUNT = 16;
+
+  @Test
+  void testExpireAndSnapshotMatchesIndex() throws IOException {
+
+    List<AcquiredStationSohExtract> extracts = extractsWithMetadata();
+
+    Instant earliest = StationSohExtractIndex.latestPayloadEndTime(extracts.get(0)).orElseThrow();
+    Instant latest = StationSohExtractIndex.latestPayloadEndTime(
+        extracts.get(extracts.size() - 1)).orElseThrow();
+
+    // Large enough to hold all of the extracts
+    StationSohExtractRing ring = new StationSohExtractRing(
+        Duration.between(earliest, latest).plusSeconds(BUCKET_COUNT).dividedBy(BUCKET_COUNT / 2),
+        BUCKET_COUNT);
+
+    StationSohExtractIndex index = new StationSohExtractIndex();
+
+    extracts.forEach(extract -> {
+      Instant payloadEndTime = StationSohExtractIndex.latestPayloadEndTime(extract).orElseThrow();
+      assertTrue(ring.add(payloadEndTime, extract, earliest.minusMillis(1)));
+      index.add(payloadEndTime, extract);
+    });
+
+    Instant limit = StationSohExtractIndex.latestPayloadEndTime(
+        extracts.get(extracts.size() / 2)).orElseThrow();
+
+    Set<AcquiredStationSohExtract> expectedExpired = index.expire(limit).stream()
+        .flatMap(List::stream)
+        .collect(Collectors.toSet());
+
+    Set<AcquiredStationSohExtract> expired = new HashSet<>();
+
+    IndexedStationSohExtracts actual = ring.expireAndSnapshot(limit, expired::addAll);
+    IndexedStationSohExtracts expected = index.snapshot();
+
+    assertFalse(expired.isEmpty());
+    assertEquals(expectedExpired, expired);
+    assertEquals(expected.getExtracts(), actual.getExtracts());
+    assertEquals(expected.getLatestEndTimeByChannel(), actual.getLatestEndTimeByChannel());
+
+    expected.getLatestEndTimeByChannel().keySet().stream()
+        .map(StationSohExtractIndex::stationNameOf)
+        .distinct()
+        .forEach(stationName -> {
+          assertEquals(
+              expected.getWaveformSummaryAndReceptionTimes(stationName),
+              actual.getWaveformSummaryAndReceptionTimes(stationName));
+          assertEquals(
+              expected.getAceiBooleans(stationName),
+              actual.getAceiBooleans(stationName));
+        });
+  }
+
+  @Test
+  void testAddRejectsExpiredExtracts() throws IOException {
+
+    AcquiredStationSohExtract extract = extractsWithMetadata().get(0);
+
+    StationSohExtractRing ring = new StationSohExtractRing(SLICE, BUCKET_COUNT);
+
+    Instant limit = Instant.parse("2020-06-01T00:00:00Z");
+
+    assertFalse(ring.add(limit, extract, limit));
+    assertTrue(ring.add(limit.plusMillis(1), extract, limit));
+
+    assertEquals(Set.of(extract), ring.getExtracts());
+    assertEquals(0, ring.getClampedAddCount());
+  }
+
+  @Test
+  void testFarFutureExtractIsClampedAndKeptUntilItExpires() throws IOException {
+
+    List<AcquiredStationSohExtract> extracts = extractsWithMetadata();
+
+    StationSohExtractRing ring = new StationSohExtractRing(SLICE, BUCKET_COUNT);
+
+    Instant limit = Instant.parse("2020-06-01T00:00:00Z");
+
+    // As from a station whose clock is ten ring spans ahead
+    Instant farFuture = limit.plus(SLICE.multipliedBy(BUCKET_COUNT * 10L));
+    assertTrue(ring.add(farFuture, extracts.get(0), limit));
+    assertTrue(ring.add(limit.plus(SLICE), extracts.get(1), limit));
+    assertEquals(1, ring.getClampedAddCount());
+
+    // The clamped extract outlives its bucket, and the ordinary extract expires as usual
+    List<AcquiredStationSohExtract> expired = new ArrayList<>();
+    for (int i = 2; i <= BUCKET_COUNT * 3; i++) {
+      IndexedStationSohExtracts snapshot = ring.expireAndSnapshot(
+          limit.plus(SLICE.multipliedBy(i)), expired::addAll);
+      assertEquals(Set.of(extracts.get(0)), snapshot.getExtracts());
+    }
+    assertEquals(List.of(extracts.get(1)), expired);
+
+    ring.ensureSpan(SLICE.multipliedBy(BUCKET_COUNT * 4L));
+    assertEquals(Set.of(extracts.get(0)), ring.getExtracts());
+
+    expired.clear();
+    IndexedStationSohExtracts snapshot = ring.expireAndSnapshot(farFuture, expired::addAll);
+    assertEquals(List.of(extracts.get(0)), expired);
+    assertTrue(snapshot.getExtracts().isEmpty());
+  }
+
+  @Test
+  void testOldBucketsAreRotatedOutAndReported() throws IOException {
+
+    List<AcquiredStationSohExtract> extracts = extractsWithMetadata();
+
+    StationSohExtractRing ring = new StationSohExtractRing(SLICE, BUCKET_COUNT);
+
+    Instant start = Instant.parse("2020-06-01T00:00:00Z");
+
+    assertTrue(ring.add(start, extracts.get(0), start.minusMillis(1)));
+
+    // Lands in the same slot as the first extract, one full ring later
+    Instant later = start.plus(SLICE.multipliedBy(BUCKET_COUNT));
+    assertTrue(ring.add(later, extracts.get(1), later.minus(SLICE)));
+
+    assertEquals(1, ring.getBucketRotationCount());
+
+    List<AcquiredStationSohExtract> expired = new ArrayList<>();
+    IndexedStationSohExtracts snapshot = ring.expireAndSnapshot(later.minus(SLICE),
+        expired::addAll);
+
+    assertEquals(List.of(extracts.get(0)), expired);
+    assertEquals(Set.of(extracts.get(1)), snapshot.getExtracts());
+  }
+
+  @Test
+  void testEnsureSpanKeepsExtracts() throws IOException {
+
+    List<AcquiredStationSohExtract> extracts = extractsWithMetadata().subList(0, 4);
+
+    StationSohExtractRing ring = new StationSohExtractRing(SLICE, BUCKET_COUNT);
+
+    Instant start = Instant.parse("2020-06-01T00:00:00Z");
+
+    for (int i = 0; i < extracts.size(); i++) {
+      assertTrue(ring.add(start.plus(SLICE.multipliedBy(i)), extracts.get(i),
+          start.minusMillis(1)));
+    }
+
+    Duration span = SLICE.multipliedBy(BUCKET_COUNT * 4L);
+    ring.ensureSpan(span);
+
+    assertTrue(ring.getSpan().compareTo(span) >= 0);
+    assertEquals(Set.copyOf(extracts), ring.getExtracts());
+
+    List<AcquiredStationSohExtract> expired = new ArrayList<>();
+    IndexedStationSohExtracts snapshot = ring.expireAndSnapshot(start.plus(SLICE),
+        expired::addAll);
+
+    assertEquals(Set.copyOf(extracts.subList(0, 2)), Set.copyOf(expired));
+    assertEquals(Set.copyOf(extracts.subList(2, 4)), snapshot.getExtracts());
+  }
+
+  /**
+   * Adds distinct extracts from several writers while a reader repeatedly expires and snapshots
+   * the ring and the ring is repeatedly resized, then checks that every extract is still held.
+   */
+  @Test
+  void testNoExtractLostUnderContention() throws Exception {
+
+    int writerCount = 4;
+    int addsPerWriter = 2_000;
+
+    Instant start = Instant.parse("2020-06-01T00:00:00Z");
+    Duration spacing = Duration.ofMillis(10);
+    Instant limit = start.minusMillis(1);
+
+    StationSohExtractRing ring = new StationSohExtractRing(Duration.ofSeconds(1), 128);
+
+    // Mocks are only equal to themselves, so each add is of a distinct extract
+    List<List<AcquiredStationSohExtract>> extractsByWriter = new ArrayList<>();
+    for (int writer = 0; writer < writerCount; writer++) {
+      List<AcquiredStationSohExtract> writerExtracts = new ArrayList<>();
+      for (int i = 0; i < addsPerWriter; i++) {
+        writerExtracts.add(mock(AcquiredStationSohExtract.class));
+      }
+      extractsByWriter.add(writerExtracts);
+    }
+
+    ExecutorService executorService = Executors.newFixedThreadPool(writerCount + 2);
+    AtomicBoolean writing = new AtomicBoolean(true);
+    CountDownLatch writersDone = new CountDownLatch(writerCount);
+    AtomicInteger resizeCount = new AtomicInteger();
+
+    executorService.submit(() -> {
+      while (writing.get()) {
+        ring.expireAndSnapshot(limit, expired -> {
+        });
+      }
+    });
+
+    executorService.submit(() -> {
+      while (writing.get()) {
+        ring.ensureSpan(ring.getSpan().plusSeconds(1));
+        resizeCount.incrementAndGet();
+      }
+    });
+
+    for (int writer = 0; writer < writerCount; writer++) {
+      List<AcquiredStationSohExtract> writerExtracts = extractsByWriter.get(writer);
+      executorService.submit(() -> {
+        for (int i = 0; i < addsPerWriter; i++) {
+          assertTrue(ring.add(start.plus(spacing.multipliedBy(i)), writerExtracts.get(i), limit));
+        }
+        writersDone.countDown();
+      });
+    }
+
+    assertTrue(writersDone.await(60, TimeUnit.SECONDS));
+    writing.set(false);
+    executorService.shutdown();
+    assertTrue(executorService.awaitTermination(60, TimeUnit.SECONDS));
+
+    assertTrue(resizeCount.get() > 0);
+
+    Set<AcquiredStationSohExtract> expected = extractsByWriter.stream()
+        .flatMap(List::stream)
+        .collect(Collectors.toSet());
+
+    assertEquals(expected, ring.getExtracts());
+  }
+
+  private static List<AcquiredStationSohExtract> extractsWithMetadata() throws IOException {
+    return TestFixture.loadExtracts().stream()
+        .filter(extract -> !extract.getAcquisitionMetadata().isEmpty())
+        .sorted(Comparator.comparing(extract ->
+            StationSohExtractIndex.latestPayloadEndTime(extract).orElseThrow()))
+        .collect(Collectors.toList());
+  }
+}
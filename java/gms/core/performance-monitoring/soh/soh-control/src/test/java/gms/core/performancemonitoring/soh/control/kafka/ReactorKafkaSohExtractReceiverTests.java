@@ -63,7 +63,7 @@ class ReactorKafkaSohExtractReceiverTests {
     kafkaSohExtractReceiver.receive(
         Duration.ofSeconds(1),
         p -> {
-          extractsReceivedList.addAll(p.getT1());
+          extractsReceivedList.addAll(p.getT1().getExtracts());
           receiverOffsets.addAll(p.getT2());
         },
         List.of()
@@ -119,7 +119,7 @@ class ReactorKafkaSohExtractReceiverTests {
     kafkaSohExtractReceiver.receive(
         Duration.ofSeconds(1),
         p -> {
-          extractsReceivedList.addAll(p.getT1());
+          extractsReceivedList.addAll(p.getT1().getExtracts());
           receiverOffsets.addAll(p.getT2());
         },
         extraExtracts
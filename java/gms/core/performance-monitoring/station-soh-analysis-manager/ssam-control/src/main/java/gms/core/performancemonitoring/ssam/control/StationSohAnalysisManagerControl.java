@@ -3,18 +3,24 @@ package gms.core.performancemonitoring.ssam.control;
 import com.google.common.collect.Lists;
 import gms.core.performancemonitoring.soh.control.configuration.StationSohDefinition;
 import gms.core.performancemonitoring.ssam.control.api.StationSohAnalysisManager;
+import gms.core.performancemonitoring.ssam.control.cache.SohLatencyTracker;
 import gms.core.performancemonitoring.ssam.control.cache.StationSohCorrelatingCacheProcessor;
+import gms.core.performancemonitoring.ssam.control.cache.TimeWindowedDistinct;
 import gms.core.performancemonitoring.ssam.control.config.StationSohMonitoringDefinition;
 import gms.core.performancemonitoring.ssam.control.config.StationSohMonitoringUiClientParameters;
 import gms.core.performancemonitoring.ssam.control.dataprovider.FluxProvider;
 import gms.core.performancemonitoring.ssam.control.dataprovider.KafkaFluxProvider;
+import gms.core.performancemonitoring.ssam.control.dataprovider.OsdStationGroupFluxProvider;
 import gms.core.performancemonitoring.ssam.control.datapublisher.KafkaPublisher;
 import gms.core.performancemonitoring.ssam.control.processor.AcknowledgeSohStatusChangeMaterializedViewProcessor;
+import gms.core.performancemonitoring.ssam.control.processor.MaterializedViewDeltaProcessor;
 import gms.core.performancemonitoring.ssam.control.processor.QuietedSohStatusChangeUpdateMaterializedViewProcessor;
+import gms.core.performancemonitoring.ssam.control.processor.SystemMessageCoalescingProcessor;
 import gms.core.performancemonitoring.uimaterializedview.AcknowledgedSohStatusChange;
 import gms.core.performancemonitoring.ssam.control.processor.MaterializedViewProcessor;
 import gms.core.performancemonitoring.uimaterializedview.QuietedSohStatusChangeUpdate;
 import gms.core.performancemonitoring.uimaterializedview.SohQuietAndUnacknowledgedCacheManager;
+import gms.core.performancemonitoring.uimaterializedview.UiMaterializedViewContext;
 import gms.core.performancemonitoring.uimaterializedview.UiStationAndStationGroups;
 import gms.core.performancemonitoring.uimaterializedview.UiStationSoh;
 import gms.shared.frameworks.control.ControlContext;
@@ -27,6 +33,7 @@ import gms.shared.frameworks.osd.coi.soh.quieting.UnacknowledgedSohStatusChange;
 import gms.shared.frameworks.osd.coi.systemmessages.SystemMessage;
 import gms.shared.frameworks.soh.repository.SohRepositoryFactory;
 import gms.shared.frameworks.systemconfig.SystemConfig;
+import gms.shared.metrics.CustomMetric;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -38,7 +45,10 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.kafka.clients.producer.ProducerConfig;
@@ -101,6 +111,14 @@ public class StationSohAnalysisManagerControl implements StationSohAnalysisManag
 
   private static final Level TIMING = Level.getLevel("TIMING");
 
+  private static final CustomMetric<Long, Long> timeToFirstView =
+      CustomMetric.create(CustomMetric::updateTimingData,
+          "ssamInitializationTimeToFirstView:type=Value", 0L);
+
+  private static final CustomMetric<Long, Long> timeToFullView =
+      CustomMetric.create(CustomMetric::updateTimingData,
+          "ssamInitializationTimeToFullView:type=Value", 0L);
+
   public static final String KAFKA_BOOTSTRAP_SERVERS = "kafka-bootstrap-servers";
   public static final String STATION_SOH_INPUT_TOPIC = "soh_station_input_topic";
   public static final String STATION_SOH_INPUT_TOPIC_DEFAULT = "soh.station-soh";
@@ -118,6 +136,22 @@ public class StationSohAnalysisManagerControl implements StationSohAnalysisManag
   public static final String STATION_SOH_QUIETED_OUTPUT_TOPIC_DEFAULT = "soh.quieted-status-change";
   public static final String STATION_SOH_STATUS_CHANGE_OUTPUT_TOPIC = "status_change_output_topic";
   public static final String STATION_SOH_STATUS_CHANGE_OUTPUT_TOPIC_DEFAULT = "soh.status-change-event";
+  public static final String MATERIALIZED_VIEW_DELTA_ENABLED = "materialized_view_delta_enabled";
+  public static final String MATERIALIZED_VIEW_DELTA_ENABLED_DEFAULT = "false";
+  public static final String MATERIALIZED_VIEW_KEYFRAME_PERIOD = "materialized_view_keyframe_period";
+  public static final String MATERIALIZED_VIEW_KEYFRAME_PERIOD_DEFAULT = "PT1M";
+  public static final String MATERIALIZED_VIEW_PARALLEL_GENERATION = "materialized_view_parallel_generation";
+  public static final String MATERIALIZED_VIEW_PARALLEL_GENERATION_DEFAULT = "false";
+  public static final String CORRELATION_WINDOW = "correlation_window";
+  public static final String CORRELATION_WINDOW_DEFAULT = "PT2M";
+  public static final String STREAMING_INITIALIZATION = "streaming_initialization";
+  public static final String STREAMING_INITIALIZATION_DEFAULT = "false";
+  public static final String INITIALIZATION_CONCURRENCY = "initialization_concurrency";
+  public static final String INITIALIZATION_CONCURRENCY_DEFAULT = "4";
+  public static final String SYSTEM_MESSAGE_COALESCING_WINDOW = "system_message_coalescing_window";
+  public static final String SYSTEM_MESSAGE_COALESCING_WINDOW_DEFAULT = "PT1S";
+  public static final String SYSTEM_MESSAGE_MAX_BATCH_SIZE = "system_message_max_batch_size";
+  public static final String SYSTEM_MESSAGE_MAX_BATCH_SIZE_DEFAULT = "10000";
   private final StationSohAnalysisManagerConfiguration stationSohAnalysisManagerConfiguration;
   private final SystemConfig systemConfig;
 
@@ -131,6 +165,25 @@ public class StationSohAnalysisManagerControl implements StationSohAnalysisManag
   // Initialized in startKafkaConsumersAndProducer()
   private KafkaSender<String, String> kafkaSender;
 
+  // Reduces the materialized views to the stations that changed. Reduces the main materialized
+  // view itself, and gives every other materialized view publisher its own stream.
+  // Initialized in startProvidersAndPublishers()
+  private MaterializedViewDeltaProcessor materializedViewDeltaProcessor;
+
+  // State carried from one materialized view to the next. Shared by every materialized view
+  // processor so that they agree on what was last reported. Initialized in
+  // startProvidersAndPublishers()
+  private UiMaterializedViewContext materializedViewContext;
+
+  // Latency traces of the StationSohs received, for reporting how long SOH took to reach the UI.
+  // Initialized in startProvidersAndPublishers()
+  private SohLatencyTracker sohLatencyTracker;
+
+  // When the control was started, for reporting how long it took to publish views
+  private Instant startTime;
+
+  private final AtomicBoolean firstViewReported = new AtomicBoolean();
+
   private final EmitterProcessor<SystemMessage> systemMessageEmitterProcessor = EmitterProcessor
       .create();
 
@@ -181,37 +234,18 @@ public class StationSohAnalysisManagerControl implements StationSohAnalysisManag
       active = true;
 
       // Initialize from OSD on start
-      Instant cachePullStart = Instant.now();
-      logger.log(SOH_TIMING, "Starting cache initializing at {}", cachePullStart);
-
-      initializeFromOsd(dataContainer -> {
-        Duration cacheFinish = Duration.between(cachePullStart, Instant.now());
-        logger.log(SOH_TIMING, "Cache initialization completed at {}", cacheFinish);
-
-        //
-        // Instantiate our quiet/unacknowledged list manager
-        //
-        // This needs to be instantiated before we start our providers and publishers
-        // because they will need to utilize it.
-        //
-        sohQuietAndUnacknowledgedCacheManager = new SohQuietAndUnacknowledgedCacheManager(
-            dataContainer.quietedSohStatusChanges,
-            dataContainer.unacknowledgedSohStatusChanges,
-            new ArrayList<>(dataContainer.latestStationSohByStation.values()),
-            this.stationSohAnalysisManagerConfiguration.resolveDisplayParameters(),
-            systemMessageEmitterProcessor.sink(),
-            unacknowledgedSohStatusChangeEmitterProcessor.sink()
-        );
-
-        //
-        // Start the various providers and publishers
-        //
-        logger.info("Starting providers and publishers");
-        startProvidersAndPublishers(
-            dataContainer.latestStationSohByStation,
-            dataContainer.latestCapabilitySohRollupByStationGroup
-        );
-      });
+      startTime = Instant.now();
+      logger.log(SOH_TIMING, "Starting cache initializing at {}", startTime);
+
+      if (Boolean.parseBoolean(getSystemConfigValue(systemConfig, STREAMING_INITIALIZATION,
+          STREAMING_INITIALIZATION_DEFAULT))) {
+        initializeFromOsdByStationGroup(this::startFromInitialData);
+      } else {
+        initializeFromOsd(dataContainer -> {
+          startFromInitialData(dataContainer, Flux.empty());
+          logCacheInitialized();
+        });
+      }
 
       // Register a shutdown hook to stop the control.
       Runtime.getRuntime().addShutdownHook(new Thread(this::stop));
@@ -226,19 +260,74 @@ public class StationSohAnalysisManagerControl implements StationSohAnalysisManag
     }
   }
 
+  /**
+   * Create the quiet/unacknowledged list manager from the data retrieved from the OSD, and start
+   * the providers and publishers.
+   *
+   * @param dataContainer The data retrieved from the OSD
+   * @param initialCorrelations CapabilitySohRollups and StationSohs still being retrieved from the
+   * OSD, which views are published for as they arrive
+   */
+  private void startFromInitialData(
+      DataContainer dataContainer,
+      Flux<Pair<CapabilitySohRollup, List<StationSoh>>> initialCorrelations
+  ) {
+    //
+    // Instantiate our quiet/unacknowledged list manager
+    //
+    // This needs to be instantiated before we start our providers and publishers
+    // because they will need to utilize it.
+    //
+    sohQuietAndUnacknowledgedCacheManager = new SohQuietAndUnacknowledgedCacheManager(
+        dataContainer.quietedSohStatusChanges,
+        dataContainer.unacknowledgedSohStatusChanges,
+        new ArrayList<>(dataContainer.latestStationSohByStation.values()),
+        this.stationSohAnalysisManagerConfiguration.resolveDisplayParameters(),
+        systemMessageEmitterProcessor.sink(),
+        unacknowledgedSohStatusChangeEmitterProcessor.sink()
+    );
+
+    //
+    // Start the various providers and publishers
+    //
+    logger.info("Starting providers and publishers");
+    startProvidersAndPublishers(
+        dataContainer.latestStationSohByStation,
+        dataContainer.latestCapabilitySohRollupByStationGroup,
+        initialCorrelations
+    );
+  }
+
   /**
    * Start up all of our providers and publishes so that we can receive things and publish things.
    *
    * @param latestStationSohByStation The latest StationSohs, by station name
    * @param latestCapabilitySohRollupByStationGroup The latest CapabilitySohRollups, by group name
+   * @param initialCorrelations CapabilitySohRollups and StationSohs still being retrieved from the
+   * OSD, which views are published for as they arrive
    */
   private void startProvidersAndPublishers(
       Map<String, StationSoh> latestStationSohByStation,
-      Map<String, CapabilitySohRollup> latestCapabilitySohRollupByStationGroup
+      Map<String, CapabilitySohRollup> latestCapabilitySohRollupByStationGroup,
+      Flux<Pair<CapabilitySohRollup, List<StationSoh>>> initialCorrelations
   ) {
 
     kafkaSender = KafkaSender.create(senderOptions(systemConfig));
 
+    materializedViewDeltaProcessor = MaterializedViewDeltaProcessor.create(
+        Boolean.parseBoolean(getSystemConfigValue(systemConfig, MATERIALIZED_VIEW_DELTA_ENABLED,
+            MATERIALIZED_VIEW_DELTA_ENABLED_DEFAULT)),
+        Duration.parse(getSystemConfigValue(systemConfig, MATERIALIZED_VIEW_KEYFRAME_PERIOD,
+            MATERIALIZED_VIEW_KEYFRAME_PERIOD_DEFAULT))
+    );
+
+    materializedViewContext = UiMaterializedViewContext.create(
+        Boolean.parseBoolean(getSystemConfigValue(systemConfig,
+            MATERIALIZED_VIEW_PARALLEL_GENERATION, MATERIALIZED_VIEW_PARALLEL_GENERATION_DEFAULT))
+    );
+
+    sohLatencyTracker = SohLatencyTracker.create(getCorrelationWindow());
+
     List<StationGroup> stationGroups = stationSohAnalysisManagerConfiguration.stationGroups();
 
     EmitterProcessor<Pair<CapabilitySohRollup, List<StationSoh>>> correlationProvider = EmitterProcessor
@@ -251,17 +340,20 @@ public class StationSohAnalysisManagerControl implements StationSohAnalysisManag
     );
 
     StationSohCorrelatingCacheProcessor rollupSohCacheProcessor =
-        StationSohCorrelatingCacheProcessor.create(correlationProvider.sink());
+        StationSohCorrelatingCacheProcessor.create(correlationProvider.sink(),
+            getCorrelationWindow());
 
     startStateOfHealthProviders(
         rollupSohCacheProcessor,
         systemConfig,
         latestStationSohByStation,
-        latestCapabilitySohRollupByStationGroup
+        latestCapabilitySohRollupByStationGroup,
+        sohLatencyTracker
     );
 
     startMaterializedViewPublisher(
         correlationProvider,
+        initialCorrelations,
         stationGroups,
         latestStationSohByStation
     );
@@ -310,7 +402,9 @@ public class StationSohAnalysisManagerControl implements StationSohAnalysisManag
   }
 
   /**
-   * Start publishing  System Messages provided by systemMessageFlux
+   * Start publishing  System Messages provided by systemMessageFlux. Messages are coalesced once
+   * per coalescing window, which only reduces the number of messages: those left are still sent
+   * as individual records.
    *
    * @param systemMessageFlux Flux of SystemMessage objects to publish
    * @param kafkaSender KafkaSender object
@@ -325,8 +419,16 @@ public class StationSohAnalysisManagerControl implements StationSohAnalysisManag
         SOH_SYSTEM_MESSAGE_OUTPUT_TOPIC,
         SOH_SYSTEM_MESSAGE_OUTPUT_TOPIC_DEFAULT);
 
+    var systemMessageCoalescingProcessor = SystemMessageCoalescingProcessor.create(
+        Duration.parse(getSystemConfigValue(systemConfig, SYSTEM_MESSAGE_COALESCING_WINDOW,
+            SYSTEM_MESSAGE_COALESCING_WINDOW_DEFAULT)),
+        Integer.parseInt(getSystemConfigValue(systemConfig, SYSTEM_MESSAGE_MAX_BATCH_SIZE,
+            SYSTEM_MESSAGE_MAX_BATCH_SIZE_DEFAULT))
+    );
+
     var systemMessagePublisher = new KafkaPublisher<>(
-        systemMessageFlux,
+        systemMessageCoalescingProcessor.coalesce(systemMessageFlux)
+            .flatMapIterable(Function.identity()),
         kafkaSender,
         systemMessagesOutputTopic
     );
@@ -342,12 +444,14 @@ public class StationSohAnalysisManagerControl implements StationSohAnalysisManag
    * @param systemConfig System configuration
    * @param latestStationSohByStation The latest StationSohs, by station name
    * @param latestCapabilitySohRollupByStationGroup The latest CapabilitySohRollups, by group name
+   * @param sohLatencyTracker Tracker given the latency trace of each object received
    */
   private static void startStateOfHealthProviders(
       StationSohCorrelatingCacheProcessor stationSohCorrelatingCacheProcessor,
       SystemConfig systemConfig,
       Map<String, StationSoh> latestStationSohByStation,
-      Map<String, CapabilitySohRollup> latestCapabilitySohRollupByStationGroup
+      Map<String, CapabilitySohRollup> latestCapabilitySohRollupByStationGroup,
+      SohLatencyTracker sohLatencyTracker
   ) {
     var stationSohInputTopic = getSystemConfigValue(systemConfig, STATION_SOH_INPUT_TOPIC,
         STATION_SOH_INPUT_TOPIC_DEFAULT);
@@ -356,9 +460,11 @@ public class StationSohAnalysisManagerControl implements StationSohAnalysisManag
         CAPABILITY_SOH_ROLLUP_INPUT_TOPIC, CAPABILITY_SOH_ROLLUP_INPUT_TOPIC_DEFAULT);
 
     FluxProvider<StationSoh> stationSohKafkaFluxProvider = KafkaFluxProvider
-        .create(StationSoh.class, stationSohInputTopic, systemConfig);
+        .create(StationSoh.class, stationSohInputTopic, systemConfig,
+            sohLatencyTracker::stationSohReceived);
     FluxProvider<CapabilitySohRollup> capabilitySohRollupFluxProvider = KafkaFluxProvider
-        .create(CapabilitySohRollup.class, capabilityRollupInputTopic, systemConfig);
+        .create(CapabilitySohRollup.class, capabilityRollupInputTopic, systemConfig,
+            sohLatencyTracker::capabilitySohRollupReceived);
 
     stationSohKafkaFluxProvider.getFlux()
         .doOnNext(
@@ -375,6 +481,15 @@ public class StationSohAnalysisManagerControl implements StationSohAnalysisManag
         .subscribe(stationSohCorrelatingCacheProcessor::track);
   }
 
+  /**
+   * @return how long incomplete correlations, and the keys used to remove duplicate correlations,
+   * are kept behind the newest calculation time
+   */
+  private Duration getCorrelationWindow() {
+    return Duration.parse(getSystemConfigValue(systemConfig, CORRELATION_WINDOW,
+        CORRELATION_WINDOW_DEFAULT));
+  }
+
   /**
    * Start the main materialized view processor - the one that contains the most recent state-of-health
    * info from upstream.
@@ -382,11 +497,14 @@ public class StationSohAnalysisManagerControl implements StationSohAnalysisManag
    * @param correlationProvider Flux that provides the correlated CapabilitySohRollups and StationSohs,
    * in the form a of a pairing of a single CapabilitySohRollup to the list of StationSoh objects
    * associated with it.
+   * @param initialCorrelations CapabilitySohRollups and StationSohs retrieved from the OSD at
+   * startup, in the same form as correlationProvider. Each is published as its own view.
    * @param stationGroups The StationGroups we are working with, for reference
    * @param latestStationSohByStation The latest StationSohs, by station name
    */
   private void startMaterializedViewPublisher(
       Flux<Pair<CapabilitySohRollup, List<StationSoh>>> correlationProvider,
+      Flux<Pair<CapabilitySohRollup, List<StationSoh>>> initialCorrelations,
       List<StationGroup> stationGroups,
       Map<String, StationSoh> latestStationSohByStation
   ) {
@@ -397,14 +515,16 @@ public class StationSohAnalysisManagerControl implements StationSohAnalysisManag
     MaterializedViewProcessor matViewProcessor = MaterializedViewProcessor
         .create(sohQuietAndUnacknowledgedCacheManager,
             stationSohAnalysisManagerConfiguration.resolveDisplayParameters(),
-            stationGroups, systemMessageEmitterProcessor.sink());
+            stationGroups, systemMessageEmitterProcessor.sink(), materializedViewContext);
 
     // Log for TIMING metrics
     var logEmitter = EmitterProcessor.<UiStationAndStationGroups>create();
     var logEmitterSink = logEmitter.sink();
     logEmitter.flatMap(
         uiStationAndStationGroups -> Flux.fromIterable(uiStationAndStationGroups.getStationSoh()))
-        .distinct(UiStationSoh::getUuid)
+        .filter(TimeWindowedDistinct.create(UiStationSoh::getUuid,
+            uiStationSoh -> Instant.ofEpochMilli(uiStationSoh.getTime()),
+            getCorrelationWindow()))
         .subscribeOn(Schedulers.boundedElastic())
         .subscribe(uiStationSoh -> logger.log(
             TIMING,
@@ -421,9 +541,11 @@ public class StationSohAnalysisManagerControl implements StationSohAnalysisManag
             // Because the correlation logic must be invoked when either a new StationSoh OR
             // new CapabilitySohRollup appears, there is a slight chance that a pair will be duplicated
             // when the last StationSoh for a CapabilitySohRollup appears at the same time that the
-            // CapabilitySohRollup appears.
+            // CapabilitySohRollup appears. Only the pairs within the correlation window are
+            // remembered, since duplicates share a calculation time.
             //
-            .distinct(Pair::getKey)
+            .filter(TimeWindowedDistinct.create(Pair::getKey,
+                pair -> pair.getKey().getTime(), getCorrelationWindow()))
 
             //
             // Separate groups of pairs out by the calculation time, which should match the time of
@@ -438,15 +560,73 @@ public class StationSohAnalysisManagerControl implements StationSohAnalysisManag
                 new ArrayList<>(latestStationSohByStation.values()))
             )
             .map(matViewProcessor)
+            .map(materializedViewDeltaProcessor)
             .flatMap(Flux::fromIterable)
+            .doOnNext(view -> reportFirstView())
             .doOnNext(logEmitterSink::next)
             .doOnTerminate(logEmitterSink::complete),
 
         this.kafkaSender,
-        materializedViewOutputTopic
+        materializedViewOutputTopic,
+        materializedViewDeltaProcessor::recordSerialization,
+        sohLatencyTracker::materializedViewSent
     );
 
     mainMaterializedViewPublisher.start();
+
+    var initialMaterializedViewPublisher = new KafkaPublisher<>(
+        initialCorrelations
+            .map(List::of)
+            .map(matViewProcessor)
+            .map(materializedViewDeltaProcessor.newStream())
+            .flatMap(Flux::fromIterable)
+            .doOnNext(view -> reportFirstView()),
+
+        this.kafkaSender,
+        materializedViewOutputTopic,
+        materializedViewDeltaProcessor::recordSerialization
+    );
+
+    initialMaterializedViewPublisher.start();
+  }
+
+  /**
+   * Report how long after start the first materialized view was published, the first time it is
+   * called.
+   */
+  private void reportFirstView() {
+    if (firstViewReported.compareAndSet(false, true)) {
+      var elapsed = Duration.between(startTime, Instant.now());
+      timeToFirstView.updateMetric(elapsed.toMillis());
+      logger.log(SOH_TIMING, "First materialized view published {} after start", elapsed);
+    }
+  }
+
+  /**
+   * Report how long after start the views of every station group retrieved from the OSD were
+   * published, which is also when the caches hold everything retrieved from the OSD.
+   */
+  private void reportFullView() {
+    var elapsed = Duration.between(startTime, Instant.now());
+    timeToFullView.updateMetric(elapsed.toMillis());
+    logger.log(SOH_TIMING, "Materialized views of all station groups published {} after start",
+        elapsed);
+    logCacheInitialized();
+  }
+
+  private void logCacheInitialized() {
+    Duration cacheFinish = Duration.between(startTime, Instant.now());
+    logger.log(SOH_TIMING, "Cache initialization completed at {}", cacheFinish);
+  }
+
+  /**
+   * Add StationSohs retrieved from the OSD one station group at a time to the quiet/unacknowledged
+   * list manager, so their status changes are tracked from the first live StationSoh on.
+   *
+   * @param stationSohs StationSohs as retrieved from the OSD
+   */
+  private void addInitialStationSoh(List<StationSoh> stationSohs) {
+    sohQuietAndUnacknowledgedCacheManager.addInitialStationSoh(stationSohs);
   }
 
   /**
@@ -489,11 +669,14 @@ public class StationSohAnalysisManagerControl implements StationSohAnalysisManag
                 latestStationSohByStation,
                 latestCapabilitySohRollupByStationGroup,
                 systemMessageEmitterProcessor.sink(),
-                stationGroups
+                stationGroups,
+                materializedViewContext
             ))
+            .map(materializedViewDeltaProcessor.newStream())
             .flatMap(Flux::fromIterable),
         this.kafkaSender,
-        acknowledgedMaterializedViewOutputTopic
+        acknowledgedMaterializedViewOutputTopic,
+        materializedViewDeltaProcessor::recordSerialization
     );
 
     acknowledgedMaterializedViewPublisher.start();
@@ -547,11 +730,14 @@ public class StationSohAnalysisManagerControl implements StationSohAnalysisManag
                 latestStationSohByStation,
                 latestCapabilitySohRollupByStationGroup,
                 systemMessageEmitterProcessor.sink(),
-                stationGroups
+                stationGroups,
+                materializedViewContext
             ))
+            .map(materializedViewDeltaProcessor.newStream())
             .flatMap(Flux::fromIterable),
         this.kafkaSender,
-        quietedMaterializedViewOutputTopic
+        quietedMaterializedViewOutputTopic,
+        materializedViewDeltaProcessor::recordSerialization
     );
 
     quietedMaterializedViewPublisher.start();
@@ -614,37 +800,27 @@ public class StationSohAnalysisManagerControl implements StationSohAnalysisManag
         stationSohAnalysisManagerConfiguration.getSohRepositoryInterface();
 
     //
-    // Calling Mono.just with the method calls will call them immediately and block, we want to
-    // parallelize them. So using Mono.just(true).
+    // Calling Mono.just with the method calls would call them immediately and block. Each query
+    // is instead called when subscribed to, on its own thread, so that they run in parallel.
     //
 
-    var stationSohMono = Mono.just(true).map(
-        b ->
-            initializeCurrentStationSoh(
-                stationSohMonitoringDefinition, sohRepositoryInterface
-            )
-    );
+    var stationSohMono = Mono.fromCallable(
+        () -> initializeCurrentStationSoh(stationSohMonitoringDefinition, sohRepositoryInterface)
+    ).subscribeOn(Schedulers.boundedElastic());
 
-    var capabilityMono = Mono.just(true).map(
-        b ->
-            initializeCurrentCapabilitySohRollups(
-                stationSohMonitoringDefinition, sohRepositoryInterface
-            )
-    );
+    var capabilityMono = Mono.fromCallable(
+        () -> initializeCurrentCapabilitySohRollups(
+            stationSohMonitoringDefinition, sohRepositoryInterface)
+    ).subscribeOn(Schedulers.boundedElastic());
 
-    var quietedStatusChangeMono = Mono.just(true).map(
-        b ->
-            initializeQuietedSohStatusChanges(
-                sohRepositoryInterface
-            )
-    );
+    var quietedStatusChangeMono = Mono.fromCallable(
+        () -> initializeQuietedSohStatusChanges(sohRepositoryInterface)
+    ).subscribeOn(Schedulers.boundedElastic());
 
-    var unackStatusChangeMono = Mono.just(true).map(
-        b ->
-            initializeUnacknowledgedSohStatusChanges(
-                stationSohMonitoringDefinition, sohRepositoryInterface
-            )
-    );
+    var unackStatusChangeMono = Mono.fromCallable(
+        () -> initializeUnacknowledgedSohStatusChanges(
+            stationSohMonitoringDefinition, sohRepositoryInterface)
+    ).subscribeOn(Schedulers.boundedElastic());
 
     Mono.zip(stationSohMono, capabilityMono, quietedStatusChangeMono, unackStatusChangeMono)
         .subscribe(
@@ -653,7 +829,81 @@ public class StationSohAnalysisManagerControl implements StationSohAnalysisManag
                 tuple.getT2(),
                 tuple.getT3(),
                 tuple.getT4()
-            ))
+            )),
+            error -> logger.error("Error initializing from the OSD", error)
+        );
+  }
+
+  /**
+   * Initialize from the OSD one station group at a time. The quieted and unacknowledged status
+   * changes are retrieved first, since every view depends on them. The consumer is then given
+   * empty maps of the latest StationSoh and CapabilitySohRollup, along with a Flux that fills
+   * them in one station group at a time, in display order, when subscribed to.
+   *
+   * @param dataContainerConsumer Consumer of the data retrieved up front, and the Flux of station
+   * groups still to be retrieved
+   */
+  private void initializeFromOsdByStationGroup(
+      BiConsumer<DataContainer, Flux<Pair<CapabilitySohRollup, List<StationSoh>>>> dataContainerConsumer) {
+
+    StationSohMonitoringUiClientParameters parameters =
+        resolveStationSohMonitoringUiClientParameters("");
+
+    Objects.requireNonNull(parameters,
+        "resolveStationSohMonitoringUiClientParameters returned null");
+
+    StationSohMonitoringDefinition stationSohMonitoringDefinition =
+        parameters.getStationSohControlConfiguration();
+
+    SohRepositoryInterface sohRepositoryInterface =
+        stationSohAnalysisManagerConfiguration.getSohRepositoryInterface();
+
+    var latestStationSohByStation = new ConcurrentHashMap<String, StationSoh>();
+    var latestCapabilitySohRollupByStationGroup =
+        new ConcurrentHashMap<String, CapabilitySohRollup>();
+
+    Map<String, StationGroup> stationGroupsByName = stationSohAnalysisManagerConfiguration
+        .stationGroups().stream()
+        .collect(Collectors.toMap(StationGroup::getName, Function.identity()));
+
+    List<StationGroup> displayedStationGroups = stationSohMonitoringDefinition
+        .getDisplayedStationGroups().stream()
+        .map(stationGroupsByName::get)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+
+    var initialCorrelations = OsdStationGroupFluxProvider.create(
+        sohRepositoryInterface,
+        displayedStationGroups,
+        latestStationSohByStation,
+        latestCapabilitySohRollupByStationGroup,
+        this::addInitialStationSoh,
+        Integer.parseInt(getSystemConfigValue(systemConfig, INITIALIZATION_CONCURRENCY,
+            INITIALIZATION_CONCURRENCY_DEFAULT))
+    ).getFlux()
+        .doOnComplete(this::reportFullView);
+
+    var quietedStatusChangeMono = Mono.fromCallable(
+        () -> initializeQuietedSohStatusChanges(sohRepositoryInterface)
+    ).subscribeOn(Schedulers.boundedElastic());
+
+    var unackStatusChangeMono = Mono.fromCallable(
+        () -> initializeUnacknowledgedSohStatusChanges(
+            stationSohMonitoringDefinition, sohRepositoryInterface)
+    ).subscribeOn(Schedulers.boundedElastic());
+
+    Mono.zip(quietedStatusChangeMono, unackStatusChangeMono)
+        .subscribe(
+            tuple -> dataContainerConsumer.accept(
+                new DataContainer(
+                    latestStationSohByStation,
+                    latestCapabilitySohRollupByStationGroup,
+                    tuple.getT1(),
+                    tuple.getT2()
+                ),
+                initialCorrelations
+            ),
+            error -> logger.error("Error initializing from the OSD", error)
         );
   }
 
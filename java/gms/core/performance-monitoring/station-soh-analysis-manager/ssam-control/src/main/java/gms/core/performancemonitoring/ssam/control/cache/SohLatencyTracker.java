@@ -0,0 +1,166 @@
+package gms.core.performancemonitoring.ssam.control.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import gms.core.performancemonitoring.uimaterializedview.UiStationAndStationGroups;
+import gms.core.performancemonitoring.uimaterializedview.UiStationSoh;
+import gms.shared.frameworks.osd.coi.soh.CapabilitySohRollup;
+import gms.shared.frameworks.osd.coi.soh.StationSoh;
+import gms.shared.metrics.LatencyHistogram;
+import gms.shared.metrics.LatencyTrace;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeader;
+
+/**
+ * Tracks the {@link LatencyTrace}s that the SOH control sends with each StationSoh and
+ * CapabilitySohRollup, and records in latency histograms how long the SOH took to get from RSDF
+ * reception to SSAM, and from SSAM into a UI materialized view.
+ * <p>
+ * The trace of each StationSoh is remembered, by StationSoh id, for the time window given at
+ * creation, so that it can be found when a materialized view containing the StationSoh is
+ * published. The trace published with a materialized view is the trace of its slowest station.
+ */
+public class SohLatencyTracker {
+
+  private static final LatencyHistogram rsdfToStationSohReceivedLatency =
+      LatencyHistogram.create("ssamLatencyRsdfToStationSohReceived");
+
+  private static final LatencyHistogram stationSohTransitLatency =
+      LatencyHistogram.create("ssamLatencyStationSohTransit");
+
+  private static final LatencyHistogram rsdfToCapabilitySohRollupReceivedLatency =
+      LatencyHistogram.create("ssamLatencyRsdfToCapabilitySohRollupReceived");
+
+  private static final LatencyHistogram stationSohToMaterializedViewLatency =
+      LatencyHistogram.create("ssamLatencyStationSohToMaterializedView");
+
+  private static final LatencyHistogram rsdfToMaterializedViewLatency =
+      LatencyHistogram.create("ssamLatencyRsdfToMaterializedView");
+
+  private final Cache<UUID, LatencyTrace> traceByStationSohId;
+
+  private final Supplier<Instant> clock;
+
+  private SohLatencyTracker(Duration window, Supplier<Instant> clock) {
+    this.traceByStationSohId = CacheBuilder.newBuilder()
+        .expireAfterWrite(window.toMillis(), TimeUnit.MILLISECONDS)
+        .build();
+    this.clock = clock;
+  }
+
+  /**
+   * Create a SohLatencyTracker.
+   *
+   * @param window how long the trace of each StationSoh is remembered. Must be positive.
+   * @return SohLatencyTracker
+   */
+  public static SohLatencyTracker create(Duration window) {
+    return create(window, Instant::now);
+  }
+
+  /**
+   * Create a SohLatencyTracker with the given clock, which gives the time of each stage.
+   */
+  static SohLatencyTracker create(Duration window, Supplier<Instant> clock) {
+
+    Objects.requireNonNull(window, "Null window");
+    Objects.requireNonNull(clock, "Null clock");
+
+    if (window.isNegative() || window.isZero()) {
+      throw new IllegalArgumentException("window must be positive");
+    }
+
+    return new SohLatencyTracker(window, clock);
+  }
+
+  /**
+   * Record the receipt of a StationSoh, and remember its trace. StationSohs that were sent
+   * without a trace are ignored.
+   *
+   * @param stationSoh the StationSoh received
+   * @param headers the headers of the Kafka record it was received in
+   */
+  public void stationSohReceived(StationSoh stationSoh, Headers headers) {
+
+    var trace = decode(headers);
+
+    if (trace.isEmpty()) {
+      return;
+    }
+
+    trace = trace.with(LatencyTrace.STATION_SOH_RECEIVED, clock.get());
+
+    trace.between(LatencyTrace.RSDF_RECEIVED, LatencyTrace.STATION_SOH_RECEIVED)
+        .ifPresent(rsdfToStationSohReceivedLatency::record);
+    trace.between(LatencyTrace.STATION_SOH_SENT, LatencyTrace.STATION_SOH_RECEIVED)
+        .ifPresent(stationSohTransitLatency::record);
+
+    traceByStationSohId.put(stationSoh.getId(), trace);
+  }
+
+  /**
+   * Record the receipt of a CapabilitySohRollup.
+   *
+   * @param capabilitySohRollup the CapabilitySohRollup received
+   * @param headers the headers of the Kafka record it was received in
+   */
+  public void capabilitySohRollupReceived(CapabilitySohRollup capabilitySohRollup,
+      Headers headers) {
+
+    decode(headers).get(LatencyTrace.RSDF_RECEIVED)
+        .ifPresent(rsdfReceived -> rsdfToCapabilitySohRollupReceivedLatency.record(
+            Duration.between(rsdfReceived, clock.get())));
+  }
+
+  /**
+   * Record the publication of a materialized view, for each of its stations that has a trace.
+   *
+   * @param view the materialized view being published
+   * @return the headers to publish the view with, which carry the trace of its slowest station,
+   * or no headers if none of its stations have a trace
+   */
+  public List<Header> materializedViewSent(UiStationAndStationGroups view) {
+
+    Instant now = clock.get();
+
+    List<LatencyTrace> traces = view.getStationSoh().stream()
+        .map(UiStationSoh::getUuid)
+        .map(traceByStationSohId::getIfPresent)
+        .filter(Objects::nonNull)
+        .map(trace -> trace.with(LatencyTrace.MATERIALIZED_VIEW_SENT, now))
+        .collect(Collectors.toList());
+
+    traces.forEach(trace -> {
+      trace.between(LatencyTrace.STATION_SOH_RECEIVED, LatencyTrace.MATERIALIZED_VIEW_SENT)
+          .ifPresent(stationSohToMaterializedViewLatency::record);
+      trace.between(LatencyTrace.RSDF_RECEIVED, LatencyTrace.MATERIALIZED_VIEW_SENT)
+          .ifPresent(rsdfToMaterializedViewLatency::record);
+    });
+
+    Optional<LatencyTrace> slowest = traces.stream()
+        .filter(trace -> trace.get(LatencyTrace.RSDF_RECEIVED).isPresent())
+        .min(Comparator.comparing(trace -> trace.get(LatencyTrace.RSDF_RECEIVED).orElseThrow()));
+
+    return slowest
+        .<List<Header>>map(trace -> List.of(new RecordHeader(LatencyTrace.HEADER, trace.encode())))
+        .orElse(List.of());
+  }
+
+  private static LatencyTrace decode(Headers headers) {
+
+    var header = headers.lastHeader(LatencyTrace.HEADER);
+
+    return header == null ? LatencyTrace.empty() : LatencyTrace.decode(header.value());
+  }
+}
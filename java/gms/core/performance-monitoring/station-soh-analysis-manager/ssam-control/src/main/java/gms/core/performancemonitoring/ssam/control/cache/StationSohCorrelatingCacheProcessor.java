@@ -2,11 +2,19 @@ package gms.core.performancemonitoring.ssam.control.cache;
 
 import gms.shared.frameworks.osd.coi.soh.CapabilitySohRollup;
 import gms.shared.frameworks.osd.coi.soh.StationSoh;
+import gms.shared.metrics.CustomMetric;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.NavigableMap;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.tuple.Pair;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.FluxSink;
 
@@ -22,6 +30,12 @@ import java.util.concurrent.ConcurrentHashMap;
  * StationSohs get associated with whatever CapabilitySohRollup objects they helped create, by matching
  * the StationSoh UUIDs stored in the CapabilitySohRollup object to the UUIDs of the uncoming
  * StationSohs.
+ * <p>
+ * Correlations are grouped into generations by the calculation time of their CapabilitySohRollup.
+ * A generation is forgotten once all of its correlations complete, and any correlation whose
+ * calculation time falls more than the correlation window behind the newest tracked
+ * CapabilitySohRollup is evicted, so that correlations that can never complete, because a
+ * StationSoh was lost, do not accumulate.
  */
 public class StationSohCorrelatingCacheProcessor implements
     CorrelatingCache<CapabilitySohRollup, StationSoh> {
@@ -55,8 +69,36 @@ public class StationSohCorrelatingCacheProcessor implements
     }
   }
 
+  private static final Logger logger = LogManager
+      .getLogger(StationSohCorrelatingCacheProcessor.class);
+
+  /**
+   * Correlation window used when none is given
+   */
+  public static final Duration DEFAULT_CORRELATION_WINDOW = Duration.ofMinutes(2);
+
+  private static final CustomMetric<Long, Long> generationsInFlight =
+      CustomMetric.create(CustomMetric::updateTimingData,
+          "ssamCorrelationGenerationsInFlight:type=Value", 0L);
+
+  private static final CustomMetric<Long, Long> correlationsInFlight =
+      CustomMetric.create(CustomMetric::updateTimingData,
+          "ssamCorrelationsInFlight:type=Value", 0L);
+
+  private static final CustomMetric<Long, Long> correlationsEvicted =
+      CustomMetric.create(CustomMetric::incrementer,
+          "ssamCorrelationsEvicted_hits:type=Counter", 0L);
+
   private final Map<String, CorrelationWrapper> correlationWrapperByGroup = new ConcurrentHashMap<>();
   private final Map<UUID, StationSoh> stationSohById = new ConcurrentHashMap<>();
+  // The id of the latest StationSoh for each station, so it can be replaced without a scan
+  private final Map<String, UUID> stationSohIdByStation = new ConcurrentHashMap<>();
+
+  // Names of the station groups with a correlation in flight, by calculation time
+  private final NavigableMap<Instant, Set<String>> groupsInFlightByCalculationTime =
+      new TreeMap<>();
+
+  private final Duration correlationWindow;
 
   /**
    * FluxSink to send a completed correlation to. A correlation is completed once the List has
@@ -67,21 +109,40 @@ public class StationSohCorrelatingCacheProcessor implements
   private final FluxSink<Pair<CapabilitySohRollup, List<StationSoh>>> target;
   
   private StationSohCorrelatingCacheProcessor(
-      FluxSink<Pair<CapabilitySohRollup, List<StationSoh>>> target
+      FluxSink<Pair<CapabilitySohRollup, List<StationSoh>>> target,
+      Duration correlationWindow
   ) {
     this.target = target;
+    this.correlationWindow = correlationWindow;
   }
 
   /**
-   * Created a StationSohCorrelatingCacheProcessor object.
+   * Created a StationSohCorrelatingCacheProcessor object, using the default correlation window.
    * @param target The FluxSink to send completed correlations to.
    * @return a StationSohCorrelatingCacheProcessor object
    */
   public static StationSohCorrelatingCacheProcessor create(
       FluxSink<Pair<CapabilitySohRollup, List<StationSoh>>> target
+  ) {
+    return create(target, DEFAULT_CORRELATION_WINDOW);
+  }
+
+  /**
+   * Created a StationSohCorrelatingCacheProcessor object.
+   * @param target The FluxSink to send completed correlations to.
+   * @param correlationWindow How far behind the newest CapabilitySohRollup's calculation time an
+   * incomplete correlation is kept before it is evicted. Must be positive.
+   * @return a StationSohCorrelatingCacheProcessor object
+   */
+  public static StationSohCorrelatingCacheProcessor create(
+      FluxSink<Pair<CapabilitySohRollup, List<StationSoh>>> target,
+      Duration correlationWindow
   ) {
     Objects.requireNonNull(target);
-    return new StationSohCorrelatingCacheProcessor(target);
+    Objects.requireNonNull(correlationWindow);
+    Validate.isTrue(!correlationWindow.isNegative() && !correlationWindow.isZero(),
+        "correlationWindow must be positive");
+    return new StationSohCorrelatingCacheProcessor(target, correlationWindow);
   }
 
   /**
@@ -92,17 +153,14 @@ public class StationSohCorrelatingCacheProcessor implements
   public synchronized void add(StationSoh stationSoh) {
     Objects.requireNonNull(stationSoh);
 
-    var previousStationSohKeyOptional = stationSohById.values().stream()
-        .filter(soh -> soh.getStationName().equals(stationSoh.getStationName()))
-        .findFirst();
-
-    previousStationSohKeyOptional.ifPresent(
-        previous -> stationSohById.remove(previous.getId())
-    );
+    Optional.ofNullable(stationSohIdByStation.put(stationSoh.getStationName(), stationSoh.getId()))
+        .ifPresent(stationSohById::remove);
 
     stationSohById.put(stationSoh.getId(), stationSoh);
 
     doCorrelations(null, stationSoh);
+
+    updateInFlightMetrics();
   }
 
   /**
@@ -115,12 +173,91 @@ public class StationSohCorrelatingCacheProcessor implements
   public synchronized void track(CapabilitySohRollup capabilitySohRollup) {
     Objects.requireNonNull(capabilitySohRollup);
 
-    correlationWrapperByGroup.put(
+    // A CapabilitySohRollup that arrives after its generation was evicted would be evicted right
+    // away, so do not let it replace the group's current correlation
+    if (!groupsInFlightByCalculationTime.isEmpty() && capabilitySohRollup.getTime()
+        .isBefore(groupsInFlightByCalculationTime.lastKey().minus(correlationWindow))) {
+
+      logger.warn("Dropping CapabilitySohRollup for station group {} calculated at {}, which is "
+              + "outside the correlation window",
+          capabilitySohRollup.getForStationGroup(), capabilitySohRollup.getTime());
+
+      correlationsEvicted.updateMetric(1L);
+      return;
+    }
+
+    // A newer CapabilitySohRollup for a group replaces its incomplete correlation
+    Optional.ofNullable(correlationWrapperByGroup.put(
         capabilitySohRollup.getForStationGroup(),
         new CorrelationWrapper(capabilitySohRollup)
-    );
+    )).ifPresent(replaced -> removeFromGeneration(replaced.capabilitySohRollup));
+
+    groupsInFlightByCalculationTime
+        .computeIfAbsent(capabilitySohRollup.getTime(), time -> new HashSet<>())
+        .add(capabilitySohRollup.getForStationGroup());
+
+    evictExpiredGenerations();
 
     doCorrelations(capabilitySohRollup, null);
+
+    updateInFlightMetrics();
+  }
+
+  /**
+   * Evict the incomplete correlations whose calculation time is more than the correlation window
+   * behind the newest calculation time.
+   */
+  private void evictExpiredGenerations() {
+
+    var expiredGenerations = groupsInFlightByCalculationTime
+        .headMap(groupsInFlightByCalculationTime.lastKey().minus(correlationWindow));
+
+    expiredGenerations.forEach((calculationTime, groups) -> groups.forEach(group -> {
+
+      logger.warn("Evicting incomplete correlation for station group {} calculated at {}",
+          group, calculationTime);
+
+      correlationWrapperByGroup.remove(group);
+      correlationsEvicted.updateMetric(1L);
+    }));
+
+    expiredGenerations.clear();
+  }
+
+  /**
+   * Forget a correlation that completed or was replaced, and its generation if it was the last
+   * correlation in flight for that calculation time.
+   */
+  private void removeFromGeneration(CapabilitySohRollup capabilitySohRollup) {
+
+    var groups = groupsInFlightByCalculationTime.get(capabilitySohRollup.getTime());
+
+    if (Objects.nonNull(groups)) {
+      groups.remove(capabilitySohRollup.getForStationGroup());
+
+      if (groups.isEmpty()) {
+        groupsInFlightByCalculationTime.remove(capabilitySohRollup.getTime());
+      }
+    }
+  }
+
+  private void updateInFlightMetrics() {
+    generationsInFlight.updateMetric((long) groupsInFlightByCalculationTime.size());
+    correlationsInFlight.updateMetric((long) correlationWrapperByGroup.size());
+  }
+
+  /**
+   * @return the number of calculation times with a correlation in flight
+   */
+  synchronized int getGenerationsInFlight() {
+    return groupsInFlightByCalculationTime.size();
+  }
+
+  /**
+   * @return the number of correlations in flight
+   */
+  synchronized int getCorrelationsInFlight() {
+    return correlationWrapperByGroup.size();
   }
 
   /**
@@ -201,7 +338,10 @@ public class StationSohCorrelatingCacheProcessor implements
         //
         .subscribe(pair -> {
           Optional.ofNullable(correlationWrapperByGroup.remove(pair.getKey().getForStationGroup()))
-              .ifPresent(wrapper -> target.next(pair));
+              .ifPresent(wrapper -> {
+                removeFromGeneration(pair.getKey());
+                target.next(pair);
+              });
         });
   }
 
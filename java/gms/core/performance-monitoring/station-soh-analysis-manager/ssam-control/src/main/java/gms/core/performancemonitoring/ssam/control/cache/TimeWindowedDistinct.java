@@ -0,0 +1,96 @@
+package gms.core.performancemonitoring.ssam.control.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A filter that passes only the first item with a given key, like Flux::distinct, but only
+ * remembers the keys of items whose time is within a window of the newest item's time. Keys of
+ * older items are forgotten, so memory is bounded by the number of items in the window rather than
+ * growing for the life of the process.
+ * <p>
+ * Duplicates are expected to share a time, as with a CapabilitySohRollup correlated twice, so an
+ * item is only compared against the keys of items with the same time. An item older than the
+ * window can not be compared with anything, and is passed.
+ *
+ * @param <T> type of the items being filtered
+ * @param <K> type of the key that identifies duplicate items
+ */
+public class TimeWindowedDistinct<T, K> implements Predicate<T> {
+
+  private final Function<T, K> keyExtractor;
+
+  private final Function<T, Instant> timeExtractor;
+
+  private final Duration window;
+
+  private final NavigableMap<Instant, Set<K>> keysByTime = new TreeMap<>();
+
+  private TimeWindowedDistinct(
+      Function<T, K> keyExtractor,
+      Function<T, Instant> timeExtractor,
+      Duration window) {
+
+    this.keyExtractor = keyExtractor;
+    this.timeExtractor = timeExtractor;
+    this.window = window;
+  }
+
+  /**
+   * Create a TimeWindowedDistinct.
+   *
+   * @param keyExtractor extracts the key that identifies duplicate items
+   * @param timeExtractor extracts the time of an item
+   * @param window how far behind the newest item's time keys are remembered. Must be positive.
+   * @param <T> type of the items being filtered
+   * @param <K> type of the key that identifies duplicate items
+   * @return TimeWindowedDistinct
+   */
+  public static <T, K> TimeWindowedDistinct<T, K> create(
+      Function<T, K> keyExtractor,
+      Function<T, Instant> timeExtractor,
+      Duration window) {
+
+    Objects.requireNonNull(keyExtractor);
+    Objects.requireNonNull(timeExtractor);
+    Objects.requireNonNull(window);
+    Validate.isTrue(!window.isNegative() && !window.isZero(), "window must be positive");
+
+    return new TimeWindowedDistinct<>(keyExtractor, timeExtractor, window);
+  }
+
+  /**
+   * @return true if no item with the same key and time has been seen within the window
+   */
+  @Override
+  public synchronized boolean test(T item) {
+
+    var time = timeExtractor.apply(item);
+
+    if (!keysByTime.isEmpty() && time.isBefore(keysByTime.lastKey().minus(window))) {
+      return true;
+    }
+
+    boolean added = keysByTime.computeIfAbsent(time, t -> new HashSet<>())
+        .add(keyExtractor.apply(item));
+
+    keysByTime.headMap(keysByTime.lastKey().minus(window)).clear();
+
+    return added;
+  }
+
+  /**
+   * @return the number of keys being remembered
+   */
+  synchronized int size() {
+    return keysByTime.values().stream().mapToInt(Set::size).sum();
+  }
+}
@@ -11,6 +11,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.header.Headers;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import reactor.core.publisher.Flux;
 import reactor.kafka.receiver.KafkaReceiver;
@@ -22,19 +23,33 @@ import reactor.kafka.receiver.ReceiverOptions;
  */
 public class KafkaFluxProvider<T> implements FluxProvider<T> {
 
+  /**
+   * Listener that is given each item that is received, along with the headers of the Kafka record
+   * it was received in.
+   *
+   * @param <T> Type of items in the Flux
+   */
+  public interface RecordListener<T> {
+
+    void received(T item, Headers headers);
+  }
+
   private static final String APPLICATION_ID = "application-id";
   private static final String KAFKA_BOOTSTRAP_SERVERS = "kafka-bootstrap-servers";
   private static final ObjectMapper MAPPER = CoiObjectMapperFactory.getJsonObjectMapper();
 
   protected final Flux<T> data;
 
-  protected KafkaFluxProvider(Class<T> fluxType, String topicName, SystemConfig systemConfig) {
+  protected KafkaFluxProvider(Class<T> fluxType, String topicName, SystemConfig systemConfig,
+      RecordListener<T> recordListener) {
     ReceiverOptions<String, String> options = createReceiverOptions(systemConfig).subscription(List.of(topicName));
     data = KafkaReceiver.create(options).receive()
         .doOnNext(record -> record.receiverOffset().commit())
         .map(record -> {
           try {
-            return Optional.of(MAPPER.readValue(record.value(), fluxType));
+            var item = MAPPER.readValue(record.value(), fluxType);
+            recordListener.received(item, record.headers());
+            return Optional.of(item);
           } catch (JsonProcessingException ex) {
             return Optional.<T>empty();
           }
@@ -44,11 +59,21 @@ public class KafkaFluxProvider<T> implements FluxProvider<T> {
   }
 
   public static <T> KafkaFluxProvider<T> create(Class<T> fluxType, String topicName, SystemConfig systemConfig) {
+    return create(fluxType, topicName, systemConfig, (item, headers) -> { /* noop */ });
+  }
+
+  /**
+   * Create a KafkaFluxProvider with a listener that is given the Kafka record headers of each
+   * item received.
+   */
+  public static <T> KafkaFluxProvider<T> create(Class<T> fluxType, String topicName,
+      SystemConfig systemConfig, RecordListener<T> recordListener) {
     Objects.requireNonNull(fluxType);
     Objects.requireNonNull(topicName);
     Preconditions.checkState(!topicName.isBlank());
     Objects.requireNonNull(systemConfig);
-    return new KafkaFluxProvider<>(fluxType, topicName, systemConfig);
+    Objects.requireNonNull(recordListener);
+    return new KafkaFluxProvider<>(fluxType, topicName, systemConfig, recordListener);
   }
 
   @Override
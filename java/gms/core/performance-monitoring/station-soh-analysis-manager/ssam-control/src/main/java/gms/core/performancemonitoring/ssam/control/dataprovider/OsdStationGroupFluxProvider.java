@@ -0,0 +1,170 @@
+package gms.core.performancemonitoring.ssam.control.dataprovider;
+
+import com.google.common.base.Preconditions;
+import gms.shared.frameworks.osd.api.SohRepositoryInterface;
+import gms.shared.frameworks.osd.coi.signaldetection.Station;
+import gms.shared.frameworks.osd.coi.signaldetection.StationGroup;
+import gms.shared.frameworks.osd.coi.soh.CapabilitySohRollup;
+import gms.shared.frameworks.osd.coi.soh.StationSoh;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * FluxProvider that retrieves the latest StationSohs and CapabilitySohRollup from the OSD one
+ * station group at a time, so that views can be published for the first station groups while the
+ * rest are still being retrieved. Each station group is emitted as its latest CapabilitySohRollup
+ * paired with the latest StationSohs of its stations, the same shape as a completed correlation.
+ * <p>
+ * Retrieved objects are merged into the given maps of the latest StationSoh and
+ * CapabilitySohRollup, keeping whichever is newer, since they may be updated from Kafka at the
+ * same time. Each station's StationSoh is only retrieved once, by the first station group that
+ * contains it. A station group is not emitted if it has no CapabilitySohRollup or no StationSohs.
+ * <p>
+ * The StationSohs retrieved for each station group are also handed, as retrieved, to a consumer,
+ * since a newer StationSoh from Kafka can replace them in the map before they are published.
+ */
+public class OsdStationGroupFluxProvider implements
+    FluxProvider<Pair<CapabilitySohRollup, List<StationSoh>>> {
+
+  private static final Logger logger = LogManager.getLogger(OsdStationGroupFluxProvider.class);
+
+  private final Flux<Pair<CapabilitySohRollup, List<StationSoh>>> data;
+
+  private final SohRepositoryInterface sohRepositoryInterface;
+
+  private final Map<String, StationSoh> latestStationSohByStation;
+
+  private final Map<String, CapabilitySohRollup> latestCapabilitySohRollupByStationGroup;
+
+  private final Consumer<List<StationSoh>> retrievedStationSohConsumer;
+
+  private final Set<String> requestedStationNames = ConcurrentHashMap.newKeySet();
+
+  private OsdStationGroupFluxProvider(
+      SohRepositoryInterface sohRepositoryInterface,
+      List<StationGroup> stationGroups,
+      Map<String, StationSoh> latestStationSohByStation,
+      Map<String, CapabilitySohRollup> latestCapabilitySohRollupByStationGroup,
+      Consumer<List<StationSoh>> retrievedStationSohConsumer,
+      int concurrency) {
+
+    this.sohRepositoryInterface = sohRepositoryInterface;
+    this.latestStationSohByStation = latestStationSohByStation;
+    this.latestCapabilitySohRollupByStationGroup = latestCapabilitySohRollupByStationGroup;
+    this.retrievedStationSohConsumer = retrievedStationSohConsumer;
+
+    data = Flux.fromIterable(stationGroups)
+        .flatMapSequential(stationGroup -> Mono.fromCallable(() -> retrieve(stationGroup))
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(e -> {
+                  logger.error("Error retrieving SOH for station group {}",
+                      stationGroup.getName(), e);
+                  return Mono.just(Optional.empty());
+                }),
+            concurrency)
+        .filter(Optional::isPresent)
+        .map(Optional::get);
+  }
+
+  /**
+   * Create an OsdStationGroupFluxProvider.
+   *
+   * @param sohRepositoryInterface the repository to retrieve from
+   * @param stationGroups the station groups to retrieve, in the order their views should be
+   * published
+   * @param latestStationSohByStation the latest StationSohs, by station name, which retrieved
+   * StationSohs are merged into
+   * @param latestCapabilitySohRollupByStationGroup the latest CapabilitySohRollups, by group name,
+   * which retrieved CapabilitySohRollups are merged into
+   * @param retrievedStationSohConsumer consumer of the StationSohs retrieved for each station group,
+   * before they are merged into latestStationSohByStation
+   * @param concurrency how many station groups are retrieved at once. Must be positive.
+   * @return OsdStationGroupFluxProvider
+   */
+  public static OsdStationGroupFluxProvider create(
+      SohRepositoryInterface sohRepositoryInterface,
+      List<StationGroup> stationGroups,
+      Map<String, StationSoh> latestStationSohByStation,
+      Map<String, CapabilitySohRollup> latestCapabilitySohRollupByStationGroup,
+      Consumer<List<StationSoh>> retrievedStationSohConsumer,
+      int concurrency) {
+
+    Objects.requireNonNull(sohRepositoryInterface);
+    Objects.requireNonNull(stationGroups);
+    Objects.requireNonNull(latestStationSohByStation);
+    Objects.requireNonNull(latestCapabilitySohRollupByStationGroup);
+    Objects.requireNonNull(retrievedStationSohConsumer);
+    Preconditions.checkArgument(concurrency > 0, "concurrency must be positive");
+
+    return new OsdStationGroupFluxProvider(sohRepositoryInterface, stationGroups,
+        latestStationSohByStation, latestCapabilitySohRollupByStationGroup,
+        retrievedStationSohConsumer, concurrency);
+  }
+
+  @Override
+  public Flux<Pair<CapabilitySohRollup, List<StationSoh>>> getFlux() {
+    return data;
+  }
+
+  private Optional<Pair<CapabilitySohRollup, List<StationSoh>>> retrieve(
+      StationGroup stationGroup) {
+
+    List<String> stationNames = stationGroup.getStations().stream()
+        .map(Station::getName)
+        .collect(Collectors.toList());
+
+    List<String> namesToRetrieve = stationNames.stream()
+        .filter(requestedStationNames::add)
+        .collect(Collectors.toList());
+
+    if (!namesToRetrieve.isEmpty()) {
+      logger.info("Retrieving latest StationSoh for {} stations of station group {}",
+          namesToRetrieve.size(), stationGroup.getName());
+
+      List<StationSoh> retrievedStationSohs =
+          sohRepositoryInterface.retrieveByStationId(namesToRetrieve);
+
+      retrievedStationSohConsumer.accept(retrievedStationSohs);
+
+      retrievedStationSohs.forEach(stationSoh -> latestStationSohByStation.merge(stationSoh.getStationName(),
+              stationSoh, (current, retrieved) ->
+                  retrieved.getTime().isAfter(current.getTime()) ? retrieved : current));
+    }
+
+    sohRepositoryInterface
+        .retrieveLatestCapabilitySohRollupByStationGroup(List.of(stationGroup.getName()))
+        .forEach(capabilitySohRollup -> latestCapabilitySohRollupByStationGroup.merge(
+            capabilitySohRollup.getForStationGroup(), capabilitySohRollup,
+            (current, retrieved) ->
+                retrieved.getTime().isAfter(current.getTime()) ? retrieved : current));
+
+    var capabilitySohRollup = latestCapabilitySohRollupByStationGroup.get(stationGroup.getName());
+
+    // Stations shared with a station group that is still being retrieved may be missing, and are
+    // published with that station group instead
+    List<StationSoh> stationSohs = stationNames.stream()
+        .map(latestStationSohByStation::get)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+
+    if (capabilitySohRollup == null || stationSohs.isEmpty()) {
+      logger.warn("No CapabilitySohRollup or StationSohs found for station group {}",
+          stationGroup.getName());
+      return Optional.empty();
+    }
+
+    return Optional.of(Pair.of(capabilitySohRollup, stationSohs));
+  }
+}
@@ -3,8 +3,11 @@ package gms.core.performancemonitoring.ssam.control.datapublisher;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import gms.shared.frameworks.osd.coi.datatransferobjects.CoiObjectMapperFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Optional;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import reactor.core.publisher.Flux;
@@ -20,11 +23,34 @@ public class KafkaPublisher<T> {
 
   private static final Logger logger = LogManager.getLogger(KafkaPublisher.class);
 
+  /**
+   * Listener that is given each item that is published, along with the size of its serialized
+   * form in bytes and the time it took to serialize.
+   *
+   * @param <T> Type of items in the Flux
+   */
+  public interface SerializationListener<T> {
+
+    void serialized(T item, int serializedSize, long serializationNanos);
+  }
+
+  /**
+   * Provider of the Kafka record headers to publish each item with.
+   *
+   * @param <T> Type of items in the Flux
+   */
+  public interface HeaderProvider<T> {
+
+    Iterable<Header> headers(T item);
+  }
+
   private final ObjectMapper objectMapper;
 
   private final Flux<T> flux;
   private final KafkaSender<String, String> kafkaSender;
   private final String topic;
+  private final SerializationListener<T> serializationListener;
+  private final HeaderProvider<T> headerProvider;
 
   /**
    * Create the publisher.
@@ -38,12 +64,53 @@ public class KafkaPublisher<T> {
       Flux<T> flux,
       KafkaSender<String, String> kafkaSender,
       String topic
+  ) {
+    this(flux, kafkaSender, topic, (item, serializedSize, serializationNanos) -> { /* noop */ });
+  }
+
+  /**
+   * Create the publisher, with a listener that is told about each item that is serialized.
+   *
+   * @param flux Flux that will publish the items
+   * @param kafkaSender KafkaSender that publish the items to Kafka
+   * @param topic Kafka topic to publish to
+   * @param serializationListener listener given each item, its serialized size and the time it
+   * took to serialize
+   */
+  public KafkaPublisher(
+      Flux<T> flux,
+      KafkaSender<String, String> kafkaSender,
+      String topic,
+      SerializationListener<T> serializationListener
+  ) {
+    this(flux, kafkaSender, topic, serializationListener, item -> List.of());
+  }
+
+  /**
+   * Create the publisher, with a listener that is told about each item that is serialized, and a
+   * provider of the headers to publish each item with.
+   *
+   * @param flux Flux that will publish the items
+   * @param kafkaSender KafkaSender that publish the items to Kafka
+   * @param topic Kafka topic to publish to
+   * @param serializationListener listener given each item, its serialized size and the time it
+   * took to serialize
+   * @param headerProvider provider of the Kafka record headers of each item
+   */
+  public KafkaPublisher(
+      Flux<T> flux,
+      KafkaSender<String, String> kafkaSender,
+      String topic,
+      SerializationListener<T> serializationListener,
+      HeaderProvider<T> headerProvider
   ) {
     this.objectMapper = CoiObjectMapperFactory.getJsonObjectMapper();
 
     this.flux = flux;
     this.kafkaSender = kafkaSender;
     this.topic = topic;
+    this.serializationListener = serializationListener;
+    this.headerProvider = headerProvider;
   }
 
   /**
@@ -55,7 +122,9 @@ public class KafkaPublisher<T> {
         flux,
         kafkaSender,
         topic,
-        objectMapper
+        objectMapper,
+        serializationListener,
+        headerProvider
     );
   }
 
@@ -65,28 +134,39 @@ public class KafkaPublisher<T> {
    * @param dataFlux Flux with data to send
    * @param sender KafkaSender to use
    * @param topic topic to post to
-   * @param messageType message type, used for logging
+   * @param objectMapper ObjectMapper used to serialize the items
+   * @param serializationListener listener told about each item that is serialized
+   * @param headerProvider provider of the Kafka record headers of each item
    * @param <T> type of dataFlux to send
    */
   private static <T> void sendMessages(
       Flux<T> dataFlux,
       KafkaSender<String, String> sender,
       String topic,
-      ObjectMapper objectMapper) {
+      ObjectMapper objectMapper,
+      SerializationListener<T> serializationListener,
+      HeaderProvider<T> headerProvider) {
 
     Flux<SenderRecord<String, String, String>> senderRecordFlux = dataFlux
         .map(item -> {
           try {
-            return Optional.of(objectMapper.writeValueAsString(item));
+            long serializationStart = System.nanoTime();
+            // Jackson writes UTF-8, the encoding the sender's StringSerializer uses, so this is
+            // the size of the message actually sent.
+            byte[] jsonBytes = objectMapper.writeValueAsBytes(item);
+            serializationListener.serialized(item, jsonBytes.length,
+                System.nanoTime() - serializationStart);
+            var json = new String(jsonBytes, StandardCharsets.UTF_8);
+            return Optional.of(new ProducerRecord<String, String>(topic, null, null, json,
+                headerProvider.headers(item)));
           } catch (JsonProcessingException e) {
             logger.error(
                 "Error serializing object for publishing ", e
             );
-            return Optional.<String>empty();
+            return Optional.<ProducerRecord<String, String>>empty();
           }
         }).filter(Optional::isPresent)
         .map(Optional::get)
-        .map(json -> new ProducerRecord<String, String>(topic, json))
         .map(producerRecord -> SenderRecord.create(producerRecord, topic));
 
     sender.send(senderRecordFlux)
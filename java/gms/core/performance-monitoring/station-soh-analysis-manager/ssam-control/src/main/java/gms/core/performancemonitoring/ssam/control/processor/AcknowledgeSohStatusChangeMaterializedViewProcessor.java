@@ -4,6 +4,7 @@ import gms.core.performancemonitoring.ssam.control.config.StationSohMonitoringUi
 import gms.core.performancemonitoring.uimaterializedview.AcknowledgedSohStatusChange;
 import gms.core.performancemonitoring.uimaterializedview.SohQuietAndUnacknowledgedCacheManager;
 import gms.core.performancemonitoring.uimaterializedview.UiStationAndStationGroupGenerator;
+import gms.core.performancemonitoring.uimaterializedview.UiMaterializedViewContext;
 import gms.core.performancemonitoring.uimaterializedview.UiStationAndStationGroups;
 import gms.shared.frameworks.osd.coi.signaldetection.StationGroup;
 import gms.shared.frameworks.osd.coi.soh.CapabilitySohRollup;
@@ -35,6 +36,7 @@ public interface AcknowledgeSohStatusChangeMaterializedViewProcessor
    * @param latestCapabilityRollupCache Cache containing the latest set of CapabilitySohRollups
    * @param systemMessageFluxSink System message map to populate with generated system messages
    * @param stationGroups Station groups to use to create the materialized view
+   * @param context State carried from the previous materialized view
    * @return A Function that given a single AcknowledgedSohStatusChange, returns a List containing
    * a single UiStationAndStationGroups object, which contains the
    * latest Capability rollups as well as the single StationSoh that was acknowledged.
@@ -45,7 +47,8 @@ public interface AcknowledgeSohStatusChangeMaterializedViewProcessor
       Map<String, StationSoh> latestStationSohCache,
       Map<String, CapabilitySohRollup> latestCapabilityRollupCache,
       FluxSink<SystemMessage> systemMessageFluxSink,
-      List<StationGroup> stationGroups) {
+      List<StationGroup> stationGroups,
+      UiMaterializedViewContext context) {
 
     return ack -> UiStationAndStationGroupGenerator.generateUiStationAndStationGroups(
         List.of(
@@ -63,7 +66,8 @@ public interface AcknowledgeSohStatusChangeMaterializedViewProcessor
         stationSohConfig,
         stationGroups,
         true,
-        systemMessageFluxSink
+        systemMessageFluxSink,
+        context
     );
   }
 
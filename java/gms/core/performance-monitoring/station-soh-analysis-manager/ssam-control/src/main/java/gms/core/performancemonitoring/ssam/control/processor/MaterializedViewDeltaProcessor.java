@@ -0,0 +1,306 @@
+package gms.core.performancemonitoring.ssam.control.processor;
+
+import gms.core.performancemonitoring.uimaterializedview.UiStationAndStationGroups;
+import gms.core.performancemonitoring.uimaterializedview.UiStationGroupSoh;
+import gms.core.performancemonitoring.uimaterializedview.UiStationSoh;
+import gms.shared.metrics.CustomMetric;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.Validate;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Reduces the materialized views sent to the UI to the stations whose UI-relevant fields changed
+ * since they were last published. The UI already merges views that contain only some stations, as
+ * it does for acknowledge and quiet updates, and for views split up to fit the Kafka message size.
+ * <p>
+ * A UiStationSoh is considered unchanged when everything but its id and UUID is equal to the
+ * UiStationSoh last published for the station. Periodically a keyframe is published instead,
+ * which is the full view, so that clients that joined late, or missed a view, are resynchronized.
+ * <p>
+ * The processor itself reduces the main materialized view. Every other flux published to the
+ * materialized view topic gets its own stream from {@link #newStream()}, which computes its deltas
+ * against what that flux last published, so publishers that interleave never reduce their views
+ * against each other's. Whenever any stream publishes an update response, the other streams forget
+ * the stations it carried, and publish them again the next time they see them. The processor also
+ * accumulates the serialized size of, and time taken to serialize, the views that are published,
+ * and reports them once per tick of the main materialized view.
+ */
+public class MaterializedViewDeltaProcessor implements
+    Function<List<UiStationAndStationGroups>, List<UiStationAndStationGroups>> {
+
+  private static final Logger logger = LogManager.getLogger(MaterializedViewDeltaProcessor.class);
+
+  private static final Level SOH_TIMING = Level.getLevel("SOH_TIMING");
+
+  private static final CustomMetric<Long, Long> materializedViewBytesPerTick =
+      CustomMetric.create(CustomMetric::updateTimingData,
+          "ssamMaterializedViewBytesPerTick:type=Value", 0L);
+
+  private static final CustomMetric<Long, Long> materializedViewSerializationTime =
+      CustomMetric.create(CustomMetric::updateTimingData,
+          "ssamMaterializedViewSerializationTime:type=Value", 0L);
+
+  // Accumulates the number of stations suppressed each tick, rather than counting ticks
+  private static final CustomMetric<Long, Long> unchangedStationsSuppressed =
+      CustomMetric.create((total, suppressedCount) -> total + suppressedCount,
+          "ssamMaterializedViewUnchangedStationsSuppressed_hits:type=Counter", 0L);
+
+  private final boolean enabled;
+
+  private final Duration keyframePeriod;
+
+  private final Supplier<Instant> clock;
+
+  private final DeltaStream mainStream = new DeltaStream();
+
+  // Every stream of this processor, including the main stream. Guarded by this processor.
+  private final List<DeltaStream> streams = new ArrayList<>(List.of(mainStream));
+
+  private final LongAdder serializedBytes = new LongAdder();
+
+  private final LongAdder serializationNanos = new LongAdder();
+
+  private final LongAdder serializedViews = new LongAdder();
+
+  private MaterializedViewDeltaProcessor(
+      boolean enabled,
+      Duration keyframePeriod,
+      Supplier<Instant> clock) {
+
+    this.enabled = enabled;
+    this.keyframePeriod = keyframePeriod;
+    this.clock = clock;
+  }
+
+  /**
+   * Create a MaterializedViewDeltaProcessor.
+   *
+   * @param enabled whether views are reduced to changed stations. When false, every view is
+   * passed through unchanged, and only the serialization metrics are reported.
+   * @param keyframePeriod how often a full view is published. Must be positive.
+   * @return MaterializedViewDeltaProcessor
+   */
+  public static MaterializedViewDeltaProcessor create(boolean enabled, Duration keyframePeriod) {
+    return create(enabled, keyframePeriod, Instant::now);
+  }
+
+  /**
+   * Create a MaterializedViewDeltaProcessor with the given clock, which is used to decide when a
+   * keyframe is due.
+   */
+  static MaterializedViewDeltaProcessor create(
+      boolean enabled,
+      Duration keyframePeriod,
+      Supplier<Instant> clock) {
+
+    Objects.requireNonNull(keyframePeriod, "Null keyframePeriod");
+    Objects.requireNonNull(clock, "Null clock");
+    Validate.isTrue(!keyframePeriod.isNegative() && !keyframePeriod.isZero(),
+        "keyframePeriod must be positive");
+
+    return new MaterializedViewDeltaProcessor(enabled, keyframePeriod, clock);
+  }
+
+  /**
+   * Reduce the views generated for one tick of the main materialized view to the stations that
+   * changed. Views generated for an acknowledge or quiet update are passed through.
+   *
+   * @param views the views, which together contain every station of the tick or update
+   * @return the views to publish, which may be empty if nothing changed
+   */
+  @Override
+  public synchronized List<UiStationAndStationGroups> apply(
+      List<UiStationAndStationGroups> views) {
+
+    if (!isUpdateResponse(views)) {
+      reportSerialization();
+    }
+
+    return apply(mainStream, views);
+  }
+
+  /**
+   * Create a stream for another flux published to the materialized view topic, such as the initial
+   * views, or the views of acknowledge and quiet updates. The stream reduces the views it is
+   * applied to the same way the main materialized view is reduced, but against only the views it
+   * published itself.
+   *
+   * @return the stream, to be applied to only one flux
+   */
+  public synchronized Function<List<UiStationAndStationGroups>, List<UiStationAndStationGroups>>
+  newStream() {
+
+    var stream = new DeltaStream();
+    streams.add(stream);
+
+    return views -> {
+      synchronized (this) {
+        return apply(stream, views);
+      }
+    };
+  }
+
+  private List<UiStationAndStationGroups> apply(
+      DeltaStream stream,
+      List<UiStationAndStationGroups> views) {
+
+    if (!enabled) {
+      return views;
+    }
+
+    // Acknowledge and quiet updates are always published in full, since the UI is waiting for
+    // them. They only contain the stations that were acknowledged or quieted, which the UI now
+    // shows as this update has them, whatever the other streams published before.
+    if (isUpdateResponse(views)) {
+      views.forEach(stream::recordPublished);
+      streams.stream()
+          .filter(other -> other != stream)
+          .forEach(other -> views.forEach(other::forget));
+      return views;
+    }
+
+    Instant now = clock.get();
+
+    if (stream.lastKeyframeTime == null
+        || Duration.between(stream.lastKeyframeTime, now).compareTo(keyframePeriod) >= 0) {
+
+      stream.lastKeyframeTime = now;
+      views.forEach(stream::recordPublished);
+
+      if (logger.isDebugEnabled()) {
+        logger.debug("Publishing materialized view keyframe at {}", now);
+      }
+
+      return views;
+    }
+
+    List<UiStationAndStationGroups> deltas = new ArrayList<>();
+    int suppressed = 0;
+
+    for (UiStationAndStationGroups view : views) {
+
+      List<UiStationSoh> changedStations = view.getStationSoh().stream()
+          .filter(uiStationSoh -> hasChanged(
+              stream.lastPublishedByStation.get(uiStationSoh.getStationName()), uiStationSoh))
+          .collect(Collectors.toList());
+
+      suppressed += view.getStationSoh().size() - changedStations.size();
+
+      boolean stationGroupsChanged =
+          !view.getStationGroups().equals(stream.lastPublishedStationGroups);
+
+      if (!changedStations.isEmpty() || stationGroupsChanged) {
+
+        var delta = changedStations.size() == view.getStationSoh().size() ? view :
+            UiStationAndStationGroups.create(
+                view.getStationGroups(),
+                changedStations,
+                view.getIsUpdateResponse());
+
+        stream.recordPublished(delta);
+        deltas.add(delta);
+      }
+    }
+
+    if (suppressed > 0) {
+      unchangedStationsSuppressed.updateMetric((long) suppressed);
+    }
+
+    return deltas;
+  }
+
+  /**
+   * Record the serialization of a view that is being published.
+   *
+   * @param view the view that was serialized
+   * @param serializedSize size of the serialized view, in bytes
+   * @param nanos time taken to serialize the view, in nanoseconds
+   */
+  public void recordSerialization(UiStationAndStationGroups view, int serializedSize,
+      long nanos) {
+
+    serializedBytes.add(serializedSize);
+    serializationNanos.add(nanos);
+    serializedViews.increment();
+  }
+
+  private void reportSerialization() {
+
+    long views = serializedViews.sumThenReset();
+
+    if (views == 0) {
+      return;
+    }
+
+    long bytes = serializedBytes.sumThenReset();
+    long nanos = serializationNanos.sumThenReset();
+
+    materializedViewBytesPerTick.updateMetric(bytes);
+    materializedViewSerializationTime.updateMetric(nanos / 1_000_000);
+
+    logger.log(SOH_TIMING, "MATERIALIZED VIEW: {} views, {} bytes, serialized in {} ms",
+        views, bytes, nanos / 1_000_000.0);
+  }
+
+  private static boolean isUpdateResponse(List<UiStationAndStationGroups> views) {
+    return views.stream().anyMatch(UiStationAndStationGroups::getIsUpdateResponse);
+  }
+
+  /**
+   * Compare everything in a UiStationSoh that the UI displays, which is everything but its id and
+   * UUID. The UI displays the time a station's SOH was calculated, so a station whose SOH was
+   * recalculated is published even if nothing else about it changed.
+   */
+  static boolean hasChanged(UiStationSoh previous, UiStationSoh current) {
+
+    return previous == null
+        || previous.getTime() != current.getTime()
+        || previous.getSohStatusSummary() != current.getSohStatusSummary()
+        || previous.getNeedsAcknowledgement() != current.getNeedsAcknowledgement()
+        || previous.getNeedsAttention() != current.getNeedsAttention()
+        || !previous.getStatusContributors().equals(current.getStatusContributors())
+        || !previous.getStationGroups().equals(current.getStationGroups())
+        || !previous.getChannelSohs().equals(current.getChannelSohs())
+        || !previous.getAllStationAggregates().equals(current.getAllStationAggregates());
+  }
+
+  /**
+   * What one flux last published to the UI. Guarded by the processor.
+   */
+  private static class DeltaStream {
+
+    private final Map<String, UiStationSoh> lastPublishedByStation = new HashMap<>();
+
+    private List<UiStationGroupSoh> lastPublishedStationGroups;
+
+    private Instant lastKeyframeTime;
+
+    private void recordPublished(UiStationAndStationGroups view) {
+      view.getStationSoh().forEach(uiStationSoh ->
+          lastPublishedByStation.put(uiStationSoh.getStationName(), uiStationSoh));
+      lastPublishedStationGroups = view.getStationGroups();
+    }
+
+    /**
+     * Forget the stations, and station groups, that another stream published, so that this stream
+     * publishes them again.
+     */
+    private void forget(UiStationAndStationGroups view) {
+      view.getStationSoh().forEach(uiStationSoh ->
+          lastPublishedByStation.remove(uiStationSoh.getStationName()));
+      lastPublishedStationGroups = null;
+    }
+  }
+}
@@ -3,6 +3,7 @@ package gms.core.performancemonitoring.ssam.control.processor;
 import gms.core.performancemonitoring.ssam.control.config.StationSohMonitoringUiClientParameters;
 import gms.core.performancemonitoring.uimaterializedview.SohQuietAndUnacknowledgedCacheManager;
 import gms.core.performancemonitoring.uimaterializedview.UiStationAndStationGroupGenerator;
+import gms.core.performancemonitoring.uimaterializedview.UiMaterializedViewContext;
 import gms.core.performancemonitoring.uimaterializedview.UiStationAndStationGroups;
 import gms.shared.frameworks.osd.coi.signaldetection.StationGroup;
 import gms.shared.frameworks.osd.coi.soh.CapabilitySohRollup;
@@ -24,29 +25,33 @@ public class MaterializedViewProcessor implements
   private final StationSohMonitoringUiClientParameters stationSohConfig;
   private final List<StationGroup> stationGroups;
   private final FluxSink<SystemMessage> systemMessageFluxSink;
+  private final UiMaterializedViewContext context;
 
   MaterializedViewProcessor(SohQuietAndUnacknowledgedCacheManager quietAndUnackListsManager,
       StationSohMonitoringUiClientParameters stationSohConfig, List<StationGroup> stationGroups,
-      FluxSink<SystemMessage> systemMessageFluxSink) {
+      FluxSink<SystemMessage> systemMessageFluxSink, UiMaterializedViewContext context) {
     this.quietAndUnackListsManager = quietAndUnackListsManager;
     this.stationSohConfig = stationSohConfig;
     this.stationGroups = stationGroups;
     this.systemMessageFluxSink = systemMessageFluxSink;
+    this.context = context;
   }
 
   public static MaterializedViewProcessor create(
       SohQuietAndUnacknowledgedCacheManager quietAndUnackListsManager,
       StationSohMonitoringUiClientParameters stationSohConfig,
       List<StationGroup> stationGroups,
-      FluxSink<SystemMessage> systemMessageFluxSink) {
+      FluxSink<SystemMessage> systemMessageFluxSink,
+      UiMaterializedViewContext context) {
 
     Objects.requireNonNull(quietAndUnackListsManager);
     Objects.requireNonNull(stationSohConfig);
     Objects.requireNonNull(stationGroups);
     Objects.requireNonNull(systemMessageFluxSink);
+    Objects.requireNonNull(context);
 
     return new MaterializedViewProcessor(quietAndUnackListsManager, stationSohConfig,
-        stationGroups,systemMessageFluxSink);
+        stationGroups, systemMessageFluxSink, context);
   }
 
   @Override
@@ -81,7 +86,8 @@ public class MaterializedViewProcessor implements
         stationSohConfig,
         stationGroups,
         IS_UPDATE,
-        systemMessageFluxSink
+        systemMessageFluxSink,
+        context
     );
 
   }
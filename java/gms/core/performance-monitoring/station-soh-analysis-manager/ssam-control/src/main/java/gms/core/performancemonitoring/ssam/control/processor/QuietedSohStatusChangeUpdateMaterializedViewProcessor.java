@@ -3,6 +3,7 @@ package gms.core.performancemonitoring.ssam.control.processor;
 import gms.core.performancemonitoring.ssam.control.config.StationSohMonitoringUiClientParameters;
 import gms.core.performancemonitoring.uimaterializedview.QuietedSohStatusChangeUpdate;
 import gms.core.performancemonitoring.uimaterializedview.SohQuietAndUnacknowledgedCacheManager;
+import gms.core.performancemonitoring.uimaterializedview.UiMaterializedViewContext;
 import gms.core.performancemonitoring.uimaterializedview.UiStationAndStationGroups;
 import gms.core.performancemonitoring.uimaterializedview.UiStationAndStationGroupGenerator;
 import gms.shared.frameworks.osd.coi.signaldetection.StationGroup;
@@ -33,6 +34,7 @@ public interface QuietedSohStatusChangeUpdateMaterializedViewProcessor
    * @param latestCapabilityRollupCache Cache containing the latest set of CapabilitySohRollups
    * @param systemMessageFluxSink System message map to populate with generated system messages
    * @param stationGroups Station groups to use to create the materialized view
+   * @param context State carried from the previous materialized view
    * @return A Function that given a single AcknowledgedSohStatusChange, returns a List containing a
    * single UiStationAndStationGroups object, which contains the latest Capability rollups as will
    * as the single StationSoh that was acknowledged
@@ -43,7 +45,8 @@ public interface QuietedSohStatusChangeUpdateMaterializedViewProcessor
       Map<String, StationSoh> latestStationSohCache,
       Map<String, CapabilitySohRollup> latestCapabilityRollupCache,
       FluxSink<SystemMessage> systemMessageFluxSink,
-      List<StationGroup> stationGroups) {
+      List<StationGroup> stationGroups,
+      UiMaterializedViewContext context) {
 
     return quietedSohStatusChangeUpdate -> UiStationAndStationGroupGenerator
         .generateUiStationAndStationGroups(
@@ -60,7 +63,8 @@ public interface QuietedSohStatusChangeUpdateMaterializedViewProcessor
             stationSohConfig,
             stationGroups,
             true,
-            systemMessageFluxSink
+            systemMessageFluxSink,
+            context
         );
   }
 
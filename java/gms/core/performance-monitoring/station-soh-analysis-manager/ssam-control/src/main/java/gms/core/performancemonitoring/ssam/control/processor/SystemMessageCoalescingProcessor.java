@@ -0,0 +1,167 @@
+package gms.core.performancemonitoring.ssam.control.processor;
+
+import gms.shared.frameworks.osd.coi.systemmessages.SystemMessage;
+import gms.shared.frameworks.osd.coi.systemmessages.SystemMessageType;
+import gms.shared.metrics.CustomMetric;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import reactor.core.publisher.Flux;
+
+/**
+ * Coalesces the SystemMessages generated by SSAM into one batch per window, so that an outage
+ * affecting many channels at once sends fewer messages to Kafka, and the system message storage
+ * consumer. The messages left in a batch are still published as individual records.
+ * <p>
+ * Within a batch, status changes for the same subject are collapsed to the first and the last one,
+ * which hold the subject's status before the batch and its current status. This removes flapping,
+ * where a channel's status changes back and forth several times within the window. Both are kept
+ * because a message's statuses are only in its text: the last change alone would report a change
+ * from an intermediate status, or a change when the status went back to where it started. The
+ * subject of a message is its type and its tags, so a channel's status changes for different
+ * monitor types are kept separate. Messages recording user actions, such as acknowledgements and
+ * quiet periods, are never collapsed. Messages keep their original order.
+ */
+public class SystemMessageCoalescingProcessor implements
+    Function<List<SystemMessage>, List<SystemMessage>> {
+
+  private static final Logger logger = LogManager
+      .getLogger(SystemMessageCoalescingProcessor.class);
+
+  // Status changes, where only the latest for a subject is of interest
+  private static final Set<SystemMessageType> COLLAPSIBLE_TYPES = EnumSet.of(
+      SystemMessageType.STATION_NEEDS_ATTENTION,
+      SystemMessageType.STATION_SOH_STATUS_CHANGED,
+      SystemMessageType.STATION_CAPABILITY_STATUS_CHANGED,
+      SystemMessageType.STATION_GROUP_CAPABILITY_STATUS_CHANGED,
+      SystemMessageType.CHANNEL_MONITOR_TYPE_STATUS_CHANGED);
+
+  private static final CustomMetric<Long, Long> systemMessagesSuppressed =
+      CustomMetric.create((total, suppressedCount) -> total + suppressedCount,
+          "ssamSystemMessagesSuppressed_hits:type=Counter", 0L);
+
+  private static final CustomMetric<Long, Long> systemMessageBatchSize =
+      CustomMetric.create(CustomMetric::updateTimingData,
+          "ssamSystemMessageBatchSize:type=Value", 0L);
+
+  private final Duration window;
+
+  private final int maxBatchSize;
+
+  private SystemMessageCoalescingProcessor(Duration window, int maxBatchSize) {
+    this.window = window;
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  /**
+   * Create a SystemMessageCoalescingProcessor.
+   *
+   * @param window how long messages are collected into a batch. A zero window disables
+   * coalescing, and each message is published as soon as it is generated.
+   * @param maxBatchSize the most messages collected into a batch, after which the batch is
+   * published before its window has passed. Must be positive.
+   * @return SystemMessageCoalescingProcessor
+   */
+  public static SystemMessageCoalescingProcessor create(Duration window, int maxBatchSize) {
+
+    Objects.requireNonNull(window, "Null window");
+    Validate.isTrue(!window.isNegative(), "window must not be negative");
+    Validate.isTrue(maxBatchSize > 0, "maxBatchSize must be positive");
+
+    return new SystemMessageCoalescingProcessor(window, maxBatchSize);
+  }
+
+  /**
+   * Collect the messages into batches and coalesce each batch.
+   *
+   * @param systemMessages the messages as they are generated
+   * @return the coalesced batches, none of which are empty
+   */
+  public Flux<List<SystemMessage>> coalesce(Flux<SystemMessage> systemMessages) {
+
+    if (window.isZero()) {
+      return systemMessages.map(List::of);
+    }
+
+    return systemMessages
+        .bufferTimeout(maxBatchSize, window)
+        .map(this)
+        .filter(batch -> !batch.isEmpty());
+  }
+
+  /**
+   * Collapse the status changes in a batch to the first and last change for each subject.
+   *
+   * @param systemMessages the messages of one batch, in the order they were generated
+   * @return the coalesced messages, in the order they were generated
+   */
+  @Override
+  public List<SystemMessage> apply(List<SystemMessage> systemMessages) {
+
+    // Subject of each collapsible message, and the index of the first and last message for each
+    // subject
+    List<Pair<SystemMessageType, Map<String, Object>>> subjects =
+        new ArrayList<>(systemMessages.size());
+    Map<Pair<SystemMessageType, Map<String, Object>>, Integer> firstIndexBySubject =
+        new HashMap<>();
+    Map<Pair<SystemMessageType, Map<String, Object>>, Integer> lastIndexBySubject =
+        new HashMap<>();
+
+    for (int i = 0; i < systemMessages.size(); i++) {
+      var systemMessage = systemMessages.get(i);
+      var subject = COLLAPSIBLE_TYPES.contains(systemMessage.getType())
+          ? subject(systemMessage) : null;
+      subjects.add(subject);
+      if (subject != null) {
+        firstIndexBySubject.putIfAbsent(subject, i);
+        lastIndexBySubject.put(subject, i);
+      }
+    }
+
+    List<SystemMessage> coalesced = new ArrayList<>(systemMessages.size());
+
+    for (int i = 0; i < systemMessages.size(); i++) {
+      var subject = subjects.get(i);
+      if (subject == null || firstIndexBySubject.get(subject) == i
+          || lastIndexBySubject.get(subject) == i) {
+        coalesced.add(systemMessages.get(i));
+      }
+    }
+
+    int suppressed = systemMessages.size() - coalesced.size();
+
+    if (suppressed > 0) {
+      systemMessagesSuppressed.updateMetric((long) suppressed);
+
+      if (logger.isDebugEnabled()) {
+        logger.debug("Collapsed {} system messages to {}", systemMessages.size(),
+            coalesced.size());
+      }
+    }
+
+    systemMessageBatchSize.updateMetric((long) coalesced.size());
+
+    return coalesced;
+  }
+
+  private static Pair<SystemMessageType, Map<String, Object>> subject(
+      SystemMessage systemMessage) {
+
+    // Tag values may be enums or strings, so they are compared as strings
+    Map<String, Object> tags = new TreeMap<>();
+    systemMessage.getMessageTags().forEach((name, value) -> tags.put(name, String.valueOf(value)));
+
+    return Pair.of(systemMessage.getType(), tags);
+  }
+}
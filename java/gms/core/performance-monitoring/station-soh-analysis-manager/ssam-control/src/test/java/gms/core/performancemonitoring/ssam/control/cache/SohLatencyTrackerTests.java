@@ -0,0 +1,144 @@
+package gms.core.performancemonitoring.ssam.control.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import gms.core.performancemonitoring.uimaterializedview.UiStationAndStationGroups;
+import gms.core.performancemonitoring.uimaterializedview.UiStationSoh;
+import gms.shared.frameworks.osd.coi.soh.SohStatus;
+import gms.shared.frameworks.osd.coi.soh.StationSoh;
+import gms.shared.metrics.LatencyTrace;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+class SohLatencyTrackerTests {
+
+  private static final Instant START = Instant.parse("2020-06-01T00:00:00Z");
+
+  private static final Duration WINDOW = Duration.ofMinutes(2);
+
+  @Test
+  void testMaterializedViewCarriesTraceOfSlowestStation() {
+
+    var now = new AtomicReference<>(START.plusSeconds(30));
+    var tracker = SohLatencyTracker.create(WINDOW, now::get);
+
+    var stationSohA = stationSoh();
+    var stationSohB = stationSoh();
+
+    tracker.stationSohReceived(stationSohA, headers(
+        LatencyTrace.start(LatencyTrace.RSDF_RECEIVED, START.plusSeconds(10))
+            .with(LatencyTrace.STATION_SOH_SENT, START.plusSeconds(25))));
+
+    // B's RSDF was received earlier, so it is the slowest station
+    tracker.stationSohReceived(stationSohB, headers(
+        LatencyTrace.start(LatencyTrace.RSDF_RECEIVED, START)
+            .with(LatencyTrace.STATION_SOH_SENT, START.plusSeconds(25))));
+
+    now.set(START.plusSeconds(32));
+
+    var headers = tracker.materializedViewSent(view(
+        uiStationSoh("A", stationSohA.getId()),
+        uiStationSoh("B", stationSohB.getId())));
+
+    assertEquals(1, headers.size());
+    assertEquals(LatencyTrace.HEADER, headers.get(0).key());
+    assertEquals(
+        LatencyTrace.start(LatencyTrace.RSDF_RECEIVED, START)
+            .with(LatencyTrace.STATION_SOH_SENT, START.plusSeconds(25))
+            .with(LatencyTrace.STATION_SOH_RECEIVED, START.plusSeconds(30))
+            .with(LatencyTrace.MATERIALIZED_VIEW_SENT, START.plusSeconds(32)),
+        decode(headers));
+
+    assertEquals(Duration.ofSeconds(32), decode(headers)
+        .between(LatencyTrace.RSDF_RECEIVED, LatencyTrace.MATERIALIZED_VIEW_SENT)
+        .orElseThrow());
+  }
+
+  @Test
+  void testUntracedStationsAreIgnored() {
+
+    var tracker = SohLatencyTracker.create(WINDOW, () -> START);
+
+    var stationSoh = stationSoh();
+    tracker.stationSohReceived(stationSoh, new RecordHeaders());
+
+    assertEquals(List.of(),
+        tracker.materializedViewSent(view(uiStationSoh("A", stationSoh.getId()))));
+    assertEquals(List.of(),
+        tracker.materializedViewSent(view(uiStationSoh("B", UUID.randomUUID()))));
+  }
+
+  @Test
+  void testMalformedStagesAreSkipped() {
+
+    var tracker = SohLatencyTracker.create(WINDOW, () -> START.plusSeconds(5));
+
+    var stationSoh = stationSoh();
+    var headers = new RecordHeaders();
+    headers.add(LatencyTrace.HEADER, ("rsdfReceived=" + START.toEpochMilli()
+        + ";stationSohSent=soon;=1").getBytes(StandardCharsets.UTF_8));
+    tracker.stationSohReceived(stationSoh, headers);
+
+    assertEquals(
+        LatencyTrace.start(LatencyTrace.RSDF_RECEIVED, START)
+            .with(LatencyTrace.STATION_SOH_RECEIVED, START.plusSeconds(5))
+            .with(LatencyTrace.MATERIALIZED_VIEW_SENT, START.plusSeconds(5)),
+        decode(tracker.materializedViewSent(view(uiStationSoh("A", stationSoh.getId())))));
+  }
+
+  @Test
+  void testCreateValidation() {
+
+    var zero = Duration.ZERO;
+
+    assertThrows(NullPointerException.class, () -> SohLatencyTracker.create(null));
+    assertThrows(IllegalArgumentException.class, () -> SohLatencyTracker.create(zero));
+  }
+
+  private static LatencyTrace decode(List<Header> headers) {
+    return LatencyTrace.decode(headers.get(0).value());
+  }
+
+  private static RecordHeaders headers(LatencyTrace latencyTrace) {
+    var headers = new RecordHeaders();
+    headers.add(LatencyTrace.HEADER, latencyTrace.encode());
+    return headers;
+  }
+
+  private static StationSoh stationSoh() {
+    var stationSoh = mock(StationSoh.class);
+    when(stationSoh.getId()).thenReturn(UUID.randomUUID());
+    return stationSoh;
+  }
+
+  private static UiStationAndStationGroups view(UiStationSoh... stations) {
+    return UiStationAndStationGroups.create(List.of(), List.of(stations), false);
+  }
+
+  private static UiStationSoh uiStationSoh(String stationName, UUID stationSohId) {
+
+    return UiStationSoh.from(
+        stationName,
+        stationSohId,
+        SohStatus.GOOD,
+        false,
+        false,
+        List.of(),
+        List.of(),
+        START.toEpochMilli(),
+        stationName,
+        Set.of(),
+        Set.of());
+  }
+}
@@ -7,16 +7,22 @@ import gms.core.performancemonitoring.ssam.control.cache.StationSohCorrelatingCa
 import gms.core.performancemonitoring.ssam.control.cache.StationSohCorrelatingCacheProcessorTestFixtures.StationsFirstTest;
 import gms.core.performancemonitoring.ssam.control.cache.StationSohCorrelatingCacheProcessorTestFixtures.StationsLastTest;
 import gms.shared.frameworks.osd.coi.soh.CapabilitySohRollup;
+import gms.shared.frameworks.osd.coi.soh.SohStatus;
 import gms.shared.frameworks.osd.coi.soh.StationSoh;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Stream;
 import org.apache.commons.lang3.tuple.Pair;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -77,6 +83,69 @@ class StationSohCorrelatingCacheProcessorTests {
         }).verifyComplete();
   }
 
+  @Test
+  void testCompletedGenerationsAreForgotten() {
+
+    var fluxProcessor = EmitterProcessor.<Pair<CapabilitySohRollup, List<StationSoh>>>create();
+    var processor = StationSohCorrelatingCacheProcessor.create(fluxProcessor.sink());
+
+    processor.track(SimpleCorrelationTest.capabilitySohRollup_sA_sgA);
+    processor.track(SimpleCorrelationTest.capabilitySohRollup_sA_sgB);
+
+    Assertions.assertEquals(2, processor.getCorrelationsInFlight());
+
+    processor.add(SimpleCorrelationTest.stationSohA);
+
+    Assertions.assertEquals(0, processor.getCorrelationsInFlight());
+    Assertions.assertEquals(0, processor.getGenerationsInFlight());
+  }
+
+  @Test
+  void testIncompleteCorrelationsAreEvicted() {
+
+    var fluxProcessor = EmitterProcessor.<Pair<CapabilitySohRollup, List<StationSoh>>>create();
+    var sink = fluxProcessor.sink();
+    var processor = StationSohCorrelatingCacheProcessor.create(sink, Duration.ofMinutes(1));
+
+    var start = Instant.parse("2020-06-01T00:00:00Z");
+
+    // The StationSoh for group A's first rollup never arrives
+    var lost = rollup("GroupA", start, UUID.randomUUID());
+    processor.track(lost);
+    processor.track(rollup("GroupB", start.plusSeconds(20), UUID.randomUUID()));
+
+    Assertions.assertEquals(2, processor.getGenerationsInFlight());
+
+    // Still within the window
+    processor.track(rollup("GroupC", start.plusSeconds(60), UUID.randomUUID()));
+    Assertions.assertEquals(3, processor.getCorrelationsInFlight());
+
+    // Group A's generation is now more than a minute behind, and is evicted
+    processor.track(rollup("GroupC", start.plusSeconds(61), UUID.randomUUID()));
+    Assertions.assertEquals(2, processor.getCorrelationsInFlight());
+    Assertions.assertEquals(2, processor.getGenerationsInFlight());
+
+    // A rollup older than the window does not replace a group's newer correlation
+    var current = rollup("GroupB", start.plusSeconds(40), UUID.randomUUID());
+    processor.track(current);
+    processor.track(rollup("GroupB", start, UUID.randomUUID()));
+    Assertions.assertEquals(2, processor.getCorrelationsInFlight());
+
+    sink.complete();
+
+    StepVerifier.create(fluxProcessor).verifyComplete();
+  }
+
+  private static CapabilitySohRollup rollup(String group, Instant time, UUID stationSohId) {
+    return CapabilitySohRollup.create(
+        UUID.randomUUID(),
+        time,
+        SohStatus.GOOD,
+        group,
+        Set.of(stationSohId),
+        Map.of("Station" + group, SohStatus.GOOD));
+  }
+
   private static Stream<Arguments> correlatingTestSource() {
 
     return Stream.of(
@@ -0,0 +1,63 @@
+package gms.core.performancemonitoring.ssam.control.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+class TimeWindowedDistinctTests {
+
+  private static final Instant START = Instant.parse("2020-06-01T00:00:00Z");
+
+  @Test
+  void testDuplicatesWithinWindowAreRemoved() {
+
+    var distinct = TimeWindowedDistinct.<Pair<String, Instant>, String>create(
+        Pair::getKey, Pair::getValue, Duration.ofMinutes(1));
+
+    StepVerifier.create(Flux.just(
+        Pair.of("A", START),
+        Pair.of("B", START),
+        Pair.of("A", START),
+        Pair.of("A", START.plusSeconds(20)),
+        Pair.of("B", START))
+        .filter(distinct)
+        .map(Pair::getKey))
+        .expectNext("A", "B", "A")
+        .verifyComplete();
+  }
+
+  @Test
+  void testKeysOutsideWindowAreForgotten() {
+
+    var distinct = TimeWindowedDistinct.<Instant, Instant>create(
+        Function.identity(), Function.identity(), Duration.ofMinutes(1));
+
+    for (int i = 0; i < 1000; i++) {
+      assertTrue(distinct.test(START.plusSeconds(20L * i)));
+    }
+
+    // Only the keys from the last minute are remembered
+    assertEquals(4, distinct.size());
+    assertFalse(distinct.test(START.plusSeconds(20L * 999)));
+
+    // Items older than the window can not be checked, so they are passed
+    assertTrue(distinct.test(START));
+    assertTrue(distinct.test(START));
+    assertEquals(4, distinct.size());
+  }
+
+  @Test
+  void testCreateValidation() {
+    assertThrows(IllegalArgumentException.class,
+        () -> TimeWindowedDistinct.create(Function.identity(), time -> START, Duration.ZERO));
+  }
+}
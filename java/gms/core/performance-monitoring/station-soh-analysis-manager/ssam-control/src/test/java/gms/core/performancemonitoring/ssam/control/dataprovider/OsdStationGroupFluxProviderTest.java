@@ -0,0 +1,182 @@
+package gms.core.performancemonitoring.ssam.control.dataprovider;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import gms.shared.frameworks.osd.api.SohRepositoryInterface;
+import gms.shared.frameworks.osd.coi.signaldetection.Station;
+import gms.shared.frameworks.osd.coi.signaldetection.StationGroup;
+import gms.shared.frameworks.osd.coi.soh.CapabilitySohRollup;
+import gms.shared.frameworks.osd.coi.soh.SohStatus;
+import gms.shared.frameworks.osd.coi.soh.StationSoh;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+class OsdStationGroupFluxProviderTest {
+
+  private static final Instant NOW = Instant.parse("2020-06-01T00:00:00Z");
+
+  @Test
+  void testStationGroupsArePublishedInOrder() {
+
+    var repository = mock(SohRepositoryInterface.class);
+
+    var stationSohA = stationSoh("StationA", NOW);
+    var stationSohB = stationSoh("StationB", NOW);
+    var rollupA = rollup("GroupA", NOW);
+    var rollupB = rollup("GroupB", NOW);
+
+    // StationA is in both groups, and is only retrieved for the first
+    when(repository.retrieveByStationId(List.of("StationA"))).thenReturn(List.of(stationSohA));
+    when(repository.retrieveByStationId(List.of("StationB"))).thenReturn(List.of(stationSohB));
+    when(repository.retrieveLatestCapabilitySohRollupByStationGroup(List.of("GroupA")))
+        .thenReturn(List.of(rollupA));
+    when(repository.retrieveLatestCapabilitySohRollupByStationGroup(List.of("GroupB")))
+        .thenReturn(List.of(rollupB));
+    when(repository.retrieveLatestCapabilitySohRollupByStationGroup(List.of("GroupC")))
+        .thenReturn(List.of());
+
+    Map<String, StationSoh> latestStationSohByStation = new ConcurrentHashMap<>();
+    Map<String, CapabilitySohRollup> latestRollupByGroup = new ConcurrentHashMap<>();
+
+    var provider = OsdStationGroupFluxProvider.create(repository,
+        List.of(
+            stationGroup("GroupA", "StationA"),
+            stationGroup("GroupB", "StationA", "StationB"),
+            stationGroup("GroupC", "StationA")),
+        latestStationSohByStation,
+        latestRollupByGroup,
+        stationSohs -> { },
+        1);
+
+    // GroupC has no rollup, so it is not published
+    StepVerifier.create(provider.getFlux().map(OsdStationGroupFluxProviderTest::names))
+        .expectNext(Pair.of("GroupA", Set.of("StationA")))
+        .expectNext(Pair.of("GroupB", Set.of("StationA", "StationB")))
+        .verifyComplete();
+
+    verify(repository).retrieveByStationId(List.of("StationA"));
+    assertEquals(Map.of("StationA", stationSohA, "StationB", stationSohB),
+        latestStationSohByStation);
+    assertEquals(Map.of("GroupA", rollupA, "GroupB", rollupB), latestRollupByGroup);
+  }
+
+  @Test
+  void testNewerStationSohIsKept() {
+
+    var repository = mock(SohRepositoryInterface.class);
+
+    var retrieved = stationSoh("StationA", NOW);
+    var newer = stationSoh("StationA", NOW.plusSeconds(20));
+    var rollup = rollup("GroupA", NOW);
+
+    when(repository.retrieveByStationId(List.of("StationA"))).thenReturn(List.of(retrieved));
+    when(repository.retrieveLatestCapabilitySohRollupByStationGroup(List.of("GroupA")))
+        .thenReturn(List.of(rollup));
+
+    // A newer StationSoh arrived from Kafka while the OSD was being queried
+    Map<String, StationSoh> latestStationSohByStation = new HashMap<>(Map.of("StationA", newer));
+    List<StationSoh> retrievedStationSohs = new ArrayList<>();
+
+    var provider = OsdStationGroupFluxProvider.create(repository,
+        List.of(stationGroup("GroupA", "StationA")),
+        latestStationSohByStation,
+        new HashMap<>(),
+        retrievedStationSohs::addAll,
+        1);
+
+    StepVerifier.create(provider.getFlux())
+        .assertNext(pair -> assertSame(newer, pair.getValue().get(0)))
+        .verifyComplete();
+
+    assertSame(newer, latestStationSohByStation.get("StationA"));
+
+    // The retrieved StationSoh is still handed out, even though it was not kept
+    assertEquals(List.of(retrieved), retrievedStationSohs);
+  }
+
+  @Test
+  void testErrorsSkipStationGroup() {
+
+    var repository = mock(SohRepositoryInterface.class);
+
+    var stationSohB = stationSoh("StationB", NOW);
+
+    when(repository.retrieveByStationId(List.of("StationA")))
+        .thenThrow(new IllegalStateException("OSD unavailable"));
+    when(repository.retrieveByStationId(List.of("StationB"))).thenReturn(List.of(stationSohB));
+    when(repository.retrieveLatestCapabilitySohRollupByStationGroup(List.of("GroupB")))
+        .thenReturn(List.of(rollup("GroupB", NOW)));
+
+    var provider = OsdStationGroupFluxProvider.create(repository,
+        List.of(stationGroup("GroupA", "StationA"), stationGroup("GroupB", "StationB")),
+        new ConcurrentHashMap<>(),
+        new ConcurrentHashMap<>(),
+        stationSohs -> { },
+        2);
+
+    StepVerifier.create(provider.getFlux().map(pair -> pair.getKey().getForStationGroup()))
+        .expectNext("GroupB")
+        .verifyComplete();
+  }
+
+  @Test
+  void testCreateValidation() {
+    assertThrows(IllegalArgumentException.class,
+        () -> OsdStationGroupFluxProvider.create(mock(SohRepositoryInterface.class), List.of(),
+            Map.of(), Map.of(), stationSohs -> { }, 0));
+  }
+
+  private static Pair<String, Set<String>> names(
+      Pair<CapabilitySohRollup, List<StationSoh>> pair) {
+
+    return Pair.of(pair.getKey().getForStationGroup(), pair.getValue().stream()
+        .map(StationSoh::getStationName)
+        .collect(Collectors.toSet()));
+  }
+
+  private static StationGroup stationGroup(String name, String... stationNames) {
+
+    var stationGroup = mock(StationGroup.class);
+    when(stationGroup.getName()).thenReturn(name);
+
+    var stations = new TreeSet<Station>(Comparator.comparing(Station::getName));
+    for (String stationName : stationNames) {
+      var station = mock(Station.class);
+      when(station.getName()).thenReturn(stationName);
+      stations.add(station);
+    }
+    when(stationGroup.getStations()).thenReturn(stations);
+
+    return stationGroup;
+  }
+
+  private static StationSoh stationSoh(String stationName, Instant time) {
+
+    var stationSoh = mock(StationSoh.class);
+    when(stationSoh.getStationName()).thenReturn(stationName);
+    when(stationSoh.getTime()).thenReturn(time);
+    return stationSoh;
+  }
+
+  private static CapabilitySohRollup rollup(String stationGroupName, Instant time) {
+    return CapabilitySohRollup.create(UUID.randomUUID(), time, SohStatus.GOOD, stationGroupName,
+        Set.of(UUID.randomUUID()), Map.of("StationA", SohStatus.GOOD));
+  }
+}
@@ -0,0 +1,200 @@
+package gms.core.performancemonitoring.ssam.control.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gms.core.performancemonitoring.uimaterializedview.UiSohStatus;
+import gms.core.performancemonitoring.uimaterializedview.UiStationAndStationGroups;
+import gms.core.performancemonitoring.uimaterializedview.UiStationGroupSoh;
+import gms.core.performancemonitoring.uimaterializedview.UiStationSoh;
+import gms.shared.frameworks.osd.coi.soh.SohStatus;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+class MaterializedViewDeltaProcessorTests {
+
+  private static final Instant START = Instant.parse("2020-06-01T00:00:00Z");
+
+  private static final Duration KEYFRAME_PERIOD = Duration.ofMinutes(1);
+
+  @Test
+  void testDisabledProcessorPassesEverything() {
+
+    var processor = MaterializedViewDeltaProcessor.create(false, KEYFRAME_PERIOD, () -> START);
+
+    var views = List.of(view(false,
+        uiStationSoh("A", 0, SohStatus.GOOD),
+        uiStationSoh("B", 0, SohStatus.GOOD)));
+
+    assertSame(views, processor.apply(views));
+    assertSame(views, processor.apply(views));
+  }
+
+  @Test
+  void testOnlyChangedStationsArePublishedBetweenKeyframes() {
+
+    var now = new AtomicReference<>(START);
+    var processor = MaterializedViewDeltaProcessor.create(true, KEYFRAME_PERIOD, now::get);
+
+    // The first view is a keyframe
+    var keyframe = List.of(view(false,
+        uiStationSoh("A", 0, SohStatus.GOOD),
+        uiStationSoh("B", 0, SohStatus.GOOD)));
+    assertSame(keyframe, processor.apply(keyframe));
+
+    // Only station B changed. Station A was not recalculated.
+    now.set(START.plusSeconds(20));
+    var changedB = uiStationSoh("B", 20, SohStatus.BAD);
+    var delta = processor.apply(List.of(view(false,
+        uiStationSoh("A", 0, SohStatus.GOOD),
+        changedB)));
+
+    assertEquals(1, delta.size());
+    assertEquals(List.of(changedB), delta.get(0).getStationSoh());
+
+    // Nothing changed
+    now.set(START.plusSeconds(30));
+    assertTrue(processor.apply(List.of(view(false,
+        uiStationSoh("A", 0, SohStatus.GOOD),
+        uiStationSoh("B", 20, SohStatus.BAD)))).isEmpty());
+
+    // Station A was recalculated. Its time changing counts as a change, since the UI displays it.
+    now.set(START.plusSeconds(40));
+    var recalculatedA = uiStationSoh("A", 40, SohStatus.GOOD);
+    delta = processor.apply(List.of(view(false,
+        recalculatedA,
+        uiStationSoh("B", 20, SohStatus.BAD))));
+
+    assertEquals(1, delta.size());
+    assertEquals(List.of(recalculatedA), delta.get(0).getStationSoh());
+
+    // Keyframe is due, everything is published
+    now.set(START.plus(KEYFRAME_PERIOD));
+    var nextKeyframe = List.of(view(false,
+        uiStationSoh("A", 60, SohStatus.GOOD),
+        uiStationSoh("B", 60, SohStatus.BAD)));
+    assertSame(nextKeyframe, processor.apply(nextKeyframe));
+  }
+
+  @Test
+  void testUpdateResponsesAreAlwaysPublished() {
+
+    var processor = MaterializedViewDeltaProcessor.create(true, KEYFRAME_PERIOD, () -> START);
+
+    processor.apply(List.of(view(false, uiStationSoh("A", 0, SohStatus.GOOD))));
+
+    var update = view(true, uiStationSoh("A", 0, SohStatus.GOOD));
+    assertEquals(List.of(update), processor.apply(List.of(update)));
+
+    // The update response counts as published for later ticks
+    var acknowledged = uiStationSoh("A", 0, SohStatus.GOOD, false);
+    processor.apply(List.of(view(true, acknowledged)));
+    assertTrue(processor.apply(List.of(view(false,
+        uiStationSoh("A", 0, SohStatus.GOOD, false)))).isEmpty());
+  }
+
+  @Test
+  void testInterleavedStreamsReduceAgainstTheirOwnViews() {
+
+    var processor = MaterializedViewDeltaProcessor.create(true, KEYFRAME_PERIOD, () -> START);
+    var initial = processor.newStream();
+
+    var groupsA = List.of(uiStationGroupSoh("GROUP_A", UiSohStatus.GOOD));
+    var groupsB = List.of(uiStationGroupSoh("GROUP_B", UiSohStatus.BAD));
+    var stationA = uiStationSoh("A", 0, SohStatus.GOOD);
+    var stationB = uiStationSoh("B", 0, SohStatus.BAD);
+
+    // The first view of each stream is a keyframe
+    assertEquals(1, processor.apply(List.of(view(groupsA, false, stationA))).size());
+    assertEquals(1, initial.apply(List.of(view(groupsB, false, stationB))).size());
+
+    // Neither stream's view changed since that stream last published it, although the other
+    // stream published different station groups in between
+    assertTrue(processor.apply(List.of(view(groupsA, false, stationA))).isEmpty());
+    assertTrue(initial.apply(List.of(view(groupsB, false, stationB))).isEmpty());
+
+    // A change is published by the stream whose view changed, and only by that stream
+    var changedA = uiStationSoh("A", 20, SohStatus.BAD);
+    var delta = processor.apply(List.of(view(groupsA, false, changedA)));
+
+    assertEquals(1, delta.size());
+    assertEquals(List.of(changedA), delta.get(0).getStationSoh());
+    assertTrue(initial.apply(List.of(view(groupsB, false, stationB))).isEmpty());
+    assertTrue(processor.apply(List.of(view(groupsA, false, changedA))).isEmpty());
+  }
+
+  @Test
+  void testUpdateResponsesAreRepublishedByOtherStreams() {
+
+    var processor = MaterializedViewDeltaProcessor.create(true, KEYFRAME_PERIOD, () -> START);
+    var acknowledgements = processor.newStream();
+
+    var stationA = uiStationSoh("A", 0, SohStatus.GOOD);
+    processor.apply(List.of(view(false, stationA)));
+
+    var update = view(true, uiStationSoh("A", 0, SohStatus.GOOD, false));
+    assertEquals(List.of(update), acknowledgements.apply(List.of(update)));
+
+    // The UI shows station A as the update had it, so the main stream publishes station A again,
+    // although it did not change since the main stream last published it
+    var delta = processor.apply(List.of(view(false, stationA)));
+
+    assertEquals(1, delta.size());
+    assertEquals(List.of(stationA), delta.get(0).getStationSoh());
+    assertTrue(processor.apply(List.of(view(false, stationA))).isEmpty());
+  }
+
+  @Test
+  void testCreateValidation() {
+    assertThrows(IllegalArgumentException.class,
+        () -> MaterializedViewDeltaProcessor.create(true, Duration.ZERO));
+  }
+
+  private static UiStationAndStationGroups view(boolean isUpdate, UiStationSoh... stations) {
+    return view(List.of(), isUpdate, stations);
+  }
+
+  private static UiStationAndStationGroups view(
+      List<UiStationGroupSoh> stationGroups,
+      boolean isUpdate,
+      UiStationSoh... stations) {
+
+    return UiStationAndStationGroups.create(stationGroups, List.of(stations), isUpdate);
+  }
+
+  private static UiStationGroupSoh uiStationGroupSoh(String stationGroupName, UiSohStatus status) {
+    return UiStationGroupSoh.create(stationGroupName, stationGroupName, START.toEpochMilli(),
+        status, 1);
+  }
+
+  private static UiStationSoh uiStationSoh(String stationName, long seconds, SohStatus status) {
+    return uiStationSoh(stationName, seconds, status, true);
+  }
+
+  private static UiStationSoh uiStationSoh(
+      String stationName,
+      long seconds,
+      SohStatus status,
+      boolean needsAcknowledgement) {
+
+    return UiStationSoh.from(
+        stationName,
+        UUID.randomUUID(),
+        status,
+        needsAcknowledgement,
+        false,
+        List.of(),
+        List.of(),
+        START.plusSeconds(seconds).toEpochMilli(),
+        stationName,
+        Set.of(),
+        Set.of());
+  }
+}
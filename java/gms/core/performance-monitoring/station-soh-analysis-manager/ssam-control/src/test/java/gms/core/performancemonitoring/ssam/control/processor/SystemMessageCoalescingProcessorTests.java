@@ -0,0 +1,115 @@
+package gms.core.performancemonitoring.ssam.control.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import gms.shared.frameworks.osd.coi.soh.SohMonitorType;
+import gms.shared.frameworks.osd.coi.soh.SohStatus;
+import gms.shared.frameworks.osd.coi.systemmessages.SystemMessage;
+import gms.shared.frameworks.osd.coi.systemmessages.util.ChannelMonitorTypeStatusChangeAcknowledgedBuilder;
+import gms.shared.frameworks.osd.coi.systemmessages.util.StationSohStatusChangedBuilder;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+class SystemMessageCoalescingProcessorTests {
+
+  @Test
+  void testFlappingChangesAreCollapsedToTheFirstAndLatest() {
+
+    var processor = SystemMessageCoalescingProcessor.create(Duration.ofSeconds(1), 100);
+
+    var aGoodToBad = stationStatusChanged("A", SohStatus.GOOD, SohStatus.BAD);
+    var bGoodToBad = stationStatusChanged("B", SohStatus.GOOD, SohStatus.BAD);
+    var aBadToGood = stationStatusChanged("A", SohStatus.BAD, SohStatus.GOOD);
+    var aGoodToMarginal = stationStatusChanged("A", SohStatus.GOOD, SohStatus.MARGINAL);
+
+    assertEquals(List.of(aGoodToBad, bGoodToBad, aGoodToMarginal),
+        processor.apply(List.of(aGoodToBad, bGoodToBad, aBadToGood, aGoodToMarginal)));
+  }
+
+  @Test
+  void testReversedChangeIsNotCollapsedToANetChange() {
+
+    var processor = SystemMessageCoalescingProcessor.create(Duration.ofSeconds(1), 100);
+
+    var aGoodToBad = stationStatusChanged("A", SohStatus.GOOD, SohStatus.BAD);
+    var aBadToGood = stationStatusChanged("A", SohStatus.BAD, SohStatus.GOOD);
+
+    // The last change alone would report a change, when the status ended where it started
+    assertEquals(List.of(aGoodToBad, aBadToGood),
+        processor.apply(List.of(aGoodToBad, aBadToGood)));
+  }
+
+  @Test
+  void testUserActionsAreNotCollapsed() {
+
+    var processor = SystemMessageCoalescingProcessor.create(Duration.ofSeconds(1), 100);
+
+    var first = acknowledged("A", "A.A01.BHZ");
+    var second = acknowledged("A", "A.A01.BHZ");
+
+    assertEquals(List.of(first, second), processor.apply(List.of(first, second)));
+  }
+
+  @Test
+  void testCoalesceBatchesByWindowAndSize() {
+
+    var processor = SystemMessageCoalescingProcessor.create(Duration.ofSeconds(1), 3);
+
+    var aGoodToBad = stationStatusChanged("A", SohStatus.GOOD, SohStatus.BAD);
+    var aBadToGood = stationStatusChanged("A", SohStatus.BAD, SohStatus.GOOD);
+    var aGoodToMarginal = stationStatusChanged("A", SohStatus.GOOD, SohStatus.MARGINAL);
+    var cGoodToBad = stationStatusChanged("C", SohStatus.GOOD, SohStatus.BAD);
+
+    // The first three messages fill a batch, the last is published when the window passes
+    StepVerifier.withVirtualTime(() -> processor.coalesce(
+        Flux.just(aGoodToBad, aBadToGood, aGoodToMarginal, cGoodToBad)
+            .concatWith(Flux.never())))
+        .expectNext(List.of(aGoodToBad, aGoodToMarginal))
+        .thenAwait(Duration.ofSeconds(1))
+        .expectNext(List.of(cGoodToBad))
+        .thenCancel()
+        .verify();
+  }
+
+  @Test
+  void testZeroWindowDisablesCoalescing() {
+
+    var processor = SystemMessageCoalescingProcessor.create(Duration.ZERO, 100);
+
+    var aGoodToBad = stationStatusChanged("A", SohStatus.GOOD, SohStatus.BAD);
+    var aBadToGood = stationStatusChanged("A", SohStatus.BAD, SohStatus.GOOD);
+
+    StepVerifier.create(processor.coalesce(Flux.just(aGoodToBad, aBadToGood)))
+        .expectNext(List.of(aGoodToBad))
+        .expectNext(List.of(aBadToGood))
+        .verifyComplete();
+  }
+
+  @Test
+  void testCreateValidation() {
+
+    var negative = Duration.ofSeconds(-1);
+    var window = Duration.ofSeconds(1);
+
+    assertThrows(NullPointerException.class,
+        () -> SystemMessageCoalescingProcessor.create(null, 1));
+    assertThrows(IllegalArgumentException.class,
+        () -> SystemMessageCoalescingProcessor.create(negative, 1));
+    assertThrows(IllegalArgumentException.class,
+        () -> SystemMessageCoalescingProcessor.create(window, 0));
+  }
+
+  private static SystemMessage stationStatusChanged(String stationName, SohStatus previous,
+      SohStatus current) {
+    return new StationSohStatusChangedBuilder(stationName, previous, current).build();
+  }
+
+  private static SystemMessage acknowledged(String stationName, String channelName) {
+    return new ChannelMonitorTypeStatusChangeAcknowledgedBuilder(stationName, channelName,
+        SohMonitorType.MISSING, "user", null).build();
+  }
+}
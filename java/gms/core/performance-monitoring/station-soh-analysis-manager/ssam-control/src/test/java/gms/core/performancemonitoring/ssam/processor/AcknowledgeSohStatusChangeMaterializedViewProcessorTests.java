@@ -9,6 +9,7 @@ import gms.core.performancemonitoring.ssam.control.processor.AcknowledgeSohStatu
 import gms.core.performancemonitoring.uimaterializedview.AcknowledgedSohStatusChange;
 import gms.core.performancemonitoring.uimaterializedview.QuietedSohStatusChangeUpdate;
 import gms.core.performancemonitoring.uimaterializedview.SohQuietAndUnacknowledgedCacheManager;
+import gms.core.performancemonitoring.uimaterializedview.UiMaterializedViewContext;
 import gms.core.performancemonitoring.uimaterializedview.UiStationAndStationGroups;
 import gms.shared.frameworks.osd.coi.Units;
 import gms.shared.frameworks.osd.coi.channel.Channel;
@@ -183,7 +184,8 @@ class AcknowledgeSohStatusChangeMaterializedViewProcessorTests {
             Map.of(STATION_A_NAME, stationSoh),
             Map.of(STATION_A_NAME, capabilitySohRollup),
             sink,
-            List.of(STATION_GROUP)
+            List.of(STATION_GROUP),
+            UiMaterializedViewContext.create()
         );
 
     AcknowledgedSohStatusChange acknowledgedSohStatusChange = AcknowledgedSohStatusChange.from(
@@ -6,6 +6,7 @@ import gms.core.performancemonitoring.ssam.control.config.StationSohMonitoringUi
 import gms.core.performancemonitoring.ssam.control.processor.MaterializedViewProcessor;
 import gms.core.performancemonitoring.uimaterializedview.QuietedSohStatusChangeUpdate;
 import gms.core.performancemonitoring.uimaterializedview.SohQuietAndUnacknowledgedCacheManager;
+import gms.core.performancemonitoring.uimaterializedview.UiMaterializedViewContext;
 import gms.shared.frameworks.osd.coi.Units;
 import gms.shared.frameworks.osd.coi.channel.Channel;
 import gms.shared.frameworks.osd.coi.channel.ChannelBandType;
@@ -128,7 +129,7 @@ public class MaterializedViewProcessorTest {
 
     var materializedViewProcessor = MaterializedViewProcessor.create(quietAndUnackListsManager,
         stationSohMonitoringUiClientParameters, List.of(STATION_GROUP),
-        sink);
+        sink, UiMaterializedViewContext.create());
 
     var stationSohUUID = UUID.randomUUID();
     var now = Instant.now();
@@ -0,0 +1,128 @@
+package gms.core.performancemonitoring.uimaterializedview;
+
+import gms.shared.frameworks.osd.coi.soh.SohMonitorType;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the current {@link QuietedSohStatusChangeUpdate} for each channel and monitor type, indexed
+ * two ways: by channel and monitor type, for lookups, and by expiration time in a sorted set, so
+ * that expiring entries only touches the entries that expired. Replaced entries are removed from
+ * the sorted set when they are replaced.
+ * <p>
+ * Writes are synchronized on the cache. Lookups and {@link #hasExpired(Instant)} do not lock, and
+ * see the state as of the last completed write. The list returned by {@link #values()} is rebuilt
+ * by the first read after any writes, so a batch of writes is copied once.
+ */
+final class QuietedSohStatusChangeCache {
+
+  private final Map<String, QuietedSohStatusChangeUpdate> updatesByChannelAndMonitorType =
+      new ConcurrentHashMap<>();
+
+  // There is one current update per key, so ordering by expiration and then key is a total order
+  private final NavigableSet<QuietedSohStatusChangeUpdate> updatesByExpiration = new TreeSet<>(
+      Comparator.comparing(QuietedSohStatusChangeUpdate::getQuietUntil)
+          .thenComparing(update -> key(update.getChannelName(), update.getSohMonitorType())));
+
+  // Copy of the current updates handed to readers, or null if there were writes since it was built
+  private volatile List<QuietedSohStatusChangeUpdate> snapshot = List.of();
+
+  // Earliest expiration of any current update, or Instant.MAX if there are none
+  private volatile Instant nextExpiration = Instant.MAX;
+
+  /**
+   * @return the current update for the channel and monitor type, if any
+   */
+  Optional<QuietedSohStatusChangeUpdate> get(String channelName, SohMonitorType sohMonitorType) {
+    return Optional.ofNullable(
+        updatesByChannelAndMonitorType.get(key(channelName, sohMonitorType)));
+  }
+
+  /**
+   * Set the current update for its channel and monitor type, replacing any previous update.
+   *
+   * @return the replaced update, if any
+   */
+  synchronized Optional<QuietedSohStatusChangeUpdate> put(QuietedSohStatusChangeUpdate update) {
+
+    var previous = updatesByChannelAndMonitorType.put(
+        key(update.getChannelName(), update.getSohMonitorType()), update);
+
+    if (previous != null) {
+      updatesByExpiration.remove(previous);
+    }
+    updatesByExpiration.add(update);
+    refresh();
+
+    return Optional.ofNullable(previous);
+  }
+
+  /**
+   * @return whether any current update expires before now, in which case {@link #expire(Instant)}
+   * has work to do
+   */
+  boolean hasExpired(Instant now) {
+    return nextExpiration.isBefore(now);
+  }
+
+  /**
+   * Remove the updates whose quiet period ends before now.
+   *
+   * @return the removed updates, in order of expiration
+   */
+  synchronized List<QuietedSohStatusChangeUpdate> expire(Instant now) {
+
+    List<QuietedSohStatusChangeUpdate> expired = new ArrayList<>();
+
+    while (!updatesByExpiration.isEmpty()
+        && updatesByExpiration.first().getQuietUntil().isBefore(now)) {
+
+      var update = updatesByExpiration.pollFirst();
+
+      updatesByChannelAndMonitorType.remove(
+          key(update.getChannelName(), update.getSohMonitorType()));
+      expired.add(update);
+    }
+
+    if (!expired.isEmpty()) {
+      refresh();
+    }
+
+    return expired;
+  }
+
+  /**
+   * @return the current updates. The list is not modified by later writes.
+   */
+  List<QuietedSohStatusChangeUpdate> values() {
+
+    var current = snapshot;
+    if (current != null) {
+      return current;
+    }
+
+    synchronized (this) {
+      if (snapshot == null) {
+        snapshot = List.copyOf(updatesByChannelAndMonitorType.values());
+      }
+      return snapshot;
+    }
+  }
+
+  private void refresh() {
+    nextExpiration = updatesByExpiration.isEmpty() ? Instant.MAX
+        : updatesByExpiration.first().getQuietUntil();
+    snapshot = null;
+  }
+
+  private static String key(String channelName, SohMonitorType sohMonitorType) {
+    return channelName + "." + sohMonitorType;
+  }
+}
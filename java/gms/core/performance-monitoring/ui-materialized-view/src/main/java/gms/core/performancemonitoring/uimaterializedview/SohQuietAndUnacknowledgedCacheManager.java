@@ -1,7 +1,6 @@
 package gms.core.performancemonitoring.uimaterializedview;
 
 import com.google.common.base.Functions;
-import com.google.common.collect.TreeBasedTable;
 import gms.core.performancemonitoring.soh.control.configuration.StationSohDefinition;
 import gms.core.performancemonitoring.ssam.control.config.StationSohMonitoringUiClientParameters;
 import gms.shared.frameworks.osd.coi.soh.ChannelSoh;
@@ -23,16 +22,15 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.SortedMap;
 import java.util.stream.Collectors;
-import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -50,16 +48,18 @@ public class SohQuietAndUnacknowledgedCacheManager {
       .getLogger(SohQuietAndUnacknowledgedCacheManager.class);
   private static final Level SSAM_DEBUG = Level.valueOf("SSAM_DEBUG");
 
-  /* StationSoh list used to create previous UiStationSoh entries
+  /* Latest StationSoh of each station, used to create previous UiStationSoh entries
      used in tracking unacknowledged changes */
-  private List<StationSoh> lastStationSohList;
+  private final Map<String, StationSoh> lastStationSohByStation = new LinkedHashMap<>();
+  /* Stations whose last StationSoh had no previous StationSoh to be compared with */
+  private final Set<String> uncomparedStations = new HashSet<>();
   private final Map<String, UiUnacknowledgedSohStatusChange> unackSohStatusChangesMap;
   private long ackQuietDuration = 300000; //default value
   //systemMessageFluxSink for publishing to Kafka topic.
   private final FluxSink<SystemMessage> systemMessageFluxSink;
   private final FluxSink<UnacknowledgedSohStatusChange> unacknowledgedSohStatusChangeFluxSink;
-  private final TreeBasedTable<String, Instant, QuietedSohStatusChangeUpdate>
-      quietedChangesByExpirationAndStation = TreeBasedTable.create();
+  // Current quiet period for each channel/monitor type, indexed by expiration for cheap expiry
+  private final QuietedSohStatusChangeCache quietedChanges = new QuietedSohStatusChangeCache();
   private Map<String, StationSohDefinition> sohDefinitions = null;
 
   public SohQuietAndUnacknowledgedCacheManager(
@@ -98,7 +98,8 @@ public class SohQuietAndUnacknowledgedCacheManager {
     this.unacknowledgedSohStatusChangeFluxSink = unacknowledgedSohStatusChangeFluxSink;
 
     // Set the latest Station Soh retrieved on startup
-    this.lastStationSohList = new ArrayList<>(lastStationSoh);
+    lastStationSoh.forEach(
+        stationSoh -> this.lastStationSohByStation.put(stationSoh.getStationName(), stationSoh));
 
     // Iterate through the unacknowledgedChanges adding to the unackSohStatusChangesMap map
     this.unackSohStatusChangesMap = new HashMap<>();
@@ -136,62 +137,93 @@ public class SohQuietAndUnacknowledgedCacheManager {
   }
 
   /**
-   * Updates the Unacknowledged map to reflect changes between the lastStationSohList and the
+   * Updates the Unacknowledged map to reflect changes between the previous StationSohs and the
    * newStationSohList. The function walks through the new station soh list comparing the channel
    * monitor pairs against the previously sent channel monitor pairs. If there is a difference in
    * their values the entry is added to the Unacknowledged list.
    *
    * @param newStationSohList the current {@link StationSoh}s.
    */
-  public void updateUnacknowledgedList(
+  public synchronized void updateUnacknowledgedList(
       List<StationSoh> newStationSohList
   ) {
     // Walk through the new station sohs
     for (StationSoh newStationSoh : newStationSohList) {
-      // Find the corresponding entry in the previously sent station soh list
-      Optional<StationSoh> oldStationSoh =
-          this.lastStationSohList.stream()
-              .filter(
-                  oldStation -> oldStation.getStationName().equals(newStationSoh.getStationName()))
-              .findFirst();
-
-      if (oldStationSoh.isPresent()) {
-        // Add status changed system message.
-        SohStatus previous = oldStationSoh.get().getSohStatusRollup();
-        SohStatus current = newStationSoh.getSohStatusRollup();
+      // Find the corresponding entry in the previously sent station sohs
+      StationSoh oldStationSoh = this.lastStationSohByStation.put(
+          newStationSoh.getStationName(), newStationSoh);
+
+      if (oldStationSoh != null) {
+        this.uncomparedStations.remove(newStationSoh.getStationName());
+        this.updateUnacknowledgedStation(newStationSoh, oldStationSoh);
+      } else {
+        this.uncomparedStations.add(newStationSoh.getStationName());
+      }
+    }
+  }
 
-        if (!previous.equals(current)) {
-          logger.log(SSAM_DEBUG,
-              "Adding STATION_SOH_STATUS_CHANGED system message: station: {}, previous: {}, current: {}, time: {}",
-              newStationSoh.getStationName(), previous, current, Instant.now());
+  /**
+   * Adds StationSohs retrieved from the OSD after this manager was created, as the previous
+   * StationSoh of their stations. A station that has not been seen yet is compared with its
+   * retrieved StationSoh the next time it is updated. A station that was first seen after this
+   * manager was created, and has not been updated since, is compared with its retrieved StationSoh
+   * now, so the status changes made while the manager was not running are not lost.
+   *
+   * @param initialStationSohList the {@link StationSoh}s retrieved from the OSD.
+   */
+  public synchronized void addInitialStationSoh(List<StationSoh> initialStationSohList) {
+    for (StationSoh initialStationSoh : initialStationSohList) {
+      String stationName = initialStationSoh.getStationName();
+      StationSoh lastStationSoh = this.lastStationSohByStation.get(stationName);
+
+      if (lastStationSoh == null) {
+        this.lastStationSohByStation.put(stationName, initialStationSoh);
+      } else if (this.uncomparedStations.contains(stationName)
+          && initialStationSoh.getTime().isBefore(lastStationSoh.getTime())) {
+        this.uncomparedStations.remove(stationName);
+        this.updateUnacknowledgedStation(lastStationSoh, initialStationSoh);
+      }
+    }
+  }
 
-          addStationStatusChangedSystemMessage(newStationSoh.getStationName(), previous, current);
-        }
+  /**
+   * Adds the status changes of one station between its previous and current StationSoh, and
+   * publishes the station's unacknowledged changes.
+   *
+   * @param newStationSoh the current {@link StationSoh}.
+   * @param oldStationSoh the previous {@link StationSoh}.
+   */
+  private void updateUnacknowledgedStation(StationSoh newStationSoh, StationSoh oldStationSoh) {
+    // Add status changed system message.
+    SohStatus previous = oldStationSoh.getSohStatusRollup();
+    SohStatus current = newStationSoh.getSohStatusRollup();
 
-        // If a station not seen before add it to the map
-        if (!this.unackSohStatusChangesMap.containsKey(newStationSoh.getStationName())) {
-          this.unackSohStatusChangesMap.put(newStationSoh.getStationName(),
-              new UiUnacknowledgedSohStatusChange(newStationSoh.getStationName()));
-        }
+    if (!previous.equals(current)) {
+      logger.log(SSAM_DEBUG,
+          "Adding STATION_SOH_STATUS_CHANGED system message: station: {}, previous: {}, current: {}, time: {}",
+          newStationSoh.getStationName(), previous, current, Instant.now());
 
-        // Add any un-acknowledge changes
-        this.addStatusChangesForStation(
-            newStationSoh,
-            oldStationSoh.get(),
-            this.unackSohStatusChangesMap.get(newStationSoh.getStationName()));
-
-        if (Objects.nonNull(unacknowledgedSohStatusChangeFluxSink)) {
-          this.unacknowledgedSohStatusChangeFluxSink.next(
-              this.unackSohStatusChangesMap.get(newStationSoh.getStationName())
-                  .getUnacknowledgedSohStatusChange()
-          );
-        }
+      addStationStatusChangedSystemMessage(newStationSoh.getStationName(), previous, current);
+    }
 
-      }
+    // If a station not seen before add it to the map
+    if (!this.unackSohStatusChangesMap.containsKey(newStationSoh.getStationName())) {
+      this.unackSohStatusChangesMap.put(newStationSoh.getStationName(),
+          new UiUnacknowledgedSohStatusChange(newStationSoh.getStationName()));
     }
 
-    // new stations soh list is now the old after updating the unack list
-    this.lastStationSohList = newStationSohList;
+    // Add any un-acknowledge changes
+    this.addStatusChangesForStation(
+        newStationSoh,
+        oldStationSoh,
+        this.unackSohStatusChangesMap.get(newStationSoh.getStationName()));
+
+    if (Objects.nonNull(unacknowledgedSohStatusChangeFluxSink)) {
+      this.unacknowledgedSohStatusChangeFluxSink.next(
+          this.unackSohStatusChangesMap.get(newStationSoh.getStationName())
+              .getUnacknowledgedSohStatusChange()
+      );
+    }
   }
 
   /**
@@ -326,8 +358,8 @@ public class SohQuietAndUnacknowledgedCacheManager {
    *
    * @return List<StationSoh>
    */
-  public List<StationSoh> getLastStationSohList() {
-    return this.lastStationSohList;
+  public synchronized List<StationSoh> getLastStationSohList() {
+    return new ArrayList<>(this.lastStationSohByStation.values());
   }
 
   /**
@@ -337,13 +369,11 @@ public class SohQuietAndUnacknowledgedCacheManager {
    * @return boolean did we modify the quiet map (send update to UI)
    */
   public boolean addQuietSohStatusChange(QuietedSohStatusChangeUpdate quietedChange) {
-    String key = quietedChange.getChannelName() + "." + quietedChange.getSohMonitorType();
-    synchronized (quietedChangesByExpirationAndStation) {
+    synchronized (quietedChanges) {
       //add the system message in for the quietedChange
       addChannelMonitorTypeQuietedMessages(quietedChange);
-      quietedChangesByExpirationAndStation.row(key).clear();
       // Always set the latest quiet status, even if there was one later expiration
-      quietedChangesByExpirationAndStation.put(key, quietedChange.getQuietUntil(), quietedChange);
+      quietedChanges.put(quietedChange);
     }
 
     return true;
@@ -378,11 +408,8 @@ public class SohQuietAndUnacknowledgedCacheManager {
    */
   public boolean addAcknowledgedStationToQuietList(AcknowledgedSohStatusChange ackSohStatusChange) {
     boolean quietedListUpdated = false;
-    synchronized (quietedChangesByExpirationAndStation) {
+    synchronized (quietedChanges) {
       for (SohStatusChange sohStatusChange : ackSohStatusChange.getAcknowledgedChanges()) {
-        // Find quiet entry in map
-        String key =
-            sohStatusChange.getChangedChannel() + "." + sohStatusChange.getSohMonitorType();
 
         QuietedSohStatusChangeUpdate update = QuietedSohStatusChangeUpdate.create(
             Instant.ofEpochMilli(
@@ -394,30 +421,26 @@ public class SohQuietAndUnacknowledgedCacheManager {
             ackSohStatusChange.getAcknowledgedStation(),
             ackSohStatusChange.getAcknowledgedBy());
 
-        QuietedSohStatusChangeUpdate previousUpdate = quietedChangesByExpirationAndStation
-            .put(key, update.getQuietUntil(), update);
-        if (previousUpdate == null || previousUpdate.getQuietUntil().isBefore(
+        // Keep whichever quiet period ends later, the existing one or the acknowledgement's
+        Optional<QuietedSohStatusChangeUpdate> existingUpdate = quietedChanges
+            .get(sohStatusChange.getChangedChannel(), sohStatusChange.getSohMonitorType());
+
+        if (existingUpdate.isEmpty()
+            || !existingUpdate.get().getQuietUntil().isAfter(update.getQuietUntil())) {
+          quietedChanges.put(update);
+        }
+
+        // Only an existing quiet period ending at the same time as the acknowledgement's can
+        // suppress the acknowledged message
+        Optional<QuietedSohStatusChangeUpdate> previousUpdate = existingUpdate
+            .filter(existing -> existing.getQuietUntil().equals(update.getQuietUntil()));
+
+        if (previousUpdate.isEmpty() || previousUpdate.get().getQuietUntil().isBefore(
             ackSohStatusChange.getAcknowledgedAt().plus(ackQuietDuration, ChronoUnit.MILLIS))) {
           addChannelMonitorTypeStatusChangedAcknowledgedSystemMessage(ackSohStatusChange,
               sohStatusChange);
           quietedListUpdated = true;
         }
-
-        // Get the latest QuietedSohStatusChangeUpdates for the station.  This size should always be
-        // 1 or 2 if we are maintaining the cache correctly, but part of doing that is assuming it
-        // could have more than 1 item (i.e., we're not maintaining it correctly)
-
-        SortedMap<Instant, QuietedSohStatusChangeUpdate> existingUpdates =
-            quietedChangesByExpirationAndStation.row(key);
-
-        // Get all but the last update and delete - copying into a list to avoid concurrent
-        // modification exceptions, since backing maps of TreeBasedTable does allow itself to be
-        // modified via its row maps.
-        List<Instant> colKeysToRemove = new ArrayList<>(
-            existingUpdates.subMap(existingUpdates.firstKey(), existingUpdates.lastKey())
-                .keySet());
-
-        colKeysToRemove.forEach(colKey -> quietedChangesByExpirationAndStation.remove(key, colKey));
       }
       // Clear the unacknowledged changes for the station
       this.clearUnacknowledgedStation(ackSohStatusChange.getAcknowledgedStation());
@@ -447,40 +470,31 @@ public class SohQuietAndUnacknowledgedCacheManager {
   }
 
   /**
-   * Clones the current quiet list, pruning and expired quiet entries.
+   * Clones the current quiet list, pruning and expired quiet entries. Only takes the quiet list's
+   * lock when an entry has expired, and then only walks the expired entries.
    *
    * @return cloned list minus expired entries
    */
   public List<QuietedSohStatusChangeUpdate> getQuietedSohStatusChanges() {
-    synchronized (quietedChangesByExpirationAndStation) {
-      Instant now = Instant.now();
-
-      // Clean out the quieted cache and send system messages for anything that expired or was
-      // cancelled
-      List<Pair<String, Instant>> keysToRemove = quietedChangesByExpirationAndStation.rowKeySet()
-          .stream()
-          .map(quietedChangesByExpirationAndStation::row)
-          .map(updatesByTime -> updatesByTime.headMap(now))
-          .map(SortedMap::values)
-          .flatMap(Collection::stream)
-          .peek(update -> {
-            if (update.getQuietDuration().isZero()) {
-              addStationQuietCanceledSystemMessage(update, systemMessageFluxSink);
-            } else {
-              addStationQuietExpiredSystemMessage(update, systemMessageFluxSink);
-            }
-          })
-          .map(update -> Pair.of(update.getChannelName() + "." + update.getSohMonitorType(),
-              update.getQuietUntil()))
-          .collect(Collectors.toList());
-
-      keysToRemove.forEach(
-          keys -> quietedChangesByExpirationAndStation.remove(keys.getKey(), keys.getValue()));
-
-      // return a copy of the values to ensure that future cache updates don't affect downstream
-      // processing
-      return List.copyOf(quietedChangesByExpirationAndStation.values());
+    Instant now = Instant.now();
+
+    if (quietedChanges.hasExpired(now)) {
+      synchronized (quietedChanges) {
+        // Clean out the quieted cache and send system messages for anything that expired or was
+        // cancelled
+        quietedChanges.expire(now).forEach(update -> {
+          if (update.getQuietDuration().isZero()) {
+            addStationQuietCanceledSystemMessage(update, systemMessageFluxSink);
+          } else {
+            addStationQuietExpiredSystemMessage(update, systemMessageFluxSink);
+          }
+        });
+      }
     }
+
+    // the cache hands out a copy of its values, so future cache updates don't affect downstream
+    // processing
+    return quietedChanges.values();
   }
 
   /**
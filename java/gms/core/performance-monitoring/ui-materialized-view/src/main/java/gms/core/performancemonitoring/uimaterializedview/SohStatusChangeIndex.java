@@ -0,0 +1,179 @@
+package gms.core.performancemonitoring.uimaterializedview;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
+import gms.shared.frameworks.osd.coi.soh.SohMonitorType;
+import gms.shared.frameworks.osd.coi.soh.quieting.SohStatusChange;
+import gms.shared.frameworks.osd.coi.soh.quieting.UnacknowledgedSohStatusChange;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Index of the unacknowledged and quieted SOH status changes that are outstanding when UI station
+ * SOH is built, keyed by station and by (station, channel, monitor type). It is built once per
+ * call to {@link UiStationGenerator#buildUiStationSohList} so that each station's lookups do not
+ * have to scan every outstanding status change.
+ */
+final class SohStatusChangeIndex {
+
+  private final Map<String, List<UnacknowledgedSohStatusChange>> unacknowledgedByStation;
+
+  private final Map<String, Table<String, SohMonitorType, SohStatusChange>>
+      unacknowledgedByStationAndChannel;
+
+  private final Map<String, Table<String, SohMonitorType, QuietedSohStatusChangeUpdate>>
+      quietedByStationAndChannel;
+
+  private SohStatusChangeIndex(
+      Map<String, List<UnacknowledgedSohStatusChange>> unacknowledgedByStation,
+      Map<String, Table<String, SohMonitorType, SohStatusChange>> unacknowledgedByStationAndChannel,
+      Map<String, Table<String, SohMonitorType, QuietedSohStatusChangeUpdate>>
+          quietedByStationAndChannel) {
+
+    this.unacknowledgedByStation = unacknowledgedByStation;
+    this.unacknowledgedByStationAndChannel = unacknowledgedByStationAndChannel;
+    this.quietedByStationAndChannel = quietedByStationAndChannel;
+  }
+
+  /**
+   * Index the given status changes.
+   *
+   * @param unacknowledgedStatusChanges a collection of unacknowledged status changes.
+   * @param quietedSohStatusChanges a collection of quieted status changes.
+   * @return SohStatusChangeIndex
+   */
+  static SohStatusChangeIndex create(
+      List<UnacknowledgedSohStatusChange> unacknowledgedStatusChanges,
+      List<QuietedSohStatusChangeUpdate> quietedSohStatusChanges) {
+
+    Map<String, List<UnacknowledgedSohStatusChange>> unacknowledgedByStation = new HashMap<>();
+    Map<String, Table<String, SohMonitorType, SohStatusChange>> unacknowledgedByStationAndChannel =
+        new HashMap<>();
+
+    for (UnacknowledgedSohStatusChange unack : unacknowledgedStatusChanges) {
+
+      unacknowledgedByStation
+          .computeIfAbsent(unack.getStation(), stationName -> new ArrayList<>())
+          .add(unack);
+
+      Table<String, SohMonitorType, SohStatusChange> byChannel = unacknowledgedByStationAndChannel
+          .computeIfAbsent(unack.getStation(), stationName -> HashBasedTable.create());
+
+      for (SohStatusChange sohStatusChange : unack.getSohStatusChanges()) {
+        if (sohStatusChange != null && sohStatusChange.getChangedChannel() != null
+            && !byChannel.contains(sohStatusChange.getChangedChannel(),
+            sohStatusChange.getSohMonitorType())) {
+          byChannel.put(sohStatusChange.getChangedChannel(), sohStatusChange.getSohMonitorType(),
+              sohStatusChange);
+        }
+      }
+    }
+
+    Map<String, Table<String, SohMonitorType, QuietedSohStatusChangeUpdate>>
+        quietedByStationAndChannel = new HashMap<>();
+
+    for (QuietedSohStatusChangeUpdate quieted : quietedSohStatusChanges) {
+
+      Table<String, SohMonitorType, QuietedSohStatusChangeUpdate> byChannel =
+          quietedByStationAndChannel
+              .computeIfAbsent(quieted.getStationName(), stationName -> HashBasedTable.create());
+
+      // The first quiet entry for a channel and monitor type is the one that is used
+      if (!byChannel.contains(quieted.getChannelName(), quieted.getSohMonitorType())) {
+        byChannel.put(quieted.getChannelName(), quieted.getSohMonitorType(), quieted);
+      }
+    }
+
+    return new SohStatusChangeIndex(
+        unacknowledgedByStation,
+        unacknowledgedByStationAndChannel,
+        quietedByStationAndChannel);
+  }
+
+  /**
+   * Determine if station needs to be acknowledged: its first unacknowledged status change entry
+   * has status changes.
+   *
+   * @param stationName the station name.
+   * @return boolean (needs acknowledgement for this station)
+   */
+  boolean needsAcknowledgement(String stationName) {
+
+    List<UnacknowledgedSohStatusChange> stationUnacknowledged =
+        unacknowledgedByStation.get(stationName);
+
+    return stationUnacknowledged != null
+        && !stationUnacknowledged.get(0).getSohStatusChanges().isEmpty();
+  }
+
+  /**
+   * Determine if station needs attention: it has an unacknowledged status change that has not
+   * been quieted.
+   *
+   * @param stationName the station name.
+   * @return boolean (needs attention for this station)
+   */
+  boolean needsAttention(String stationName) {
+
+    List<UnacknowledgedSohStatusChange> stationUnacknowledged =
+        unacknowledgedByStation.get(stationName);
+
+    if (stationUnacknowledged == null) {
+      return false;
+    }
+
+    Table<String, SohMonitorType, QuietedSohStatusChangeUpdate> quietedByChannel =
+        quietedByStationAndChannel.get(stationName);
+
+    for (UnacknowledgedSohStatusChange unack : stationUnacknowledged) {
+      for (SohStatusChange change : unack.getSohStatusChanges()) {
+        if (quietedByChannel == null
+            || !quietedByChannel.contains(change.getChangedChannel(),
+            change.getSohMonitorType())) {
+          return true;
+        }
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Determine if channel monitor needs to be acknowledged (dirty dots on UI)
+   *
+   * @param stationName the station name.
+   * @param channelName the channel name.
+   * @param type monitor type
+   * @return boolean (needs acknowledgement for this channel monitor)
+   */
+  boolean hasUnacknowledgedChanges(String stationName, String channelName, SohMonitorType type) {
+
+    Table<String, SohMonitorType, SohStatusChange> byChannel =
+        unacknowledgedByStationAndChannel.get(stationName);
+
+    return byChannel != null && byChannel.contains(channelName, type);
+  }
+
+  /**
+   * Find the quiet entry for a channel monitor.
+   *
+   * @param stationName the station name.
+   * @param channelName the channel name.
+   * @param type monitor type
+   * @return the QuietedSohStatusChangeUpdate for the channel monitor, if it is quieted
+   */
+  Optional<QuietedSohStatusChangeUpdate> findQuietEntry(
+      String stationName,
+      String channelName,
+      SohMonitorType type) {
+
+    Table<String, SohMonitorType, QuietedSohStatusChangeUpdate> byChannel =
+        quietedByStationAndChannel.get(stationName);
+
+    return byChannel == null ? Optional.empty() : Optional.ofNullable(byChannel.get(channelName,
+        type));
+  }
+}
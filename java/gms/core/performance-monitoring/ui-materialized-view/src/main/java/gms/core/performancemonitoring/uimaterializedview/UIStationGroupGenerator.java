@@ -10,8 +10,6 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.apache.commons.lang3.tuple.Pair;
@@ -26,9 +24,6 @@ import reactor.core.publisher.FluxSink;
  */
 class UIStationGroupGenerator {
 
-  private static final Map<String, CapabilitySohRollup> previousStationGroupsCapabilityRollups =
-      new ConcurrentHashMap<>();
-
   private UIStationGroupGenerator() {
   }
 
@@ -38,11 +33,13 @@ class UIStationGroupGenerator {
    * @param latestCapabilitySohRollups a collection of current {@link CapabilitySohRollup}s.
    * @param stationGroupsNames a collection of station group names.
    * @param systemMessageFluxSink a Map of system messages.
+   * @param context state carried from the previous view.
    * @return List<UiStationGroupSoh>
    */
   static List<UiStationGroupSoh> buildSohStationGroups(
       List<CapabilitySohRollup> latestCapabilitySohRollups,
-      List<String> stationGroupsNames, FluxSink<SystemMessage> systemMessageFluxSink) {
+      List<String> stationGroupsNames, FluxSink<SystemMessage> systemMessageFluxSink,
+      UiMaterializedViewContext context) {
 
     Map<String, CapabilitySohRollup> rollupsByStation = latestCapabilitySohRollups.stream()
         .collect(Collectors.toMap(CapabilitySohRollup::getForStationGroup, Functions.identity()));
@@ -55,7 +52,8 @@ class UIStationGroupGenerator {
           if (rollupsByStation.containsKey(pair.getValue())) {
             addStationGroupCapabilityStatusChangedSystemMessage(
                 rollupsByStation.get(pair.getValue()),
-                systemMessageFluxSink);
+                systemMessageFluxSink,
+                context);
           }
 
           return UiStationGroupSoh.create(pair.getValue(),
@@ -74,13 +72,14 @@ class UIStationGroupGenerator {
    *
    * @param capabilitySohRollup the current capability SOH Rollup for the station group.
    * @param systemMessageFluxSink the Map of system messages.
+   * @param context state carried from the previous view.
    */
   private static void addStationGroupCapabilityStatusChangedSystemMessage(
       CapabilitySohRollup capabilitySohRollup,
-      FluxSink<SystemMessage> systemMessageFluxSink) {
+      FluxSink<SystemMessage> systemMessageFluxSink,
+      UiMaterializedViewContext context) {
 
-    Optional.ofNullable(
-        previousStationGroupsCapabilityRollups.get(capabilitySohRollup.getForStationGroup()))
+    context.updateStationGroupCapabilityRollup(capabilitySohRollup)
         .ifPresent(
             previousCapabilityRollup -> {
               if (!previousCapabilityRollup.getGroupRollupSohStatus()
@@ -95,17 +94,5 @@ class UIStationGroupGenerator {
               }
             }
         );
-
-    previousStationGroupsCapabilityRollups.put(
-        capabilitySohRollup.getForStationGroup(),
-        capabilitySohRollup
-    );
-  }
-
-  /**
-   * Clear all of the previous values. Used for testing for now, so making package-private.
-   */
-   static void clearPrevious() {
-    previousStationGroupsCapabilityRollups.clear();
   }
 }
@@ -0,0 +1,98 @@
+package gms.core.performancemonitoring.uimaterializedview;
+
+import gms.shared.frameworks.osd.coi.soh.CapabilitySohRollup;
+import gms.shared.frameworks.osd.coi.soh.SohStatus;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * State that is carried from one generation of the UI materialized view to the next, so that
+ * system messages are only sent when a status changes. Processors that publish views of the same
+ * stations, such as the main, acknowledged and quieted view processors, should share a context so
+ * that they agree on what was last reported.
+ * <p>
+ * All operations are thread safe, and each update is atomic for its station or station group, so
+ * that views for different stations can be generated in parallel.
+ */
+public final class UiMaterializedViewContext {
+
+  // Maps the combination of station group name and station name to the station's capability status
+  private final Map<String, SohStatus> previousStationCapabilityRollups =
+      new ConcurrentHashMap<>();
+
+  private final Set<String> needsAttentionStationNames = ConcurrentHashMap.newKeySet();
+
+  private final Map<String, CapabilitySohRollup> previousStationGroupsCapabilityRollups =
+      new ConcurrentHashMap<>();
+
+  private final boolean parallel;
+
+  private UiMaterializedViewContext(boolean parallel) {
+    this.parallel = parallel;
+  }
+
+  /**
+   * @return a context whose views are generated one station at a time
+   */
+  public static UiMaterializedViewContext create() {
+    return new UiMaterializedViewContext(false);
+  }
+
+  /**
+   * @param parallel whether the UiStationSohs of a view are generated in parallel
+   * @return UiMaterializedViewContext
+   */
+  public static UiMaterializedViewContext create(boolean parallel) {
+    return new UiMaterializedViewContext(parallel);
+  }
+
+  /**
+   * @return whether the UiStationSohs of a view are generated in parallel
+   */
+  public boolean isParallel() {
+    return parallel;
+  }
+
+  /**
+   * Record the capability status of a station within a station group.
+   *
+   * @return the previously recorded status, if any
+   */
+  Optional<SohStatus> updateStationCapabilityStatus(
+      String stationGroupName,
+      String stationName,
+      SohStatus sohStatus) {
+
+    return Optional.ofNullable(previousStationCapabilityRollups.put(
+        stationGroupName + "/" + stationName, sohStatus));
+  }
+
+  /**
+   * Record whether a station needs attention.
+   *
+   * @return true if the station needs attention and did not need attention before
+   */
+  boolean updateNeedsAttention(String stationName, boolean needsAttention) {
+
+    if (needsAttention) {
+      return needsAttentionStationNames.add(stationName);
+    }
+
+    needsAttentionStationNames.remove(stationName);
+    return false;
+  }
+
+  /**
+   * Record the latest capability rollup of a station group.
+   *
+   * @return the previously recorded capability rollup, if any
+   */
+  Optional<CapabilitySohRollup> updateStationGroupCapabilityRollup(
+      CapabilitySohRollup capabilitySohRollup) {
+
+    return Optional.ofNullable(previousStationGroupsCapabilityRollups.put(
+        capabilitySohRollup.getForStationGroup(), capabilitySohRollup));
+  }
+}
@@ -42,9 +42,12 @@ public class UiStationAndStationGroupGenerator {
    * etc.
    * @param stationGroups a collection of station groups.
    * @param isUpdate Is this message an update from a Ack or Quiet notification.
+   * @param systemMessageFluxSink a FluxSink of system messages.
+   * @param context state carried from the previous view, shared by the processors that publish
+   * views of the same stations.
    * @return uiStationAndStationGroupsList the collection sent to the UI.
    */
-  public static synchronized List<UiStationAndStationGroups> generateUiStationAndStationGroups(
+  public static List<UiStationAndStationGroups> generateUiStationAndStationGroups(
     List<StationSoh> stationSohs,
     List<UnacknowledgedSohStatusChange> unacknowledgedStatusChanges,
     List<QuietedSohStatusChangeUpdate> quietedSohStatusChanges,
@@ -52,7 +55,8 @@ public class UiStationAndStationGroupGenerator {
     StationSohMonitoringUiClientParameters stationSohConfig,
     List<StationGroup> stationGroups,
     boolean isUpdate,
-    FluxSink<SystemMessage> systemMessageFluxSink) {
+    FluxSink<SystemMessage> systemMessageFluxSink,
+    UiMaterializedViewContext context) {
 
     Objects.requireNonNull(stationSohs);
     Preconditions.checkState(!stationSohs.isEmpty());
@@ -61,11 +65,12 @@ public class UiStationAndStationGroupGenerator {
     Objects.requireNonNull(latestCapabilitySohRollups);
     Objects.requireNonNull(stationSohConfig);
     Objects.requireNonNull(systemMessageFluxSink);
+    Objects.requireNonNull(context);
 
     // Build the UiStationSoh list
     List<UiStationSoh> uiStationSohs = UiStationGenerator.buildUiStationSohList(stationSohs,
         unacknowledgedStatusChanges, quietedSohStatusChanges, latestCapabilitySohRollups,
-        stationSohConfig, stationGroups, systemMessageFluxSink);
+        stationSohConfig, stationGroups, systemMessageFluxSink, context);
 
     List<String> stationGroupNames =
         stationSohConfig.getStationSohControlConfiguration().getDisplayedStationGroups();
@@ -74,7 +79,7 @@ public class UiStationAndStationGroupGenerator {
         UiStationAndStationGroupGenerator.getUiStationGroupMessage(
             uiStationSohs,
             latestCapabilitySohRollups,
-            stationGroupNames, isUpdate, systemMessageFluxSink);
+            stationGroupNames, isUpdate, systemMessageFluxSink, context);
 
     // Chunk it up until figure out how to send messages larger than 1MB
     return makeGroupsMessage(uiStationGroups);
@@ -87,6 +92,7 @@ public class UiStationAndStationGroupGenerator {
    * @param capabilitySohRollups a collection of {@link CapabilitySohRollup}s.
    * @param stationGroupNames a collection of station group names.
    * @param systemMessageFluxSink a Map of system messages.
+   * @param context state carried from the previous view.
    * @return prioritized UiStationAndStationGroups
    */
   public static UiStationAndStationGroups getUiStationGroupMessage(
@@ -94,21 +100,15 @@ public class UiStationAndStationGroupGenerator {
       List<CapabilitySohRollup> capabilitySohRollups,
       List<String> stationGroupNames,
       boolean isUpdate,
-      FluxSink<SystemMessage> systemMessageFluxSink) {
+      FluxSink<SystemMessage> systemMessageFluxSink,
+      UiMaterializedViewContext context) {
     // Get the StationGroup with Priority
     List<UiStationGroupSoh> stationGroupsWithPriority =
-        UIStationGroupGenerator.buildSohStationGroups(capabilitySohRollups, stationGroupNames, systemMessageFluxSink);
+        UIStationGroupGenerator.buildSohStationGroups(capabilitySohRollups, stationGroupNames,
+            systemMessageFluxSink, context);
     return UiStationAndStationGroups.create(stationGroupsWithPriority, uiStationSohList, isUpdate);
   }
 
-  /**
-   * Clear all of the previous values. Used for testing for now, so making package-private.
-   */
-  static void clearPrevious() {
-    UIStationGroupGenerator.clearPrevious();
-    UiStationGenerator.clearPrevious();
-  }
-
   /**
    * Chops up the UiStationAndStationGroups UiStationSoh into smaller messages (< 1mb) due to limit on
    * message size (1mb Kafka limit). Hopefully this function will be removed when able to compress
@@ -1,8 +1,6 @@
 package gms.core.performancemonitoring.uimaterializedview;
 
 import com.google.common.base.Functions;
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Table;
 import gms.core.performancemonitoring.soh.control.configuration.ChannelSohDefinition;
 import gms.core.performancemonitoring.soh.control.configuration.DurationSohMonitorStatusThresholdDefinition;
 import gms.core.performancemonitoring.soh.control.configuration.SohMonitorStatusThresholdDefinition;
@@ -14,23 +12,18 @@ import gms.shared.frameworks.osd.coi.soh.CapabilitySohRollup;
 import gms.shared.frameworks.osd.coi.soh.ChannelSoh;
 import gms.shared.frameworks.osd.coi.soh.SohMonitorType;
 import gms.shared.frameworks.osd.coi.soh.SohMonitorType.SohValueType;
-import gms.shared.frameworks.osd.coi.soh.SohStatus;
 import gms.shared.frameworks.osd.coi.soh.StationSoh;
-import gms.shared.frameworks.osd.coi.soh.quieting.SohStatusChange;
 import gms.shared.frameworks.osd.coi.soh.quieting.UnacknowledgedSohStatusChange;
 import gms.shared.frameworks.osd.coi.systemmessages.SystemMessage;
-import gms.shared.frameworks.osd.coi.systemmessages.SystemMessageType;
 import gms.shared.frameworks.osd.coi.systemmessages.util.StationCapabilityStatusChangedBuilder;
 import gms.shared.frameworks.osd.coi.systemmessages.util.StationNeedsAttentionBuilder;
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collector;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,8 +38,6 @@ import reactor.core.publisher.FluxSink;
  */
 public class UiStationGenerator {
 
-  private static final Map<String, SohStatus> previousStationCapabilityRollups = new ConcurrentHashMap<>();
-  private static final Set<String> needsAttentionStationNames = new HashSet<>();
   private static final Logger logger = LoggerFactory.getLogger(UiStationGenerator.class);
   private UiStationGenerator() {
   }
@@ -61,6 +52,7 @@ public class UiStationGenerator {
    * @param stationSohConfig the StationSohMonitoringUiClientParameters.
    * @param stationGroups a collection of station groups.
    * @param systemMessageFluxSink a systemMessageFluxSink of system messages.
+   * @param context state carried from the previous view, and whether to generate in parallel.
    * @return uiStationSohList
    */
   public static List<UiStationSoh> buildUiStationSohList(
@@ -70,7 +62,8 @@ public class UiStationGenerator {
       List<CapabilitySohRollup> latestCapabilitySohRollups,
       StationSohMonitoringUiClientParameters stationSohConfig,
       List<StationGroup> stationGroups,
-      FluxSink<SystemMessage> systemMessageFluxSink) {
+      FluxSink<SystemMessage> systemMessageFluxSink,
+      UiMaterializedViewContext context) {
 
     // Build a StationSohDefinition map to find the StationSohDefinition
     Map<String, StationSohDefinition> definitionsByStationName = stationSohConfig
@@ -79,8 +72,27 @@ public class UiStationGenerator {
         .stream()
         .collect(Collectors.toMap(StationSohDefinition::getStationName, Functions.identity()));
 
-    // Walk thru the Station SOH creating the equivalent UI Station SOH
-    return stationSohs.stream()
+    // Index the status changes and capability rollups once, rather than scanning them per station
+    SohStatusChangeIndex statusChangeIndex = SohStatusChangeIndex.create(
+        unacknowledgedStatusChanges, quietedSohStatusChanges);
+
+    Map<String, CapabilitySohRollup> rollupsByGroup = latestCapabilitySohRollups.stream()
+        .collect(Collectors.toMap(CapabilitySohRollup::getForStationGroup, Functions.identity()));
+
+    Map<String, List<String>> stationGroupNamesByStationName = new HashMap<>();
+    stationGroups.forEach(stationGroup -> stationGroup.getStations().stream()
+        .map(Station::getName)
+        .distinct()
+        .forEach(stationName -> stationGroupNamesByStationName
+            .computeIfAbsent(stationName, name -> new ArrayList<>())
+            .add(stationGroup.getName())));
+
+    // Walk thru the Station SOH creating the equivalent UI Station SOH. Each station only
+    // touches its own entries in the context, so stations can be converted in parallel.
+    var stationSohStream = context.isParallel() ?
+        stationSohs.parallelStream() : stationSohs.stream();
+
+    return stationSohStream
         .map(stationSoh -> {
 
           // Find the StationSohDefinition
@@ -98,20 +110,21 @@ public class UiStationGenerator {
           // Build UiChannelSoh set
           Set<UiChannelSoh> channelSohs = convertChannelSohs(stationSoh.getStationName(),
               stationSoh.getChannelSohs(),
-              unacknowledgedStatusChanges,
-              quietedSohStatusChanges,
+              statusChangeIndex,
               stationSohDefinition.getChannelSohDefinitions());
 
           // Return the UiStationSoh created
           return Optional.of(UiStationSoh.create(
               stationSoh,
-              needsAcknowledgement(stationSoh.getStationName(), unacknowledgedStatusChanges),
-              needsAttention(stationSoh.getStationName(),
-                  unacknowledgedStatusChanges,
-                  quietedSohStatusChanges, systemMessageFluxSink),
+              statusChangeIndex.needsAcknowledgement(stationSoh.getStationName()),
+              needsAttention(stationSoh.getStationName(), statusChangeIndex,
+                  systemMessageFluxSink, context),
               statusContributors(stationSoh, stationSohDefinition),
               getCapabilityRollupForStation(stationSoh.getStationName(), latestCapabilitySohRollups,
-                  stationGroups, systemMessageFluxSink),
+                  rollupsByGroup,
+                  stationGroupNamesByStationName.getOrDefault(stationSoh.getStationName(),
+                      List.of()),
+                  systemMessageFluxSink, context),
               channelSohs));
 
         })
@@ -125,30 +138,29 @@ public class UiStationGenerator {
    *
    * @param stationName the station name.
    * @param latestCapabilitySohRollups a collection of current {@link CapabilitySohRollup}s.
-   * @param stationGroups a collection of station groups.
+   * @param rollupsByGroup the current {@link CapabilitySohRollup}s by station group name.
+   * @param stationGroupNames names of the station groups that contain the station.
    * @param systemMessageFluxSink a FluxSink of system messages.
+   * @param context state carried from the previous view.
    * @return List<UiStationSohCapabilityStatus>
    */
   private static List<UiStationSohCapabilityStatus> getCapabilityRollupForStation(
       String stationName,
       List<CapabilitySohRollup> latestCapabilitySohRollups,
-      List<StationGroup> stationGroups,
-      FluxSink<SystemMessage> systemMessageFluxSink) {
+      Map<String, CapabilitySohRollup> rollupsByGroup,
+      List<String> stationGroupNames,
+      FluxSink<SystemMessage> systemMessageFluxSink,
+      UiMaterializedViewContext context) {
 
     addStationCapabilityStatusChangedSystemMessage(stationName, latestCapabilitySohRollups,
-        systemMessageFluxSink);
-
-    Map<String, CapabilitySohRollup> rollupsByGroup = latestCapabilitySohRollups.stream()
-        .collect(Collectors.toMap(CapabilitySohRollup::getForStationGroup, Functions.identity()));
+        systemMessageFluxSink, context);
 
-    return stationGroups.stream()
-        .filter(stationGroup -> stationGroup.getStations().stream().map(Station::getName)
-            .collect(Collectors.toList()).contains(stationName))
-        .map(stationGroup ->
-            UiStationSohCapabilityStatus.create(stationGroup.getName(),
+    return stationGroupNames.stream()
+        .map(stationGroupName ->
+            UiStationSohCapabilityStatus.create(stationGroupName,
                 stationName,
-                rollupsByGroup.containsKey(stationGroup.getName()) ?
-                    UiSohStatus.from(rollupsByGroup.get(stationGroup.getName())
+                rollupsByGroup.containsKey(stationGroupName) ?
+                    UiSohStatus.from(rollupsByGroup.get(stationGroupName)
                         .getRollupSohStatusByStation().get(stationName)) :
                     UiSohStatus.NONE))
         .collect(Collectors.toList());
@@ -161,11 +173,13 @@ public class UiStationGenerator {
    * @param stationName the station name.
    * @param latestCapabilitySohRollups the current capability rollups.
    * @param systemMessageFluxSink the Map of system messages.
+   * @param context state carried from the previous view.
    */
   private static void addStationCapabilityStatusChangedSystemMessage(
       String stationName,
       List<CapabilitySohRollup> latestCapabilitySohRollups,
-      FluxSink<SystemMessage> systemMessageFluxSink
+      FluxSink<SystemMessage> systemMessageFluxSink,
+      UiMaterializedViewContext context
   ) {
 
     latestCapabilitySohRollups.forEach(
@@ -179,18 +193,14 @@ public class UiStationGenerator {
                 sohStatus -> {
 
                   //
-                  // previousStationCapabilityRollups maps the combination of station name and
-                  // station group name to a status.
+                  // The context maps the combination of station name and station group name to
+                  // a status.
                   //
-                  var stationGroupStationKey =
-                      capabilitySohRollup.getForStationGroup() + "/" + stationName;
-                  var previousSohStatus = Optional.ofNullable(previousStationCapabilityRollups
-                      .get(stationGroupStationKey)).orElse(sohStatus);
-
-                  previousStationCapabilityRollups.put(
-                      stationGroupStationKey,
+                  var previousSohStatus = context.updateStationCapabilityStatus(
+                      capabilitySohRollup.getForStationGroup(),
+                      stationName,
                       sohStatus
-                  );
+                  ).orElse(sohStatus);
 
                   if (sohStatus != previousSohStatus) {
 
@@ -209,68 +219,27 @@ public class UiStationGenerator {
 
   }
 
-  /**
-   * Determine if station needs to be acknowledgement (dirty dots on UI)
-   *
-   * @param stationName the station name.
-   * @param unacknowledgedStatusChanges a collection of unacknowledged status changes.
-   * @return boolean (needs acknowledgement for this station)
-   */
-  private static boolean needsAcknowledgement(
-      String stationName,
-      List<UnacknowledgedSohStatusChange> unacknowledgedStatusChanges) {
-
-    return unacknowledgedStatusChanges
-        .stream()
-        .filter(unack -> unack.getStation().equals(stationName))
-        .findFirst()
-        .map(unack -> !unack.getSohStatusChanges().isEmpty())
-        .orElse(false);
-  }
-
   /**
    * Determine if station needs attention in UI
    *
    * @param stationName the station name.
-   * @param quietedSohStatusChanges a collection of quieted status changes.
-   * @param unacknowledgedStatusChanges a collection unacknowledged status changes.
+   * @param statusChangeIndex the outstanding unacknowledged and quieted status changes.
    * @param systemMessageFluxSink a Map of system messages.
+   * @param context state carried from the previous view.
    * @return boolean (needs attention for this station)
    */
   private static boolean needsAttention(
       String stationName,
-      List<UnacknowledgedSohStatusChange> unacknowledgedStatusChanges,
-      List<QuietedSohStatusChangeUpdate> quietedSohStatusChanges,
-      FluxSink<SystemMessage> systemMessageFluxSink
+      SohStatusChangeIndex statusChangeIndex,
+      FluxSink<SystemMessage> systemMessageFluxSink,
+      UiMaterializedViewContext context
   ) {
 
-    boolean attention = unacknowledgedStatusChanges.stream()
-        .filter(unack -> unack.getStation().equals(stationName))
-        .anyMatch(unack -> {
-          Table<String, SohMonitorType, QuietedSohStatusChangeUpdate> quietedByChannel =
-              quietedSohStatusChanges.stream()
-                  .filter(quieted -> quieted.getStationName().equals(stationName))
-                  .collect(Collector.of(HashBasedTable::create,
-                      (table, change) -> table.put(change.getChannelName(),
-                          change.getSohMonitorType(), change),
-                      (table1, table2) -> {
-                        table1.putAll(table2);
-                        return table1;
-                      },
-                      Functions.identity()));
-          return unack.getSohStatusChanges().stream()
-              .anyMatch(change -> !quietedByChannel.contains(change.getChangedChannel(),
-                  change.getSohMonitorType()));
-        });
+    boolean attention = statusChangeIndex.needsAttention(stationName);
 
     // If the station needs attention test if it moved to needs attention bin and send a SystemMessage.
-    if (attention) {
-      if (!needsAttentionStationNames.contains(stationName)) {
-        addStationNeedsAttentionSystemMessage(stationName, systemMessageFluxSink);
-        needsAttentionStationNames.add(stationName);
-      }
-    } else {
-      needsAttentionStationNames.remove(stationName);
+    if (context.updateNeedsAttention(stationName, attention)) {
+      addStationNeedsAttentionSystemMessage(stationName, systemMessageFluxSink);
     }
 
     return attention;
@@ -349,22 +318,15 @@ public class UiStationGenerator {
    *
    * @param stationName the station name.
    * @param channelSohs a collection of {@link ChannelSoh}s.
-   * @param unacknowledgedStatusChanges a collection of unacknowledged status changes.
-   * @param quietedSohStatusChanges a collection of quieted status changes.
+   * @param statusChangeIndex the outstanding unacknowledged and quieted status changes.
    * @return Set<UiChannelSoh>
    */
   private static Set<UiChannelSoh> convertChannelSohs(
       String stationName,
       Set<ChannelSoh> channelSohs,
-      List<UnacknowledgedSohStatusChange> unacknowledgedStatusChanges,
-      List<QuietedSohStatusChangeUpdate> quietedSohStatusChanges,
+      SohStatusChangeIndex statusChangeIndex,
       Set<ChannelSohDefinition> setChanSohDef) {
 
-    List<UnacknowledgedSohStatusChange> stationUnacknowledgedStatusChanges =
-        unacknowledgedStatusChanges.stream()
-            .filter(unack -> unack.getStation().equals(stationName))
-            .collect(Collectors.toList());
-
     Map<String, ChannelSohDefinition> channelSohDefinitionsByName = setChanSohDef.stream()
         .collect(Collectors.toMap(ChannelSohDefinition::getChannelName, Functions.identity()));
 
@@ -372,8 +334,7 @@ public class UiStationGenerator {
         .filter(channelSoh -> channelSohDefinitionsByName.containsKey(channelSoh.getChannelName()))
         .map(channelSoh -> createUiChannelSoh(
             channelSoh,
-            stationUnacknowledgedStatusChanges,
-            quietedSohStatusChanges,
+            statusChangeIndex,
             channelSohDefinitionsByName.get(channelSoh.getChannelName()),
             stationName))
         .collect(Collectors.toSet());
@@ -383,14 +344,12 @@ public class UiStationGenerator {
   /**
    * Creates a new Channel SOH Object
    * @param channelSoh
-   * @param unacknowledgedStatusChanges
-   * @param quietedSohStatusChanges
+   * @param statusChangeIndex
    * @return AutoValue_UiChannelSoh
    */
   private static UiChannelSoh createUiChannelSoh(
       ChannelSoh channelSoh,
-      List<UnacknowledgedSohStatusChange> unacknowledgedStatusChanges,
-      List<QuietedSohStatusChangeUpdate> quietedSohStatusChanges,
+      SohStatusChangeIndex statusChangeIndex,
       ChannelSohDefinition chanSohDef,
       String stationName) {
 
@@ -414,8 +373,10 @@ public class UiStationGenerator {
           }
 
           return UiSohMonitorValueAndStatus.from(smvs,
-              findQuietEntry(channelSoh.getChannelName(), smvs.getMonitorType(), quietedSohStatusChanges),
-              hasUnacknowledgedChanges(channelSoh.getChannelName(), smvs.getMonitorType(), unacknowledgedStatusChanges),
+              statusChangeIndex.findQuietEntry(stationName, channelSoh.getChannelName(),
+                  smvs.getMonitorType()),
+              statusChangeIndex.hasUnacknowledgedChanges(stationName, channelSoh.getChannelName(),
+                  smvs.getMonitorType()),
               marginalThreshold,
               badThreshold,
               StationSohContributingUtility.getInstance().isChannelMonitorContributing(
@@ -428,61 +389,4 @@ public class UiStationGenerator {
         channelSoh.getSohStatusRollup(),
         uiSmvs);
   }
-
-
-  /**
-   * Determine if channel needs to be acknowledgement (dirty dots on UI)
-   * @param channelName
-   * @param type monitor type
-   * @param unacknowledgedStatusChanges
-   * @return boolean (needs acknowledgement for this channel)
-   */
-  private static boolean hasUnacknowledgedChanges(
-      String channelName,
-      SohMonitorType type,
-      List<UnacknowledgedSohStatusChange> unacknowledgedStatusChanges) {
-
-    // Look through the unacknowledged list to see if any apply to station
-    for(UnacknowledgedSohStatusChange unack : unacknowledgedStatusChanges) {
-      for(SohStatusChange sohStatusChange : unack.getSohStatusChanges()){
-        if (sohStatusChange != null &&
-            sohStatusChange.getChangedChannel() != null &&
-            sohStatusChange.getChangedChannel().equals(channelName) &&
-            sohStatusChange.getSohMonitorType().equals(type)) {
-          return true;
-        }
-      }
-    }
-    return false;
-  }
-
-  /**
-   * Returns quiet entry for channel or null
-   * @param channelName
-   * @param type monitor type
-   * @param quietedSohStatusChanges
-   * @return QuietedSohStatusChange or null
-   */
-  private static Optional<QuietedSohStatusChangeUpdate> findQuietEntry(
-      String channelName,
-      SohMonitorType type,
-      List<QuietedSohStatusChangeUpdate> quietedSohStatusChanges) {
-
-    // Look through the quieted list to see if any apply to station
-    for(QuietedSohStatusChangeUpdate quietEntry : quietedSohStatusChanges) {
-      if(quietEntry.getChannelName().equals(channelName) &&
-          quietEntry.getSohMonitorType().equals(type)) {
-        return Optional.of(quietEntry);
-      }
-    }
-    return Optional.empty();
-  }
-
-  /**
-   * Clear all of the previous values. Used for testing for now, so making package-private.
-   */
-  static void clearPrevious() {
-    previousStationCapabilityRollups.clear();
-    needsAttentionStationNames.clear();
-  }
 }
@@ -0,0 +1,190 @@
+package gms.core.performancemonitoring.uimaterializedview;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.common.collect.TreeBasedTable;
+import gms.shared.frameworks.osd.coi.soh.SohMonitorType;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class QuietedSohStatusChangeCacheTest {
+
+  private static final Instant START = Instant.parse("2020-06-01T00:00:00Z");
+
+  private static final int CHANNEL_COUNT = 50;
+
+  @Test
+  void testPutAndGet() {
+
+    var cache = new QuietedSohStatusChangeCache();
+
+    var first = quieted("STA.STA01.BHZ", SohMonitorType.ENV_GAP, 60);
+    assertEquals(Optional.empty(), cache.put(first));
+    assertEquals(Optional.of(first), cache.get("STA.STA01.BHZ", SohMonitorType.ENV_GAP));
+    assertEquals(Optional.empty(), cache.get("STA.STA01.BHZ", SohMonitorType.LAG));
+
+    var replacement = quieted("STA.STA01.BHZ", SohMonitorType.ENV_GAP, 30);
+    assertEquals(Optional.of(first), cache.put(replacement));
+    assertEquals(List.of(replacement), cache.values());
+  }
+
+  @Test
+  void testExpire() {
+
+    var cache = new QuietedSohStatusChangeCache();
+
+    var soon = quieted("STA.STA01.BHZ", SohMonitorType.ENV_GAP, 10);
+    var later = quieted("STA.STA01.BHZ", SohMonitorType.LAG, 60);
+    cache.put(soon);
+    cache.put(later);
+
+    // Expiration is exclusive of now
+    assertFalse(cache.hasExpired(START.plusSeconds(10)));
+    assertEquals(List.of(), cache.expire(START.plusSeconds(10)));
+
+    assertTrue(cache.hasExpired(START.plusSeconds(11)));
+    assertEquals(List.of(soon), cache.expire(START.plusSeconds(11)));
+    assertEquals(List.of(later), cache.values());
+    assertFalse(cache.hasExpired(START.plusSeconds(11)));
+
+    assertEquals(List.of(later), cache.expire(START.plusSeconds(61)));
+    assertEquals(List.of(), cache.values());
+    assertFalse(cache.hasExpired(Instant.MAX));
+  }
+
+  @Test
+  void testReplacedUpdatesDoNotExpire() {
+
+    var cache = new QuietedSohStatusChangeCache();
+
+    var replaced = quieted("STA.STA01.BHZ", SohMonitorType.ENV_GAP, 10);
+    var replacement = quieted("STA.STA01.BHZ", SohMonitorType.ENV_GAP, 60);
+    cache.put(replaced);
+    cache.put(replacement);
+
+    // The replaced update is skipped rather than reported as the next expiration
+    assertFalse(cache.hasExpired(START.plusSeconds(30)));
+    assertEquals(List.of(), cache.expire(START.plusSeconds(30)));
+    assertEquals(List.of(replacement), cache.values());
+
+    // An earlier quiet period replacing a later one expires at its own time
+    var shortened = quieted("STA.STA01.BHZ", SohMonitorType.ENV_GAP, 20);
+    cache.put(shortened);
+    assertTrue(cache.hasExpired(START.plusSeconds(30)));
+    assertEquals(List.of(shortened), cache.expire(START.plusSeconds(30)));
+    assertEquals(List.of(), cache.expire(START.plusSeconds(61)));
+
+    // Nothing replaced is left to report an expiration
+    assertFalse(cache.hasExpired(Instant.MAX));
+  }
+
+  @Test
+  void testValuesRebuiltOncePerBatchOfWrites() {
+
+    var cache = new QuietedSohStatusChangeCache();
+
+    var gap = quieted("STA.STA01.BHZ", SohMonitorType.ENV_GAP, 10);
+    var lag = quieted("STA.STA01.BHZ", SohMonitorType.LAG, 10);
+    cache.put(gap);
+    cache.put(lag);
+
+    var values = cache.values();
+    assertEquals(Set.of(gap, lag), Set.copyOf(values));
+
+    // Without writes in between, reads share the same list
+    assertSame(values, cache.values());
+
+    cache.expire(START.plusSeconds(11));
+    assertEquals(List.of(), cache.values());
+  }
+
+  @Test
+  void testValuesAreUnmodifiedByLaterWrites() {
+
+    var cache = new QuietedSohStatusChangeCache();
+
+    var update = quieted("STA.STA01.BHZ", SohMonitorType.ENV_GAP, 10);
+    cache.put(update);
+
+    var values = cache.values();
+    cache.put(quieted("STA.STA01.BHZ", SohMonitorType.LAG, 10));
+    cache.expire(START.plusSeconds(11));
+
+    assertEquals(List.of(update), values);
+    assertThrows(UnsupportedOperationException.class, () -> values.add(update));
+  }
+
+  /**
+   * Expires one quiet period at a time, which is how they are expired as the materialized view
+   * processors read them, and compares against walking a table of the quiet periods by channel and
+   * expiration, as was done before the cache existed. Both must expire the same quiet periods.
+   */
+  @Test
+  void testMatchesScanning() {
+
+    List<QuietedSohStatusChangeUpdate> updates = new ArrayList<>();
+    for (int i = 0; i < CHANNEL_COUNT; i++) {
+      updates.add(quieted("STA" + i + ".STA01.BHZ", SohMonitorType.ENV_GAP, i));
+    }
+
+    var cache = new QuietedSohStatusChangeCache();
+    TreeBasedTable<String, Instant, QuietedSohStatusChangeUpdate> table = TreeBasedTable.create();
+    updates.forEach(update -> {
+      cache.put(update);
+      table.put(update.getChannelName() + "." + update.getSohMonitorType(),
+          update.getQuietUntil(), update);
+    });
+
+    // Only the first 20 reads each expire a quiet period
+    int reads = 20;
+
+    Set<QuietedSohStatusChangeUpdate> expiredByCache = new HashSet<>();
+    for (int i = 1; i <= reads; i++) {
+      var now = START.plusSeconds(i);
+      if (cache.hasExpired(now)) {
+        expiredByCache.addAll(cache.expire(now));
+      }
+      cache.values();
+    }
+
+    Set<QuietedSohStatusChangeUpdate> expiredByScan = new HashSet<>();
+    for (int i = 1; i <= reads; i++) {
+      var now = START.plusSeconds(i);
+      List<QuietedSohStatusChangeUpdate> expired = new ArrayList<>();
+      table.rowKeySet().forEach(key -> expired.addAll(table.row(key).headMap(now).values()));
+      expired.forEach(update -> table.remove(
+          update.getChannelName() + "." + update.getSohMonitorType(), update.getQuietUntil()));
+      expiredByScan.addAll(expired);
+      List.copyOf(table.values());
+    }
+
+    assertEquals(reads, expiredByCache.size());
+    assertEquals(expiredByScan, expiredByCache);
+    assertEquals(Set.copyOf(table.values()), Set.copyOf(cache.values()));
+  }
+
+  private static QuietedSohStatusChangeUpdate quieted(
+      String channelName,
+      SohMonitorType type,
+      long quietSeconds) {
+
+    return QuietedSohStatusChangeUpdate.create(
+        START.plusSeconds(quietSeconds),
+        Duration.ofSeconds(quietSeconds),
+        type,
+        channelName,
+        Optional.empty(),
+        channelName.substring(0, channelName.indexOf('.')),
+        "gms");
+  }
+}
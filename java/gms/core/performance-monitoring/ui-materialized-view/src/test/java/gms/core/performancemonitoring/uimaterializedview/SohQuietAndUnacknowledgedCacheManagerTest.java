@@ -0,0 +1,93 @@
+package gms.core.performancemonitoring.uimaterializedview;
+
+import static gms.core.performancemonitoring.uimaterializedview.utils.MaterializedViewTestFixtures.STATION_SOH_PARAMETERS;
+import static gms.core.performancemonitoring.uimaterializedview.utils.MaterializedViewTestFixtures.UNACK_CHANGE_1;
+import static gms.shared.frameworks.osd.coi.SohTestFixtures.BAD_STATION_SOH;
+import static gms.shared.frameworks.osd.coi.SohTestFixtures.MARGINAL_STATION_SOH;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gms.shared.frameworks.osd.coi.soh.quieting.UnacknowledgedSohStatusChange;
+import gms.shared.frameworks.osd.coi.systemmessages.SystemMessage;
+import gms.shared.frameworks.osd.coi.systemmessages.SystemMessageType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.EmitterProcessor;
+
+class SohQuietAndUnacknowledgedCacheManagerTest {
+
+  private final List<SystemMessage> systemMessages = new ArrayList<>();
+
+  private final List<UnacknowledgedSohStatusChange> unacknowledgedChanges = new ArrayList<>();
+
+  private SohQuietAndUnacknowledgedCacheManager manager;
+
+  @BeforeEach
+  void setUp() {
+
+    var systemMessageProcessor = EmitterProcessor.<SystemMessage>create();
+    systemMessageProcessor.subscribe(systemMessages::add);
+
+    var unacknowledgedProcessor = EmitterProcessor.<UnacknowledgedSohStatusChange>create();
+    unacknowledgedProcessor.subscribe(unacknowledgedChanges::add);
+
+    // Restarted with the unacknowledged changes from the OSD, before any StationSoh is retrieved
+    manager = new SohQuietAndUnacknowledgedCacheManager(
+        Set.of(),
+        Set.of(UNACK_CHANGE_1),
+        List.of(),
+        STATION_SOH_PARAMETERS,
+        systemMessageProcessor.sink(),
+        unacknowledgedProcessor.sink()
+    );
+  }
+
+  @Test
+  void testUnacknowledgedChangesSurviveRestartWhenRetrievedFirst() {
+
+    manager.addInitialStationSoh(List.of(BAD_STATION_SOH));
+    assertTrue(systemMessages.isEmpty());
+    assertTrue(unacknowledgedChanges.isEmpty());
+
+    manager.updateUnacknowledgedList(List.of(MARGINAL_STATION_SOH));
+
+    assertChangesPublished();
+  }
+
+  @Test
+  void testUnacknowledgedChangesSurviveRestartWhenRetrievedLate() {
+
+    // The first live StationSoh has nothing to be compared with yet
+    manager.updateUnacknowledgedList(List.of(MARGINAL_STATION_SOH));
+    assertTrue(systemMessages.isEmpty());
+    assertTrue(unacknowledgedChanges.isEmpty());
+
+    manager.addInitialStationSoh(List.of(BAD_STATION_SOH));
+
+    assertChangesPublished();
+
+    // Once compared, the station is not compared with its retrieved StationSoh again
+    manager.addInitialStationSoh(List.of(BAD_STATION_SOH));
+    assertEquals(1, unacknowledgedChanges.size());
+  }
+
+  private void assertChangesPublished() {
+
+    assertTrue(systemMessages.stream().anyMatch(
+        message -> message.getType() == SystemMessageType.STATION_SOH_STATUS_CHANGED));
+
+    assertEquals(1, unacknowledgedChanges.size());
+    assertEquals(UNACK_CHANGE_1.getStation(), unacknowledgedChanges.get(0).getStation());
+    assertTrue(unacknowledgedChanges.get(0).getSohStatusChanges()
+        .containsAll(UNACK_CHANGE_1.getSohStatusChanges()));
+
+    assertEquals(1, manager.getUnacknowledgedList().size());
+    assertTrue(manager.getUnacknowledgedList().get(0).getSohStatusChanges()
+        .containsAll(UNACK_CHANGE_1.getSohStatusChanges()));
+
+    assertEquals(List.of(MARGINAL_STATION_SOH), manager.getLastStationSohList());
+  }
+}
@@ -0,0 +1,186 @@
+package gms.core.performancemonitoring.uimaterializedview;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gms.shared.frameworks.osd.coi.soh.SohMonitorType;
+import gms.shared.frameworks.osd.coi.soh.quieting.SohStatusChange;
+import gms.shared.frameworks.osd.coi.soh.quieting.UnacknowledgedSohStatusChange;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class SohStatusChangeIndexTest {
+
+  private static final int STATION_COUNT = 20;
+
+  private static final int CHANNELS_PER_STATION = 5;
+
+  private static final int STATUS_CHANGE_COUNT = 100;
+
+  private static final SohMonitorType[] MONITOR_TYPES = {
+      SohMonitorType.MISSING, SohMonitorType.LAG, SohMonitorType.ENV_GAP,
+      SohMonitorType.ENV_CLIPPED
+  };
+
+  @Test
+  void testLookups() {
+
+    var gap = SohStatusChange.from(Instant.EPOCH, SohMonitorType.ENV_GAP, "STA.STA01.BHZ");
+    var clipped = SohStatusChange.from(Instant.EPOCH, SohMonitorType.ENV_CLIPPED,
+        "STA.STA01.BHZ");
+
+    var quieted = quieted("STA", "STA.STA01.BHZ", SohMonitorType.ENV_GAP);
+
+    var index = SohStatusChangeIndex.create(
+        List.of(UnacknowledgedSohStatusChange.from("STA", Set.of(gap, clipped))),
+        List.of(quieted));
+
+    assertTrue(index.needsAcknowledgement("STA"));
+    assertFalse(index.needsAcknowledgement("OTHER"));
+
+    assertTrue(index.hasUnacknowledgedChanges("STA", "STA.STA01.BHZ", SohMonitorType.ENV_GAP));
+    assertFalse(index.hasUnacknowledgedChanges("STA", "STA.STA01.BHZ", SohMonitorType.LAG));
+    assertFalse(index.hasUnacknowledgedChanges("OTHER", "STA.STA01.BHZ", SohMonitorType.ENV_GAP));
+
+    assertEquals(Optional.of(quieted),
+        index.findQuietEntry("STA", "STA.STA01.BHZ", SohMonitorType.ENV_GAP));
+    assertEquals(Optional.empty(),
+        index.findQuietEntry("STA", "STA.STA01.BHZ", SohMonitorType.ENV_CLIPPED));
+
+    // The clipped change is not quieted
+    assertTrue(index.needsAttention("STA"));
+    assertFalse(index.needsAttention("OTHER"));
+
+    var allQuieted = SohStatusChangeIndex.create(
+        List.of(UnacknowledgedSohStatusChange.from("STA", Set.of(gap))),
+        List.of(quieted));
+
+    assertFalse(allQuieted.needsAttention("STA"));
+  }
+
+  /**
+   * The index must give the same answers as scanning the status changes for every lookup, as was
+   * done before the index existed.
+   */
+  @Test
+  void testMatchesScanning() {
+
+    var random = new Random(0);
+
+    List<UnacknowledgedSohStatusChange> unacknowledged = new ArrayList<>();
+    List<QuietedSohStatusChangeUpdate> quieted = new ArrayList<>();
+
+    int changesPerStation = STATUS_CHANGE_COUNT / STATION_COUNT;
+
+    for (int s = 0; s < STATION_COUNT; s++) {
+      String stationName = stationName(s);
+      Set<SohStatusChange> changes = new HashSet<>();
+      while (changes.size() < changesPerStation) {
+        var change = SohStatusChange.from(Instant.EPOCH,
+            MONITOR_TYPES[random.nextInt(MONITOR_TYPES.length)],
+            channelName(s, random.nextInt(CHANNELS_PER_STATION)));
+        changes.add(change);
+        if (random.nextInt(4) == 0) {
+          quieted.add(quieted(stationName, change.getChangedChannel(),
+              change.getSohMonitorType()));
+        }
+      }
+      unacknowledged.add(UnacknowledgedSohStatusChange.from(stationName, changes));
+    }
+
+    assertEquals(scanAll(unacknowledged, quieted),
+        lookupAll(SohStatusChangeIndex.create(unacknowledged, quieted)));
+  }
+
+  private static List<Object> lookupAll(SohStatusChangeIndex index) {
+
+    List<Object> results = new ArrayList<>();
+
+    for (int s = 0; s < STATION_COUNT; s++) {
+      String stationName = stationName(s);
+      results.add(index.needsAcknowledgement(stationName));
+      results.add(index.needsAttention(stationName));
+      for (int c = 0; c < CHANNELS_PER_STATION; c++) {
+        for (SohMonitorType type : MONITOR_TYPES) {
+          results.add(index.hasUnacknowledgedChanges(stationName, channelName(s, c), type));
+          results.add(index.findQuietEntry(stationName, channelName(s, c), type));
+        }
+      }
+    }
+
+    return results;
+  }
+
+  private static List<Object> scanAll(
+      List<UnacknowledgedSohStatusChange> unacknowledged,
+      List<QuietedSohStatusChangeUpdate> quieted) {
+
+    List<Object> results = new ArrayList<>();
+
+    for (int s = 0; s < STATION_COUNT; s++) {
+      String stationName = stationName(s);
+
+      results.add(unacknowledged.stream()
+          .filter(unack -> unack.getStation().equals(stationName))
+          .findFirst()
+          .map(unack -> !unack.getSohStatusChanges().isEmpty())
+          .orElse(false));
+
+      results.add(unacknowledged.stream()
+          .filter(unack -> unack.getStation().equals(stationName))
+          .flatMap(unack -> unack.getSohStatusChanges().stream())
+          .anyMatch(change -> quieted.stream()
+              .filter(entry -> entry.getStationName().equals(stationName))
+              .noneMatch(entry -> entry.getChannelName().equals(change.getChangedChannel())
+                  && entry.getSohMonitorType() == change.getSohMonitorType())));
+
+      for (int c = 0; c < CHANNELS_PER_STATION; c++) {
+        String channelName = channelName(s, c);
+        for (SohMonitorType type : MONITOR_TYPES) {
+          results.add(unacknowledged.stream()
+              .filter(unack -> unack.getStation().equals(stationName))
+              .flatMap(unack -> unack.getSohStatusChanges().stream())
+              .anyMatch(change -> change.getChangedChannel().equals(channelName)
+                  && change.getSohMonitorType() == type));
+          results.add(quieted.stream()
+              .filter(entry -> entry.getChannelName().equals(channelName)
+                  && entry.getSohMonitorType() == type)
+              .findFirst());
+        }
+      }
+    }
+
+    return results;
+  }
+
+  private static String stationName(int station) {
+    return "STA" + station;
+  }
+
+  private static String channelName(int station, int channel) {
+    return stationName(station) + ".STA01.BH" + channel;
+  }
+
+  private static QuietedSohStatusChangeUpdate quieted(
+      String stationName,
+      String channelName,
+      SohMonitorType type) {
+
+    return QuietedSohStatusChangeUpdate.create(
+        Instant.EPOCH.plus(Duration.ofMinutes(10)),
+        Duration.ofMinutes(10),
+        type,
+        channelName,
+        Optional.empty(),
+        stationName,
+        "gms");
+  }
+}
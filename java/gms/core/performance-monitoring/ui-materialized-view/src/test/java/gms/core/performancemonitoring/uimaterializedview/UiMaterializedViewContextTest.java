@@ -0,0 +1,183 @@
+package gms.core.performancemonitoring.uimaterializedview;
+
+import static gms.core.performancemonitoring.uimaterializedview.utils.MaterializedViewTestFixtures.STATION_SOH_PARAMETERS;
+import static gms.shared.frameworks.osd.coi.SohTestFixtures.MARGINAL_STATION_SOH;
+import static gms.shared.frameworks.osd.coi.test.utils.UtilsTestFixtures.STATION;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gms.core.performancemonitoring.soh.control.configuration.StationSohDefinition;
+import gms.core.performancemonitoring.ssam.control.config.StationSohMonitoringDefinition;
+import gms.core.performancemonitoring.ssam.control.config.StationSohMonitoringUiClientParameters;
+import gms.shared.frameworks.osd.coi.signaldetection.Station;
+import gms.shared.frameworks.osd.coi.signaldetection.StationGroup;
+import gms.shared.frameworks.osd.coi.soh.CapabilitySohRollup;
+import gms.shared.frameworks.osd.coi.soh.SohStatus;
+import gms.shared.frameworks.osd.coi.soh.StationSoh;
+import gms.shared.frameworks.osd.coi.systemmessages.SystemMessage;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.EmitterProcessor;
+
+public class UiMaterializedViewContextTest {
+
+  private static final int STATION_GROUP_COUNT = 4;
+
+  private static final int STATIONS_PER_GROUP = 6;
+
+  private static final SohStatus[] STATUSES = {SohStatus.GOOD, SohStatus.MARGINAL, SohStatus.BAD};
+
+  @Test
+  void testUpdates() {
+
+    var context = UiMaterializedViewContext.create();
+
+    assertFalse(context.isParallel());
+    assertTrue(UiMaterializedViewContext.create(true).isParallel());
+
+    assertEquals(Optional.empty(),
+        context.updateStationCapabilityStatus("GROUP", "STA", SohStatus.GOOD));
+    assertEquals(Optional.of(SohStatus.GOOD),
+        context.updateStationCapabilityStatus("GROUP", "STA", SohStatus.BAD));
+    // The same station in another group is tracked separately
+    assertEquals(Optional.empty(),
+        context.updateStationCapabilityStatus("OTHER", "STA", SohStatus.BAD));
+
+    assertTrue(context.updateNeedsAttention("STA", true));
+    assertFalse(context.updateNeedsAttention("STA", true));
+    assertFalse(context.updateNeedsAttention("STA", false));
+    assertTrue(context.updateNeedsAttention("STA", true));
+
+    var rollup = CapabilitySohRollup.create(UUID.randomUUID(), Instant.EPOCH, SohStatus.GOOD,
+        "GROUP", Set.of(UUID.randomUUID()), Map.of("STA", SohStatus.GOOD));
+    assertEquals(Optional.empty(), context.updateStationGroupCapabilityRollup(rollup));
+    assertEquals(Optional.of(rollup), context.updateStationGroupCapabilityRollup(rollup));
+  }
+
+  /**
+   * Generates the UiStationSohs of several station groups, one context generating one station at a
+   * time and the other in parallel. Both must produce the same stations and the same system
+   * messages.
+   */
+  @Test
+  void testParallelGenerationMatchesSequential() {
+
+    var template = STATION_SOH_PARAMETERS.getStationSohControlConfiguration()
+        .getStationSohDefinitions().stream()
+        .filter(definition -> definition.getStationName().equals(STATION.getName()))
+        .findFirst()
+        .orElseThrow();
+
+    Set<StationSohDefinition> definitions = new HashSet<>();
+    List<StationSoh> stationSohs = new ArrayList<>();
+    List<StationGroup> stationGroups = new ArrayList<>();
+    List<CapabilitySohRollup> rollups = new ArrayList<>();
+
+    for (int g = 0; g < STATION_GROUP_COUNT; g++) {
+
+      List<Station> stations = new ArrayList<>();
+      Map<String, SohStatus> statusByStation = new HashMap<>();
+
+      for (int s = 0; s < STATIONS_PER_GROUP; s++) {
+        String stationName = "STA" + (g * STATIONS_PER_GROUP + s);
+
+        definitions.add(StationSohDefinition.create(stationName,
+            template.getSohMonitorTypesForRollup(),
+            template.getChannelsBySohMonitorType(),
+            template.getChannelSohDefinitions(),
+            template.getTimeWindowBySohMonitorType()));
+
+        stationSohs.add(StationSoh.create(MARGINAL_STATION_SOH.getTime(), stationName,
+            MARGINAL_STATION_SOH.getSohMonitorValueAndStatuses(),
+            MARGINAL_STATION_SOH.getSohStatusRollup(),
+            MARGINAL_STATION_SOH.getChannelSohs(),
+            MARGINAL_STATION_SOH.getAllStationAggregates()));
+
+        stations.add(Station.from(stationName, STATION.getType(), stationName,
+            STATION.getRelativePositionsByChannel(), STATION.getLocation(),
+            List.copyOf(STATION.getChannelGroups()), List.copyOf(STATION.getChannels())));
+
+        statusByStation.put(stationName, STATUSES[s % STATUSES.length]);
+      }
+
+      String groupName = "GROUP" + g;
+      stationGroups.add(StationGroup.from(groupName, groupName, stations));
+      rollups.add(CapabilitySohRollup.create(UUID.randomUUID(), Instant.EPOCH, SohStatus.MARGINAL,
+          groupName, Set.of(UUID.randomUUID()), statusByStation));
+    }
+
+    var parameters = StationSohMonitoringUiClientParameters.from(
+        StationSohMonitoringDefinition.from(Duration.ofSeconds(30),
+            stationGroups.stream().map(StationGroup::getName).collect(Collectors.toList()),
+            Duration.ofSeconds(10),
+            definitions),
+        STATION_SOH_PARAMETERS.getStationSohMonitoringDisplayParameters());
+
+    StationSohContributingUtility.getInstance().initialize(parameters);
+
+    // Each mode gets a fresh context, so both send the same system messages
+    var sequential = generate(stationSohs, rollups, parameters, stationGroups, false);
+    var parallel = generate(stationSohs, rollups, parameters, stationGroups, true);
+
+    assertEquals(stationSohs.size(), sequential.stations.size());
+    assertEquals(sequential.stations, parallel.stations);
+    assertEquals(sequential.systemMessages, parallel.systemMessages);
+  }
+
+  private static Generated generate(
+      List<StationSoh> stationSohs,
+      List<CapabilitySohRollup> rollups,
+      StationSohMonitoringUiClientParameters parameters,
+      List<StationGroup> stationGroups,
+      boolean parallel) {
+
+    var systemMessages = new ArrayList<String>();
+    EmitterProcessor<SystemMessage> systemMessageEmitterProcessor = EmitterProcessor.create();
+    systemMessageEmitterProcessor.subscribe(message -> systemMessages.add(message.getMessage()));
+
+    var stations = UiStationGenerator.buildUiStationSohList(
+        stationSohs,
+        List.of(),
+        List.of(),
+        rollups,
+        parameters,
+        stationGroups,
+        systemMessageEmitterProcessor.sink(),
+        UiMaterializedViewContext.create(parallel));
+
+    // Compare everything but the generated UUIDs, ignoring the order of the system messages
+    return new Generated(
+        stations.stream()
+            .map(uiStationSoh -> List.of(uiStationSoh.getStationName(),
+                uiStationSoh.getSohStatusSummary(),
+                uiStationSoh.getNeedsAttention(),
+                uiStationSoh.getStationGroups(),
+                uiStationSoh.getStatusContributors(),
+                uiStationSoh.getChannelSohs()))
+            .collect(Collectors.toList()),
+        new HashSet<>(systemMessages));
+  }
+
+  private static class Generated {
+
+    private final List<List<Object>> stations;
+
+    private final Set<String> systemMessages;
+
+    private Generated(List<List<Object>> stations, Set<String> systemMessages) {
+      this.stations = stations;
+      this.systemMessages = systemMessages;
+    }
+  }
+}
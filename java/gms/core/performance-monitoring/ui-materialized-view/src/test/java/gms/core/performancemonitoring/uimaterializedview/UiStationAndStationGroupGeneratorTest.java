@@ -71,6 +71,8 @@ class UiStationAndStationGroupGeneratorTest {
       List<StationGroup> stationGroups,
       Class<? extends Exception> expectedException) {
 
+    var context = UiMaterializedViewContext.create();
+
     EmitterProcessor<SystemMessage> systemMessageEmitterProcessor = EmitterProcessor.create();
     assertThrows(expectedException, () ->
         UiStationAndStationGroupGenerator.generateUiStationAndStationGroups(
@@ -81,7 +83,8 @@ class UiStationAndStationGroupGeneratorTest {
             stationSohConfig,
             stationGroups,
             false,
-            systemMessageEmitterProcessor.sink()
+            systemMessageEmitterProcessor.sink(),
+            context
         ));
   }
 
@@ -138,6 +141,8 @@ class UiStationAndStationGroupGeneratorTest {
 
   @Test
   void testGeneratorStationAndStationGroups() {
+    var context = UiMaterializedViewContext.create();
+
     EmitterProcessor<SystemMessage> systemMessageEmitterProcessor = EmitterProcessor.create();
     List<UiStationAndStationGroups> actual = assertDoesNotThrow(() ->
         UiStationAndStationGroupGenerator.generateUiStationAndStationGroups(
@@ -148,7 +153,8 @@ class UiStationAndStationGroupGeneratorTest {
             STATION_SOH_PARAMETERS,
             List.of(UtilsTestFixtures.STATION_GROUP),
             false,
-            systemMessageEmitterProcessor.sink()
+            systemMessageEmitterProcessor.sink(),
+            context
         ));
 
     assertEquals(1, actual.size());
@@ -222,6 +228,8 @@ class UiStationAndStationGroupGeneratorTest {
   @Test
   void testMakeGroupsMessage() {
 
+    var context = UiMaterializedViewContext.create();
+
     // Test the number of messages returned is 1
     // and it only has one UiStationGroup and one UiStationSoh entry
     EmitterProcessor<SystemMessage> systemMessageEmitterProcessor = EmitterProcessor.create();
@@ -234,7 +242,8 @@ class UiStationAndStationGroupGeneratorTest {
             STATION_SOH_PARAMETERS,
             List.of(UtilsTestFixtures.STATION_GROUP),
             false,
-            systemMessageEmitterProcessor.sink()
+            systemMessageEmitterProcessor.sink(),
+            context
         ));
 
     assertEquals(1, actual.size());
@@ -257,7 +266,8 @@ class UiStationAndStationGroupGeneratorTest {
             STATION_SOH_PARAMETERS,
             List.of(UtilsTestFixtures.STATION_GROUP),
             false,
-            systemMessageEmitterProcessor.sink()
+            systemMessageEmitterProcessor.sink(),
+            context
         ));
 
     // Should get back two messages
@@ -295,7 +305,7 @@ class UiStationAndStationGroupGeneratorTest {
 
     var disposable = systemMessagesEmitter.subscribe(outputSystemMessages::add);
 
-    UiStationAndStationGroupGenerator.clearPrevious();
+    var context = UiMaterializedViewContext.create();
 
     //
     // call generateUiStationAndStationGroups twice.
@@ -310,7 +320,8 @@ class UiStationAndStationGroupGeneratorTest {
         STATION_SOH_PARAMETERS,
         stationGroups,
         false,
-        systemMessagesSink
+        systemMessagesSink,
+        context
     );
 
     //
@@ -345,7 +356,8 @@ class UiStationAndStationGroupGeneratorTest {
         STATION_SOH_PARAMETERS,
         stationGroups,
         false,
-        systemMessagesSink
+        systemMessagesSink,
+        context
     );
 
     //
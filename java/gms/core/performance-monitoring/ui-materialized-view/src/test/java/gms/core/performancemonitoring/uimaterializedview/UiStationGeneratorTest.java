@@ -46,6 +46,8 @@ public class UiStationGeneratorTest {
   @Test
   void testNewSameStationCapabilityStatusDoesNotGenerateMessage() {
 
+    var context = UiMaterializedViewContext.create();
+
     var outputSystemMessages = new ArrayList<SystemMessage>();
 
     var systemMessagesEmitter = EmitterProcessor.<SystemMessage>create();
@@ -65,7 +67,8 @@ public class UiStationGeneratorTest {
         List.of(MARGINAL_STATION_GROUP_AND_STATION_CAPABILITY_ROLLUP),
         STATION_SOH_PARAMETERS,
         List.of(UtilsTestFixtures.STATION_GROUP),
-        systemMessagesSink
+        systemMessagesSink,
+        context
     );
 
     //
@@ -90,7 +93,8 @@ public class UiStationGeneratorTest {
         List.of(MARGINAL_STATION_GROUP_BAD_STATION_CAPABILITY_ROLLUP),
         STATION_SOH_PARAMETERS,
         List.of(UtilsTestFixtures.STATION_GROUP),
-        systemMessagesSink
+        systemMessagesSink,
+        context
     );
 
     //
@@ -120,7 +124,8 @@ public class UiStationGeneratorTest {
         List.of(MARGINAL_STATION_GROUP_BAD_STATION_CAPABILITY_ROLLUP),
         STATION_SOH_PARAMETERS,
         List.of(UtilsTestFixtures.STATION_GROUP),
-        systemMessagesSink
+        systemMessagesSink,
+        context
     );
 
     //
@@ -159,7 +164,7 @@ public class UiStationGeneratorTest {
 
     var disposable = systemMessagesEmitter.subscribe(outputSystemMessages::add);
 
-    UiStationGenerator.clearPrevious();
+    var context = UiMaterializedViewContext.create();
 
     UiStationGenerator.buildUiStationSohList(
         stationSohs,
@@ -168,7 +173,8 @@ public class UiStationGeneratorTest {
         List.of(MARGINAL_STATION_GROUP_AND_STATION_CAPABILITY_ROLLUP),
         STATION_SOH_PARAMETERS,
         List.of(UtilsTestFixtures.STATION_GROUP),
-        systemMessagesSink
+        systemMessagesSink,
+        context
     );
 
     var expectedMessagesForType = expectedMessages.get(STATION_NEEDS_ATTENTION);
@@ -198,7 +204,8 @@ public class UiStationGeneratorTest {
         List.of(),
         STATION_SOH_PARAMETERS,
         List.of(UtilsTestFixtures.STATION_GROUP),
-        systemMessagesSink
+        systemMessagesSink,
+        context
     );
 
     //
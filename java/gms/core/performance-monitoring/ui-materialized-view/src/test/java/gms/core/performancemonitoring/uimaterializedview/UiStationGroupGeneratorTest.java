@@ -21,6 +21,8 @@ public class UiStationGroupGeneratorTest {
 
   @Test
   void testGeneratorStationGroups() {
+    var context = UiMaterializedViewContext.create();
+
     EmitterProcessor<SystemMessage> systemMessageEmitterProcessor = EmitterProcessor.create();
     List<String> stationGroupNames =
         STATION_SOH_PARAMETERS.getStationSohControlConfiguration().getDisplayedStationGroups();
@@ -28,7 +30,8 @@ public class UiStationGroupGeneratorTest {
         UIStationGroupGenerator.buildSohStationGroups(
             List.of(MARGINAL_STATION_GROUP_AND_STATION_CAPABILITY_ROLLUP),
             stationGroupNames,
-            systemMessageEmitterProcessor.sink()
+            systemMessageEmitterProcessor.sink(),
+            context
         ));
     Assertions.assertEquals(actual.size(), stationGroupNames.size());
   }
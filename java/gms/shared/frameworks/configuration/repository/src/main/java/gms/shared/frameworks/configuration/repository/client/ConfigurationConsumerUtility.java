@@ -1,6 +1,7 @@
 package gms.shared.frameworks.configuration.repository.client;
 
 import gms.shared.frameworks.configuration.Configuration;
+import gms.shared.frameworks.configuration.ConfigurationOption;
 import gms.shared.frameworks.configuration.ConfigurationRepository;
 import gms.shared.frameworks.configuration.ConfigurationResolver;
 import gms.shared.frameworks.configuration.Selector;
@@ -10,11 +11,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -39,12 +42,24 @@ public class ConfigurationConsumerUtility {
 
   private final Map<String, ConfigurationSelectorCache> configurationCache;
 
+  // Each tracked Configuration as it was loaded from the ConfigurationRepository, and after its
+  // references were resolved. Used by refreshConfigurations() to detect changes.
+  private final Map<String, Configuration> loadedConfigurations;
+
+  private final Map<String, Configuration> resolvedConfigurations;
+
+  // Key prefixes queried from the ConfigurationRepository, re-queried by refreshConfigurations()
+  private final Set<String> configurationNamePrefixes;
+
   private final Duration selectorCacheExpiration;
 
   private ConfigurationConsumerUtility(ConfigurationRepository configurationRepository,
       Duration selectorCacheExpiration) {
     this.configurationRepository = configurationRepository;
-    this.configurationCache = new HashMap<>();
+    this.configurationCache = new ConcurrentHashMap<>();
+    this.loadedConfigurations = new ConcurrentHashMap<>();
+    this.resolvedConfigurations = new ConcurrentHashMap<>();
+    this.configurationNamePrefixes = ConcurrentHashMap.newKeySet();
     this.selectorCacheExpiration = selectorCacheExpiration;
   }
 
@@ -109,6 +124,8 @@ public class ConfigurationConsumerUtility {
 
       final ConfigurationConsumerUtility configurationConsumerUtility =
           new ConfigurationConsumerUtility(configurationRepository, selectorCacheExpiration);
+      configurationConsumerUtility.configurationNamePrefixes
+          .addAll(configurationNamePrefixesWithGlobal);
       configurationConsumerUtility.addConfigurations(initialConfigurations);
 
       return configurationConsumerUtility;
@@ -146,12 +163,84 @@ public class ConfigurationConsumerUtility {
     logger.info("Loading into ConfigurationConsumerUtility Configuration's named : {}",
         configurationNamePrefixes);
 
-    addConfigurations(loadConfigurations(this.configurationRepository,
-        configurationNamePrefixes.stream()
-            .filter(k -> !this.configurationCache.containsKey(k))
-            .collect(Collectors.toList())
-        )
-    );
+    final List<String> newConfigurationNamePrefixes = configurationNamePrefixes.stream()
+        .filter(k -> !this.configurationCache.containsKey(k))
+        .collect(Collectors.toList());
+
+    final Collection<Configuration> configurations = loadConfigurations(
+        this.configurationRepository, newConfigurationNamePrefixes);
+
+    // Only track the prefixes that were found, so refreshConfigurations() does not query for
+    // missing ones
+    newConfigurationNamePrefixes.stream()
+        .filter(prefix -> configurations.stream().anyMatch(c -> c.getName().startsWith(prefix)))
+        .forEach(this.configurationNamePrefixes::add);
+
+    addConfigurations(configurations);
+  }
+
+  /**
+   * Reloads the {@link Configuration}s tracked by this ConfigurationConsumerUtility from the {@link
+   * ConfigurationRepository}, and replaces each one that has changed since it was loaded.  A
+   * Configuration has changed when its set of options differs from the one previously loaded, or
+   * when a global Configuration it references has changed in a way that changes its resolved
+   * options.  The change time alone is not compared, since some repositories assign a new change
+   * time each time a Configuration is read.  Configurations that appeared under a tracked name prefix since the last load
+   * are added.  Configurations that disappeared from the repository are kept as they are.
+   *
+   * @return names of the Configurations that were added or replaced, not null
+   */
+  public synchronized Set<String> refreshConfigurations() {
+
+    final Collection<Configuration> configurations = loadConfigurations(
+        this.configurationRepository, List.copyOf(this.configurationNamePrefixes));
+
+    final Set<String> changedConfigurationNames = new LinkedHashSet<>();
+
+    // Replace the global reference configurations first, since the remaining configurations are
+    // resolved against them.
+    configurations.stream()
+        .filter(c -> isGlobalReferenceConfiguration(c.getName()))
+        .filter(c -> !hasSameOptions(c, loadedConfigurations.get(c.getName())))
+        .forEach(configuration -> {
+          putConfiguration(configuration);
+          changedConfigurationNames.add(configuration.getName());
+        });
+
+    final boolean globalReferenceConfigurationChanged = !changedConfigurationNames.isEmpty();
+
+    configurations.stream()
+        .filter(c -> !isGlobalReferenceConfiguration(c.getName()))
+        .filter(c -> globalReferenceConfigurationChanged
+            || !hasSameOptions(c, loadedConfigurations.get(c.getName())))
+        .forEach(configuration -> {
+          final Configuration previousResolvedConfiguration =
+              resolvedConfigurations.get(configuration.getName());
+
+          if (!hasSameOptions(putConfiguration(configuration), previousResolvedConfiguration)) {
+            changedConfigurationNames.add(configuration.getName());
+          }
+        });
+
+    if (!changedConfigurationNames.isEmpty()) {
+      logger.info("Refreshed changed Configurations in ConfigurationConsumerUtility: {}",
+          changedConfigurationNames);
+    }
+
+    return changedConfigurationNames;
+  }
+
+  /**
+   * Obtains the {@link Configuration} with the provided name, with its configuration references
+   * resolved, as currently tracked by this ConfigurationConsumerUtility.
+   *
+   * @param configurationName name of the Configuration, not null
+   * @return the Configuration, or empty if this ConfigurationConsumerUtility does not track a
+   * Configuration with that name
+   */
+  public Optional<Configuration> getConfiguration(String configurationName) {
+    Objects.requireNonNull(configurationName, "Requires non-null configurationName");
+    return Optional.ofNullable(resolvedConfigurations.get(configurationName));
   }
 
   /**
@@ -170,14 +259,11 @@ public class ConfigurationConsumerUtility {
     final Consumer<Collection<Configuration>> addConfigurationConsumer = c ->
         c.stream()
             .filter(configuration -> !configurationCache.containsKey(configuration.getName()))
-            .map(config -> GlobalConfigurationReferenceResolver
-                .resolve(this.configurationCache, config))
-            .forEach(config -> configurationCache.put(config.getName(),
-                ConfigurationSelectorGuavaCache.create(config, selectorCacheExpiration)));
+            .forEach(this::putConfiguration);
 
     // Split configuration reference and non-reference configurations
-    final Predicate<String> isGlobalReferenceConfiguration = s -> s
-        .startsWith(GlobalConfigurationReferenceResolver.REFERENCED_CONFIGURATION_KEY_PREFIX);
+    final Predicate<String> isGlobalReferenceConfiguration =
+        ConfigurationConsumerUtility::isGlobalReferenceConfiguration;
 
     final Collection<Configuration> globalReferenceConfigurations = configurations.stream()
         .filter(c -> isGlobalReferenceConfiguration.test(c.getName())).collect(
@@ -192,6 +278,47 @@ public class ConfigurationConsumerUtility {
     addConfigurationConsumer.accept(nonReferenceConfigurations);
   }
 
+  /**
+   * Dereferences the configuration references of the provided {@link Configuration} and stores it
+   * in {@link ConfigurationConsumerUtility#configurationCache}, replacing any existing mapping.
+   *
+   * @param configuration Configuration as loaded from the {@link ConfigurationRepository}, not null
+   * @return the Configuration with its references resolved, not null
+   */
+  private Configuration putConfiguration(Configuration configuration) {
+
+    final Configuration resolvedConfiguration = GlobalConfigurationReferenceResolver
+        .resolve(this.configurationCache, configuration);
+
+    loadedConfigurations.put(configuration.getName(), configuration);
+    resolvedConfigurations.put(configuration.getName(), resolvedConfiguration);
+    configurationCache.put(configuration.getName(),
+        ConfigurationSelectorGuavaCache.create(resolvedConfiguration, selectorCacheExpiration));
+
+    return resolvedConfiguration;
+  }
+
+  /**
+   * Determines whether the provided {@link Configuration}s have the same {@link
+   * ConfigurationOption}s, regardless of their order.
+   *
+   * @param configuration Configuration, not null
+   * @param previousConfiguration Configuration to compare with, may be null
+   * @return true if previousConfiguration is not null and has the same ConfigurationOptions
+   */
+  private static boolean hasSameOptions(Configuration configuration,
+      Configuration previousConfiguration) {
+
+    return previousConfiguration != null
+        && Set.copyOf(configuration.getConfigurationOptions())
+        .equals(Set.copyOf(previousConfiguration.getConfigurationOptions()));
+  }
+
+  private static boolean isGlobalReferenceConfiguration(String configurationName) {
+    return configurationName
+        .startsWith(GlobalConfigurationReferenceResolver.REFERENCED_CONFIGURATION_KEY_PREFIX);
+  }
+
   /**
    * Loads {@link Configuration}s with the provided name prefixes from the provided {@link
    * ConfigurationRepository}.
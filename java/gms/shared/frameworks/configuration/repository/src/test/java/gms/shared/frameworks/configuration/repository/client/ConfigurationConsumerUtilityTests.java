@@ -3,12 +3,14 @@ package gms.shared.frameworks.configuration.repository.client;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.verify;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import gms.shared.frameworks.configuration.Configuration;
 import gms.shared.frameworks.configuration.ConfigurationOption;
+import gms.shared.frameworks.configuration.ConfigurationReference;
 import gms.shared.frameworks.configuration.ConfigurationRepository;
 import gms.shared.frameworks.configuration.Operator;
 import gms.shared.frameworks.configuration.Operator.Type;
@@ -22,6 +24,9 @@ import java.lang.reflect.Field;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -305,4 +310,96 @@ class ConfigurationConsumerUtilityTests {
         "Cannot resolve Configuration to null parametersClass"
     );
   }
+
+  @Test
+  void testRefreshConfigurationsUnchangedReturnsEmpty() {
+    final ConfigurationConsumerUtility clientUtility = getClientUtilMockGmsConfig();
+
+    assertTrue(clientUtility.refreshConfigurations().isEmpty());
+
+    // Only the change time differs
+    Mockito.when(configurationRepository.getKeyRange(configurationKey))
+        .thenReturn(List.of(Configuration.from(configurationKey,
+            configurationSnrIs5.getConfigurationOptions(),
+            configurationSnrIs5.getChangeTime().plusSeconds(60))));
+
+    assertTrue(clientUtility.refreshConfigurations().isEmpty());
+    assertEquals(Optional.of(configurationSnrIs5),
+        clientUtility.getConfiguration(configurationKey));
+  }
+
+  @Test
+  void testRefreshConfigurationsReplacesChangedConfiguration() {
+    final ConfigurationConsumerUtility clientUtility = getClientUtilMockGmsConfig();
+
+    assertEquals(fooParamsDefaults,
+        clientUtility.resolve(configurationKey, List.of(), FooParameters.class));
+
+    final FooParameters changedParams = FooParameters.from(200, "string200", false);
+    final Configuration changedConfiguration = Configuration.from(configurationKey, List.of(
+        ConfigurationOption.from("SNR-5", List.of(WildcardConstraint.from("snr")),
+            ObjectSerialization.toFieldMap(changedParams)),
+        configOptSnrIs5));
+
+    Mockito.when(configurationRepository.getKeyRange(configurationKey))
+        .thenReturn(List.of(changedConfiguration));
+
+    assertEquals(Set.of(configurationKey), clientUtility.refreshConfigurations());
+    assertEquals(Optional.of(changedConfiguration),
+        clientUtility.getConfiguration(configurationKey));
+    assertEquals(changedParams,
+        clientUtility.resolve(configurationKey, List.of(), FooParameters.class));
+
+    // A second refresh finds nothing new
+    assertTrue(clientUtility.refreshConfigurations().isEmpty());
+  }
+
+  @Test
+  void testRefreshConfigurationsReplacesConfigurationsReferencingChangedGlobal() {
+    final String globalKey =
+        GlobalConfigurationReferenceResolver.REFERENCED_CONFIGURATION_KEY_PREFIX + ".foo";
+
+    final Configuration referencingConfiguration = Configuration.from(configurationKey, List.of(
+        ConfigurationOption.from("DEFAULT", List.of(WildcardConstraint.from("snr")),
+            ObjectSerialization.toFieldMap(ConfigurationReference.from(globalKey, List.of())))));
+
+    final Configuration otherConfiguration = Configuration.from("other-configuration", List.of(
+        ConfigurationOption.from("DEFAULT", List.of(WildcardConstraint.from("snr")),
+            Map.of("a", 1))));
+
+    final AtomicReference<Configuration> globalConfiguration = new AtomicReference<>(
+        Configuration.from(globalKey, List.of(ConfigurationOption.from("DEFAULT", List.of(),
+            fooParamsDefaultsMap))));
+
+    Mockito.when(configurationRepository.getKeyRange(Mockito.anyString()))
+        .thenAnswer(invocation -> {
+          Object argument = invocation.getArguments()[0];
+          if (argument.equals(configurationKey)) {
+            return List.of(referencingConfiguration, otherConfiguration);
+          } else if (argument
+              .equals(GlobalConfigurationReferenceResolver.REFERENCED_CONFIGURATION_KEY_PREFIX)) {
+            return List.of(globalConfiguration.get());
+          }
+          throw new InvalidUseOfMatchersException(
+              String.format("Argument %s does not match", argument)
+          );
+        });
+
+    final ConfigurationConsumerUtility clientUtility = ConfigurationConsumerUtility
+        .builder(configurationRepository)
+        .configurationNamePrefixes(List.of(configurationKey)).build();
+
+    assertEquals(fooParamsDefaults,
+        clientUtility.resolve(configurationKey, List.of(), FooParameters.class));
+
+    final FooParameters changedParams = FooParameters.from(200, "string200", false);
+    globalConfiguration.set(Configuration.from(globalKey, List.of(
+        ConfigurationOption.from("DEFAULT", List.of(),
+            ObjectSerialization.toFieldMap(changedParams)))));
+
+    // The configuration that does not reference the global configuration is not reported
+    assertEquals(Set.of(globalKey, configurationKey), clientUtility.refreshConfigurations());
+    assertEquals(changedParams,
+        clientUtility.resolve(configurationKey, List.of(), FooParameters.class));
+  }
 }
@@ -2,6 +2,7 @@ package gms.shared.frameworks.injector.ui;
 
 import gms.core.performancemonitoring.uimaterializedview.QuietedSohStatusChangeUpdate;
 import gms.core.performancemonitoring.uimaterializedview.SohQuietAndUnacknowledgedCacheManager;
+import gms.core.performancemonitoring.uimaterializedview.UiMaterializedViewContext;
 import gms.core.performancemonitoring.uimaterializedview.UiStationAndStationGroupGenerator;
 import gms.core.performancemonitoring.uimaterializedview.UiStationAndStationGroups;
 import gms.core.performancemonitoring.ssam.control.config.StationSohMonitoringUiClientParameters;
@@ -50,6 +51,8 @@ public class UiStationAndStationGroupsModifier implements Modifier<Iterable<UiSt
   private StationSohMonitoringUiClientParameters stationSohParameters;
   private List<StationGroup> stationGroups;
   private EmitterProcessor<SystemMessage> systemMessageEmitterProcessor = EmitterProcessor.create();
+  /* Statuses from the previously generated message, shared by periodic and acknowledge/quiet updates */
+  private final UiMaterializedViewContext materializedViewContext = UiMaterializedViewContext.create();
   private static class Config {
     public static final String UI_SOH_STATION_TOPIC = "soh.ui-materialized-view";
   }
@@ -108,7 +111,8 @@ public class UiStationAndStationGroupsModifier implements Modifier<Iterable<UiSt
             this.stationSohParameters,
             this.stationGroups,
             false,
-            systemMessageEmitterProcessor.sink()
+            systemMessageEmitterProcessor.sink(),
+            materializedViewContext
         );
 
     return generatedUiStationAndStationGroupsSohList;
@@ -136,7 +140,8 @@ public class UiStationAndStationGroupsModifier implements Modifier<Iterable<UiSt
             this.stationSohParameters,
             this.stationGroups,
             true,
-            systemMessageEmitterProcessor.sink()
+            systemMessageEmitterProcessor.sink(),
+            materializedViewContext
         );
     this.publishUiStationAndStationGroups(uiStationAndStationGroupsList);
   }
@@ -21,6 +21,11 @@ public class CapabilitySohRollupConsumer extends
     new CapabilitySohRollupConsumer().run();
   }
 
+  @Override
+  protected boolean isBackpressured() {
+    return true;
+  }
+
   @Override
   protected String getComponentName() {
     return "capability-soh-rollup-kafka-consumer";
@@ -48,6 +53,6 @@ public class CapabilitySohRollupConsumer extends
   @Override
   protected void consumeRecords(Collection<CapabilitySohRollup> records) {
     getLogger().debug("Storing {} CapabilitySohRollup records", records.size());
-    getExecutorService().submit(() -> sohRepository.storeCapabilitySohRollup(records));
+    sohRepository.storeCapabilitySohRollup(records);
   }
 }
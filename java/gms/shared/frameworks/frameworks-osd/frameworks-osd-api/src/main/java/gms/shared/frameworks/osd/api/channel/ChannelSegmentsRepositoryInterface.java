@@ -2,6 +2,7 @@ package gms.shared.frameworks.osd.api.channel;
 
 import gms.shared.frameworks.common.ContentType;
 import gms.shared.frameworks.osd.api.channel.util.ChannelSegmentsIdRequest;
+import gms.shared.frameworks.osd.api.channel.util.DecimatedChannelSegmentsRequest;
 import gms.shared.frameworks.osd.api.util.ChannelTimeRangeRequest;
 import gms.shared.frameworks.osd.api.util.ChannelsTimeRangeRequest;
 import gms.shared.frameworks.osd.coi.channel.ChannelSegment;
@@ -75,6 +76,28 @@ public interface ChannelSegmentsRepositoryInterface {
       @RequestBody(description = "Collection of channel names and time ranges for each channel")
           Collection<ChannelTimeRangeRequest> channelTimeRangeRequests);
 
+  /**
+   * Retrieve waveform {@link ChannelSegment}s by their channel names and time ranges, decimated to
+   * the minimum and maximum sample of each of the requested number of equal buckets of each time
+   * range. Waveforms with no more than two samples per bucket are retrieved as they are.
+   *
+   * @param request The collection of channel names and the start and end times for each channel
+   * that will bound the {@link ChannelSegment}s, and the number of buckets to decimate each time
+   * range to
+   * @return The list of decimated {@link ChannelSegment}s corresponding to the provided channels
+   * names and times.
+   */
+  @Path("/channel-segments/channels-time-multiple/decimated")
+  @POST
+  @Consumes(ContentType.JSON_NAME)
+  @Produces(ContentType.MSGPACK_NAME)
+  @Operation(summary = "Retrieves channel segments for the provided list of channel name and time" +
+      " range for that channel, decimated to the min and max sample of each bucket of the range")
+  Collection<ChannelSegment<Waveform>> retrieveDecimatedChannelSegmentsByChannelsAndTimeRanges(
+      @RequestBody(description = "Collection of channel names and time ranges for each channel, " +
+          "and the number of buckets to decimate each time range to")
+          DecimatedChannelSegmentsRequest request);
+
   /**
    * Store a collection of {@link ChannelSegment}s
    *
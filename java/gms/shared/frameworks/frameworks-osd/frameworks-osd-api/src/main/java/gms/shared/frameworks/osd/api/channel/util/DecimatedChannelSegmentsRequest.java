@@ -0,0 +1,31 @@
+package gms.shared.frameworks.osd.api.channel.util;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.auto.value.AutoValue;
+import com.google.common.base.Preconditions;
+import gms.shared.frameworks.osd.api.util.ChannelTimeRangeRequest;
+import java.util.Collection;
+
+/**
+ * Request for waveform channel segments decimated to the minimum and maximum sample of each of
+ * bucketCount equal buckets of each time range, such as the pixel columns they will be drawn in
+ */
+@AutoValue
+public abstract class DecimatedChannelSegmentsRequest {
+
+  public abstract Collection<ChannelTimeRangeRequest> getChannelTimeRangeRequests();
+
+  public abstract int getBucketCount();
+
+  @JsonCreator
+  public static DecimatedChannelSegmentsRequest create(
+      @JsonProperty("channelTimeRangeRequests")
+          Collection<ChannelTimeRangeRequest> channelTimeRangeRequests,
+      @JsonProperty("bucketCount") int bucketCount) {
+    Preconditions.checkState(!channelTimeRangeRequests.isEmpty());
+    Preconditions.checkState(bucketCount > 0, "bucketCount must be positive");
+    return new AutoValue_DecimatedChannelSegmentsRequest(channelTimeRangeRequests, bucketCount);
+  }
+
+}
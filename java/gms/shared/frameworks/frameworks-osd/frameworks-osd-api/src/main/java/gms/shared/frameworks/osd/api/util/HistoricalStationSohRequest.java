@@ -11,6 +11,7 @@ import com.google.common.collect.ImmutableList;
 import gms.shared.frameworks.osd.coi.soh.SohMonitorType;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @AutoValue
 @JsonSerialize(as = HistoricalStationSohRequest.class)
@@ -25,6 +26,14 @@ public abstract class HistoricalStationSohRequest {
 
   public abstract ImmutableList<SohMonitorType> getSohMonitorTypes();
 
+  /**
+   * The maximum number of points to return for each channel and SohMonitorType. When the time
+   * range holds more calculation times than this, the results are downsampled on the server.
+   *
+   * @return The maximum number of points per series, or empty to return every point
+   */
+  public abstract Optional<Integer> getMaxPointsPerSeries();
+
   public static Builder builder() {
     return new AutoValue_HistoricalStationSohRequest.Builder();
   }
@@ -63,6 +72,8 @@ public abstract class HistoricalStationSohRequest {
 
     abstract ImmutableList.Builder<SohMonitorType> sohMonitorTypesBuilder();
 
+    public abstract Builder setMaxPointsPerSeries(Optional<Integer> maxPointsPerSeries);
+
     public Builder addSohMonitorType(SohMonitorType sohMonitorType) {
       sohMonitorTypesBuilder().add(sohMonitorType);
       return this;
@@ -75,6 +86,9 @@ public abstract class HistoricalStationSohRequest {
 
       checkArgument(isNotEmpty(historicalStationSohRequest.getStationName()),
           "HistoricalStationSohRequest requires non-null, non-empty stationName");
+      historicalStationSohRequest.getMaxPointsPerSeries().ifPresent(maxPointsPerSeries ->
+          checkArgument(maxPointsPerSeries > 0,
+              "HistoricalStationSohRequest requires a positive maxPointsPerSeries"));
 
       return historicalStationSohRequest;
     }
@@ -0,0 +1,34 @@
+package gms.shared.frameworks.osd.api.channel.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gms.shared.frameworks.osd.api.util.ChannelTimeRangeRequest;
+import gms.shared.frameworks.osd.coi.datatransferobjects.CoiObjectMapperFactory;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DecimatedChannelSegmentsRequestTest {
+
+  private final List<ChannelTimeRangeRequest> channelTimeRangeRequests = List.of(
+      ChannelTimeRangeRequest.create("test", Instant.EPOCH, Instant.EPOCH.plusSeconds(86400)));
+
+  @Test
+  void testSerialization() throws IOException {
+    DecimatedChannelSegmentsRequest request = DecimatedChannelSegmentsRequest.create(
+        channelTimeRangeRequests, 2000);
+    ObjectMapper mapper = CoiObjectMapperFactory.getJsonObjectMapper();
+    assertEquals(request, mapper.readValue(mapper.writeValueAsString(request),
+        DecimatedChannelSegmentsRequest.class));
+  }
+
+  @Test
+  void testCreateValidation() {
+    assertThrows(IllegalStateException.class,
+        () -> DecimatedChannelSegmentsRequest.create(List.of(), 2000));
+    assertThrows(IllegalStateException.class,
+        () -> DecimatedChannelSegmentsRequest.create(channelTimeRangeRequests, 0));
+  }
+}
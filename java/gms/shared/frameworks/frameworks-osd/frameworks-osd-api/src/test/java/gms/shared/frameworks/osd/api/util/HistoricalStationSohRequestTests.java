@@ -1,6 +1,7 @@
 package gms.shared.frameworks.osd.api.util;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import gms.shared.frameworks.osd.coi.datatransferobjects.CoiObjectMapperFactory;
@@ -8,6 +9,7 @@ import gms.shared.frameworks.osd.coi.soh.SohMonitorType;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import org.junit.jupiter.api.Test;
 
 class HistoricalStationSohRequestTests {
@@ -21,4 +23,27 @@ class HistoricalStationSohRequestTests {
     assertEquals(request,
         mapper.readValue(mapper.writeValueAsString(request), HistoricalStationSohRequest.class));
   }
-}
\ No newline at end of file
+
+  @Test
+  void testSerializationWithMaxPointsPerSeries() throws IOException {
+    HistoricalStationSohRequest request = HistoricalStationSohRequest.create("TEST",
+        Instant.EPOCH.toEpochMilli(), Instant.EPOCH.plusSeconds(5).toEpochMilli(),
+        List.of(SohMonitorType.LAG)).toBuilder()
+        .setMaxPointsPerSeries(Optional.of(500))
+        .build();
+    ObjectMapper mapper = CoiObjectMapperFactory.getJsonObjectMapper();
+    assertEquals(request,
+        mapper.readValue(mapper.writeValueAsString(request), HistoricalStationSohRequest.class));
+  }
+
+  @Test
+  void testMaxPointsPerSeriesMustBePositive() {
+    HistoricalStationSohRequest.Builder builder = HistoricalStationSohRequest.builder()
+        .setStationName("TEST")
+        .setStartTime(0)
+        .setEndTime(5000)
+        .setSohMonitorTypes(List.of(SohMonitorType.LAG))
+        .setMaxPointsPerSeries(Optional.of(0));
+    assertThrows(IllegalArgumentException.class, builder::build);
+  }
+}
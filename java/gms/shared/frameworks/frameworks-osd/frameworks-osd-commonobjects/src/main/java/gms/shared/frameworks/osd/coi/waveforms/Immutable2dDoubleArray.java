@@ -2,13 +2,15 @@ package gms.shared.frameworks.osd.coi.waveforms;
 
 import com.google.common.base.Preconditions;
 import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.DoubleSupplier;
 
 public class Immutable2dDoubleArray {
 
   private final double[][] values;
 
   private Immutable2dDoubleArray(double[][] values) {
-    this.values = copyOf(values);
+    this.values = values;
   }
 
   public static Immutable2dDoubleArray from(double[][] values) {
@@ -20,7 +22,30 @@ public class Immutable2dDoubleArray {
         Arrays.stream(values).mapToInt(r -> r.length).distinct().limit(2).count() == 1,
         "Expected identical row lengths");
 
-    return new Immutable2dDoubleArray(values);
+    return new Immutable2dDoubleArray(copyOf(values));
+  }
+
+  /**
+   * Creates an array filled row by row with values from the supplier, without copying them again
+   *
+   * @param rowCount the number of rows, at least 1
+   * @param columnCount the number of columns, at least 1
+   * @param values supplies the rowCount * columnCount values in row-major order
+   * @return the filled array
+   */
+  public static Immutable2dDoubleArray from(int rowCount, int columnCount, DoubleSupplier values) {
+    Preconditions.checkArgument(rowCount > 0, "Expected at least 1 row");
+    Preconditions.checkArgument(columnCount > 0, "Expected at least 1 column");
+    Objects.requireNonNull(values);
+
+    double[][] filled = new double[rowCount][columnCount];
+    for (double[] row : filled) {
+      for (int j = 0; j < columnCount; j++) {
+        row[j] = values.getAsDouble();
+      }
+    }
+
+    return new Immutable2dDoubleArray(filled);
   }
 
   public double getValue(int row, int column) {
@@ -1,8 +1,12 @@
 package gms.shared.frameworks.osd.coi.waveforms;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.stream.DoubleStream;
 import org.junit.jupiter.api.Test;
 
 public class Immutable2dArrayTests {
@@ -12,4 +16,17 @@ public class Immutable2dArrayTests {
     double[][] expected = new double[][]{{1, 2, 3}, {4, 5, 6}, {7, 8, 9}};
     assertTrue(Arrays.deepEquals(expected, Immutable2dDoubleArray.from(expected).copyOf()));
   }
+
+  @Test
+  void testFromSupplier() {
+    double[][] expected = new double[][]{{1, 2, 3}, {4, 5, 6}};
+    PrimitiveIterator.OfDouble values = DoubleStream.of(1, 2, 3, 4, 5, 6).iterator();
+
+    assertEquals(Immutable2dDoubleArray.from(expected),
+        Immutable2dDoubleArray.from(2, 3, values::nextDouble));
+    assertThrows(IllegalArgumentException.class,
+        () -> Immutable2dDoubleArray.from(0, 3, () -> 1.0));
+    assertThrows(IllegalArgumentException.class,
+        () -> Immutable2dDoubleArray.from(2, 0, () -> 1.0));
+  }
 }
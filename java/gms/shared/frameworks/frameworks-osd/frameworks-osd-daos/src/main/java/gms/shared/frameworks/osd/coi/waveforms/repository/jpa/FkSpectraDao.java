@@ -2,6 +2,7 @@ package gms.shared.frameworks.osd.coi.waveforms.repository.jpa;
 
 import gms.shared.frameworks.osd.coi.PhaseType;
 import gms.shared.frameworks.osd.coi.waveforms.FkSpectra;
+import gms.shared.frameworks.osd.coi.waveforms.FkSpectrum;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -56,11 +57,20 @@ public class FkSpectraDao {
    * @return {@link FkSpectra} COI Object
    */
   public FkSpectra toCoi() {
+    return toCoi(getValues().stream().map(FkSpectrumDao::toCoi)
+        .collect(Collectors.toList()));
+  }
+
+  /**
+   * Create a COI from this DAO, with spectra created from its values elsewhere.
+   * @param values the {@link FkSpectrum} COIs of the values of this DAO, in the same order
+   * @return {@link FkSpectra} COI Object
+   */
+  public FkSpectra toCoi(List<FkSpectrum> values) {
     return FkSpectra.builder()
         .setStartTime(getTimeSeries().getStartTime())
         .setSampleRate(getTimeSeries().getSampleRate())
-        .withValues(getValues().stream().map(FkSpectrumDao::toCoi)
-            .collect(Collectors.toList()))
+        .withValues(values)
         .setMetadata(getMetadata().toCoi())
         .build();
   }
@@ -1,6 +1,7 @@
 package gms.shared.frameworks.osd.coi.waveforms.repository.jpa;
 
 import gms.shared.frameworks.osd.coi.waveforms.FkSpectrum;
+import gms.shared.frameworks.osd.coi.waveforms.Immutable2dDoubleArray;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
@@ -75,6 +76,24 @@ public class FkSpectrumDao {
                 .collect(Collectors.toList()));
   }
 
+  /**
+   * Create a COI from this DAO, with power and fstat values read from storage rather than those
+   * of this DAO.
+   *
+   * @param power the power values of the spectrum
+   * @param fstat the fstat values of the spectrum
+   * @return {@link FkSpectrum} COI Object
+   */
+  public FkSpectrum toCoi(Immutable2dDoubleArray power, Immutable2dDoubleArray fstat) {
+    return FkSpectrum.builder()
+        .setPower(power)
+        .setFstat(fstat)
+        .setQuality(quality)
+        .setAttributes(attributes.stream().map(FkAttributesDao::toCoi)
+            .collect(Collectors.toList()))
+        .build();
+  }
+
   public long getId() {
     return id;
   }
@@ -5,6 +5,7 @@ import gms.shared.frameworks.osd.api.OsdRepositoryInterface;
 import gms.shared.frameworks.osd.api.channel.ChannelRepositoryInterface;
 import gms.shared.frameworks.osd.api.channel.ChannelSegmentsRepositoryInterface;
 import gms.shared.frameworks.osd.api.channel.util.ChannelSegmentsIdRequest;
+import gms.shared.frameworks.osd.api.channel.util.DecimatedChannelSegmentsRequest;
 import gms.shared.frameworks.osd.api.event.EventRepositoryInterface;
 import gms.shared.frameworks.osd.api.event.util.FindEventByTimeAndLocationRequest;
 import gms.shared.frameworks.osd.api.instrumentresponse.ResponseRepositoryInterface;
@@ -207,6 +208,13 @@ public abstract class OsdRepository implements OsdRepositoryInterface {
         .retrieveChannelSegmentsByChannelsAndTimeRanges(channelTimeRangeRequests);
   }
 
+  @Override
+  public Collection<ChannelSegment<Waveform>>
+  retrieveDecimatedChannelSegmentsByChannelsAndTimeRanges(DecimatedChannelSegmentsRequest request) {
+    return getChannelSegmentRepository()
+        .retrieveDecimatedChannelSegmentsByChannelsAndTimeRanges(request);
+  }
+
   @Override
   public void storeChannelSegments(
       Collection<ChannelSegment<Waveform>> segments) {
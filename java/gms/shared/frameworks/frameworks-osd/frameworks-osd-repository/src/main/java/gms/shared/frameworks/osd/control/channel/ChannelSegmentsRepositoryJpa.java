@@ -10,6 +10,7 @@ import gms.shared.frameworks.coi.exceptions.RepositoryException;
 import gms.shared.frameworks.osd.api.channel.ChannelRepositoryInterface;
 import gms.shared.frameworks.osd.api.channel.ChannelSegmentsRepositoryInterface;
 import gms.shared.frameworks.osd.api.channel.util.ChannelSegmentsIdRequest;
+import gms.shared.frameworks.osd.api.channel.util.DecimatedChannelSegmentsRequest;
 import gms.shared.frameworks.osd.api.util.ChannelTimeRangeRequest;
 import gms.shared.frameworks.osd.api.util.ChannelsTimeRangeRequest;
 import gms.shared.frameworks.osd.api.util.TimeRangeRequest;
@@ -22,6 +23,7 @@ import gms.shared.frameworks.osd.coi.waveforms.Timeseries;
 import gms.shared.frameworks.osd.coi.waveforms.Timeseries.Type;
 import gms.shared.frameworks.osd.coi.waveforms.Waveform;
 import gms.shared.frameworks.osd.coi.waveforms.repository.jpa.FkSpectraDao;
+import gms.shared.frameworks.osd.control.utils.WaveformDecimator;
 import gms.shared.frameworks.osd.control.waveforms.TimeseriesRepositoryCassandra;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -32,6 +34,9 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
 import javax.persistence.EntityManager;
@@ -203,6 +208,30 @@ public class ChannelSegmentsRepositoryJpa implements ChannelSegmentsRepositoryIn
     Objects.requireNonNull(channelTimeRangeRequests);
     Preconditions.checkState(!channelTimeRangeRequests.isEmpty());
 
+    return retrieveChannelSegmentsByChannelsAndTimeRanges(channelTimeRangeRequests,
+        (range, waveforms) -> waveforms);
+  }
+
+  @Override
+  public Collection<ChannelSegment<Waveform>>
+  retrieveDecimatedChannelSegmentsByChannelsAndTimeRanges(DecimatedChannelSegmentsRequest request) {
+
+    Objects.requireNonNull(request);
+
+    return retrieveChannelSegmentsByChannelsAndTimeRanges(request.getChannelTimeRangeRequests(),
+        (range, waveforms) -> WaveformDecimator.decimate(waveforms, range.lowerEndpoint(),
+            range.upperEndpoint(), request.getBucketCount()));
+  }
+
+  /**
+   * Retrieves the waveform channel segments of each channel and time range, applying the decimation
+   * to the waveforms of each range as soon as they are retrieved so that only the decimated
+   * waveforms are held until every range is retrieved
+   */
+  private Collection<ChannelSegment<Waveform>> retrieveChannelSegmentsByChannelsAndTimeRanges(
+      Collection<ChannelTimeRangeRequest> channelTimeRangeRequests,
+      BiFunction<Range<Instant>, List<Waveform>, List<Waveform>> decimation) {
+
     Map<String, List<Range<Instant>>> timeRangesByChannelName = channelTimeRangeRequests.stream()
         .collect(Collectors.groupingBy(ChannelTimeRangeRequest::getChannelName)).entrySet().stream()
         .collect(Collectors.toMap(Entry::getKey, e -> getTimeRanges(e.getValue())));
@@ -232,43 +261,66 @@ public class ChannelSegmentsRepositoryJpa implements ChannelSegmentsRepositoryIn
             .getResultStream()
             .collect(Collectors.groupingBy(csDao -> csDao.getChannel().getName(), collector));
 
-    List<ChannelSegment<Waveform>> channelSegments = timeRangesByChannelName.entrySet().stream()
-        .filter(entry -> csDaosByRangeAndChannel.containsKey(entry.getKey()))
-        .map(entry -> getChannelSegmentsForRanges(entry.getValue(),
-            channelsByName.get(entry.getKey()),
-            csDaosByRangeAndChannel.get(entry.getKey())))
-        .collect(Collectors.flatMapping(List::stream, Collectors.toList()));
+    // The waveforms of every channel and range are retrieved at once before waiting on any of them
+    List<CompletableFuture<Optional<ChannelSegment<Waveform>>>> pendingChannelSegments =
+        timeRangesByChannelName.entrySet().stream()
+            .filter(entry -> csDaosByRangeAndChannel.containsKey(entry.getKey()))
+            .map(entry -> getChannelSegmentsForRanges(entry.getValue(),
+                channelsByName.get(entry.getKey()),
+                csDaosByRangeAndChannel.get(entry.getKey()),
+                decimation))
+            .collect(Collectors.flatMapping(List::stream, Collectors.toList()));
 
     entityManager.close();
 
-    return channelSegments;
+    return pendingChannelSegments.stream()
+        .map(ChannelSegmentsRepositoryJpa::join)
+        .filter(Optional::isPresent)
+        .map(Optional::get)
+        .collect(Collectors.toList());
   }
 
-  private List<ChannelSegment<Waveform>> getChannelSegmentsForRanges(List<Range<Instant>> ranges,
+  private List<CompletableFuture<Optional<ChannelSegment<Waveform>>>> getChannelSegmentsForRanges(
+      List<Range<Instant>> ranges,
       Channel channel,
-      RangeMap<Instant, ChannelSegmentDao> channelSegmentsByRange) {
+      RangeMap<Instant, ChannelSegmentDao> channelSegmentsByRange,
+      BiFunction<Range<Instant>, List<Waveform>, List<Waveform>> decimation) {
 
     return ranges.stream()
         .map(range -> getChannelSegmentForRange(range,
             channel,
-            new ArrayList<>(channelSegmentsByRange.subRangeMap(range).asMapOfRanges().values())))
-        .filter(Optional::isPresent)
-        .map(Optional::get)
+            new ArrayList<>(channelSegmentsByRange.subRangeMap(range).asMapOfRanges().values()),
+            decimation))
         .collect(Collectors.toList());
   }
 
-  private Optional<ChannelSegment<Waveform>> getChannelSegmentForRange(Range<Instant> range,
+  private CompletableFuture<Optional<ChannelSegment<Waveform>>> getChannelSegmentForRange(
+      Range<Instant> range,
       Channel channel,
-      List<ChannelSegmentDao> csDaosForRange) {
-    List<Waveform> waveforms = timeseriesRepository
-        .retrieveWaveformsByTime(channel.getCanonicalName(),
+      List<ChannelSegmentDao> csDaosForRange,
+      BiFunction<Range<Instant>, List<Waveform>, List<Waveform>> decimation) {
+    return timeseriesRepository
+        .retrieveWaveformsByTimeAsync(channel.getCanonicalName(),
             range.lowerEndpoint(),
-            range.upperEndpoint());
+            range.upperEndpoint())
+        .thenApply(waveforms -> buildChannelSegment(channel,
+            csDaosForRange,
+            List.of(range),
+            decimation.apply(range, waveforms)));
+  }
 
-      return buildChannelSegment(channel,
-          csDaosForRange,
-          List.of(range),
-          waveforms);
+  /**
+   * Waits for the future, rethrowing the exception it failed with
+   */
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RepositoryException(e.getCause());
+    }
   }
 
   private static List<Range<Instant>> getTimeRanges(Collection<ChannelTimeRangeRequest> reqs) {
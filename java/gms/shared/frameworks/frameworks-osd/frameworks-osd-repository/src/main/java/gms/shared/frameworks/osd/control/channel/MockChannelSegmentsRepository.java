@@ -2,6 +2,7 @@ package gms.shared.frameworks.osd.control.channel;
 
 import gms.shared.frameworks.osd.api.channel.ChannelSegmentsRepositoryInterface;
 import gms.shared.frameworks.osd.api.channel.util.ChannelSegmentsIdRequest;
+import gms.shared.frameworks.osd.api.channel.util.DecimatedChannelSegmentsRequest;
 import gms.shared.frameworks.osd.api.util.ChannelTimeRangeRequest;
 import gms.shared.frameworks.osd.api.util.ChannelsTimeRangeRequest;
 import gms.shared.frameworks.osd.coi.channel.ChannelSegment;
@@ -27,6 +28,11 @@ public class MockChannelSegmentsRepository implements ChannelSegmentsRepositoryI
     return List.of();
   }
 
+  @Override
+  public Collection<ChannelSegment<Waveform>> retrieveDecimatedChannelSegmentsByChannelsAndTimeRanges(DecimatedChannelSegmentsRequest request) {
+    return List.of();
+  }
+
   @Override
   public void storeChannelSegments(Collection<ChannelSegment<Waveform>> segments) {
     // Mock repo does not store
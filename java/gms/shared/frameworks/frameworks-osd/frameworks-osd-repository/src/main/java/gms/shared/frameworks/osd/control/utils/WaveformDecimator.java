@@ -0,0 +1,164 @@
+package gms.shared.frameworks.osd.control.utils;
+
+import gms.shared.frameworks.osd.coi.waveforms.Waveform;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Decimates waveforms for display by keeping the minimum and maximum sample of each of a fixed
+ * number of equal time buckets, such as the pixel columns of a plot, so the decimated waveforms
+ * draw the same envelope as the full rate samples.
+ */
+public class WaveformDecimator {
+
+  private static final double NANOS_PER_SECOND = 1.0e9;
+
+  private WaveformDecimator() {
+  }
+
+  /**
+   * Decimates the waveforms into the minimum and maximum sample, in the order they occur, of each
+   * of bucketCount equal buckets of the time range. The samples are read in one pass, and the
+   * waveforms are only decimated when they hold more than two samples per bucket in total.
+   * <p>
+   * The buckets of consecutive waveforms are joined into one decimated waveform, which starts at
+   * the first of their samples and has two samples per bucket. A bucket with no samples ends it,
+   * so gaps of at least a bucket remain gaps.
+   *
+   * @param waveforms the non-overlapping waveforms to decimate, sorted by start time, such as those
+   * resolved by {@link WaveformSweepResolver}
+   * @param startTime the start of the time range, which is the start of the first bucket
+   * @param endTime the end of the time range, which is the end of the last bucket
+   * @param bucketCount the number of buckets, at least 1
+   * @return The decimated waveforms, sorted by start time, or the waveforms as they are if they do
+   * not hold more than two samples per bucket or the time range is empty
+   */
+  public static List<Waveform> decimate(List<Waveform> waveforms, Instant startTime,
+      Instant endTime, int bucketCount) {
+    Validate.notNull(waveforms);
+    Validate.notNull(startTime);
+    Validate.notNull(endTime);
+    Validate.isTrue(!endTime.isBefore(startTime), "startTime must not be after endTime");
+    Validate.isTrue(bucketCount > 0, "bucketCount must be positive");
+
+    long sampleCount = waveforms.stream().mapToLong(Waveform::getSampleCount).sum();
+    if (sampleCount <= 2L * bucketCount || startTime.equals(endTime)) {
+      return waveforms;
+    }
+
+    final double nanosPerBucket = Duration.between(startTime, endTime).toNanos()
+        / (double) bucketCount;
+    final Decimation decimation = new Decimation(startTime, nanosPerBucket, bucketCount);
+    for (Waveform waveform : waveforms) {
+      final long startNanos = Duration.between(startTime, waveform.getStartTime()).toNanos();
+      final double nanosPerSample = NANOS_PER_SECOND / waveform.getSampleRate();
+      final double[] values = waveform.getValues();
+
+      // Each bucket's samples are scanned together, from the first sample at or after its end
+      int i = 0;
+      while (i < values.length) {
+        final long sampleNanos = startNanos + (long) (i * nanosPerSample);
+        final int bucket = decimation.bucketOf(sampleNanos);
+        final int next = bucket == bucketCount - 1 ? values.length : (int) Math.max(i + 1,
+            Math.min(values.length,
+                Math.ceil(((bucket + 1) * nanosPerBucket - startNanos) / nanosPerSample)));
+        decimation.add(bucket, sampleNanos, values, i, next);
+        i = next;
+      }
+    }
+
+    return decimation.finish();
+  }
+
+  /**
+   * The decimated waveforms, built up as samples are added in time order
+   */
+  private static class Decimation {
+
+    private final Instant startTime;
+    private final double nanosPerBucket;
+    private final int bucketCount;
+    private final double sampleRate;
+    private final List<Waveform> decimated = new ArrayList<>();
+
+    // The decimated waveform being built, and the bucket being filled
+    private double[] values;
+    private int valueCount;
+    private long runStartNanos;
+    private int bucket = -1;
+    private double min;
+    private double max;
+    private long minIndex;
+    private long maxIndex;
+    private long index;
+
+    private Decimation(Instant startTime, double nanosPerBucket, int bucketCount) {
+      this.startTime = startTime;
+      this.nanosPerBucket = nanosPerBucket;
+      this.bucketCount = bucketCount;
+      this.sampleRate = 2 * NANOS_PER_SECOND / nanosPerBucket;
+    }
+
+    private int bucketOf(long sampleNanos) {
+      return (int) Math.max(0, Math.min(bucketCount - 1, Math.floor(sampleNanos / nanosPerBucket)));
+    }
+
+    /**
+     * Adds the samples from (inclusive) to (exclusive), which are all in the sampleBucket and the
+     * first of which is at sampleNanos
+     */
+    private void add(int sampleBucket, long sampleNanos, double[] samples, int from, int to) {
+      if (sampleBucket != bucket) {
+        if (bucket >= 0) {
+          flushBucket();
+        }
+        if (bucket < 0 || sampleBucket > bucket + 1) {
+          finishRun();
+          values = new double[2 * (bucketCount - sampleBucket)];
+          runStartNanos = sampleNanos;
+        }
+
+        bucket = sampleBucket;
+        min = samples[from];
+        max = samples[from];
+        minIndex = index;
+        maxIndex = index;
+      }
+
+      for (int i = from; i < to; i++, index++) {
+        if (samples[i] < min) {
+          min = samples[i];
+          minIndex = index;
+        } else if (samples[i] > max) {
+          max = samples[i];
+          maxIndex = index;
+        }
+      }
+    }
+
+    private void flushBucket() {
+      values[valueCount++] = minIndex <= maxIndex ? min : max;
+      values[valueCount++] = minIndex <= maxIndex ? max : min;
+    }
+
+    private void finishRun() {
+      if (valueCount > 0) {
+        decimated.add(Waveform.from(startTime.plusNanos(runStartNanos), sampleRate,
+            Arrays.copyOf(values, valueCount)));
+      }
+      valueCount = 0;
+    }
+
+    private List<Waveform> finish() {
+      if (bucket >= 0) {
+        flushBucket();
+      }
+      finishRun();
+      return decimated;
+    }
+  }
+}
@@ -25,8 +25,8 @@ public class WaveformOverlapResolver {
 
   static final double SAMPLE_RATE_PERCENT_TOLERANCE = 0.5;
 
-  private static final double MERGE_SAMPLE_RATE_TOLERANCE = 2.0;
-  private static final double MERGE_MIN_GAP_SAMPLE_COUNT_LIMIT = 0.9;
+  static final double MERGE_SAMPLE_RATE_TOLERANCE = 2.0;
+  static final double MERGE_MIN_GAP_SAMPLE_COUNT_LIMIT = 0.9;
 
   private WaveformOverlapResolver() {
   }
@@ -67,7 +67,7 @@ public class WaveformOverlapResolver {
   /**
    * Returns a list of the map keys sorted in descending order by their corresponding map value
    */
-  private static <K, V extends Comparable<V>> List<K> sortedByDescValues(Map<K, V> m) {
+  static <K, V extends Comparable<V>> List<K> sortedByDescValues(Map<K, V> m) {
     return m.entrySet().stream()
         .sorted(Collections.reverseOrder(Map.Entry.comparingByValue()))
         .map(Entry::getKey)
@@ -108,7 +108,7 @@ public class WaveformOverlapResolver {
     return Collections.unmodifiableList(new ArrayList<>(c));
   }
 
-  private static void validateSampleRatesClose(Waveform wf1, Waveform wf2) {
+  static void validateSampleRatesClose(Waveform wf1, Waveform wf2) {
     Validate.isTrue(sampleRatesClose(wf1.getSampleRate(), wf2.getSampleRate()),
         String.format("The two Waveform's from [%s, %s] and [%s, %s] overlap "
                 + "and have substantially different sample rates %f and %f",
@@ -0,0 +1,199 @@
+package gms.shared.frameworks.osd.control.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Encodes waveform samples into the compact blob stored in Cassandra, and decodes them again.
+ * <p>
+ * A blob is a one byte header, the sample count as a little-endian int, and the samples in the
+ * narrowest of three little-endian formats that holds every sample exactly: 32 bit ints, 32 bit
+ * floats or 64 bit doubles. Decoding a blob always gives back the exact bits that were encoded.
+ * The samples may also be deflated, which is only kept when it makes the blob smaller.
+ */
+public class WaveformSampleCodec {
+
+  static final byte INT32 = 0;
+  static final byte FLOAT32 = 1;
+  static final byte FLOAT64 = 2;
+
+  private static final byte FORMAT_MASK = 0x03;
+  private static final byte DEFLATED = (byte) 0x80;
+
+  private static final int HEADER_BYTES = Byte.BYTES + Integer.BYTES;
+
+  private WaveformSampleCodec() {
+  }
+
+  /**
+   * Encodes the samples
+   *
+   * @param samples the samples to encode, not null
+   * @param compress whether to try deflating the samples
+   * @return The encoded samples, as a ByteBuffer ready to be read
+   */
+  public static ByteBuffer encode(double[] samples, boolean compress) {
+    Objects.requireNonNull(samples);
+
+    byte format = narrowestFormat(samples);
+    ByteBuffer encoded = ByteBuffer.allocate(HEADER_BYTES + samples.length * width(format))
+        .order(ByteOrder.LITTLE_ENDIAN);
+    encoded.put(format).putInt(samples.length);
+
+    switch (format) {
+      case INT32:
+        for (double sample : samples) {
+          encoded.putInt((int) sample);
+        }
+        break;
+      case FLOAT32:
+        for (double sample : samples) {
+          encoded.putFloat((float) sample);
+        }
+        break;
+      default:
+        encoded.asDoubleBuffer().put(samples);
+        encoded.position(encoded.limit());
+    }
+    encoded.flip();
+
+    return compress ? deflate(encoded) : encoded;
+  }
+
+  /**
+   * Decodes samples encoded by {@link #encode(double[], boolean)}
+   *
+   * @param encoded the encoded samples, from its position to its limit, which are not changed
+   * @return The decoded samples
+   * @throws IllegalArgumentException if the encoded samples are malformed
+   */
+  public static double[] decode(ByteBuffer encoded) {
+    Objects.requireNonNull(encoded);
+
+    ByteBuffer buffer = encoded.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    Validate.isTrue(buffer.remaining() >= HEADER_BYTES, "Encoded samples are missing their header");
+    byte header = buffer.get();
+    int sampleCount = buffer.getInt();
+    byte format = (byte) (header & FORMAT_MASK);
+    Validate.isTrue(format <= FLOAT64, "Unknown sample format %d", format);
+    Validate.isTrue(sampleCount >= 0, "Negative sample count %d", sampleCount);
+
+    int sampleBytes = sampleBytes(sampleCount, format);
+    if ((header & DEFLATED) != 0) {
+      buffer = inflate(buffer, sampleBytes);
+    }
+    Validate.isTrue(buffer.remaining() == sampleBytes,
+        "Expected %d samples but found %d bytes", sampleCount, buffer.remaining());
+
+    double[] samples = new double[sampleCount];
+    switch (format) {
+      case INT32:
+        for (int i = 0; i < sampleCount; i++) {
+          samples[i] = buffer.getInt();
+        }
+        break;
+      case FLOAT32:
+        for (int i = 0; i < sampleCount; i++) {
+          samples[i] = buffer.getFloat();
+        }
+        break;
+      default:
+        buffer.asDoubleBuffer().get(samples);
+    }
+    return samples;
+  }
+
+  /**
+   * @return The narrowest format that every sample converts to and from without changing its bits
+   */
+  static byte narrowestFormat(double[] samples) {
+    boolean ints = true;
+    boolean floats = true;
+    for (double sample : samples) {
+      long bits = Double.doubleToRawLongBits(sample);
+      ints = ints && Double.doubleToRawLongBits((int) sample) == bits;
+      floats = floats && Double.doubleToRawLongBits((float) sample) == bits;
+      if (!ints && !floats) {
+        return FLOAT64;
+      }
+    }
+    return ints ? INT32 : FLOAT32;
+  }
+
+  private static int width(byte format) {
+    return format == FLOAT64 ? Double.BYTES : Integer.BYTES;
+  }
+
+  /**
+   * @throws IllegalArgumentException if the samples would take more bytes than an array can hold
+   */
+  private static int sampleBytes(int sampleCount, byte format) {
+    try {
+      return Math.multiplyExact(sampleCount, width(format));
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException("Too many samples " + sampleCount, e);
+    }
+  }
+
+  private static ByteBuffer deflate(ByteBuffer encoded) {
+    byte header = encoded.get(0);
+    int sampleCount = encoded.getInt(1);
+
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(encoded.array(), HEADER_BYTES, encoded.limit() - HEADER_BYTES);
+      deflater.finish();
+
+      ByteArrayOutputStream deflated = new ByteArrayOutputStream(encoded.limit() / 2);
+      byte[] chunk = new byte[8192];
+      while (!deflater.finished()) {
+        deflated.write(chunk, 0, deflater.deflate(chunk));
+        if (deflated.size() + HEADER_BYTES >= encoded.limit()) {
+          // Deflating does not make these samples any smaller
+          return encoded;
+        }
+      }
+
+      return ByteBuffer.allocate(HEADER_BYTES + deflated.size())
+          .order(ByteOrder.LITTLE_ENDIAN)
+          .put((byte) (header | DEFLATED))
+          .putInt(sampleCount)
+          .put(deflated.toByteArray())
+          .flip();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static ByteBuffer inflate(ByteBuffer deflated, int inflatedBytes) {
+    byte[] input = new byte[deflated.remaining()];
+    deflated.get(input);
+
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(input);
+      byte[] inflated = new byte[inflatedBytes];
+      int length = 0;
+      while (length < inflatedBytes && !inflater.finished()) {
+        int inflatedLength = inflater.inflate(inflated, length, inflatedBytes - length);
+        if (inflatedLength == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        length += inflatedLength;
+      }
+      Validate.isTrue(length == inflatedBytes && inflater.finished(),
+          "Expected %d inflated bytes but found %d", inflatedBytes, length);
+      return ByteBuffer.wrap(inflated).order(ByteOrder.LITTLE_ENDIAN);
+    } catch (DataFormatException e) {
+      throw new IllegalArgumentException("Malformed deflated samples", e);
+    } finally {
+      inflater.end();
+    }
+  }
+}
@@ -0,0 +1,408 @@
+package gms.shared.frameworks.osd.control.utils;
+
+import static gms.shared.frameworks.osd.control.utils.WaveformOverlapResolver.MERGE_MIN_GAP_SAMPLE_COUNT_LIMIT;
+import static gms.shared.frameworks.osd.control.utils.WaveformOverlapResolver.MERGE_SAMPLE_RATE_TOLERANCE;
+
+import gms.shared.frameworks.osd.coi.waveforms.Waveform;
+import gms.shared.frameworks.osd.coi.waveforms.util.WaveformUtility;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Resolves waveforms that overlap in time exactly as {@link WaveformOverlapResolver} does, but
+ * over sorted arrays of epoch nanosecond intervals instead of Instant ranges, and without
+ * windowing or merging intermediate waveforms. Each resolved sample is copied once, into an
+ * array sized for the waveform it ends up in.
+ * <p>
+ * The results are identical, bit for bit, to those of {@link WaveformOverlapResolver#resolve},
+ * including where its range arithmetic trims an earlier resolved interval by a nanosecond.
+ */
+public class WaveformSweepResolver {
+
+  private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+  private WaveformSweepResolver() {
+  }
+
+  /**
+   * Resolves waveforms that may overlap in time into a non-overlapping list of waveforms in time
+   * order. Overlaps are resolved by taking the newest stored samples.  Ties in storage time are
+   * broken in the iteration order of the map.  The resulting de-conflicted waveforms are combined
+   * as {@link WaveformUtility#mergeWaveforms} would combine them.
+   *
+   * @param waveformToStorageTime a mapping between waveforms and their storage time
+   * @return a list of {@link Waveform} that is non-null, sorted by start time, and contains no
+   * overlaps.
+   */
+  public static List<Waveform> resolve(Map<Waveform, Instant> waveformToStorageTime) {
+    Validate.notNull(waveformToStorageTime, "waveformToStorageTime null");
+    if (waveformToStorageTime.size() <= 1) {
+      return Collections.unmodifiableList(new ArrayList<>(waveformToStorageTime.keySet()));
+    }
+
+    final List<Waveform> newestToOldestWfs =
+        WaveformOverlapResolver.sortedByDescValues(waveformToStorageTime);
+    try {
+      final Sweep sweep = new Sweep(newestToOldestWfs.size());
+      newestToOldestWfs.forEach(sweep::add);
+      return Collections.unmodifiableList(sweep.merge());
+    } catch (ArithmeticException e) {
+      // Times that do not fit in a long of epoch nanos are left to the Instant based resolver
+      return WaveformOverlapResolver.resolve(waveformToStorageTime);
+    }
+  }
+
+  private static long toEpochNanos(Instant instant) {
+    return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), NANOS_PER_SECOND),
+        instant.getNano());
+  }
+
+  private static Instant toInstant(long epochNanos) {
+    return Instant.ofEpochSecond(Math.floorDiv(epochNanos, NANOS_PER_SECOND),
+        Math.floorMod(epochNanos, NANOS_PER_SECOND));
+  }
+
+  /**
+   * The time of a sample, computed as {@link Waveform#computeSampleTime(int)} does
+   */
+  private static long sampleTime(long startNanos, double sampleRate, int index) {
+    final double nanosPerSample = 1E9 / sampleRate;
+    return Math.addExact(startNanos, (long) (index * nanosPerSample));
+  }
+
+  /**
+   * The length of a gap in seconds, computed as {@link WaveformUtility#mergeWaveforms} does
+   */
+  private static double durationSeconds(long startNanos, long endNanos) {
+    final long nanos = Math.subtractExact(endNanos, startNanos);
+    return (double) Math.floorMod(nanos, NANOS_PER_SECOND) / 1000000000
+        + Math.floorDiv(nanos, NANOS_PER_SECOND);
+  }
+
+  /**
+   * The resolved intervals, sorted and disjoint. Each maps a range of time to a run of samples in
+   * one of the input waveforms. A range is closed unless trimmed by a later, overlapping range, as
+   * a TreeRangeMap trims it; the run of samples keeps its own start and end times regardless.
+   */
+  private static class Sweep {
+
+    private final List<Waveform> waveforms;
+
+    private int size;
+    private long[] lower;
+    private long[] upper;
+    private boolean[] lowerOpen;
+    private boolean[] upperOpen;
+    private int[] waveform;
+    private int[] firstSample;
+    private int[] sampleCount;
+    private long[] startTime;
+    private long[] endTime;
+
+    // Scratch space for the windows of the waveform being added
+    private int windowCount;
+    private int[] windowFirstSample = new int[4];
+    private int[] windowSampleCount = new int[4];
+    private long[] windowStartTime = new long[4];
+    private long[] windowEndTime = new long[4];
+
+    private Sweep(int capacity) {
+      this.waveforms = new ArrayList<>(capacity);
+      this.lower = new long[capacity];
+      this.upper = new long[capacity];
+      this.lowerOpen = new boolean[capacity];
+      this.upperOpen = new boolean[capacity];
+      this.waveform = new int[capacity];
+      this.firstSample = new int[capacity];
+      this.sampleCount = new int[capacity];
+      this.startTime = new long[capacity];
+      this.endTime = new long[capacity];
+    }
+
+    /**
+     * Adds a waveform older than every waveform added before it, keeping only the parts of it
+     * that are not already resolved
+     */
+    private void add(Waveform wf) {
+      final int wfIndex = waveforms.size();
+      waveforms.add(wf);
+
+      final double sampleRate = wf.getSampleRate();
+      final int wfSampleCount = wf.getSampleCount();
+      final long start = toEpochNanos(wf.getStartTime());
+      final long end = sampleTime(start, sampleRate, wfSampleCount - 1);
+
+      final int from = firstIntersecting(start);
+      final int to = endIntersecting(from, end);
+      if (from == to) {
+        put(start, end, wfIndex, 0, wfSampleCount, start, end);
+        return;
+      }
+
+      for (int i = from; i < to; i++) {
+        final double overlapSampleRate = waveforms.get(waveform[i]).getSampleRate();
+        if (!WaveformOverlapResolver.sampleRatesClose(sampleRate, overlapSampleRate)) {
+          WaveformOverlapResolver.validateSampleRatesClose(wf, materialize(i, i + 1,
+              startTime[i], overlapSampleRate, sampleCount[i]));
+        }
+      }
+
+      // Window around the overlaps, each expanded by a nano so no two samples share a time
+      windowCount = 0;
+      long gapStart = start;
+      long removedStart = 0;
+      long removedEnd = 0;
+      for (int i = from; i < to; i++) {
+        final long expandedStart = Math.max(lower[i], start) - 1;
+        final long expandedEnd = Math.min(upper[i], end) + 1;
+        if (i > from && expandedStart <= removedEnd) {
+          removedEnd = Math.max(removedEnd, expandedEnd);
+        } else {
+          if (i > from) {
+            window(wf, start, end, gapStart, removedStart);
+            gapStart = removedEnd;
+          }
+          removedStart = expandedStart;
+          removedEnd = expandedEnd;
+        }
+      }
+      window(wf, start, end, gapStart, removedStart);
+      window(wf, start, end, removedEnd, end);
+
+      for (int w = 0; w < windowCount; w++) {
+        put(windowStartTime[w], windowEndTime[w], wfIndex, windowFirstSample[w],
+            windowSampleCount[w], windowStartTime[w], windowEndTime[w]);
+      }
+    }
+
+    /**
+     * Records the samples of the waveform between the two times, computed as {@link
+     * Waveform#window(Instant, Instant)} computes them, if the gap between them is not empty
+     */
+    private void window(Waveform wf, long start, long end, long gapStart, long gapEnd) {
+      if (gapStart >= gapEnd) {
+        return;
+      }
+
+      final int wfSampleCount = wf.getSampleCount();
+      final double sampleRateNanos = wf.getSampleRate() / 1.0e9;
+      final int lowerIndex = (int) Math.ceil((gapStart - start) * sampleRateNanos);
+      final int samplesRemovedRight = (int) Math.ceil((end - gapEnd) * sampleRateNanos);
+      final int upperIndex = wfSampleCount - 1 - samplesRemovedRight;
+      Validate.isTrue(lowerIndex >= 0 && lowerIndex < wfSampleCount,
+          String.format("Lower index must in range[0, %d) but was %d",
+              wfSampleCount, lowerIndex));
+      Validate.isTrue(upperIndex >= 0 && upperIndex < wfSampleCount,
+          String.format("Upper index must be in range [0, %d) but was %d",
+              wfSampleCount, upperIndex));
+      Validate.isTrue(lowerIndex <= upperIndex,
+          "lower index must be less than upper index");
+
+      if (windowCount == windowFirstSample.length) {
+        final int capacity = windowCount * 2;
+        windowFirstSample = Arrays.copyOf(windowFirstSample, capacity);
+        windowSampleCount = Arrays.copyOf(windowSampleCount, capacity);
+        windowStartTime = Arrays.copyOf(windowStartTime, capacity);
+        windowEndTime = Arrays.copyOf(windowEndTime, capacity);
+      }
+      final int windowedSampleCount = upperIndex - lowerIndex + 1;
+      final long windowedStart = sampleTime(start, wf.getSampleRate(), lowerIndex);
+      windowFirstSample[windowCount] = lowerIndex;
+      windowSampleCount[windowCount] = windowedSampleCount;
+      windowStartTime[windowCount] = windowedStart;
+      windowEndTime[windowCount] =
+          sampleTime(windowedStart, wf.getSampleRate(), windowedSampleCount - 1);
+      windowCount++;
+    }
+
+    /**
+     * @return The index of the first interval that ends at or after the time
+     */
+    private int firstIntersecting(long time) {
+      int low = 0;
+      int high = size;
+      while (low < high) {
+        final int mid = (low + high) >>> 1;
+        if (upper[mid] > time || (upper[mid] == time && !upperOpen[mid])) {
+          high = mid;
+        } else {
+          low = mid + 1;
+        }
+      }
+      return low;
+    }
+
+    /**
+     * @return The index after the last interval, from the given one, that starts at or before the
+     * time
+     */
+    private int endIntersecting(int from, long time) {
+      int to = from;
+      while (to < size && (lower[to] < time || (lower[to] == time && !lowerOpen[to]))) {
+        to++;
+      }
+      return to;
+    }
+
+    /**
+     * Puts a closed interval, trimming the intervals it overlaps
+     */
+    private void put(long start, long end, int wfIndex, int first, int count, long runStart,
+        long runEnd) {
+
+      final int from = firstIntersecting(start);
+      final int to = endIntersecting(from, end);
+      final boolean keepBelow = from < to && lower[from] < start;
+      final boolean keepAbove = from < to && upper[to - 1] > end;
+
+      final int inserted = (keepBelow ? 1 : 0) + 1 + (keepAbove ? 1 : 0);
+      final int position = splice(from, to, inserted);
+      if (keepBelow) {
+        upper[position] = start;
+        upperOpen[position] = true;
+      }
+      if (keepAbove) {
+        final int above = position + inserted - 1;
+        lower[above] = end;
+        lowerOpen[above] = true;
+      }
+
+      final int i = keepBelow ? position + 1 : position;
+      lower[i] = start;
+      upper[i] = end;
+      lowerOpen[i] = false;
+      upperOpen[i] = false;
+      waveform[i] = wfIndex;
+      firstSample[i] = first;
+      sampleCount[i] = count;
+      startTime[i] = runStart;
+      endTime[i] = runEnd;
+    }
+
+    /**
+     * Replaces the intervals from (inclusive) to (exclusive) with room for the given count of
+     * intervals, keeping the first and last of the replaced intervals at either end of that room.
+     *
+     * @return The index of the room
+     */
+    private int splice(int from, int to, int count) {
+      final int newSize = size - (to - from) + count;
+      if (newSize > lower.length) {
+        final int capacity = Math.max(newSize, lower.length * 2);
+        lower = Arrays.copyOf(lower, capacity);
+        upper = Arrays.copyOf(upper, capacity);
+        lowerOpen = Arrays.copyOf(lowerOpen, capacity);
+        upperOpen = Arrays.copyOf(upperOpen, capacity);
+        waveform = Arrays.copyOf(waveform, capacity);
+        firstSample = Arrays.copyOf(firstSample, capacity);
+        sampleCount = Arrays.copyOf(sampleCount, capacity);
+        startTime = Arrays.copyOf(startTime, capacity);
+        endTime = Arrays.copyOf(endTime, capacity);
+      }
+
+      // A trimmed interval left above the new one is the last replaced interval, which may also
+      // be the first when the new interval splits it in two. It is copied before the intervals
+      // after it move down over it, or after they move up out of the way.
+      final boolean copyLast = to > from && count > 1;
+      if (copyLast && from + count <= to) {
+        copy(to - 1, from + count - 1);
+      }
+      move(to, from + count, size - to);
+      if (copyLast && from + count > to) {
+        copy(to - 1, from + count - 1);
+      }
+      size = newSize;
+      return from;
+    }
+
+    private void move(int from, int to, int length) {
+      System.arraycopy(lower, from, lower, to, length);
+      System.arraycopy(upper, from, upper, to, length);
+      System.arraycopy(lowerOpen, from, lowerOpen, to, length);
+      System.arraycopy(upperOpen, from, upperOpen, to, length);
+      System.arraycopy(waveform, from, waveform, to, length);
+      System.arraycopy(firstSample, from, firstSample, to, length);
+      System.arraycopy(sampleCount, from, sampleCount, to, length);
+      System.arraycopy(startTime, from, startTime, to, length);
+      System.arraycopy(endTime, from, endTime, to, length);
+    }
+
+    private void copy(int from, int to) {
+      lower[to] = lower[from];
+      upper[to] = upper[from];
+      lowerOpen[to] = lowerOpen[from];
+      upperOpen[to] = upperOpen[from];
+      waveform[to] = waveform[from];
+      firstSample[to] = firstSample[from];
+      sampleCount[to] = sampleCount[from];
+      startTime[to] = startTime[from];
+      endTime[to] = endTime[from];
+    }
+
+    /**
+     * Merges adjacent resolved intervals as {@link WaveformUtility#mergeWaveforms} would merge
+     * their waveforms, then creates the merged waveforms
+     */
+    private List<Waveform> merge() {
+      final List<Waveform> merged = new ArrayList<>();
+
+      int from = 0;
+      double sampleRate = waveforms.get(waveform[0]).getSampleRate();
+      int count = sampleCount[0];
+      long start = startTime[0];
+      long end = endTime[0];
+      for (int i = 1; i < size; i++) {
+        final double nextSampleRate = waveforms.get(waveform[i]).getSampleRate();
+        boolean contiguous = false;
+        if (Math.abs(sampleRate - nextSampleRate) <= MERGE_SAMPLE_RATE_TOLERANCE) {
+          final double meanSampleRate = (nextSampleRate + sampleRate) / 2.0;
+          final double fractionalGapSampleCount =
+              meanSampleRate * durationSeconds(end, startTime[i]);
+          contiguous = fractionalGapSampleCount < 1.5
+              && fractionalGapSampleCount > MERGE_MIN_GAP_SAMPLE_COUNT_LIMIT;
+        }
+
+        if (contiguous) {
+          count += sampleCount[i];
+          sampleRate = (double) (count - 1) / durationSeconds(start, endTime[i]);
+          end = sampleTime(start, sampleRate, count - 1);
+        } else {
+          merged.add(materialize(from, i, start, sampleRate, count));
+          from = i;
+          sampleRate = nextSampleRate;
+          count = sampleCount[i];
+          start = startTime[i];
+          end = endTime[i];
+        }
+      }
+      merged.add(materialize(from, size, start, sampleRate, count));
+
+      return merged;
+    }
+
+    /**
+     * Creates the waveform made of the samples of the intervals from (inclusive) to (exclusive)
+     */
+    private Waveform materialize(int from, int to, long start, double sampleRate, int count) {
+      final Waveform first = waveforms.get(waveform[from]);
+      if (to - from == 1 && firstSample[from] == 0 && sampleCount[from] == first.getSampleCount()
+          && startTime[from] == toEpochNanos(first.getStartTime())) {
+        return first;
+      }
+
+      final double[] values = new double[count];
+      int position = 0;
+      for (int i = from; i < to; i++) {
+        System.arraycopy(waveforms.get(waveform[i]).getValues(), firstSample[i], values, position,
+            sampleCount[i]);
+        position += sampleCount[i];
+      }
+      return Waveform.from(toInstant(start), sampleRate, values);
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package gms.shared.frameworks.osd.control.waveforms;
+
+import com.datastax.driver.core.exceptions.NoHostAvailableException;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import gms.shared.frameworks.coi.exceptions.RepositoryException;
+import gms.shared.frameworks.coi.exceptions.StorageUnavailableException;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Bounds how many asynchronous Cassandra queries are in flight at once, without blocking the
+ * threads that submit them. Queries beyond the limit are queued and started, in submission order,
+ * as earlier queries complete.
+ */
+class CassandraQueryWindow {
+
+  private final Semaphore permits;
+  private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger drainRequests = new AtomicInteger();
+
+  CassandraQueryWindow(int maxInFlight) {
+    Validate.isTrue(maxInFlight > 0, "maxInFlight must be positive");
+    this.permits = new Semaphore(maxInFlight);
+  }
+
+  /**
+   * Start the query once fewer than maxInFlight queries are in flight. The query counts as in
+   * flight until the future it returns completes, so it may include fetching further pages.
+   *
+   * @param query starts the query
+   * @return A future that completes as the future returned by the query completes
+   */
+  <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> query) {
+    Objects.requireNonNull(query);
+
+    CompletableFuture<T> result = new CompletableFuture<>();
+    pending.add(() -> {
+      CompletableFuture<T> started;
+      try {
+        started = query.get();
+      } catch (RuntimeException e) {
+        started = CompletableFuture.failedFuture(e);
+      }
+      started.whenComplete((value, t) -> {
+        permits.release();
+        drain();
+        if (t != null) {
+          result.completeExceptionally(t);
+        } else {
+          result.complete(value);
+        }
+      });
+    });
+    drain();
+
+    return result;
+  }
+
+  /**
+   * @return The number of queries waiting for a query in flight to complete
+   */
+  int getPendingCount() {
+    return pending.size();
+  }
+
+  private void drain() {
+    // Every submission and every completion drains, so a query is never left waiting on a permit
+    // that has already been returned. Only one thread drains at a time, and a drain requested
+    // meanwhile, including by a query that completed as it started, is done by that thread.
+    if (drainRequests.getAndIncrement() != 0) {
+      return;
+    }
+
+    int requests = 1;
+    do {
+      while (!pending.isEmpty() && permits.tryAcquire()) {
+        Runnable next = pending.poll();
+        if (next == null) {
+          permits.release();
+          break;
+        }
+        next.run();
+      }
+      requests = drainRequests.addAndGet(-requests);
+    } while (requests != 0);
+  }
+
+  /**
+   * Adapts a Cassandra driver future to a CompletableFuture, translating failures to the
+   * repository exceptions
+   */
+  static <T> CompletableFuture<T> toCompletableFuture(ListenableFuture<T> future) {
+    CompletableFuture<T> completable = new CompletableFuture<>();
+    Futures.addCallback(future, new FutureCallback<T>() {
+      @Override
+      public void onSuccess(T result) {
+        completable.complete(result);
+      }
+
+      @Override
+      public void onFailure(Throwable t) {
+        completable.completeExceptionally(t instanceof NoHostAvailableException
+            ? new StorageUnavailableException(t)
+            : new RepositoryException(t));
+      }
+    }, MoreExecutors.directExecutor());
+    return completable;
+  }
+}
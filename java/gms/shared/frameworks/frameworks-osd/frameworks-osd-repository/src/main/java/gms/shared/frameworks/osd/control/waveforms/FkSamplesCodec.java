@@ -0,0 +1,84 @@
+package gms.shared.frameworks.osd.control.waveforms;
+
+import gms.shared.frameworks.osd.coi.waveforms.Immutable2dDoubleArray;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Serializes the power and fstat values of an FK spectrum to and from the list&lt;double&gt;
+ * columns of the fk_spectra table, row after row, without flattening them into an intermediate
+ * array. The bytes are those the driver's DoubleArrayCodec reads and writes with any protocol
+ * version after V2: the element count, then each element as its size and its value.
+ */
+class FkSamplesCodec {
+
+  private static final int ELEMENT_BYTES = Integer.BYTES + Double.BYTES;
+
+  private FkSamplesCodec() {
+  }
+
+  /**
+   * @param values the rows of values, which all have the same length
+   * @return The serialized values, as a ByteBuffer ready to be read
+   */
+  static ByteBuffer serialize(double[][] values) {
+    Objects.requireNonNull(values);
+    Validate.isTrue(values.length > 0, "Expected at least 1 row");
+
+    int columnCount = values[0].length;
+    ByteBuffer serialized = ByteBuffer
+        .allocate(Integer.BYTES + values.length * columnCount * ELEMENT_BYTES)
+        .putInt(values.length * columnCount);
+    for (double[] row : values) {
+      Validate.isTrue(row.length == columnCount, "Expected identical row lengths");
+      for (double value : row) {
+        serialized.putInt(Double.BYTES).putDouble(value);
+      }
+    }
+
+    return serialized.flip();
+  }
+
+  /**
+   * @param serialized the serialized values, from its position to its limit, which are not changed
+   * @param rowCount the number of rows the values were serialized from
+   * @param columnCount the number of columns the values were serialized from
+   * @return The values, read straight into their rows
+   * @throws IllegalArgumentException if there are not rowCount * columnCount values
+   */
+  static Immutable2dDoubleArray deserialize(ByteBuffer serialized, int rowCount,
+      int columnCount) {
+    Objects.requireNonNull(serialized);
+    Validate.isTrue(rowCount >= 0 && columnCount >= 0, "Negative dimensions %d x %d", rowCount,
+        columnCount);
+
+    ByteBuffer buffer = serialized.duplicate();
+    Validate.isTrue(buffer.remaining() >= Integer.BYTES,
+        "Serialized values are missing their count");
+    int count = buffer.getInt();
+    Validate.isTrue(count >= 0, "Negative value count %d", count);
+    Validate.isTrue(count == multiplyExact(rowCount, columnCount)
+            && buffer.remaining() == multiplyExact(count, ELEMENT_BYTES),
+        "Expected %d x %d values but found %d in %d bytes", rowCount, columnCount, count,
+        buffer.remaining());
+
+    return Immutable2dDoubleArray.from(rowCount, columnCount, () -> {
+      int size = buffer.getInt();
+      Validate.isTrue(size == Double.BYTES, "Expected a double but found %d bytes", size);
+      return buffer.getDouble();
+    });
+  }
+
+  /**
+   * @throws IllegalArgumentException if the product overflows, as the values could then not have
+   * been serialized
+   */
+  private static int multiplyExact(int x, int y) {
+    try {
+      return Math.multiplyExact(x, y);
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException("Too many values " + x + " x " + y, e);
+    }
+  }
+}
@@ -2,47 +2,56 @@ package gms.shared.frameworks.osd.control.waveforms;
 
 import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.DataType;
 import com.datastax.driver.core.LocalDate;
 import com.datastax.driver.core.PreparedStatement;
-import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
 import com.datastax.driver.core.exceptions.NoHostAvailableException;
-import com.datastax.driver.core.exceptions.QueryExecutionException;
-import com.datastax.driver.core.exceptions.QueryValidationException;
 import com.datastax.driver.extras.codecs.arrays.DoubleArrayCodec;
-import com.google.common.base.Functions;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Table;
-import com.google.common.primitives.Doubles;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.MoreExecutors;
 import gms.shared.frameworks.coi.exceptions.RepositoryException;
 import gms.shared.frameworks.coi.exceptions.StorageUnavailableException;
 import gms.shared.frameworks.osd.coi.waveforms.FkSpectra;
+import gms.shared.frameworks.osd.coi.waveforms.FkSpectrum;
 import gms.shared.frameworks.osd.coi.waveforms.Waveform;
 import gms.shared.frameworks.osd.coi.waveforms.repository.jpa.FkSpectraDao;
 import gms.shared.frameworks.osd.coi.waveforms.repository.jpa.FkSpectrumDao;
 import gms.shared.frameworks.osd.control.utils.CassandraConfig;
 import gms.shared.frameworks.osd.control.utils.CassandraUtility;
-import gms.shared.frameworks.osd.control.utils.WaveformOverlapResolver;
+import gms.shared.frameworks.osd.control.utils.WaveformSampleCodec;
+import gms.shared.frameworks.osd.control.utils.WaveformSweepResolver;
 import net.jodah.failsafe.Failsafe;
 import net.jodah.failsafe.RetryPolicy;
 import net.jodah.failsafe.function.CheckedSupplier;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -51,51 +60,139 @@ public class TimeseriesRepositoryCassandra {
   // cassandra schema constants
   private static final String KEYSPACE = "gms_timeseries_data";
   static final String WAVEFORMS_TABLE = KEYSPACE + "." + "new_waveforms";
+  static final String WAVEFORMS_V2_TABLE = KEYSPACE + "." + "waveforms_v2";
   static final String FKSPECTRA_TABLE = KEYSPACE + "." + "fk_spectra";
 
   private static final int DOUBLES_PER_BLOCK = 100_000;
   private static final long BILLION = 1_000_000_000L;
 
+  static final int DEFAULT_MAX_IN_FLIGHT_WRITES = 64;
+  static final int DEFAULT_MAX_IN_FLIGHT_READS = 128;
+
+  private static final DoubleArrayCodec DOUBLE_ARRAY_CODEC = new DoubleArrayCodec();
+
   private static final Logger logger = LoggerFactory.getLogger(TimeseriesRepositoryCassandra.class);
 
   private final Session session;
+  private final boolean compressSamples;
+  private final int maxInFlightWrites;
+  private final Instant legacyWaveformsCutoff;
+  private final CassandraQueryWindow reads;
+  private final ExecutorService decodeExecutor;
   private final PreparedStatement preparedWaveformsQuery;
-  private final PreparedStatement preparedWaveformsInsert;
+  private final PreparedStatement preparedWaveformsV2Query;
+  private final PreparedStatement preparedWaveformsV2Insert;
   private final PreparedStatement preparedFkQuery;
   private final PreparedStatement preparedFkInsert;
 
-  private TimeseriesRepositoryCassandra(CassandraConfig cassandraConfig) {
+  private TimeseriesRepositoryCassandra(CassandraConfig cassandraConfig, boolean compressSamples,
+      int maxInFlightWrites, int maxInFlightReads, Instant legacyWaveformsCutoff) {
     this.session = getWithRetry(cassandraConfig::getConnection,
         "Failed to initialize cassandra session, will try again");
     logger.debug("session:\nstate: {}\ncluster: {} ", session.getState(), session.getCluster());
-    this.preparedWaveformsQuery = waveformQueryStatement(this.session);
-    this.preparedWaveformsInsert = waveformInsertStatement(this.session);
+    this.compressSamples = compressSamples;
+    this.maxInFlightWrites = maxInFlightWrites;
+    this.legacyWaveformsCutoff = legacyWaveformsCutoff;
+    this.reads = new CassandraQueryWindow(maxInFlightReads);
+    // Results complete on the driver's I/O threads, so they are decoded on threads of their own
+    this.decodeExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+        new ThreadFactoryBuilder()
+            .setNameFormat("timeseries-decode-%d")
+            .setDaemon(true)
+            .build());
+    this.preparedWaveformsQuery = waveformQueryStatement(this.session, WAVEFORMS_TABLE);
+    this.preparedWaveformsV2Query = waveformQueryStatement(this.session, WAVEFORMS_V2_TABLE);
+    this.preparedWaveformsV2Insert = waveformV2InsertStatement(this.session);
     this.preparedFkQuery = fkQueryStatement(this.session);
     this.preparedFkInsert = fkInsertStatement(this.session);
   }
 
   public static TimeseriesRepositoryCassandra create(CassandraConfig cassandraConfig) {
-    return new TimeseriesRepositoryCassandra(cassandraConfig);
+    return create(cassandraConfig, false, DEFAULT_MAX_IN_FLIGHT_WRITES,
+        DEFAULT_MAX_IN_FLIGHT_READS);
+  }
+
+  /**
+   * Creates a TimeseriesRepositoryCassandra
+   *
+   * @param cassandraConfig the connection to Cassandra
+   * @param compressSamples whether to deflate the waveform samples that are stored
+   * @param maxInFlightWrites how many waveform block writes may be in flight at once, per call to
+   * {@link #storeWaveforms(List, String)}
+   * @param maxInFlightReads how many waveform queries, for one channel and day, may be in flight
+   * at once across every waveform retrieval
+   * @return a TimeseriesRepositoryCassandra
+   */
+  public static TimeseriesRepositoryCassandra create(CassandraConfig cassandraConfig,
+      boolean compressSamples, int maxInFlightWrites, int maxInFlightReads) {
+    return create(cassandraConfig, compressSamples, maxInFlightWrites, maxInFlightReads,
+        Instant.MAX);
+  }
+
+  /**
+   * Creates a TimeseriesRepositoryCassandra that only reads the days of waveforms before the
+   * given cutoff from the original waveforms table as well as the waveforms_v2 table
+   *
+   * @param legacyWaveformsCutoff the time from which no waveform blocks were stored in the
+   * original waveforms table, so that the days at or after it are read only from waveforms_v2.
+   * {@link Instant#MAX} reads every day from both tables.
+   * @see #create(CassandraConfig, boolean, int, int)
+   */
+  public static TimeseriesRepositoryCassandra create(CassandraConfig cassandraConfig,
+      boolean compressSamples, int maxInFlightWrites, int maxInFlightReads,
+      Instant legacyWaveformsCutoff) {
+    Objects.requireNonNull(cassandraConfig);
+    Objects.requireNonNull(legacyWaveformsCutoff);
+    Validate.isTrue(maxInFlightWrites > 0, "maxInFlightWrites must be positive");
+    Validate.isTrue(maxInFlightReads > 0, "maxInFlightReads must be positive");
+    return new TimeseriesRepositoryCassandra(cassandraConfig, compressSamples, maxInFlightWrites,
+        maxInFlightReads, legacyWaveformsCutoff);
   }
 
   public void close() {
     if (!session.isClosed()) {
       session.close();
     }
+    decodeExecutor.shutdown();
   }
 
   public Map<String, List<Waveform>> retrieveWaveformsByChannelAndTime(
       Collection<String> channelNames,
       Instant startTime,
       Instant endTime) {
+    return join(retrieveWaveformsByChannelAndTimeAsync(channelNames, startTime, endTime));
+  }
+
+  /**
+   * Retrieves the Waveforms of each of the provided channels within the provided time range. The
+   * queries for every channel and day are issued at once, up to the maxInFlightReads limit of this
+   * repository, and the returned future completes once all of them have.
+   *
+   * @param channelNames The names of the channels associated with the waveforms
+   * @param startTime The start time of the waveforms to retrieve
+   * @param endTime The end time of the waveforms to retrieve
+   * @return A future of the Waveforms of each channel, by channel name, which completes
+   * exceptionally with a {@link StorageUnavailableException} or {@link RepositoryException} if a
+   * query fails
+   */
+  public CompletableFuture<Map<String, List<Waveform>>> retrieveWaveformsByChannelAndTimeAsync(
+      Collection<String> channelNames,
+      Instant startTime,
+      Instant endTime) {
     Validate.notNull(channelNames);
     Validate.notNull(startTime);
     Validate.notNull(endTime);
 
     logger.debug("Finding waveforms by channel name and time");
 
-    return channelNames.stream().collect(Collectors.toMap(Function.identity(),
-        c -> retrieveWaveformsByTime(c, startTime, endTime)));
+    Map<String, CompletableFuture<List<Waveform>>> waveformsByChannel = channelNames.stream()
+        .collect(Collectors.toMap(Function.identity(),
+            c -> retrieveWaveformsByTimeAsync(c, startTime, endTime)));
+
+    return CompletableFuture.allOf(waveformsByChannel.values().toArray(CompletableFuture[]::new))
+        .thenApplyAsync(completed -> waveformsByChannel.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().join())),
+            decodeExecutor);
   }
 
   /**
@@ -110,6 +207,23 @@ public class TimeseriesRepositoryCassandra {
   public List<Waveform> retrieveWaveformsByTime(String channelName,
       Instant startTime,
       Instant endTime) {
+    return join(retrieveWaveformsByTimeAsync(channelName, startTime, endTime));
+  }
+
+  /**
+   * Retrieves the Waveforms associated with the provided time and channel, querying every day in
+   * the time range at once
+   *
+   * @param channelName The name of the channel associated with the waveform
+   * @param startTime The start time of the waveforms to retrieve
+   * @param endTime The end time of the waveforms to retrieve
+   * @return A future of the Waveforms from the provided channel bounded by the provided start and
+   * end times, which completes exceptionally with a {@link StorageUnavailableException} or
+   * {@link RepositoryException} if a query fails
+   */
+  public CompletableFuture<List<Waveform>> retrieveWaveformsByTimeAsync(String channelName,
+      Instant startTime,
+      Instant endTime) {
 
     Objects.requireNonNull(channelName);
     Objects.requireNonNull(startTime);
@@ -117,253 +231,258 @@ public class TimeseriesRepositoryCassandra {
     Preconditions.checkState(startTime.isBefore(endTime),
         "Cannot retrieve waveforms when start time is after end time");
 
-    return WaveformOverlapResolver.resolve(queryWaveforms(channelName, startTime, endTime).entrySet()
-        .stream()
-        .map(entry -> Map.entry(entry.getKey().trim(startTime, endTime), entry.getValue()))
-        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+    List<CompletableFuture<Map<Waveform, Instant>>> queries =
+        createWaveformQueries(channelName, startTime, endTime);
+
+    return CompletableFuture.allOf(queries.toArray(CompletableFuture[]::new))
+        .thenApplyAsync(completed -> {
+          Map<Waveform, Instant> waveformsByStorageTime = new HashMap<>();
+          queries.forEach(query -> waveformsByStorageTime.putAll(query.join()));
+          return WaveformSweepResolver.resolve(waveformsByStorageTime.entrySet()
+              .stream()
+              .map(entry -> Map.entry(entry.getKey().trim(startTime, endTime), entry.getValue()))
+              .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+        }, decodeExecutor);
   }
 
   /**
-   * Populates the provided {@link FkSpectraDao} with the timeseries data
+   * Populates the provided {@link FkSpectraDao}s with their power and fstat values
    *
    * @param fkSpectraDaos The {@link FkSpectraDao}s with the appropriate FkSpectrum data
-   * @return =
+   * @return The {@link FkSpectra} of each of the provided DAOs, in the same order
    */
   public List<FkSpectra> populateFkSpectra(List<FkSpectraDao> fkSpectraDaos) {
-    Objects.requireNonNull(fkSpectraDaos);
-
-    Map<FkSpectrumDao, ResultSetFuture> callbacks = fkSpectraDaos.stream()
-        .flatMap(fkSpectraDao -> fkSpectraDao.getValues().stream())
-        .collect(Collectors.toMap(Functions.identity(), this::createSpectrumStatement));
-    DoubleArrayCodec codec = new DoubleArrayCodec();
-    while (!callbacks.isEmpty()) {
-      for (Iterator<Map.Entry<FkSpectrumDao, ResultSetFuture>> fkIterator =
-           callbacks.entrySet().iterator(); fkIterator.hasNext(); ) {
-        Map.Entry<FkSpectrumDao, ResultSetFuture> callback = fkIterator.next();
-
-        if (callback.getValue().isDone()) {
-          try {
-            callback.getValue().get().forEach(row -> {
-              // Deserialize the power and fstat arrays from the ResultSetFuture
-              callback.getKey().setPower(unflattenArray(
-                  codec.deserialize(row.getBytes("power"),
-                      ProtocolVersion.NEWEST_SUPPORTED),
-                  row.getInt("samples_d1_size"),
-                  row.getInt("samples_d2_size")));
-              callback.getKey().setFstat(unflattenArray(
-                  codec.deserialize(row.getBytes("fstat"),
-                      ProtocolVersion.NEWEST_SUPPORTED),
-                  row.getInt("samples_d1_size"),
-                  row.getInt("samples_d2_size")));
-            });
-          } catch (InterruptedException | ExecutionException ex) {
-            throw new RuntimeException(ex);
-          }
+    return join(populateFkSpectraAsync(fkSpectraDaos));
+  }
 
-          fkIterator.remove();
-        }
-      }
-    }
+  /**
+   * Populates the provided {@link FkSpectraDao}s with their power and fstat values, querying every
+   * spectrum at once, up to the maxInFlightReads limit of this repository. The values are read
+   * straight into the {@link FkSpectrum}s returned, and are not set on the DAOs.
+   *
+   * @param fkSpectraDaos The {@link FkSpectraDao}s with the appropriate FkSpectrum data
+   * @return A future of the {@link FkSpectra} of each of the provided DAOs, in the same order,
+   * which completes exceptionally with a {@link StorageUnavailableException} or
+   * {@link RepositoryException} if a query fails
+   */
+  public CompletableFuture<List<FkSpectra>> populateFkSpectraAsync(
+      List<FkSpectraDao> fkSpectraDaos) {
+    Objects.requireNonNull(fkSpectraDaos);
 
-    return fkSpectraDaos.stream()
-        .map(FkSpectraDao::toCoi)
+    List<List<CompletableFuture<FkSpectrum>>> spectraQueries = fkSpectraDaos.stream()
+        .map(fkSpectraDao -> fkSpectraDao.getValues().stream()
+            .map(this::retrieveSpectrum)
+            .collect(Collectors.toList()))
         .collect(Collectors.toList());
+
+    return CompletableFuture.allOf(spectraQueries.stream()
+        .flatMap(List::stream)
+        .toArray(CompletableFuture[]::new))
+        .thenApplyAsync(completed -> {
+          List<FkSpectra> fkSpectras = new ArrayList<>(fkSpectraDaos.size());
+          for (int i = 0; i < fkSpectraDaos.size(); i++) {
+            fkSpectras.add(fkSpectraDaos.get(i).toCoi(spectraQueries.get(i).stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList())));
+          }
+          return fkSpectras;
+        }, decodeExecutor);
   }
 
   /**
-   * Store the provided @{link Waveform} data under the provided channel name
+   * Store the provided @{link Waveform} data under the provided channel name.
+   * <p>
+   * Each waveform is broken into blocks that are written to {@value #WAVEFORMS_V2_TABLE} with
+   * their samples encoded by {@link WaveformSampleCodec}. At most maxInFlightWrites blocks are
+   * written at once, and this method blocks until every write has completed.
    *
    * @param waveforms The @{link Waveform} data to store
    * @param channelName The channel name to store it under
+   * @throws StorageUnavailableException if Cassandra can not be reached
+   * @throws RepositoryException if a block could not be written
    */
   public void storeWaveforms(List<Waveform> waveforms, String channelName) {
     Objects.requireNonNull(waveforms);
     Objects.requireNonNull(channelName);
 
-    Collection<ResultSetFuture> futures = new ArrayList<>();
-    for (Waveform waveform : waveforms) {
-      List<Waveform> brokenDownWaveforms = breakIntoBlocks(waveform);
-
-      for (Waveform brokenWaveform : brokenDownWaveforms) {
-        LocalDate waveformDate =
-            LocalDate.fromMillisSinceEpoch(brokenWaveform.getStartTime().toEpochMilli());
-        List<Double> samples = Doubles.asList(brokenWaveform.getValues());
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    long startCpuNanos = threads.getCurrentThreadCpuTime();
+    long startNanos = System.nanoTime();
 
-        logger.debug("store waveforms preparedWaveformInsert prepared Id{}, routingKey {}",
-            preparedWaveformsInsert.getPreparedId(), preparedWaveformsInsert.getRoutingKey());
+    InFlightWrites writes = new InFlightWrites();
+    long blocks = 0;
+    long sampleBytes = 0;
+    writing:
+    for (Waveform waveform : waveforms) {
+      for (Waveform block : breakIntoBlocks(waveform)) {
+        ByteBuffer samples = WaveformSampleCodec.encode(block.getValues(), compressSamples);
 
-        // Bind the prepared query for inserting waveforms to the data for the current waveform
-        BoundStatement statement = preparedWaveformsInsert.bind()
+        // Bind the prepared query for inserting waveforms to the data for the current block
+        BoundStatement statement = preparedWaveformsV2Insert.bind()
             .setString("c", channelName)
-            .setDate("d", waveformDate)
-            .setLong("st", CassandraUtility.toEpochNano(brokenWaveform.getStartTime()))
-            .setLong("e", CassandraUtility.toEpochNano(brokenWaveform.getEndTime()))
-            .setLong("sc", brokenWaveform.getSampleCount())
-            .setDouble("sr", brokenWaveform.getSampleRate())
-            .setList("s", samples);
-
-        futures.add(session.executeAsync(statement));
-      }
-    }
-
-    List<ResultSetFuture> futuresToRemove = new ArrayList<>();
-    while (!futures.isEmpty()) {
-      for (ResultSetFuture result : futures) {
-        if (result.isDone()) {
-          try {
-            result.getUninterruptibly();
-          } catch (NoHostAvailableException e) {
-            throw new StorageUnavailableException(e);
-          } catch (QueryExecutionException | QueryValidationException e) {
-            throw new RepositoryException(e);
-          }
-          futuresToRemove.add(result);
+            .setDate("d", LocalDate.fromMillisSinceEpoch(block.getStartTime().toEpochMilli()))
+            .setLong("st", CassandraUtility.toEpochNano(block.getStartTime()))
+            .setLong("e", CassandraUtility.toEpochNano(block.getEndTime()))
+            .setLong("sc", block.getSampleCount())
+            .setDouble("sr", block.getSampleRate())
+            .setBytes("s", samples);
+
+        if (!writes.execute(statement)) {
+          break writing;
         }
-      }
 
-      futures.removeAll(futuresToRemove);
+        blocks++;
+        sampleBytes += samples.remaining();
+      }
+    }
+    writes.await();
+
+    if (logger.isDebugEnabled()) {
+      long elapsedNanos = System.nanoTime() - startNanos;
+      logger.debug("Stored {} waveform blocks ({} sample bytes) for {} in {} ms, {} blocks/s,"
+              + " {} ms cpu",
+          blocks, sampleBytes, channelName, elapsedNanos / 1_000_000,
+          elapsedNanos == 0 ? 0 : blocks * BILLION / elapsedNanos,
+          (threads.getCurrentThreadCpuTime() - startCpuNanos) / 1_000_000);
     }
   }
 
   /**
    * Store the power and fstat arrays from the provided {@link FkSpectraDao}
+   * <p>
+   * Each spectrum is written asynchronously, with its arrays serialized row by row by
+   * {@link FkSamplesCodec}. At most maxInFlightWrites spectra are written at once, and this method
+   * blocks until every write has completed.
    *
    * @param spectras the Collection of {@link FkSpectraDao} to store data for
+   * @throws StorageUnavailableException if Cassandra can not be reached
+   * @throws RepositoryException if a spectrum could not be written
    */
   public void storeFk(Collection<FkSpectraDao> spectras) {
     Validate.notEmpty(spectras);
 
-    try {
-      for (FkSpectraDao spectra : spectras) {
-        DoubleArrayCodec codec = new DoubleArrayCodec();
-        for (FkSpectrumDao spectrum : spectra.getValues()) {
-          double[] flattenedPower = flattenArray(spectrum.getPower());
-          double[] flattenedFstat = flattenArray(spectrum.getFstat());
-
-          UUID storageId = UUID.randomUUID();
-          spectrum.setSampleStorageId(storageId);
-
-          // Bind the prepared FkSpectra insert query to the current data
-          BoundStatement statement = preparedFkInsert.bind()
-              .setUUID("id", storageId)
-              .setBytes("pow", codec.serialize(flattenedPower, ProtocolVersion.NEWEST_SUPPORTED))
-              .setBytes("fst", codec.serialize(flattenedFstat, ProtocolVersion.NEWEST_SUPPORTED))
-              .setInt("d1", spectrum.getPower().length)
-              .setInt("d2", spectrum.getPower()[0].length);
-          session.execute(statement);
+    InFlightWrites writes = new InFlightWrites();
+    writing:
+    for (FkSpectraDao spectra : spectras) {
+      for (FkSpectrumDao spectrum : spectra.getValues()) {
+        UUID storageId = UUID.randomUUID();
+        spectrum.setSampleStorageId(storageId);
+
+        // Bind the prepared FkSpectra insert query to the current data
+        BoundStatement statement = preparedFkInsert.bind()
+            .setUUID("id", storageId)
+            .setBytes("pow", FkSamplesCodec.serialize(spectrum.getPower()))
+            .setBytes("fst", FkSamplesCodec.serialize(spectrum.getFstat()))
+            .setInt("d1", spectrum.getPower().length)
+            .setInt("d2", spectrum.getPower()[0].length);
+
+        if (!writes.execute(statement)) {
+          break writing;
         }
       }
-    } catch (NoHostAvailableException e) {
-      throw new StorageUnavailableException(e);
-    } catch (QueryExecutionException | QueryValidationException e) {
-      throw new RepositoryException(e);
     }
+    writes.await();
   }
 
-  private ResultSetFuture createSpectrumStatement(FkSpectrumDao fkSpectrumDao) {
+  private CompletableFuture<FkSpectrum> retrieveSpectrum(FkSpectrumDao fkSpectrumDao) {
     BoundStatement statement = preparedFkQuery.bind()
         .setUUID("id", fkSpectrumDao.getSampleStorageId());
-    return session.executeAsync(statement);
-  }
 
-  private Map<Waveform, Instant> queryWaveforms(String channelName, Instant start, Instant end) {
-    return handleCompletedCallbacks(createWaveformQuery(channelName, start, end), channelName);
+    return reads.submit(() ->
+        CassandraQueryWindow.toCompletableFuture(session.executeAsync(statement)))
+        .thenApplyAsync(results -> {
+          Row row = results.one();
+          if (row == null) {
+            throw new RepositoryException(
+                "No FK spectrum values stored for " + fkSpectrumDao.getSampleStorageId());
+          }
+
+          // Deserialize the power and fstat arrays straight from the row
+          int rowCount = row.getInt("samples_d1_size");
+          int columnCount = row.getInt("samples_d2_size");
+          return fkSpectrumDao.toCoi(
+              FkSamplesCodec.deserialize(row.getBytes("power"), rowCount, columnCount),
+              FkSamplesCodec.deserialize(row.getBytes("fstat"), rowCount, columnCount));
+        }, decodeExecutor);
   }
 
-  private Table<String, Waveform, Instant> handleCompletedCallback(
-      ResultSetFuture callback) {
-    Table<String, Waveform, Instant> waveformsByStorageTime = HashBasedTable.create();
-    try {
-      for (Row row : callback.get()) {
-        Instant start = CassandraUtility.fromEpochNano(row.getLong("start_epoch_nano"));
-        double sampleRate = row.getDouble("sample_rate");
-        String channelName = row.getString("channel_name");
-        double[] values = row.getList("samples", Double.class).stream()
-            .mapToDouble(d -> d)
-            .toArray();
-
-        // Build the initial waveform and add it to the collection that will be resolved
-        Waveform waveform = Waveform.from(start, sampleRate, values);
-        waveformsByStorageTime
-            .put(channelName, waveform, row.getTimestamp("storage_time").toInstant());
+  private List<CompletableFuture<Map<Waveform, Instant>>> createWaveformQueries(
+      String channelName, Instant startTime, Instant endTime) {
+    List<CompletableFuture<Map<Waveform, Instant>>> queries = new ArrayList<>();
+    for (LocalDate date : CassandraUtility.getCassandraDays(startTime, endTime)) {
+      // Blocks stored before the waveforms_v2 table are still read from the original table, for
+      // the days before the cutoff
+      Instant dayStart = Instant.ofEpochMilli(date.getMillisSinceEpoch());
+      List<PreparedStatement> dayQueries = dayStart.isBefore(legacyWaveformsCutoff)
+          ? List.of(preparedWaveformsQuery, preparedWaveformsV2Query)
+          : List.of(preparedWaveformsV2Query);
+
+      for (PreparedStatement query : dayQueries) {
+        BoundStatement statement = query.bind()
+            .setString("c", channelName)
+            .setDate("d", date)
+            .setLong("s", CassandraUtility.toEpochNano(startTime))
+            .setLong("e", CassandraUtility.toEpochNano(endTime));
+
+        queries.add(reads.submit(() ->
+            CassandraQueryWindow.toCompletableFuture(session.executeAsync(statement))
+                .thenComposeAsync(results -> readWaveforms(results, new HashMap<>()),
+                    decodeExecutor)));
       }
-    } catch (InterruptedException | ExecutionException ex) {
-      throw new RuntimeException(ex);
     }
 
-    return waveformsByStorageTime;
+    return queries;
   }
 
-  private Map<Waveform, Instant> handleCompletedCallbacks(
-      Collection<ResultSetFuture> callbacks, String channelName) {
-    final Map<Waveform, Instant> waveformsByStorageTime = new HashMap<>();
-    while (!callbacks.isEmpty()) {
-      List<ResultSetFuture> callbacksToRemove = new ArrayList<>();
-      for (ResultSetFuture callback : callbacks) {
-        if (callback.isDone()) {
-          callbacksToRemove.add(callback);
+  /**
+   * Reads the waveforms from the rows of the results, fetching any further pages asynchronously.
+   * Each page is decoded on the decode executor.
+   */
+  private CompletableFuture<Map<Waveform, Instant>> readWaveforms(ResultSet results,
+      Map<Waveform, Instant> waveformsByStorageTime) {
 
-          waveformsByStorageTime.putAll(handleCompletedCallback(callback).row(channelName));
-        }
-      }
+    for (int rows = results.getAvailableWithoutFetching(); rows > 0; rows--) {
+      Row row = results.one();
+      Instant start = CassandraUtility.fromEpochNano(row.getLong("start_epoch_nano"));
+      double sampleRate = row.getDouble("sample_rate");
 
-      callbacks.removeAll(callbacksToRemove);
+      // Build the initial waveform and add it to the collection that will be resolved
+      Waveform waveform = Waveform.from(start, sampleRate, getSamples(row));
+      waveformsByStorageTime.put(waveform, row.getTimestamp("storage_time").toInstant());
     }
-    return waveformsByStorageTime;
-  }
-
-  private List<ResultSetFuture> createWaveformQuery(String channelName, Instant startTime,
-      Instant endTime) {
-    List<ResultSetFuture> callbacks = new ArrayList<>();
-    for (LocalDate date : CassandraUtility.getCassandraDays(startTime, endTime)) {
-      BoundStatement statement = preparedWaveformsQuery.bind()
-          .setString("c", channelName)
-          .setDate("d", date)
-          .setLong("s", CassandraUtility.toEpochNano(startTime))
-          .setLong("e", CassandraUtility.toEpochNano(endTime));
 
-      callbacks.add(session.executeAsync(statement));
+    if (results.isFullyFetched()) {
+      return CompletableFuture.completedFuture(waveformsByStorageTime);
     }
 
-    return callbacks;
+    return CassandraQueryWindow.toCompletableFuture(results.fetchMoreResults())
+        .thenComposeAsync(more -> readWaveforms(more, waveformsByStorageTime), decodeExecutor);
   }
 
   /**
-   * 'Flatten' a 2d double array into a 1d double array to be stored into Cassandra
-   *
-   * @param array Array to be 'flattened'
-   * @return A 'flattened' 1d double array
+   * @return The samples of a row of either waveforms table, which are a blob in waveforms_v2 and a
+   * list of doubles in the original table, decoded straight into a double[]
    */
-  private static double[] flattenArray(double[][] array) {
-    double[] newArray = new double[array.length * array[0].length];
-    int index = 0;
-
-    for (int i = 0; i < array.length; i++) {
-      System.arraycopy(array[i], 0, newArray, index, array[i].length);
-      index += array[i].length;
+  private static double[] getSamples(Row row) {
+    if (row.getColumnDefinitions().getType("samples").getName() == DataType.Name.BLOB) {
+      return WaveformSampleCodec.decode(row.getBytes("samples"));
     }
 
-    return newArray;
+    return row.get("samples", DOUBLE_ARRAY_CODEC);
   }
 
   /**
-   * 'Unflatten' a 1d double array read from Cassandra into a 2d double array
-   *
-   * @param array Array to be 'unflattened'
-   * @param d1Size The size of the outer dimension of the resulting 2d array
-   * @param d2Size The size of the inner dimension of the resulting 2d array
-   * @return An 'unflattened' 2d double array
+   * Waits for the future, rethrowing the repository exception it failed with
    */
-  private static double[][] unflattenArray(double[] array, int d1Size, int d2Size) {
-    double[][] newArray = new double[d1Size][d2Size];
-
-    for (int i = 0; i < d1Size; i++) {
-      for (int j = 0; j < d2Size; j++) {
-        newArray[i][j] = array[j + i * d2Size];
+  private static <T> T join(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
       }
+      throw new RepositoryException(e.getCause());
     }
-
-    return newArray;
   }
 
   private static List<Waveform> breakIntoBlocks(Waveform waveform) {
@@ -399,11 +518,11 @@ public class TimeseriesRepositoryCassandra {
         this will give us all the blocks until the start time no longer matches the criteria
   */
 
-  private static PreparedStatement waveformQueryStatement(Session sesh) {
+  private static PreparedStatement waveformQueryStatement(Session sesh, String table) {
     return getWithRetry(() -> sesh.prepare(
         "SELECT channel_name, start_epoch_nano, end_epoch_nano, sample_count, sample_rate, " +
             "samples, storage_time "
-            + "FROM " + WAVEFORMS_TABLE
+            + "FROM " + table
             + " WHERE channel_name = :c AND date = :d AND start_epoch_nano <= :e AND " +
             "end_epoch_nano >= :s"
             + " "
@@ -412,9 +531,9 @@ public class TimeseriesRepositoryCassandra {
         "Failed to initialize prepared waveforms query, will try again");
   }
 
-  private static PreparedStatement waveformInsertStatement(Session sesh) {
+  private static PreparedStatement waveformV2InsertStatement(Session sesh) {
     return getWithRetry(() -> sesh.prepare(
-        "INSERT INTO " + WAVEFORMS_TABLE
+        "INSERT INTO " + WAVEFORMS_V2_TABLE
             + "(channel_name, date, start_epoch_nano, end_epoch_nano, sample_count, " +
             "sample_rate, " +
             "samples, storage_time) "
@@ -440,6 +559,72 @@ public class TimeseriesRepositoryCassandra {
         "Failed to initialize prepared fk insert, will try again");
   }
 
+  /**
+   * Executes writes asynchronously, making the calling thread wait while maxInFlightWrites writes
+   * are in flight. Once a write fails, including failing to be executed at all, no further writes
+   * are executed.
+   */
+  private class InFlightWrites {
+
+    private final Semaphore inFlight = new Semaphore(maxInFlightWrites);
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * @return false, without executing the statement, if an earlier write has failed, or if the
+     * statement could not be executed
+     */
+    private boolean execute(Statement statement) {
+      inFlight.acquireUninterruptibly();
+      if (failure.get() != null) {
+        inFlight.release();
+        return false;
+      }
+
+      ResultSetFuture write;
+      try {
+        write = session.executeAsync(statement);
+      } catch (RuntimeException e) {
+        // The write never started, so its permit would otherwise never be returned
+        failure.compareAndSet(null, e);
+        inFlight.release();
+        return false;
+      }
+
+      Futures.addCallback(write, new FutureCallback<ResultSet>() {
+        @Override
+        public void onSuccess(ResultSet result) {
+          inFlight.release();
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+          failure.compareAndSet(null, t);
+          inFlight.release();
+        }
+      }, MoreExecutors.directExecutor());
+      return true;
+    }
+
+    /**
+     * Waits for every write to complete
+     *
+     * @throws StorageUnavailableException if Cassandra could not be reached
+     * @throws RepositoryException if a write failed
+     */
+    private void await() {
+      // Every permit is only returned once the writes have all completed
+      inFlight.acquireUninterruptibly(maxInFlightWrites);
+      inFlight.release(maxInFlightWrites);
+
+      Throwable t = failure.get();
+      if (t instanceof NoHostAvailableException) {
+        throw new StorageUnavailableException(t);
+      } else if (t != null) {
+        throw new RepositoryException(t);
+      }
+    }
+  }
+
   private static <T> T getWithRetry(CheckedSupplier<T> f, String failureMsg) {
     final RetryPolicy<T> retryPolicy = new RetryPolicy<T>()
         .withBackoff(50, 1000, ChronoUnit.MILLIS)
@@ -36,6 +36,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -296,9 +297,9 @@ class ChannelSegmentsRepositoryJpaTest {
               channelSegment.getStartTime(),
               channelSegment.getEndTime());
 
-      willReturn(channelSegment.getTimeseries())
+      willReturn(CompletableFuture.completedFuture(channelSegment.getTimeseries()))
           .given(mockTimeseriesRepository)
-          .retrieveWaveformsByTime(channelSegment.getChannel().getCanonicalName(),
+          .retrieveWaveformsByTimeAsync(channelSegment.getChannel().getCanonicalName(),
               channelSegment.getStartTime(), channelSegment.getEndTime());
 
       requests.add(request);
@@ -350,9 +351,9 @@ class ChannelSegmentsRepositoryJpaTest {
         channelSegment1Expected);
     requestsByChannel.put(request1.getChannelName(), request1);
 
-    willReturn(List.of(waveform1Trimmed))
+    willReturn(CompletableFuture.completedFuture(List.of(waveform1Trimmed)))
         .given(mockTimeseriesRepository)
-        .retrieveWaveformsByTime(TestFixtures.channel1.getCanonicalName(),
+        .retrieveWaveformsByTimeAsync(TestFixtures.channel1.getCanonicalName(),
             request1.getTimeRange().getStartTime(),
             request1.getTimeRange().getEndTime());
 
@@ -382,9 +383,9 @@ class ChannelSegmentsRepositoryJpaTest {
         channelSegment2Expected);
     requestsByChannel.put(request2.getChannelName(), request2);
 
-    willReturn(List.of(waveform2Trimmed))
+    willReturn(CompletableFuture.completedFuture(List.of(waveform2Trimmed)))
         .given(mockTimeseriesRepository)
-        .retrieveWaveformsByTime(TestFixtures.channel2.getCanonicalName(),
+        .retrieveWaveformsByTimeAsync(TestFixtures.channel2.getCanonicalName(),
             request2.getTimeRange().getStartTime(),
             request2.getTimeRange().getEndTime());
 
@@ -0,0 +1,105 @@
+package gms.shared.frameworks.osd.control.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gms.shared.frameworks.osd.coi.waveforms.Waveform;
+import gms.shared.frameworks.osd.coi.waveforms.util.TimeseriesUtility;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class WaveformDecimatorTests {
+
+  private static final Instant START = Instant.EPOCH;
+  private static final Instant END = Instant.EPOCH.plusSeconds(100);
+
+  @Test
+  void testDecimateReturnsSparseWaveformsAsIs() {
+    final List<Waveform> waveforms = List.of(
+        Waveform.from(START, 1.0, new double[10]),
+        Waveform.from(START.plusSeconds(50), 1.0, new double[10]));
+
+    assertSame(waveforms, WaveformDecimator.decimate(waveforms, START, END, 10));
+    assertSame(waveforms, WaveformDecimator.decimate(waveforms, START, START, 1));
+  }
+
+  @Test
+  void testDecimate() {
+    final double[] rising = IntStream.range(0, 100).asDoubleStream().toArray();
+    final double[] falling = IntStream.range(0, 100).map(i -> -i).asDoubleStream().toArray();
+
+    final List<Waveform> decimatedRising = WaveformDecimator
+        .decimate(List.of(Waveform.from(START, 1.0, rising)), START, END, 10);
+    assertEquals(1, decimatedRising.size());
+    assertEquals(START, decimatedRising.get(0).getStartTime());
+    assertEquals(0.2, decimatedRising.get(0).getSampleRate());
+    assertArrayEquals(new double[]{0, 9, 10, 19, 20, 29, 30, 39, 40, 49, 50, 59, 60, 69, 70, 79,
+        80, 89, 90, 99}, decimatedRising.get(0).getValues());
+
+    // The extremes of each bucket are kept in the order they occur
+    final List<Waveform> decimatedFalling = WaveformDecimator
+        .decimate(List.of(Waveform.from(START, 1.0, falling)), START, END, 5);
+    assertArrayEquals(new double[]{0, -19, -20, -39, -40, -59, -60, -79, -80, -99},
+        decimatedFalling.get(0).getValues());
+  }
+
+  @Test
+  void testDecimateJoinsWaveformsUnlessABucketIsEmpty() {
+    // wf2 starts within a bucket of the end of wf1, and wf3 starts after an empty bucket
+    final Waveform wf1 = Waveform.from(START, 1.0, new double[30]);
+    final Waveform wf2 = Waveform.from(START.plusSeconds(33), 1.0, new double[25]);
+    final Waveform wf3 = Waveform.from(START.plusSeconds(75), 1.0, new double[25]);
+
+    final List<Waveform> decimated = WaveformDecimator
+        .decimate(List.of(wf1, wf2, wf3), START, END, 20);
+    assertEquals(2, decimated.size());
+    assertEquals(START, decimated.get(0).getStartTime());
+    assertEquals(2 * 12, decimated.get(0).getSampleCount());
+    assertEquals(wf3.getStartTime(), decimated.get(1).getStartTime());
+    assertEquals(2 * 5, decimated.get(1).getSampleCount());
+    assertTrue(TimeseriesUtility.noneOverlapped(decimated));
+  }
+
+  @Test
+  void testDecimateKeepsEnvelope() {
+    final Random random = new Random(13);
+    final Waveform waveform = Waveform.from(START.plusMillis(12), 40.0,
+        random.doubles(3_600 * 40).map(value -> value * 2 - 1).toArray());
+    final Instant end = START.plusSeconds(3_600);
+    final int bucketCount = 1_700;
+
+    final List<Waveform> decimated = WaveformDecimator
+        .decimate(List.of(waveform), START, end, bucketCount);
+    assertEquals(1, decimated.size());
+    assertEquals(waveform.getStartTime(), decimated.get(0).getStartTime());
+    assertEquals(2 * bucketCount, decimated.get(0).getSampleCount());
+    assertTrue(!decimated.get(0).getEndTime().isAfter(end));
+    assertEquals(Arrays.stream(waveform.getValues()).min().getAsDouble(),
+        Arrays.stream(decimated.get(0).getValues()).min().getAsDouble());
+    assertEquals(Arrays.stream(waveform.getValues()).max().getAsDouble(),
+        Arrays.stream(decimated.get(0).getValues()).max().getAsDouble());
+  }
+
+  @Test
+  void testDecimateValidation() {
+    final List<Waveform> waveforms = List.of(Waveform.from(START, 1.0, new double[10]));
+
+    assertThrows(NullPointerException.class,
+        () -> WaveformDecimator.decimate(null, START, END, 10));
+    assertThrows(NullPointerException.class,
+        () -> WaveformDecimator.decimate(waveforms, null, END, 10));
+    assertThrows(NullPointerException.class,
+        () -> WaveformDecimator.decimate(waveforms, START, null, 10));
+    assertThrows(IllegalArgumentException.class,
+        () -> WaveformDecimator.decimate(waveforms, END, START, 10));
+    assertThrows(IllegalArgumentException.class,
+        () -> WaveformDecimator.decimate(waveforms, START, END, 0));
+  }
+}
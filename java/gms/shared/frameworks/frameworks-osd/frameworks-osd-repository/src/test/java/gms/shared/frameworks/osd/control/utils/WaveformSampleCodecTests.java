@@ -0,0 +1,107 @@
+package gms.shared.frameworks.osd.control.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class WaveformSampleCodecTests {
+
+  private static final Random RANDOM = new Random(5);
+
+  @ParameterizedTest
+  @MethodSource("getSamples")
+  void testRoundTripIsBitIdentical(double[] samples, byte format) {
+    assertEquals(format, WaveformSampleCodec.narrowestFormat(samples));
+
+    for (boolean compress : new boolean[]{false, true}) {
+      double[] decoded = WaveformSampleCodec.decode(WaveformSampleCodec.encode(samples, compress));
+
+      assertEquals(samples.length, decoded.length);
+      for (int i = 0; i < samples.length; i++) {
+        assertEquals(Double.doubleToRawLongBits(samples[i]), Double.doubleToRawLongBits(decoded[i]));
+      }
+    }
+  }
+
+  static Stream<Arguments> getSamples() {
+    double[] counts = new double[1000];
+    double[] floats = new double[1000];
+    double[] doubles = new double[1000];
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = RANDOM.nextInt(4096) - 2048;
+      floats[i] = RANDOM.nextFloat();
+      doubles[i] = RANDOM.nextDouble();
+    }
+
+    return Stream.of(
+        arguments(new double[]{}, WaveformSampleCodec.INT32),
+        arguments(counts, WaveformSampleCodec.INT32),
+        arguments(new double[]{Integer.MIN_VALUE, Integer.MAX_VALUE}, WaveformSampleCodec.INT32),
+        arguments(floats, WaveformSampleCodec.FLOAT32),
+        arguments(new double[]{1, 0.5, -0.0}, WaveformSampleCodec.FLOAT32),
+        arguments(new double[]{1, Double.NaN, Float.MAX_VALUE}, WaveformSampleCodec.FLOAT32),
+        arguments(doubles, WaveformSampleCodec.FLOAT64),
+        arguments(new double[]{1, 0.1}, WaveformSampleCodec.FLOAT64),
+        arguments(new double[]{(double) Integer.MAX_VALUE + 2}, WaveformSampleCodec.FLOAT64),
+        arguments(new double[]{Integer.MAX_VALUE, 0.5}, WaveformSampleCodec.FLOAT64)
+    );
+  }
+
+  @Test
+  void testEncodedSizes() {
+    double[] counts = new double[1000];
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = i % 16;
+    }
+
+    // One header byte and the sample count, then four bytes per sample
+    assertEquals(5 + 4 * counts.length, WaveformSampleCodec.encode(counts, false).remaining());
+    assertTrue(WaveformSampleCodec.encode(counts, true).remaining() < counts.length);
+
+    // Deflating samples that do not compress leaves them as they are
+    double[] doubles = RANDOM.longs(1000).mapToDouble(Double::longBitsToDouble).toArray();
+    assertEquals(5 + 8 * doubles.length, WaveformSampleCodec.encode(doubles, true).remaining());
+  }
+
+  @Test
+  void testDecodeLeavesBufferUnchanged() {
+    ByteBuffer encoded = WaveformSampleCodec.encode(new double[]{1, 2, 3}, false);
+    int position = encoded.position();
+
+    assertArrayEquals(new double[]{1, 2, 3}, WaveformSampleCodec.decode(encoded));
+    assertEquals(position, encoded.position());
+    assertArrayEquals(new double[]{1, 2, 3}, WaveformSampleCodec.decode(encoded));
+  }
+
+  @Test
+  void testDecodeMalformed() {
+    assertThrows(NullPointerException.class, () -> WaveformSampleCodec.decode(null));
+    assertThrows(NullPointerException.class, () -> WaveformSampleCodec.encode(null, false));
+    assertThrows(IllegalArgumentException.class,
+        () -> WaveformSampleCodec.decode(ByteBuffer.allocate(2)));
+
+    ByteBuffer truncated = WaveformSampleCodec.encode(new double[]{0.1, 0.2}, false);
+    truncated.limit(truncated.limit() - 1);
+    assertThrows(IllegalArgumentException.class, () -> WaveformSampleCodec.decode(truncated));
+
+    ByteBuffer deflated = WaveformSampleCodec.encode(new double[1000], true);
+    deflated.limit(deflated.limit() - 2);
+    assertThrows(IllegalArgumentException.class, () -> WaveformSampleCodec.decode(deflated));
+
+    // A sample count whose byte count overflows an int does not wrap around to match the bytes
+    ByteBuffer hugeCount = WaveformSampleCodec.encode(new double[]{0.1}, false);
+    hugeCount.order(ByteOrder.LITTLE_ENDIAN).putInt(1, (1 << 29) + 1);
+    assertThrows(IllegalArgumentException.class, () -> WaveformSampleCodec.decode(hugeCount));
+  }
+}
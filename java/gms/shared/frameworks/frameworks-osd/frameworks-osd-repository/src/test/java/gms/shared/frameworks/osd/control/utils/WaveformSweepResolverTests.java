@@ -0,0 +1,231 @@
+package gms.shared.frameworks.osd.control.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import gms.shared.frameworks.osd.coi.waveforms.Waveform;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class WaveformSweepResolverTests {
+
+  private static final double[] SAMPLE_RATES = {1.0, 3.0, 20.0, 40.0, 100.0, 1.0 / 3.0, 7.0, 39.97};
+  private static final Instant BASE_TIME = Instant.parse("2020-03-01T00:00:00.123456789Z");
+
+  @Test
+  void testResolveEmptyAndSingle() {
+    assertEquals(List.of(), WaveformSweepResolver.resolve(Map.of()));
+
+    final Waveform wf = Waveform.from(Instant.EPOCH, 1.0, new double[]{1.2});
+    assertEquals(List.of(wf), WaveformSweepResolver.resolve(Map.of(wf, Instant.EPOCH)));
+    assertThrows(NullPointerException.class, () -> WaveformSweepResolver.resolve(null));
+  }
+
+  @Test
+  void testResolveLeavesUntouchedWaveformsAsIs() {
+    final Waveform wf1 = Waveform.from(Instant.EPOCH, 1.0, new double[]{1.0, 2.0, 3.0});
+    final Waveform wf2 = Waveform.from(Instant.EPOCH.plusSeconds(60), 1.0, new double[]{4.0});
+
+    final List<Waveform> resolved = WaveformSweepResolver
+        .resolve(Map.of(wf1, Instant.EPOCH, wf2, Instant.EPOCH));
+    assertSame(wf1, resolved.get(0));
+    assertSame(wf2, resolved.get(1));
+    assertThrows(UnsupportedOperationException.class, () -> resolved.add(wf1));
+  }
+
+  @Test
+  void testResolve() {
+    // wf2 overlaps the end of wf1, all of wf3, and the beginning of wf4.
+    final Waveform wf1 = Waveform.from(Instant.EPOCH, 1.0, new double[]{1.0, 2.0, 3.0});
+    final Waveform wf2 = Waveform
+        .from(wf1.getEndTime().minusNanos(1), 1.0, new double[]{4.0, 5.0, 6.0});
+    final Waveform wf3 = Waveform
+        .from(wf2.getStartTime().plusNanos(1), 1.0, new double[]{7.0, 8.0});
+    final Waveform wf4 = Waveform
+        .from(wf2.getEndTime().minusNanos(1), 1.0, new double[]{9.0, 10.0, 11.0});
+    final Instant storageTime = Instant.EPOCH.plusSeconds(600);
+    final Map<Waveform, Instant> input = Map.of(
+        wf1, storageTime,
+        wf2, storageTime.plusNanos(1),
+        wf3, storageTime.plusNanos(2),
+        wf4, storageTime);
+
+    final List<Waveform> resolved = WaveformSweepResolver.resolve(input);
+    assertEquals(1, resolved.size());
+    assertEquals(wf1.getStartTime(), resolved.get(0).getStartTime());
+    assertEquals(List.of(1.0, 2.0, 7.0, 8.0, 6.0, 10.0, 11.0),
+        List.of(box(resolved.get(0).getValues())));
+    assertResolvesIdentically(input);
+  }
+
+  @Test
+  void testResolveOverlapSampleRatesFarApartThrowsException() {
+    final Waveform wf1 = Waveform.from(Instant.EPOCH, 1.0, new double[]{1.0, 2.0, 3.0});
+    final Waveform wf2 = Waveform.from(wf1.getEndTime().minusNanos(1), 1.01,
+        new double[]{4.0, 5.0, 6.0});
+
+    assertResolvesIdentically(Map.of(wf1, Instant.EPOCH, wf2, Instant.EPOCH));
+  }
+
+  @Test
+  void testResolveWhereWindowStartsOnNewerSample() {
+    // Windowing wf1 after wf2 rounds the window start down onto the time of wf2's only sample,
+    // so the window replaces it
+    final Waveform wf1 = Waveform.from(Instant.EPOCH, 3.0, new double[100]);
+    final Waveform wf2 = Waveform.from(Instant.EPOCH.plusNanos(16_999_999_999L), 3.0,
+        new double[]{1.0});
+    final Map<Waveform, Instant> input =
+        Map.of(wf1, Instant.EPOCH, wf2, Instant.EPOCH.plusNanos(1));
+
+    assertEquals(0, WaveformSweepResolver.resolve(input).stream()
+        .flatMapToDouble(wf -> Arrays.stream(wf.getValues()))
+        .filter(value -> value == 1.0)
+        .count());
+    assertResolvesIdentically(input);
+  }
+
+  @Test
+  void testResolveOutsideEpochNanos() {
+    final Waveform wf1 = Waveform.from(Instant.MAX.minusSeconds(10), 1.0,
+        new double[]{1.0, 2.0, 3.0});
+    final Waveform wf2 = Waveform.from(wf1.getEndTime(), 1.0, new double[]{4.0, 5.0, 6.0});
+
+    assertResolvesIdentically(Map.of(wf1, Instant.EPOCH, wf2, Instant.EPOCH.plusNanos(1)));
+  }
+
+  @ParameterizedTest
+  @MethodSource("getSeeds")
+  void testResolveMatchesOverlapResolver(long seed) {
+    assertResolvesIdentically(randomWaveforms(new Random(seed)));
+  }
+
+  @ParameterizedTest
+  @MethodSource("getSeeds")
+  void testResolveMatchesOverlapResolverOnSampleTimes(long seed) {
+    assertResolvesIdentically(randomWaveformsOnSampleTimes(new Random(seed)));
+  }
+
+  static LongStream getSeeds() {
+    return LongStream.range(0, 2000);
+  }
+
+  /**
+   * Generates short waveforms stored after, and starting on the sample times of, a long waveform
+   * at a sample rate whose sample times are rounded, where windows can round onto their neighbors
+   */
+  private static Map<Waveform, Instant> randomWaveformsOnSampleTimes(Random random) {
+    final Waveform base = Waveform.from(BASE_TIME, 3.0,
+        random.doubles(100 + random.nextInt(100)).toArray());
+
+    final Map<Waveform, Instant> waveforms = new LinkedHashMap<>();
+    waveforms.put(base, Instant.EPOCH);
+    for (int i = 0; i < 1 + random.nextInt(6); i++) {
+      final Instant start = base.computeSampleTime(random.nextInt(base.getSampleCount() - 3));
+      waveforms.put(Waveform.from(start, 3.0, random.doubles(1 + random.nextInt(3)).toArray()),
+          Instant.EPOCH.plusNanos(1 + random.nextInt(3)));
+    }
+    return waveforms;
+  }
+
+  /**
+   * Generates waveforms that start anywhere in a short span, or just before, at, or just after
+   * the end of another, with storage times that often tie and sample rates that sometimes differ
+   */
+  private static Map<Waveform, Instant> randomWaveforms(Random random) {
+    final double nominalSampleRate = SAMPLE_RATES[random.nextInt(SAMPLE_RATES.length)];
+    final long nanosPerSample = (long) (1E9 / nominalSampleRate);
+    final int waveformCount = 2 + random.nextInt(8);
+
+    final Map<Waveform, Instant> waveforms = new LinkedHashMap<>();
+    Waveform previous = null;
+    for (int i = 0; i < waveformCount; i++) {
+      double sampleRate = nominalSampleRate;
+      final int rateKind = random.nextInt(10);
+      if (rateKind == 0) {
+        sampleRate *= 1 + (random.nextDouble() - 0.5) * 0.008;
+      } else if (rateKind == 1 && random.nextBoolean()) {
+        sampleRate *= 1.5;
+      }
+
+      final Instant start;
+      if (previous == null || random.nextInt(3) == 0) {
+        start = BASE_TIME.plusNanos((long) (random.nextDouble() * 30 * nanosPerSample));
+      } else {
+        final long offset = random.nextBoolean()
+            ? random.nextInt(5) - 2 : (long) (random.nextDouble() * nanosPerSample);
+        switch (random.nextInt(5)) {
+          case 0:
+            start = previous.getEndTime().plusNanos(offset);
+            break;
+          case 1:
+            start = previous.getEndTime().plusNanos(nanosPerSample + offset);
+            break;
+          case 2:
+            start = previous.getStartTime().plusNanos(offset);
+            break;
+          case 3:
+            // At or just before one of the samples of the previous waveform
+            start = previous.computeSampleTime(random.nextInt(previous.getSampleCount()))
+                .minusNanos(random.nextInt(3));
+            break;
+          default:
+            start = previous.getStartTime().plusNanos(
+                (long) (random.nextDouble() * previous.getSampleCount() * nanosPerSample));
+        }
+      }
+
+      final double[] values = new double[1 + random.nextInt(random.nextBoolean() ? 4 : 120)];
+      for (int v = 0; v < values.length; v++) {
+        values[v] = random.nextInt(3) == 0 ? random.nextInt(100) : random.nextGaussian();
+      }
+
+      previous = Waveform.from(start, sampleRate, values);
+      waveforms.put(previous, Instant.EPOCH.plusNanos(random.nextInt(4)));
+    }
+    return waveforms;
+  }
+
+  private static void assertResolvesIdentically(Map<Waveform, Instant> input) {
+    final List<Waveform> expected;
+    try {
+      expected = WaveformOverlapResolver.resolve(input);
+    } catch (IllegalArgumentException e) {
+      final IllegalArgumentException actual = assertThrows(IllegalArgumentException.class,
+          () -> WaveformSweepResolver.resolve(input));
+      assertEquals(e.getMessage(), actual.getMessage());
+      return;
+    }
+
+    final List<Waveform> actual = WaveformSweepResolver.resolve(input);
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      final Waveform expectedWf = expected.get(i);
+      final Waveform actualWf = actual.get(i);
+      assertEquals(expectedWf.getStartTime(), actualWf.getStartTime());
+      assertEquals(Double.doubleToRawLongBits(expectedWf.getSampleRate()),
+          Double.doubleToRawLongBits(actualWf.getSampleRate()));
+      assertEquals(expectedWf.getSampleCount(), actualWf.getSampleCount());
+      for (int v = 0; v < expectedWf.getSampleCount(); v++) {
+        assertEquals(Double.doubleToRawLongBits(expectedWf.getValues()[v]),
+            Double.doubleToRawLongBits(actualWf.getValues()[v]));
+      }
+    }
+  }
+
+  private static Double[] box(double[] values) {
+    final Double[] boxed = new Double[values.length];
+    for (int i = 0; i < values.length; i++) {
+      boxed[i] = values[i];
+    }
+    return boxed;
+  }
+}
@@ -0,0 +1,124 @@
+package gms.shared.frameworks.osd.control.waveforms;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.datastax.driver.core.exceptions.NoHostAvailableException;
+import com.google.common.util.concurrent.SettableFuture;
+import gms.shared.frameworks.coi.exceptions.RepositoryException;
+import gms.shared.frameworks.coi.exceptions.StorageUnavailableException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class CassandraQueryWindowTests {
+
+  @Test
+  void testInFlightQueriesAreBounded() {
+    CassandraQueryWindow window = new CassandraQueryWindow(2);
+    List<CompletableFuture<Integer>> started = new ArrayList<>();
+
+    List<CompletableFuture<Integer>> results = IntStream.range(0, 5)
+        .mapToObj(i -> window.submit(() -> {
+          CompletableFuture<Integer> query = new CompletableFuture<>();
+          started.add(query);
+          return query;
+        }))
+        .collect(Collectors.toList());
+
+    assertEquals(2, started.size());
+    assertEquals(3, window.getPendingCount());
+
+    // Each completed query starts the next one that is waiting
+    started.get(0).complete(0);
+    assertEquals(3, started.size());
+    assertEquals(0, results.get(0).join());
+    assertFalse(results.get(1).isDone());
+
+    started.get(1).complete(1);
+    started.get(2).complete(2);
+    assertEquals(5, started.size());
+    assertEquals(0, window.getPendingCount());
+
+    started.get(3).complete(3);
+    started.get(4).complete(4);
+    assertEquals(List.of(0, 1, 2, 3, 4), results.stream()
+        .map(CompletableFuture::join)
+        .collect(Collectors.toList()));
+  }
+
+  @Test
+  void testFailedQueriesReturnTheirPermit() {
+    CassandraQueryWindow window = new CassandraQueryWindow(1);
+    RepositoryException failure = new RepositoryException("failed");
+
+    CompletableFuture<Object> failed =
+        window.submit(() -> CompletableFuture.failedFuture(failure));
+    CompletableFuture<Object> thrown = window.submit(() -> {
+      throw failure;
+    });
+    CompletableFuture<String> succeeded =
+        window.submit(() -> CompletableFuture.completedFuture("ok"));
+
+    CompletionException completionException =
+        assertThrows(CompletionException.class, failed::join);
+    assertSame(failure, completionException.getCause());
+    assertTrue(thrown.isCompletedExceptionally());
+    assertEquals("ok", succeeded.join());
+  }
+
+  @Test
+  void testManyImmediatelyCompletedQueries() {
+    CassandraQueryWindow window = new CassandraQueryWindow(1);
+    List<CompletableFuture<Integer>> results = new ArrayList<>();
+
+    // Queries that complete as they start are drained in a loop rather than recursively
+    CompletableFuture<Integer> first = new CompletableFuture<>();
+    results.add(window.submit(() -> first));
+    for (int i = 1; i < 100_000; i++) {
+      int value = i;
+      results.add(window.submit(() -> CompletableFuture.completedFuture(value)));
+    }
+    first.complete(0);
+
+    assertEquals(0, window.getPendingCount());
+    assertEquals(99_999, results.get(99_999).join());
+  }
+
+  @Test
+  void testToCompletableFutureTranslatesFailures() {
+    SettableFuture<String> succeeded = SettableFuture.create();
+    SettableFuture<String> unavailable = SettableFuture.create();
+    SettableFuture<String> failed = SettableFuture.create();
+
+    CompletableFuture<String> succeededCompletable =
+        CassandraQueryWindow.toCompletableFuture(succeeded);
+    CompletableFuture<String> unavailableCompletable =
+        CassandraQueryWindow.toCompletableFuture(unavailable);
+    CompletableFuture<String> failedCompletable = CassandraQueryWindow.toCompletableFuture(failed);
+
+    succeeded.set("rows");
+    unavailable.setException(new NoHostAvailableException(Map.of()));
+    failed.setException(new IllegalStateException());
+
+    assertEquals("rows", succeededCompletable.join());
+    assertTrue(assertThrows(CompletionException.class, unavailableCompletable::join)
+        .getCause() instanceof StorageUnavailableException);
+    assertTrue(assertThrows(CompletionException.class, failedCompletable::join)
+        .getCause() instanceof RepositoryException);
+  }
+
+  @Test
+  void testInvalidMaxInFlight() {
+    assertThrows(IllegalArgumentException.class, () -> new CassandraQueryWindow(0));
+    assertThrows(NullPointerException.class, () -> new CassandraQueryWindow(1).submit(null));
+  }
+}
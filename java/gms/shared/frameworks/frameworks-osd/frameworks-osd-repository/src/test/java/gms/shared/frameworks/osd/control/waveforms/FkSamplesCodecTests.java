@@ -0,0 +1,86 @@
+package gms.shared.frameworks.osd.control.waveforms;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.extras.codecs.arrays.DoubleArrayCodec;
+import gms.shared.frameworks.osd.coi.waveforms.Immutable2dDoubleArray;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class FkSamplesCodecTests {
+
+  private static final DoubleArrayCodec DOUBLE_ARRAY_CODEC = new DoubleArrayCodec();
+
+  private static final Random RANDOM = new Random(7);
+
+  private final double[][] values = new double[][]{
+      RANDOM.doubles(34).toArray(),
+      RANDOM.doubles(34).toArray(),
+      RANDOM.doubles(34).toArray()};
+
+  @Test
+  void testSerializeMatchesDoubleArrayCodec() {
+    double[] flattened = Arrays.stream(values).flatMapToDouble(Arrays::stream).toArray();
+
+    assertEquals(DOUBLE_ARRAY_CODEC.serialize(flattened, ProtocolVersion.NEWEST_SUPPORTED),
+        FkSamplesCodec.serialize(values));
+    assertArrayEquals(flattened,
+        DOUBLE_ARRAY_CODEC.deserialize(FkSamplesCodec.serialize(values),
+            ProtocolVersion.NEWEST_SUPPORTED));
+  }
+
+  @Test
+  void testDeserialize() {
+    ByteBuffer serialized = FkSamplesCodec.serialize(values);
+    int position = serialized.position();
+
+    assertEquals(Immutable2dDoubleArray.from(values),
+        FkSamplesCodec.deserialize(serialized, values.length, values[0].length));
+    assertEquals(position, serialized.position());
+    assertEquals(Immutable2dDoubleArray.from(values),
+        FkSamplesCodec.deserialize(serialized, values.length, values[0].length));
+  }
+
+  @Test
+  void testSerializeValidation() {
+    assertThrows(NullPointerException.class, () -> FkSamplesCodec.serialize(null));
+    assertThrows(IllegalArgumentException.class, () -> FkSamplesCodec.serialize(new double[0][]));
+    assertThrows(IllegalArgumentException.class,
+        () -> FkSamplesCodec.serialize(new double[][]{{1, 2}, {3}}));
+  }
+
+  @Test
+  void testDeserializeMalformed() {
+    ByteBuffer serialized = FkSamplesCodec.serialize(values);
+
+    assertThrows(NullPointerException.class, () -> FkSamplesCodec.deserialize(null, 1, 1));
+    assertThrows(IllegalArgumentException.class,
+        () -> FkSamplesCodec.deserialize(ByteBuffer.allocate(2), 1, 1));
+    assertThrows(IllegalArgumentException.class,
+        () -> FkSamplesCodec.deserialize(serialized, values.length, values[0].length + 1));
+
+    ByteBuffer truncated = serialized.duplicate();
+    truncated.limit(truncated.limit() - 1);
+    assertThrows(IllegalArgumentException.class,
+        () -> FkSamplesCodec.deserialize(truncated, values.length, values[0].length));
+
+    ByteBuffer wrongSize = FkSamplesCodec.serialize(values);
+    wrongSize.putInt(Integer.BYTES, 4);
+    assertThrows(IllegalArgumentException.class,
+        () -> FkSamplesCodec.deserialize(wrongSize, values.length, values[0].length));
+
+    // Counts whose products overflow an int do not wrap around to match the values present
+    ByteBuffer empty = ByteBuffer.allocate(Integer.BYTES).putInt(0).flip();
+    assertThrows(IllegalArgumentException.class,
+        () -> FkSamplesCodec.deserialize(empty, 1 << 16, 1 << 16));
+
+    ByteBuffer hugeCount = ByteBuffer.allocate(Integer.BYTES).putInt(1 << 30).flip();
+    assertThrows(IllegalArgumentException.class,
+        () -> FkSamplesCodec.deserialize(hugeCount, 1 << 15, 1 << 15));
+  }
+}
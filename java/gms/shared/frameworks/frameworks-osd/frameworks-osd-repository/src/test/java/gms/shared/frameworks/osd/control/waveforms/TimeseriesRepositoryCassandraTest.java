@@ -1,12 +1,14 @@
 package gms.shared.frameworks.osd.control.waveforms;
 
 import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.LocalDate;
 import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.ProtocolVersion;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
 import com.datastax.driver.extras.codecs.arrays.DoubleArrayCodec;
+import com.google.common.primitives.Doubles;
 import gms.shared.frameworks.osd.coi.waveforms.FkSpectra;
 import gms.shared.frameworks.osd.coi.waveforms.FkSpectrum;
 import gms.shared.frameworks.osd.coi.waveforms.Waveform;
@@ -15,6 +17,7 @@ import gms.shared.frameworks.osd.coi.waveforms.repository.jpa.FkSpectrumDao;
 import gms.shared.frameworks.osd.control.utils.CassandraConfig;
 import gms.shared.frameworks.osd.control.utils.CassandraUtility;
 import gms.shared.frameworks.osd.control.utils.TestFixtures;
+import gms.shared.frameworks.osd.control.utils.WaveformSampleCodec;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,6 +25,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -52,6 +56,7 @@ class TimeseriesRepositoryCassandraTest {
   void tearDown() {
     Session session = config.getConnection();
     session.execute("TRUNCATE " + TimeseriesRepositoryCassandra.WAVEFORMS_TABLE);
+    session.execute("TRUNCATE " + TimeseriesRepositoryCassandra.WAVEFORMS_V2_TABLE);
     session.execute("TRUNCATE " + TimeseriesRepositoryCassandra.FKSPECTRA_TABLE);
     session.close();
 
@@ -87,7 +92,7 @@ class TimeseriesRepositoryCassandraTest {
 
     PreparedStatement waveformRetrieval = session.prepare("SELECT channel_name, start_epoch_nano," +
         " end_epoch_nano, sample_count, sample_rate, samples, storage_time " +
-        "FROM " + TimeseriesRepositoryCassandra.WAVEFORMS_TABLE +
+        "FROM " + TimeseriesRepositoryCassandra.WAVEFORMS_V2_TABLE +
         " WHERE channel_name = :c ALLOW FILTERING");
 
     BoundStatement statement = waveformRetrieval.bind()
@@ -99,9 +104,7 @@ class TimeseriesRepositoryCassandraTest {
       Instant start = CassandraUtility.fromEpochNano(row.getLong("start_epoch_nano"));
       double rate = row.getDouble("sample_rate");
 
-      double[] values = row.getList("samples", Double.class).stream()
-          .mapToDouble(d -> d)
-          .toArray();
+      double[] values = WaveformSampleCodec.decode(row.getBytes("samples"));
 
       retrievedWaveforms.add(Waveform.from(start, rate, values));
     }
@@ -224,6 +227,79 @@ class TimeseriesRepositoryCassandraTest {
     assertEquals(expected, actual);
   }
 
+  @Test
+  void testStoreWaveformsCompressedInManyBlocks() {
+    String channelName = "testChannel";
+    // 400,000 samples, which are written as four blocks
+    Waveform waveform = TestFixtures.buildLongWaveform(Instant.EPOCH.plusSeconds(2), 20_000, 20);
+
+    TimeseriesRepositoryCassandra compressingRepository =
+        TimeseriesRepositoryCassandra.create(config, true, 2, 2);
+    try {
+      compressingRepository.storeWaveforms(List.of(waveform), channelName);
+
+      List<Waveform> retrievedWaveforms = compressingRepository.retrieveWaveformsByTime(
+          channelName, waveform.getStartTime(), waveform.getEndTime());
+      assertEquals(List.of(waveform), retrievedWaveforms);
+    } finally {
+      compressingRepository.close();
+    }
+  }
+
+  @Test
+  void testRetrieveWaveformsStoredAsDoubleList() {
+    String channelName = "testChannel";
+    Waveform waveform = TestFixtures.waveform1;
+
+    // Blocks stored before the waveforms_v2 table hold their samples as a list<double>
+    Session session = config.getConnection();
+    session.execute(session.prepare("INSERT INTO " + TimeseriesRepositoryCassandra.WAVEFORMS_TABLE
+        + " (channel_name, date, start_epoch_nano, end_epoch_nano, sample_count, sample_rate,"
+        + " samples, storage_time) VALUES (:c, :d, :st, :e, :sc, :sr, :s, toTimestamp(now()))")
+        .bind()
+        .setString("c", channelName)
+        .setDate("d", LocalDate.fromMillisSinceEpoch(waveform.getStartTime().toEpochMilli()))
+        .setLong("st", CassandraUtility.toEpochNano(waveform.getStartTime()))
+        .setLong("e", CassandraUtility.toEpochNano(waveform.getEndTime()))
+        .setLong("sc", waveform.getSampleCount())
+        .setDouble("sr", waveform.getSampleRate())
+        .setList("s", Doubles.asList(waveform.getValues())));
+    session.close();
+
+    assertEquals(List.of(waveform), timeseriesRepository.retrieveWaveformsByTime(channelName,
+        waveform.getStartTime(), waveform.getEndTime()));
+  }
+
+  @Test
+  void testRetrieveWaveformsSkipsOriginalTableFromCutoff() {
+    String channelName = "testChannel";
+    Waveform waveform = TestFixtures.waveform1;
+
+    Session session = config.getConnection();
+    session.execute(session.prepare("INSERT INTO " + TimeseriesRepositoryCassandra.WAVEFORMS_TABLE
+        + " (channel_name, date, start_epoch_nano, end_epoch_nano, sample_count, sample_rate,"
+        + " samples, storage_time) VALUES (:c, :d, :st, :e, :sc, :sr, :s, toTimestamp(now()))")
+        .bind()
+        .setString("c", channelName)
+        .setDate("d", LocalDate.fromMillisSinceEpoch(waveform.getStartTime().toEpochMilli()))
+        .setLong("st", CassandraUtility.toEpochNano(waveform.getStartTime()))
+        .setLong("e", CassandraUtility.toEpochNano(waveform.getEndTime()))
+        .setLong("sc", waveform.getSampleCount())
+        .setDouble("sr", waveform.getSampleRate())
+        .setList("s", Doubles.asList(waveform.getValues())));
+    session.close();
+
+    // The waveform's day is at the cutoff, so only waveforms_v2 is read for it
+    TimeseriesRepositoryCassandra cutoffRepository = TimeseriesRepositoryCassandra.create(config,
+        false, 2, 2, waveform.getStartTime().truncatedTo(ChronoUnit.DAYS));
+    try {
+      assertTrue(cutoffRepository.retrieveWaveformsByTime(channelName,
+          waveform.getStartTime(), waveform.getEndTime()).isEmpty());
+    } finally {
+      cutoffRepository.close();
+    }
+  }
+
   @Test
   void testPopulateFkSpectraValidation() {
     assertThrows(NullPointerException.class, () -> timeseriesRepository.populateFkSpectra(null));
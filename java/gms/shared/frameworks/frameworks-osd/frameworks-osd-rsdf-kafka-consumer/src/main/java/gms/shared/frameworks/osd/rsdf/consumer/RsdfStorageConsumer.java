@@ -19,6 +19,11 @@ public class RsdfStorageConsumer extends AbstractKafkaConsumerApplication<RawSta
     new RsdfStorageConsumer().run();
   }
 
+  @Override
+  protected boolean isBackpressured() {
+    return true;
+  }
+
   @Override
   protected String getComponentName() {
     return "osd-rsdf-kafka-consumer";
@@ -46,7 +51,7 @@ public class RsdfStorageConsumer extends AbstractKafkaConsumerApplication<RawSta
   protected void consumeRecords(Collection<RawStationDataFrame> records) {
     if (!records.isEmpty()) {
       getLogger().debug("Storing {} RSDF records", records.size());
-      getExecutorService().submit(() -> sohRepository.storeRawStationDataFrames(records));
+      sohRepository.storeRawStationDataFrames(records);
     }
   }
 }
@@ -9,7 +9,7 @@ public class SohServiceApplication {
     public static void main(String[] args) {
       final SystemConfig config = SystemConfig.create("osd");
       ServiceGenerator.runService(
-          SohRepositoryFactory.createSohRepository(config),
+          SohRepositoryFactory.createSohRepositoryWithPartitionMaintenance(config),
           config);
     }
 }
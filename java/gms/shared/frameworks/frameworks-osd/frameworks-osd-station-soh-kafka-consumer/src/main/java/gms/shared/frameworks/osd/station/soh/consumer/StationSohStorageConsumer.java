@@ -23,6 +23,11 @@ public class StationSohStorageConsumer extends AbstractKafkaConsumerApplication<
     return sohRepository;
   }
 
+  @Override
+  protected boolean isBackpressured() {
+    return true;
+  }
+
   @Override
   protected String getComponentName() {
     return "osd-station-soh-kafka-consumer";
@@ -50,7 +55,7 @@ public class StationSohStorageConsumer extends AbstractKafkaConsumerApplication<
   protected void consumeRecords(Collection<StationSoh> records) {
     if (!records.isEmpty()) {
       getLogger().debug("Storing {} StationSoh records", records.size());
-      getExecutorService().submit(() -> getSohRepository().storeStationSoh(records));
+      getSohRepository().storeStationSoh(records);
     }
   }
 }
\ No newline at end of file
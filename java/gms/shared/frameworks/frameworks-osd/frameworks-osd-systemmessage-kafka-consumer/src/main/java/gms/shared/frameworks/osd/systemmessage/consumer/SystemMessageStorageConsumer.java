@@ -19,6 +19,11 @@ public class SystemMessageStorageConsumer extends AbstractKafkaConsumerApplicati
     new SystemMessageStorageConsumer().run();
   }
 
+  @Override
+  protected boolean isBackpressured() {
+    return true;
+  }
+
   @Override
   protected String getComponentName() {
     return "osd-systemmessage-kafka-consumer";
@@ -48,7 +53,7 @@ public class SystemMessageStorageConsumer extends AbstractKafkaConsumerApplicati
     if (!records.isEmpty()) {
       getLogger().info("Storing {} system messages ...", records.size());
       getLogger().debug("Storing {} SystemMessage records: {}", records.size(), records);
-      getExecutorService().submit(() -> sohRepository.storeSystemMessages(records));
+      sohRepository.storeSystemMessages(records);
     }
   }
 }
@@ -3,6 +3,7 @@ package gms.shared.frameworks.osd.dao.soh;
 import gms.shared.frameworks.osd.coi.soh.SohMonitorType;
 import gms.shared.frameworks.osd.coi.soh.SohStatus;
 import gms.shared.frameworks.osd.dao.channel.ChannelDao;
+import java.time.Instant;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
@@ -54,6 +55,10 @@ public class ChannelSohDao {
   @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
   private StationSohDao stationSoh;
 
+  // The creation time of the StationSoh, which the table is partitioned by
+  @Column(name = "creation_time", nullable = false)
+  private Instant creationTime;
+
   public ChannelSohDao() {
     // No arg hibernate constructor
   }
@@ -107,6 +112,14 @@ public class ChannelSohDao {
     this.stationSoh = stationSoh;
   }
 
+  public Instant getCreationTime() {
+    return creationTime;
+  }
+
+  public void setCreationTime(Instant creationTime) {
+    this.creationTime = creationTime;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -3,6 +3,7 @@ package gms.shared.frameworks.osd.dao.soh;
 import gms.shared.frameworks.osd.coi.soh.SohMonitorType;
 import gms.shared.frameworks.osd.coi.soh.SohStatus;
 import java.time.Duration;
+import java.time.Instant;
 import javax.persistence.Convert;
 import org.hibernate.annotations.Type;
 
@@ -59,6 +60,10 @@ public class SohMonitorValueAndStatusDao {
   @Column(name = "percent")
   private Float percent;
 
+  // The creation time of the StationSoh, which the table is partitioned by
+  @Column(name = "creation_time", nullable = false)
+  private Instant creationTime;
+
   public SohMonitorValueAndStatusDao() {
     // no-arg JPA constructor
   }
@@ -119,6 +124,14 @@ public class SohMonitorValueAndStatusDao {
     this.percent = percent;
   }
 
+  public Instant getCreationTime() {
+    return creationTime;
+  }
+
+  public void setCreationTime(Instant creationTime) {
+    this.creationTime = creationTime;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -2,6 +2,7 @@ package gms.shared.frameworks.osd.dao.soh;
 
 import com.vladmihalcea.hibernate.type.basic.PostgreSQLEnumType;
 import gms.shared.frameworks.osd.coi.soh.StationAggregateType;
+import java.time.Instant;
 import java.util.Objects;
 import javax.persistence.Column;
 import javax.persistence.DiscriminatorColumn;
@@ -44,6 +45,10 @@ public abstract class StationAggregateDao {
   @ManyToOne(fetch = FetchType.LAZY)
   private StationSohDao stationSoh;
 
+  // The creation time of the StationSoh, which the table is partitioned by
+  @Column(name = "creation_time", nullable = false)
+  private Instant creationTime;
+
   public StationAggregateDao() {
     // no-arg constructor
   }
@@ -72,6 +77,14 @@ public abstract class StationAggregateDao {
     this.stationSoh = stationSoh;
   }
 
+  public Instant getCreationTime() {
+    return creationTime;
+  }
+
+  public void setCreationTime(Instant creationTime) {
+    this.creationTime = creationTime;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -1,9 +1,11 @@
 package gms.shared.frameworks.soh.repository;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import gms.shared.frameworks.osd.dao.util.CoiEntityManagerFactory;
 import gms.shared.frameworks.soh.repository.capabilityrollup.CapabilitySohRollupRepositoryJpa;
 import gms.shared.frameworks.soh.repository.channel.ChannelRepositoryJpa;
 import gms.shared.frameworks.soh.repository.performancemonitoring.PerformanceMonitoringRepositoryJpa;
+import gms.shared.frameworks.soh.repository.performancemonitoring.SohPartitionMaintenance;
 import gms.shared.frameworks.soh.repository.performancemonitoring.StationSohRepositoryJpa;
 import gms.shared.frameworks.soh.repository.performancemonitoring.StationSohRepositoryQueryViewJpa;
 import gms.shared.frameworks.soh.repository.preferences.UserPreferencesRepositoryJpa;
@@ -21,6 +23,11 @@ import gms.shared.frameworks.soh.repository.transferredfile.RawStationDataFrameR
 import gms.shared.frameworks.soh.repository.transferredfile.RawStationDataFrameRepositoryQueryViewJpa;
 import gms.shared.frameworks.soh.repository.transferredfile.TransferredFileRepositoryJpa;
 import gms.shared.frameworks.systemconfig.SystemConfig;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import javax.persistence.EntityManagerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,16 +36,77 @@ public class SohRepositoryFactory {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(SohRepositoryFactory.class);
 
+  // How long shutdown waits for a run of the partition maintenance to finish
+  private static final Duration PARTITION_MAINTENANCE_SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
   private SohRepositoryFactory() {
   }
 
   public static SohRepository createSohRepository(SystemConfig config) {
+    return createSohRepository(createEntityManagerFactory(config));
+  }
+
+  /**
+   * Create the SohRepository, and start maintaining the daily partitions of the SOH tables with
+   * the partition_maintenance_period, partition_days_ahead and partition_retention_days of the
+   * given config. Only the one service that owns the SOH tables should do this. The maintenance
+   * is stopped on shutdown before the EntityManagerFactory it uses is closed.
+   */
+  public static SohRepository createSohRepositoryWithPartitionMaintenance(SystemConfig config) {
     EntityManagerFactory emf = CoiEntityManagerFactory.create(config);
+
+    ScheduledExecutorService maintenanceExecutor = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder()
+            .setNameFormat("soh-partition-maintenance-%d")
+            .setDaemon(true)
+            .build());
+
+    ScheduledFuture<?> maintenance = SohPartitionMaintenance.create(emf,
+        config.getValueAsInt("partition_days_ahead"),
+        config.getValueAsInt("partition_retention_days"))
+        .start(maintenanceExecutor, config.getValueAsDuration("partition_maintenance_period"));
+
     Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-      LOGGER.info("Shutting down EntityManagerFactory");
-      emf.close();
+      LOGGER.info("Shutting down SOH partition maintenance");
+      maintenance.cancel(false);
+      shutdownAndAwaitTermination(maintenanceExecutor);
+      closeEntityManagerFactory(emf);
     }));
 
+    return createSohRepository(emf);
+  }
+
+  private static EntityManagerFactory createEntityManagerFactory(SystemConfig config) {
+    EntityManagerFactory emf = CoiEntityManagerFactory.create(config);
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> closeEntityManagerFactory(emf)));
+    return emf;
+  }
+
+  private static void closeEntityManagerFactory(EntityManagerFactory emf) {
+    LOGGER.info("Shutting down EntityManagerFactory");
+    emf.close();
+  }
+
+  /**
+   * Lets a run of the maintenance that is in progress finish, interrupting it if it takes longer
+   * than the shutdown timeout
+   */
+  private static void shutdownAndAwaitTermination(ScheduledExecutorService executor) {
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(PARTITION_MAINTENANCE_SHUTDOWN_TIMEOUT.toMillis(),
+          TimeUnit.MILLISECONDS)) {
+        LOGGER.warn("SOH partition maintenance did not finish within {}, interrupting it",
+            PARTITION_MAINTENANCE_SHUTDOWN_TIMEOUT);
+        executor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static SohRepository createSohRepository(EntityManagerFactory emf) {
     return SohRepository.from(
         new CapabilitySohRollupRepositoryJpa(emf),
         new ChannelRepositoryJpa(emf),
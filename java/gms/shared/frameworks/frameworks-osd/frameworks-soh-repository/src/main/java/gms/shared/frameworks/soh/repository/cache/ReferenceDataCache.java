@@ -0,0 +1,245 @@
+package gms.shared.frameworks.soh.repository.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import gms.shared.frameworks.osd.coi.channel.Channel;
+import gms.shared.frameworks.osd.coi.signaldetection.Station;
+import gms.shared.frameworks.osd.coi.signaldetection.StationGroup;
+import gms.shared.metrics.CustomMetric;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * In-process, read-through cache of the mostly static reference data that the OSD repositories
+ * look up by name: {@link Channel}s, {@link Station}s, {@link StationGroup}s and the set of
+ * channel names that SOH is validated against.
+ * <p>
+ * All of the repositories of an EntityManagerFactory share one ReferenceDataCache, see
+ * {@link #of(EntityManagerFactory)}, and each of them calls {@link #invalidate()} after storing
+ * any reference data. The cache is versioned: invalidating it increments its version, and a value
+ * loaded while the version changed is returned to its caller but not cached, so a load that raced
+ * with a store can not leave stale data behind. Reference data stored by other processes is picked
+ * up once the cached values expire, or, for the channel names, once they are reloaded because a
+ * name is missing from them, see {@link #reloadChannelNames(Supplier)}.
+ */
+public class ReferenceDataCache {
+
+  /**
+   * How long a value is cached, which bounds how stale data stored by another process can be
+   */
+  static final Duration EXPIRATION = Duration.ofMinutes(10);
+
+  private static final Map<EntityManagerFactory, ReferenceDataCache> cachesByFactory =
+      Collections.synchronizedMap(new WeakHashMap<>());
+
+  private static final CacheMetrics channelMetrics = new CacheMetrics("referenceDataCacheChannels");
+  private static final CacheMetrics stationMetrics = new CacheMetrics("referenceDataCacheStations");
+  private static final CacheMetrics stationGroupMetrics =
+      new CacheMetrics("referenceDataCacheStationGroups");
+  private static final CacheMetrics channelNameMetrics =
+      new CacheMetrics("referenceDataCacheChannelNames");
+
+  private static final String ALL_CHANNEL_NAMES = "";
+
+  private final AtomicLong version = new AtomicLong();
+
+  private final NamedCache<Channel> channels;
+  private final NamedCache<Station> stations;
+  private final NamedCache<StationGroup> stationGroups;
+  private final NamedCache<Set<String>> channelNames;
+
+  ReferenceDataCache(Duration expiration) {
+    this.channels = new NamedCache<>(expiration, channelMetrics);
+    this.stations = new NamedCache<>(expiration, stationMetrics);
+    this.stationGroups = new NamedCache<>(expiration, stationGroupMetrics);
+    this.channelNames = new NamedCache<>(expiration, channelNameMetrics);
+  }
+
+  /**
+   * @return The ReferenceDataCache shared by the repositories of the EntityManagerFactory
+   */
+  public static ReferenceDataCache of(EntityManagerFactory entityManagerFactory) {
+    Objects.requireNonNull(entityManagerFactory, "Null entityManagerFactory");
+    return cachesByFactory.computeIfAbsent(entityManagerFactory,
+        factory -> new ReferenceDataCache(EXPIRATION));
+  }
+
+  /**
+   * Look up Channels by name, loading the ones that are not cached
+   *
+   * @param names names of the Channels
+   * @param loader loads the Channels with the given names, by name. Channels that do not exist are
+   * left out, and are not cached.
+   * @return The Channels that exist, by name, in the order of the names
+   */
+  public Map<String, Channel> getChannels(Collection<String> names,
+      Function<Set<String>, Map<String, Channel>> loader) {
+    return channels.getAll(names, loader);
+  }
+
+  /**
+   * Look up Stations by name, loading the ones that are not cached
+   *
+   * @see #getChannels(Collection, Function)
+   */
+  public Map<String, Station> getStations(Collection<String> names,
+      Function<Set<String>, Map<String, Station>> loader) {
+    return stations.getAll(names, loader);
+  }
+
+  /**
+   * Look up StationGroups by name, loading the ones that are not cached
+   *
+   * @see #getChannels(Collection, Function)
+   */
+  public Map<String, StationGroup> getStationGroups(Collection<String> names,
+      Function<Set<String>, Map<String, StationGroup>> loader) {
+    return stationGroups.getAll(names, loader);
+  }
+
+  /**
+   * @param loader loads the names of every Channel, if they are not cached
+   * @return The names of every Channel
+   */
+  public Set<String> getChannelNames(Supplier<Set<String>> loader) {
+    return channelNames.getAll(Set.of(ALL_CHANNEL_NAMES),
+        missing -> Map.of(ALL_CHANNEL_NAMES, Set.copyOf(loader.get())))
+        .get(ALL_CHANNEL_NAMES);
+  }
+
+  /**
+   * Reload the names of every Channel, replacing the cached names. Called when a name is missing
+   * from the cached names, since its Channel may have been stored by another process after they
+   * were cached.
+   *
+   * @param loader loads the names of every Channel
+   * @return The names of every Channel
+   */
+  public Set<String> reloadChannelNames(Supplier<Set<String>> loader) {
+    channelNames.invalidate(ALL_CHANNEL_NAMES);
+    return getChannelNames(loader);
+  }
+
+  /**
+   * Discard every cached value. Must be called after committing a store of any reference data.
+   */
+  public void invalidate() {
+    synchronized (version) {
+      version.incrementAndGet();
+      channels.invalidateAll();
+      stations.invalidateAll();
+      stationGroups.invalidateAll();
+      channelNames.invalidateAll();
+    }
+  }
+
+  /**
+   * @return The version of the cached values, which is incremented by each invalidation
+   */
+  public long getVersion() {
+    return version.get();
+  }
+
+  private final class NamedCache<V> {
+
+    private final Cache<String, V> valuesByName;
+    private final CacheMetrics metrics;
+
+    private NamedCache(Duration expiration, CacheMetrics metrics) {
+      this.valuesByName = CacheBuilder.newBuilder()
+          .expireAfterWrite(expiration)
+          .build();
+      this.metrics = metrics;
+    }
+
+    private Map<String, V> getAll(Collection<String> names,
+        Function<Set<String>, Map<String, V>> loader) {
+      Objects.requireNonNull(names, "Null names");
+      Objects.requireNonNull(loader, "Null loader");
+
+      Map<String, V> found = new LinkedHashMap<>();
+      Set<String> missing = new LinkedHashSet<>();
+      for (String name : names) {
+        V value = valuesByName.getIfPresent(name);
+        if (value != null) {
+          found.put(name, value);
+        } else {
+          missing.add(name);
+        }
+      }
+      metrics.record(found.size(), missing.size());
+
+      if (missing.isEmpty()) {
+        return found;
+      }
+
+      long loadedVersion = version.get();
+      Map<String, V> loaded = loader.apply(missing);
+      synchronized (version) {
+        if (version.get() == loadedVersion) {
+          valuesByName.putAll(loaded);
+        }
+      }
+
+      Map<String, V> result = new LinkedHashMap<>();
+      for (String name : names) {
+        V value = found.containsKey(name) ? found.get(name) : loaded.get(name);
+        if (value != null) {
+          result.put(name, value);
+        }
+      }
+      return result;
+    }
+
+    private void invalidate(String name) {
+      valuesByName.invalidate(name);
+    }
+
+    private void invalidateAll() {
+      valuesByName.invalidateAll();
+    }
+  }
+
+  /**
+   * Hit and miss counters, and the hit rate, of one kind of reference data
+   */
+  private static final class CacheMetrics {
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private final CustomMetric<Long, Long> hitCount;
+    private final CustomMetric<Long, Long> missCount;
+    private final CustomMetric<Double, Double> hitRate;
+
+    private CacheMetrics(String name) {
+      this.hitCount = CustomMetric.create(CustomMetric::updateTimingData,
+          name + "_hits:type=Counter", 0L);
+      this.missCount = CustomMetric.create(CustomMetric::updateTimingData,
+          name + "_misses:type=Counter", 0L);
+      this.hitRate = CustomMetric.create((previous, rate) -> rate,
+          name + "_hit_rate:type=Value", 0.0);
+    }
+
+    private void record(int hitCount, int missCount) {
+      long totalHits = hits.addAndGet(hitCount);
+      long totalMisses = misses.addAndGet(missCount);
+      this.hitCount.updateMetric(totalHits);
+      this.missCount.updateMetric(totalMisses);
+      if (totalHits + totalMisses > 0) {
+        hitRate.updateMetric((double) totalHits / (totalHits + totalMisses));
+      }
+    }
+  }
+}
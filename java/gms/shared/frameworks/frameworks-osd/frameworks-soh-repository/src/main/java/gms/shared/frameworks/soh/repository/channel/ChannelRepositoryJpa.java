@@ -6,6 +6,7 @@
  import gms.shared.frameworks.osd.dao.channel.StationChannelInfoDao;
  import gms.shared.frameworks.osd.dao.channel.StationChannelInfoKey;
  import gms.shared.frameworks.osd.dao.channel.StationDao;
+ import gms.shared.frameworks.soh.repository.cache.ReferenceDataCache;
  import gms.shared.frameworks.soh.repository.utils.ChannelUtils;
  import gms.shared.metrics.CustomMetric;
  import org.apache.commons.lang3.Validate;
@@ -24,13 +25,18 @@
  import java.util.ArrayList;
  import java.util.Collection;
  import java.util.HashSet;
+ import java.util.LinkedHashMap;
  import java.util.List;
  import java.util.Set;
+ import java.util.function.Function;
+ import java.util.stream.Collectors;
 
  public class ChannelRepositoryJpa implements ChannelRepositoryInterface {
 
    private EntityManagerFactory entityManagerFactory;
 
+   private final ReferenceDataCache referenceDataCache;
+
    static final Logger logger = LoggerFactory.getLogger(ChannelRepositoryJpa.class);
 
      private static final CustomMetric<ChannelRepositoryJpa, Long> channelRepoRetrieveChannels =
@@ -48,20 +54,46 @@
 
    public ChannelRepositoryJpa(EntityManagerFactory entityManagerFactory) {
      this.entityManagerFactory = entityManagerFactory;
+     this.referenceDataCache = ReferenceDataCache.of(entityManagerFactory);
    }
 
+   /**
+    * Retrieve Channels by name, from the {@link ReferenceDataCache} where possible
+    *
+    * @param channelIds names of the Channels, or no names to retrieve every Channel
+    * @return The Channels that exist
+    */
    @Override
    public List<Channel> retrieveChannels(
        Collection<String> channelIds) {
      Validate.notNull(channelIds);
-     EntityManager entityManager = entityManagerFactory.createEntityManager();
-     ChannelUtils channelUtils = new ChannelUtils(entityManager);
-
-     List<Channel> result;
 
        channelRepoRetrieveChannels.updateMetric(this);
        Instant start = Instant.now();
 
+     try {
+       // every Channel is retrieved when no names are given, which can not be answered from the cache
+       if (channelIds.isEmpty()) {
+         return queryChannels(channelIds);
+       }
+
+       return new ArrayList<>(referenceDataCache.getChannels(channelIds,
+           names -> queryChannels(names).stream()
+               .collect(Collectors.toMap(Channel::getName, Function.identity(),
+                   (first, second) -> first, LinkedHashMap::new)))
+           .values());
+     } finally {
+         Instant finish = Instant.now();
+         long timeElapsed = Duration.between(start, finish).toMillis();
+         channelrepoRetrieveChannelsDuration.updateMetric(timeElapsed);
+     }
+   }
+
+   private List<Channel> queryChannels(Collection<String> channelIds) {
+     EntityManager entityManager = entityManagerFactory.createEntityManager();
+     ChannelUtils channelUtils = new ChannelUtils(entityManager);
+
+     List<Channel> result;
 
      try {
        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
@@ -117,10 +149,6 @@
        }
      } finally {
        entityManager.close();
-
-         Instant finish = Instant.now();
-         long timeElapsed = Duration.between(start, finish).toMillis();
-         channelrepoRetrieveChannelsDuration.updateMetric(timeElapsed);
      }
      return result;
    }
@@ -145,6 +173,7 @@
          result.add(channelDao.getName());
        }
        entityManager.getTransaction().commit();
+       referenceDataCache.invalidate();
      } catch (Exception e) {
        entityManager.getTransaction().rollback();
        throw e;
@@ -0,0 +1,113 @@
+package gms.shared.frameworks.soh.repository.performancemonitoring;
+
+import gms.shared.frameworks.osd.coi.channel.soh.AcquiredChannelEnvironmentIssue;
+import gms.shared.frameworks.osd.coi.channel.soh.AcquiredChannelEnvironmentIssueAnalog;
+import gms.shared.frameworks.osd.coi.channel.soh.AcquiredChannelEnvironmentIssueBoolean;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.TimeZone;
+import javax.persistence.EntityManager;
+import org.hibernate.Session;
+
+/**
+ * Stores {@link AcquiredChannelEnvironmentIssue}s with {@code INSERT ... ON CONFLICT DO UPDATE} on
+ * their natural key, the channel name, type and start time, so that an ACEI replaces any stored
+ * ACEI with the same natural key without deleting it first.
+ * <p>
+ * A stored row is only rewritten when the id, end time or status of the ACEI differs from it, so
+ * an ACEI that is redelivered unchanged, e.g. by Kafka, does not write anything. The natural keys
+ * of the ACEIs of one call must be unique, since a row can not be updated twice by one statement.
+ */
+class AcquiredChannelEnvironmentIssueUpserter<T extends AcquiredChannelEnvironmentIssue<?>> {
+
+  private static final Calendar UTC = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+
+  private static final String UPSERT = "insert into gms_soh.%s as acei "
+      + "(id, natural_id, channel_name, type, start_time, end_time, status) "
+      + "values (?, ?, ?, ?, ?, ?, ?) "
+      + "on conflict (channel_name, type, start_time) do update "
+      + "set id = excluded.id, end_time = excluded.end_time, status = excluded.status "
+      + "where (acei.id, acei.end_time, acei.status) "
+      + "is distinct from (excluded.id, excluded.end_time, excluded.status)";
+
+  private final String upsert;
+
+  private AcquiredChannelEnvironmentIssueUpserter(String tableName) {
+    this.upsert = String.format(UPSERT, tableName);
+  }
+
+  /**
+   * @return An upserter of the channel_env_issue_analog table
+   */
+  static AcquiredChannelEnvironmentIssueUpserter<AcquiredChannelEnvironmentIssueAnalog> analog() {
+    return new AcquiredChannelEnvironmentIssueUpserter<>("channel_env_issue_analog");
+  }
+
+  /**
+   * @return An upserter of the channel_env_issue_boolean table
+   */
+  static AcquiredChannelEnvironmentIssueUpserter<AcquiredChannelEnvironmentIssueBoolean> booleans() {
+    return new AcquiredChannelEnvironmentIssueUpserter<>("channel_env_issue_boolean");
+  }
+
+  String getUpsert() {
+    return upsert;
+  }
+
+  /**
+   * Upsert the ACEIs, as one JDBC batch, in the active transaction of the EntityManager
+   *
+   * @param entityManager EntityManager with an active transaction
+   * @param aceis ACEIs with unique natural keys
+   */
+  void upsert(EntityManager entityManager, Collection<? extends T> aceis) {
+    Objects.requireNonNull(entityManager);
+    Objects.requireNonNull(aceis);
+
+    if (aceis.isEmpty()) {
+      return;
+    }
+
+    entityManager.unwrap(Session.class).doWork(connection -> upsert(connection, aceis));
+  }
+
+  private void upsert(Connection connection, Collection<? extends T> aceis)
+      throws SQLException {
+
+    try (PreparedStatement statement = connection.prepareStatement(upsert)) {
+      for (T acei : aceis) {
+        statement.setObject(1, acei.getId());
+        statement.setInt(2, naturalId(acei));
+        statement.setString(3, acei.getChannelName());
+        statement.setString(4, acei.getType().name());
+        statement.setTimestamp(5, Timestamp.from(acei.getStartTime()), UTC);
+        statement.setTimestamp(6, Timestamp.from(acei.getEndTime()), UTC);
+        if (acei instanceof AcquiredChannelEnvironmentIssueAnalog) {
+          statement.setDouble(7, ((AcquiredChannelEnvironmentIssueAnalog) acei).getStatus());
+        } else if (acei instanceof AcquiredChannelEnvironmentIssueBoolean) {
+          statement.setBoolean(7, ((AcquiredChannelEnvironmentIssueBoolean) acei).getStatus());
+        } else {
+          throw new IllegalArgumentException(
+              "Unknown AcquiredChannelEnvironmentIssue type: " + acei.getClass().getTypeName());
+        }
+        statement.addBatch();
+      }
+      statement.executeBatch();
+    }
+  }
+
+  /**
+   * @return The natural id of the ACEI, as computed by the ACEI DAO converters
+   */
+  static int naturalId(AcquiredChannelEnvironmentIssue<?> acei) {
+    return Objects.hash(
+        acei.getChannelName(),
+        acei.getStartTime(),
+        acei.getType().name());
+  }
+}
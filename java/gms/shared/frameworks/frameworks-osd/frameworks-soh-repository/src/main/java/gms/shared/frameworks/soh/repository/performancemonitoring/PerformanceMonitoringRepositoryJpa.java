@@ -1,6 +1,7 @@
 package gms.shared.frameworks.soh.repository.performancemonitoring;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
 import gms.shared.frameworks.osd.api.performancemonitoring.PerformanceMonitoringRepositoryInterface;
 import gms.shared.frameworks.osd.api.util.HistoricalStationSohRequest;
 import gms.shared.frameworks.osd.api.util.RepositoryExceptionUtils;
@@ -11,7 +12,7 @@ import gms.shared.frameworks.osd.dao.channel.StationDao;
 import gms.shared.frameworks.osd.dao.soh.StationSohDao;
 import gms.shared.frameworks.osd.dto.soh.HistoricalStationSoh;
 import gms.shared.frameworks.soh.repository.performancemonitoring.converter.StationSohDaoConverter;
-import gms.shared.frameworks.soh.repository.performancemonitoring.transform.StationSohObjectArrayTransformer;
+import gms.shared.frameworks.soh.repository.performancemonitoring.transform.HistoricalStationSohColumnBuilder;
 import gms.shared.metrics.CustomMetric;
 
 import java.time.Duration;
@@ -32,7 +33,10 @@ import javax.persistence.criteria.Join;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import javax.persistence.criteria.Subquery;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,9 +52,12 @@ public class PerformanceMonitoringRepositoryJpa implements
   public static final String STATION_NAME_ATTRIBUTE = "stationName";
   public static final String CREATION_TIME_ATTRIBUTE = "creationTime";
   public static final String NAME_ATTRIBUTE = "name";
+  private static final int HISTORICAL_SOH_FETCH_SIZE = 10_000;
 
   private final EntityManagerFactory entityManagerFactory;
 
+  private final StationSohBulkWriter stationSohBulkWriter = new StationSohBulkWriter();
+
   private static final CustomMetric<PerformanceMonitoringRepositoryJpa, Long> performanceMonitoringRetrieveStationId =
       CustomMetric.create(CustomMetric::incrementer,
           "performance_monitoring_retrieve_station_id_hits:type=Counter", 0L);
@@ -192,7 +199,8 @@ public class PerformanceMonitoringRepositoryJpa implements
   }
 
   /**
-   * Store the provided {@link StationSoh}(s).
+   * Store the provided {@link StationSoh}(s), with a transaction for each batch of them. Each
+   * batch is written with a {@link StationSohBulkWriter}.
    *
    * @return A list of UUIDs that correspond to the {@link StationSoh}(s) that were
    * successfully stored.
@@ -214,25 +222,17 @@ public class PerformanceMonitoringRepositoryJpa implements
     performanceMonitoringStoreStationSOH.updateMetric(this);
     Instant start = Instant.now();
     try {
-      entityManager.getTransaction().begin();
-      StationSohDaoConverter converter = new StationSohDaoConverter();
-      int count = 0;
-      for (StationSoh stationSoh : stationSohs) {
-        StationSohDao dao = converter.fromCoi(stationSoh, entityManager);
-        entityManager.persist(dao);
-        uuids.add(stationSoh.getId());
-        if (count > 0 && count % batchSize == 0) {
-          entityManager.getTransaction().commit();
-          entityManager.getTransaction().begin();
-
-          entityManager.clear();
-        }
-        count++;
+      for (List<StationSoh> batch : Iterables.partition(stationSohs, batchSize)) {
+        entityManager.getTransaction().begin();
+        stationSohBulkWriter.write(entityManager, batch);
+        entityManager.getTransaction().commit();
+        batch.forEach(stationSoh -> uuids.add(stationSoh.getId()));
       }
-      entityManager.getTransaction().commit();
     } catch (Exception ex) {
       logger.error("Exception trying to store StationSoh", ex);
-      entityManager.getTransaction().rollback();
+      if (entityManager.getTransaction().isActive()) {
+        entityManager.getTransaction().rollback();
+      }
       throw ex;
     } finally {
       entityManager.close();
@@ -281,29 +281,48 @@ public class PerformanceMonitoringRepositoryJpa implements
   /**
    * Performs query to DB.  We are using nativeQuery to select only specific columns we need.
    * I wasn't able to do it with CriteriaQuery or JPQL due to inheritance table on SMVS
+   * <p>
+   * The rows are read through a forward-only cursor, {@link #HISTORICAL_SOH_FETCH_SIZE} at a time,
+   * and appended to primitive columns as they are read, so a long time range is never held in
+   * memory as rows. The cursor needs a transaction, without which the Postgres driver reads every
+   * row at once.
+   * <p>
+   * The tables are partitioned by the StationSoh creation time, which is copied to the channel SOH
+   * and monitor values. The time range is repeated for each table so that the database only reads
+   * the partitions in the time range.
    *
    * @param request contains request with values to pass into query
    * @return HistoricalStationSoh contains processed results of query
    */
   private HistoricalStationSoh queryHistoricalStationSoh(HistoricalStationSohRequest request) {
-    HistoricalStationSoh historicalStationSoh = null;
     EntityManager em = entityManagerFactory.createEntityManager();
+    HistoricalStationSohColumnBuilder columnBuilder =
+        HistoricalStationSohColumnBuilder.create(request.getStationName());
+    int rows = 0;
 
     try {
+      em.getTransaction().begin();
 
-      javax.persistence.Query query = em.createNativeQuery(
+      NativeQuery<?> query = em.createNativeQuery(
               "SELECT stationSoh.station_name, stationSoh.creation_time, channelSoh.channel_name, " +
                       "smvs.monitor_type, smvs.duration, smvs.percent, smvs.status " +
                       "FROM gms_soh.station_soh stationSoh " +
                       "INNER JOIN gms_soh.channel_soh channelSoh " +
                       "ON stationSoh.id = channelSoh.station_soh_id " +
+                      "AND stationSoh.creation_time = channelSoh.creation_time " +
                       "INNER JOIN gms_soh.soh_monitor_value_status smvs " +
                       "ON channelSoh.id = smvs.channel_soh_id " +
+                      "AND channelSoh.creation_time = smvs.creation_time " +
                       "WHERE stationSoh.station_name like :station_name " +
                       "AND stationSoh.creation_time >= :start_time " +
                       "AND stationSoh.creation_time <= :end_time " +
+                      "AND channelSoh.creation_time >= :start_time " +
+                      "AND channelSoh.creation_time <= :end_time " +
+                      "AND smvs.creation_time >= :start_time " +
+                      "AND smvs.creation_time <= :end_time " +
                       "AND smvs.monitor_type in (:monitorTypeIds) " +
-                      "ORDER BY creation_time ASC");
+                      "ORDER BY creation_time ASC")
+          .unwrap(NativeQuery.class);
 
       //Postgres enums are not supported, so need to convert to id
       List<Short> monitorTypeDbIds =
@@ -315,10 +334,21 @@ public class PerformanceMonitoringRepositoryJpa implements
       query.setParameter("start_time", Instant.ofEpochMilli(request.getStartTime()));
       query.setParameter("end_time", Instant.ofEpochMilli(request.getEndTime()));
       query.setParameter("monitorTypeIds", monitorTypeDbIds);
+      query.setFetchSize(HISTORICAL_SOH_FETCH_SIZE);
+      query.setReadOnly(true);
 
-      historicalStationSoh = StationSohObjectArrayTransformer.createHistoricalStationSoh(request.getStationName(), query.getResultList());
+      try (ScrollableResults results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+        while (results.next()) {
+          columnBuilder.add(results.get());
+          rows++;
+        }
+      }
 
-    }catch (Exception ex) {
+      em.getTransaction().commit();
+    } catch (Exception ex) {
+      if (em.getTransaction().isActive()) {
+        em.getTransaction().rollback();
+      }
       logger.error("Error retrieving historical SOH: {}",
               RepositoryExceptionUtils.wrap(ex).getMessage());
       throw ex;
@@ -326,6 +356,10 @@ public class PerformanceMonitoringRepositoryJpa implements
       em.close();
     }
 
-    return historicalStationSoh;
+    logger.debug("Historical SOH query for {} returned {} rows", request.getStationName(), rows);
+
+    return request.getMaxPointsPerSeries()
+        .map(columnBuilder::build)
+        .orElseGet(columnBuilder::build);
   }
 }
@@ -0,0 +1,117 @@
+package gms.shared.frameworks.soh.repository.performancemonitoring;
+
+import com.google.common.base.Preconditions;
+import gms.shared.metrics.CustomMetric;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodically creates the daily partitions of the SOH tables ahead of time, and drops the
+ * partitions that are past retention, by calling the {@code maintain_soh_partitions} procedure.
+ * <p>
+ * Dropping a whole partition replaces deleting the expired rows one at a time, so retention no
+ * longer competes with the StationSoh inserts for I/O or leaves behind dead tuples to vacuum.
+ */
+public class SohPartitionMaintenance {
+
+  private static final Logger logger = LoggerFactory.getLogger(SohPartitionMaintenance.class);
+
+  static final String MAINTAIN_PARTITIONS_CALL =
+      "call public.maintain_soh_partitions(:days_ahead, :retention_days)";
+
+  private static final CustomMetric<SohPartitionMaintenance, Long> sohPartitionMaintenanceFailures =
+      CustomMetric.create(CustomMetric::incrementer,
+          "soh_partition_maintenance_failures:type=Counter", 0L);
+
+  private static final CustomMetric<Long, Long> sohPartitionMaintenanceDuration =
+      CustomMetric.create(CustomMetric::updateTimingData,
+          "soh_partition_maintenance_duration:type=Value", 0L);
+
+  private final EntityManagerFactory entityManagerFactory;
+  private final int daysAhead;
+  private final int retentionDays;
+
+  private SohPartitionMaintenance(EntityManagerFactory entityManagerFactory, int daysAhead,
+      int retentionDays) {
+    this.entityManagerFactory = entityManagerFactory;
+    this.daysAhead = daysAhead;
+    this.retentionDays = retentionDays;
+  }
+
+  /**
+   * Create a SohPartitionMaintenance
+   *
+   * @param entityManagerFactory factory of the EntityManagers the procedure is called with
+   * @param daysAhead number of days after today to create partitions for. Must not be negative.
+   * @param retentionDays number of days before today to keep partitions for. Must be positive.
+   * @return SohPartitionMaintenance
+   */
+  public static SohPartitionMaintenance create(EntityManagerFactory entityManagerFactory,
+      int daysAhead, int retentionDays) {
+    Objects.requireNonNull(entityManagerFactory, "Null entityManagerFactory");
+    Preconditions.checkArgument(daysAhead >= 0, "Days ahead must not be negative");
+    Preconditions.checkArgument(retentionDays > 0, "Retention days must be positive");
+
+    return new SohPartitionMaintenance(entityManagerFactory, daysAhead, retentionDays);
+  }
+
+  /**
+   * Create the upcoming partitions and drop the expired partitions of the SOH tables
+   */
+  public void maintainPartitions() {
+    Instant start = Instant.now();
+    EntityManager em = entityManagerFactory.createEntityManager();
+
+    try {
+      em.getTransaction().begin();
+      em.createNativeQuery(MAINTAIN_PARTITIONS_CALL)
+          .setParameter("days_ahead", daysAhead)
+          .setParameter("retention_days", retentionDays)
+          .executeUpdate();
+      em.getTransaction().commit();
+    } catch (Exception ex) {
+      sohPartitionMaintenanceFailures.updateMetric(this);
+      if (em.getTransaction().isActive()) {
+        em.getTransaction().rollback();
+      }
+      throw ex;
+    } finally {
+      em.close();
+
+      Instant finish = Instant.now();
+      long timeElapsed = Duration.between(start, finish).toMillis();
+      sohPartitionMaintenanceDuration.updateMetric(timeElapsed);
+    }
+  }
+
+  /**
+   * Maintain the partitions now and then once every period. A failed run is logged and retried at
+   * the next period, since the default partitions keep accepting inserts in the meantime.
+   *
+   * @param executor executor to run the maintenance on
+   * @param period time between runs. Must be positive.
+   * @return The scheduled maintenance, which can be cancelled
+   */
+  public ScheduledFuture<?> start(ScheduledExecutorService executor, Duration period) {
+    Objects.requireNonNull(executor, "Null executor");
+    Objects.requireNonNull(period, "Null period");
+    Preconditions.checkArgument(!period.isNegative() && !period.isZero(),
+        "Period must be positive");
+
+    return executor.scheduleAtFixedRate(() -> {
+      try {
+        maintainPartitions();
+      } catch (Exception ex) {
+        logger.error("Error maintaining SOH partitions", ex);
+      }
+    }, 0, period.toMillis(), TimeUnit.MILLISECONDS);
+  }
+}
@@ -0,0 +1,308 @@
+package gms.shared.frameworks.soh.repository.performancemonitoring;
+
+import gms.shared.frameworks.osd.coi.soh.ChannelSoh;
+import gms.shared.frameworks.osd.coi.soh.DurationSohMonitorValueAndStatus;
+import gms.shared.frameworks.osd.coi.soh.DurationStationAggregate;
+import gms.shared.frameworks.osd.coi.soh.PercentSohMonitorValueAndStatus;
+import gms.shared.frameworks.osd.coi.soh.PercentStationAggregate;
+import gms.shared.frameworks.osd.coi.soh.SohMonitorValueAndStatus;
+import gms.shared.frameworks.osd.coi.soh.StationAggregate;
+import gms.shared.frameworks.osd.coi.soh.StationSoh;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.TimeZone;
+import javax.persistence.EntityManager;
+import org.hibernate.Session;
+
+/**
+ * Writes {@link StationSoh}s with one JDBC batch per table, instead of converting each of them to a
+ * graph of DAOs that Hibernate persists, cascades and assigns ids to one entity at a time.
+ * <p>
+ * Ids are taken from the same sequences, and with the same pooled block semantics, as the DAO id
+ * generators, so rows written by this class and by Hibernate never collide. The rows are the same
+ * as the ones Hibernate writes for the DAOs created by the StationSohDaoConverter. With
+ * {@code reWriteBatchedInserts=true} on the connection url, as configured in the system
+ * configuration, the driver sends each batch as multi-row inserts.
+ * <p>
+ * A StationSohBulkWriter is thread safe, and keeps the unused ids of its blocks for the next write.
+ */
+class StationSohBulkWriter {
+
+  private static final Calendar UTC = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+
+  private static final String INSERT_STATION_SOH =
+      "insert into gms_soh.station_soh (id, coi_id, creation_time, station_name, soh_status) "
+          + "values (?, ?, ?, ?, cast(? as public.soh_status_enum))";
+
+  private static final String INSERT_CHANNEL_SOH =
+      "insert into gms_soh.channel_soh "
+          + "(id, channel_name, soh_status, station_soh_id, creation_time) "
+          + "values (?, ?, cast(? as public.soh_status_enum), ?, ?)";
+
+  private static final String INSERT_SOH_MONITOR_VALUE_STATUS =
+      "insert into gms_soh.soh_monitor_value_status "
+          + "(id, duration, percent, channel_soh_id, station_soh_id, status, monitor_type, "
+          + "creation_time) "
+          + "values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+  private static final String INSERT_STATION_AGGREGATE =
+      "insert into gms_soh.station_aggregate "
+          + "(id, station_soh_id, duration, percent, aggregate_type, type, creation_time) "
+          + "values (?, ?, ?, ?, cast(? as public.station_aggregate_type_enum), ?, ?)";
+
+  // The increments must match the sequences in the schema and the allocationSize of the DAOs
+  private final IdBlockAllocator stationSohIds =
+      new IdBlockAllocator("gms_soh.station_soh_sequence", 5);
+  private final IdBlockAllocator channelSohIds =
+      new IdBlockAllocator("gms_soh.channel_soh_sequence", 5);
+  private final IdBlockAllocator sohMonitorValueAndStatusIds =
+      new IdBlockAllocator("gms_soh.smvs_sequence", 10);
+  private final IdBlockAllocator stationAggregateIds =
+      new IdBlockAllocator("gms_soh.station_aggregate_sequence", 50);
+
+  /**
+   * Write the StationSohs, along with their ChannelSohs, SohMonitorValueAndStatuses and
+   * StationAggregates, in the active transaction of the EntityManager.
+   *
+   * @param entityManager EntityManager with an active transaction
+   * @param stationSohs the StationSohs to write
+   */
+  void write(EntityManager entityManager, Collection<StationSoh> stationSohs) {
+    Objects.requireNonNull(entityManager);
+    Objects.requireNonNull(stationSohs);
+
+    if (stationSohs.isEmpty()) {
+      return;
+    }
+
+    entityManager.unwrap(Session.class).doWork(connection -> write(connection, stationSohs));
+  }
+
+  private void write(Connection connection, Collection<StationSoh> stationSohs)
+      throws SQLException {
+
+    int channelSohCount = 0;
+    int smvsCount = 0;
+    int stationAggregateCount = 0;
+    for (StationSoh stationSoh : stationSohs) {
+      channelSohCount += stationSoh.getChannelSohs().size();
+      smvsCount += stationSoh.getSohMonitorValueAndStatuses().size();
+      for (ChannelSoh channelSoh : stationSoh.getChannelSohs()) {
+        smvsCount += channelSoh.getAllSohMonitorValueAndStatuses().size();
+      }
+      stationAggregateCount += stationSoh.getAllStationAggregates().size();
+    }
+
+    long[] stationSohIdBlock = stationSohIds.allocate(connection, stationSohs.size());
+    long[] channelSohIdBlock = channelSohIds.allocate(connection, channelSohCount);
+    long[] smvsIdBlock = sohMonitorValueAndStatusIds.allocate(connection, smvsCount);
+    long[] stationAggregateIdBlock =
+        stationAggregateIds.allocate(connection, stationAggregateCount);
+
+    try (PreparedStatement stationSohInsert = connection.prepareStatement(INSERT_STATION_SOH);
+        PreparedStatement channelSohInsert = connection.prepareStatement(INSERT_CHANNEL_SOH);
+        PreparedStatement smvsInsert =
+            connection.prepareStatement(INSERT_SOH_MONITOR_VALUE_STATUS);
+        PreparedStatement stationAggregateInsert =
+            connection.prepareStatement(INSERT_STATION_AGGREGATE)) {
+
+      int stationSohIndex = 0;
+      int channelSohIndex = 0;
+      int smvsIndex = 0;
+      int stationAggregateIndex = 0;
+      for (StationSoh stationSoh : stationSohs) {
+        long stationSohId = stationSohIdBlock[stationSohIndex++];
+        Timestamp creationTime = Timestamp.from(stationSoh.getTime());
+
+        stationSohInsert.setLong(1, stationSohId);
+        stationSohInsert.setObject(2, stationSoh.getId());
+        stationSohInsert.setTimestamp(3, creationTime, UTC);
+        stationSohInsert.setString(4, stationSoh.getStationName());
+        stationSohInsert.setString(5, stationSoh.getSohStatusRollup().name());
+        stationSohInsert.addBatch();
+
+        for (SohMonitorValueAndStatus<?> smvs : stationSoh.getSohMonitorValueAndStatuses()) {
+          addSohMonitorValueAndStatus(smvsInsert, smvsIdBlock[smvsIndex++], smvs,
+              null, stationSohId, creationTime);
+        }
+
+        for (ChannelSoh channelSoh : stationSoh.getChannelSohs()) {
+          long channelSohId = channelSohIdBlock[channelSohIndex++];
+
+          channelSohInsert.setLong(1, channelSohId);
+          channelSohInsert.setString(2, channelSoh.getChannelName());
+          channelSohInsert.setString(3, channelSoh.getSohStatusRollup().name());
+          channelSohInsert.setLong(4, stationSohId);
+          channelSohInsert.setTimestamp(5, creationTime, UTC);
+          channelSohInsert.addBatch();
+
+          for (SohMonitorValueAndStatus<?> smvs : channelSoh.getAllSohMonitorValueAndStatuses()) {
+            addSohMonitorValueAndStatus(smvsInsert, smvsIdBlock[smvsIndex++], smvs,
+                channelSohId, null, creationTime);
+          }
+        }
+
+        for (StationAggregate<?> stationAggregate : stationSoh.getAllStationAggregates()) {
+          addStationAggregate(stationAggregateInsert,
+              stationAggregateIdBlock[stationAggregateIndex++], stationAggregate, stationSohId,
+              creationTime);
+        }
+      }
+
+      // Parents first, although the partitioned tables have no foreign keys to each other
+      stationSohInsert.executeBatch();
+      channelSohInsert.executeBatch();
+      smvsInsert.executeBatch();
+      stationAggregateInsert.executeBatch();
+    }
+  }
+
+  private static void addSohMonitorValueAndStatus(PreparedStatement insert, long id,
+      SohMonitorValueAndStatus<?> smvs, Long channelSohId, Long stationSohId,
+      Timestamp creationTime) throws SQLException {
+
+    insert.setLong(1, id);
+    if (smvs instanceof DurationSohMonitorValueAndStatus) {
+      // Stored in seconds, as by the SohMonitorValueAndStatusDaoConverter
+      Duration duration = ((DurationSohMonitorValueAndStatus) smvs).getValue().orElse(null);
+      setNullableInt(insert, 2, duration == null ? null : (int) duration.getSeconds());
+      insert.setNull(3, Types.REAL);
+    } else if (smvs instanceof PercentSohMonitorValueAndStatus) {
+      Double percent = ((PercentSohMonitorValueAndStatus) smvs).getValue().orElse(null);
+      insert.setNull(2, Types.INTEGER);
+      if (percent == null) {
+        insert.setNull(3, Types.REAL);
+      } else {
+        insert.setFloat(3, percent.floatValue());
+      }
+    } else {
+      throw new IllegalArgumentException(
+          "Unknown SohMonitorValueAndStatusType: " + smvs.getClass().getTypeName());
+    }
+    setNullableLong(insert, 4, channelSohId);
+    setNullableLong(insert, 5, stationSohId);
+    insert.setShort(6, smvs.getStatus().getDbId());
+    insert.setShort(7, smvs.getMonitorType().getDbId());
+    insert.setTimestamp(8, creationTime, UTC);
+    insert.addBatch();
+  }
+
+  private static void addStationAggregate(PreparedStatement insert, long id,
+      StationAggregate<?> stationAggregate, long stationSohId, Timestamp creationTime)
+      throws SQLException {
+
+    insert.setLong(1, id);
+    insert.setLong(2, stationSohId);
+    if (stationAggregate instanceof DurationStationAggregate) {
+      // Stored in nanoseconds, as Hibernate maps the Duration of the DurationStationAggregateDao
+      Duration duration = ((DurationStationAggregate) stationAggregate).getValue().orElse(null);
+      setNullableLong(insert, 3, duration == null ? null : duration.toNanos());
+      insert.setNull(4, Types.DOUBLE);
+      insert.setString(6, "DURATION");
+    } else if (stationAggregate instanceof PercentStationAggregate) {
+      Double percent = ((PercentStationAggregate) stationAggregate).getValue().orElse(null);
+      insert.setNull(3, Types.BIGINT);
+      if (percent == null) {
+        insert.setNull(4, Types.DOUBLE);
+      } else {
+        insert.setDouble(4, percent);
+      }
+      insert.setString(6, "PERCENT");
+    } else {
+      throw new IllegalArgumentException(
+          String.format("Unknown StationAggregateType: %s",
+              stationAggregate.getClass().getTypeName()));
+    }
+    insert.setString(5, stationAggregate.getAggregateType().name());
+    insert.setTimestamp(7, creationTime, UTC);
+    insert.addBatch();
+  }
+
+  private static void setNullableInt(PreparedStatement insert, int index, Integer value)
+      throws SQLException {
+    if (value == null) {
+      insert.setNull(index, Types.INTEGER);
+    } else {
+      insert.setInt(index, value);
+    }
+  }
+
+  private static void setNullableLong(PreparedStatement insert, int index, Long value)
+      throws SQLException {
+    if (value == null) {
+      insert.setNull(index, Types.BIGINT);
+    } else {
+      insert.setLong(index, value);
+    }
+  }
+
+  /**
+   * Allocates ids from a sequence in blocks of the sequence increment. As with the pooled optimizer
+   * of the Hibernate id generators, each value v taken from the sequence reserves the ids
+   * {@code v - increment + 1} through v.
+   */
+  static final class IdBlockAllocator {
+
+    private final String selectBlocks;
+    private final int increment;
+
+    // The next unused id of the last block, and the last id of that block
+    private long next = 1;
+    private long last = 0;
+
+    IdBlockAllocator(String sequenceName, int increment) {
+      this.selectBlocks =
+          "select nextval('" + sequenceName + "') from generate_series(1, ?)";
+      this.increment = increment;
+    }
+
+    /**
+     * @return The given number of unused ids, taking as many blocks from the sequence as needed in
+     * a single query
+     */
+    synchronized long[] allocate(Connection connection, int count) throws SQLException {
+      long[] ids = new long[count];
+      int allocated = 0;
+
+      while (allocated < count) {
+        if (next <= last) {
+          ids[allocated++] = next++;
+          continue;
+        }
+
+        int blocks = (count - allocated + increment - 1) / increment;
+        try (PreparedStatement select = connection.prepareStatement(selectBlocks)) {
+          select.setInt(1, blocks);
+          try (ResultSet results = select.executeQuery()) {
+            while (results.next()) {
+              long blockLast = results.getLong(1);
+              // The initial value of the sequence is skipped, since Hibernate treats it specially
+              if (blockLast < increment) {
+                continue;
+              }
+
+              for (long id = blockLast - increment + 1; id <= blockLast; id++) {
+                if (allocated < count) {
+                  ids[allocated++] = id;
+                } else {
+                  next = id;
+                  last = blockLast;
+                  break;
+                }
+              }
+            }
+          }
+        }
+      }
+      return ids;
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package gms.shared.frameworks.soh.repository.performancemonitoring;
 
+import com.google.common.collect.Iterables;
 import gms.shared.frameworks.osd.api.util.ChannelTimeRangeRequest;
 import gms.shared.frameworks.osd.api.util.ChannelTimeRangeSohTypeRequest;
 import gms.shared.frameworks.osd.api.util.RepositoryExceptionUtils;
@@ -13,10 +14,9 @@ import gms.shared.frameworks.osd.coi.channel.soh.AcquiredChannelEnvironmentIssue
 import gms.shared.frameworks.osd.dao.channel.ChannelDao;
 import gms.shared.frameworks.osd.dao.channelsoh.AcquiredChannelEnvironmentIssueAnalogDao;
 import gms.shared.frameworks.osd.dao.channelsoh.AcquiredChannelEnvironmentIssueBooleanDao;
-import gms.shared.frameworks.osd.dao.channelsoh.AcquiredChannelEnvironmentIssueDao;
+import gms.shared.frameworks.soh.repository.cache.ReferenceDataCache;
 import gms.shared.frameworks.soh.repository.performancemonitoring.converter.AcquiredChannelEnvironmentIssueAnalogDaoConverter;
 import gms.shared.frameworks.soh.repository.performancemonitoring.converter.AcquiredChannelEnvironmentIssueBooleanDaoConverter;
-import gms.shared.frameworks.soh.repository.performancemonitoring.converter.AcquiredChannelEnvironmentIssueDaoConverter;
 import gms.shared.frameworks.utilities.jpa.EntityConverter;
 import gms.shared.metrics.CustomMetric;
 import java.time.Duration;
@@ -25,15 +25,18 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.NoResultException;
-import javax.persistence.Query;
 import javax.persistence.Tuple;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
@@ -60,11 +63,18 @@ public class StationSohRepositoryJpa implements StationSohRepositoryInterface {
   private static final String NAME = "name";
   private static final String START_TIME = "startTime";
   private static final String END_TIME = "endTime";
-  private static final String NATURAL_ID = "naturalId";
   private static final String TYPE = "type";
 
   private EntityManagerFactory entityManagerFactory;
 
+  private final ReferenceDataCache referenceDataCache;
+
+  private final AcquiredChannelEnvironmentIssueUpserter<AcquiredChannelEnvironmentIssueAnalog> analogUpserter =
+      AcquiredChannelEnvironmentIssueUpserter.analog();
+
+  private final AcquiredChannelEnvironmentIssueUpserter<AcquiredChannelEnvironmentIssueBoolean> booleanUpserter =
+      AcquiredChannelEnvironmentIssueUpserter.booleans();
+
   private static final CustomMetric<StationSohRepositoryJpa, Long> sohStoreACEIAnalog =
       CustomMetric.create(CustomMetric::incrementer, "soh_store_acei_analog_hits:type=Counter", 0L);
 
@@ -146,6 +156,7 @@ public class StationSohRepositoryJpa implements StationSohRepositoryInterface {
    */
   public StationSohRepositoryJpa(EntityManagerFactory entityManagerFactory) {
     this.entityManagerFactory = entityManagerFactory;
+    this.referenceDataCache = ReferenceDataCache.of(entityManagerFactory);
   }
 
   /**
@@ -159,7 +170,7 @@ public class StationSohRepositoryJpa implements StationSohRepositoryInterface {
       Collection<AcquiredChannelEnvironmentIssueAnalog> acquiredChannelSohAnalogs) {
     sohStoreACEIAnalog.updateMetric(this);
     Instant start = Instant.now();
-    storeACEI(acquiredChannelSohAnalogs, AcquiredChannelEnvironmentIssueAnalogDao.class);
+    storeACEI(acquiredChannelSohAnalogs, analogUpserter);
     Instant finish = Instant.now();
     long timeElapsed = Duration.between(start, finish).toMillis();
     sohStoreACEIAnalogDuration.updateMetric(timeElapsed);
@@ -176,13 +187,19 @@ public class StationSohRepositoryJpa implements StationSohRepositoryInterface {
       Collection<AcquiredChannelEnvironmentIssueBoolean> acquiredChannelSohBooleans) {
     sohStoreACEIBoolean.updateMetric(this);
     Instant start = Instant.now();
-    storeACEI(acquiredChannelSohBooleans, AcquiredChannelEnvironmentIssueBooleanDao.class);
+    storeACEI(acquiredChannelSohBooleans, booleanUpserter);
     Instant finish = Instant.now();
     long timeElapsed = Duration.between(start, finish).toMillis();
     sohStoreACEIBooleanDuration.updateMetric(timeElapsed);
   }
 
-  private void storeACEI(Collection<? extends AcquiredChannelEnvironmentIssue> aceis, Class clazz) {
+  /**
+   * Upserts the ACEIs on their natural key, in batches of hibernate.jdbc.batch_size. ACEIs of unknown
+   * channels are dropped, as are all but the first of the ACEIs with the same id or natural key.
+   * If a batch fails, its ACEIs are upserted one at a time so that only the failing ACEIs are lost.
+   */
+  private <T extends AcquiredChannelEnvironmentIssue<?>> void storeACEI(Collection<T> aceis,
+      AcquiredChannelEnvironmentIssueUpserter<T> upserter) {
     Validate.notNull(aceis,
         "Cannot store null ACEI objects");
     EntityManager entityManager = entityManagerFactory.createEntityManager();
@@ -190,125 +207,58 @@ public class StationSohRepositoryJpa implements StationSohRepositoryInterface {
     if (batchSizeObj == null) {
       batchSizeObj = "50";
     }
-    Integer batchSize = Integer.parseInt(batchSizeObj.toString());
-    entityManager.getTransaction().begin();
+    int batchSize = Integer.parseInt(batchSizeObj.toString());
 
     try {
       //remove aceis with invalid channel FK
-      aceis = (Collection<AcquiredChannelEnvironmentIssue>) filterInvalidChannels(
-          entityManager, aceis);
-
-      //remove any duplicates acei 1) id 2) unique constraint) from input stream...maybe this should be an error to
-      // the caller?
-      HashSet<Object> seen = new HashSet<>();
-      aceis.removeIf(acei -> !seen.add(acei.getId()));
-      seen.clear();
-      aceis.removeIf(acei -> !seen.add(
-          Objects.hash(
-              acei.getChannelName(),
-              acei.getStartTime(),
-              acei.getType().name()
-          )));
-      //this is necessary if we receive aceis that are already in the DB (ie: duplicates from kafka, merge processor
-      // doesn't delete all it's inserting)
-      //it guarantees the attempted insert will not have a unique constraint collision
-      //may consider removing dupes from input string and not from DB...need to understand issue more
-      removeAcquiredChannelEnvironmentIssueByNaturalId(aceis, clazz);
-      AcquiredChannelEnvironmentIssueDaoConverter aceiConverter = null;
-      if (clazz.isAssignableFrom(AcquiredChannelEnvironmentIssueBooleanDao.class)) {
-        aceiConverter =
-            new AcquiredChannelEnvironmentIssueBooleanDaoConverter();
-      } else if (clazz.isAssignableFrom(AcquiredChannelEnvironmentIssueAnalogDao.class)) {
-        aceiConverter =
-            new AcquiredChannelEnvironmentIssueAnalogDaoConverter();
-      }
+      List<T> validAceis = filterInvalidChannels(entityManager, aceis);
 
-      aceiConverter.setUpdateExisting(false);
-      int curIndex = 0;
-      List<AcquiredChannelEnvironmentIssueDao> daoList = new ArrayList<>();
-      for (AcquiredChannelEnvironmentIssue soh : aceis) {
-        var sohDao = ((EntityConverter) aceiConverter).fromCoi(soh, entityManager);
-        entityManager.persist(sohDao);
-        daoList.add((AcquiredChannelEnvironmentIssueDao) sohDao);
-        if (curIndex > 0 && curIndex % batchSize == 0) {
-          try {
-            entityManager.getTransaction().commit();
-          } catch (Exception ex) {
-            processAceiSublist(entityManager, daoList);
-          } finally {
-            daoList.clear();
-          }
+      //a row can only be upserted once per statement, so remove duplicates (by id and by natural
+      // key) from the input, e.g. redeliveries from kafka
+      Set<UUID> seenIds = new HashSet<>();
+      Set<List<Object>> seenNaturalKeys = new HashSet<>();
+      validAceis.removeIf(acei -> !seenIds.add(acei.getId())
+          || !seenNaturalKeys.add(List.of(acei.getChannelName(), acei.getType(), acei.getStartTime())));
+
+      for (List<T> batch : Iterables.partition(validAceis, batchSize)) {
+        try {
           entityManager.getTransaction().begin();
-          entityManager.clear();
+          upserter.upsert(entityManager, batch);
+          entityManager.getTransaction().commit();
+        } catch (Exception ex) {
+          rollback(entityManager);
+          processAceiSublist(entityManager, batch, upserter);
         }
-        curIndex++;
-      }
-      // The final loop of the batch was never committed, so commit here
-      try {
-        entityManager.getTransaction().commit();
-      } catch (Exception ex) {
-        processAceiSublist(entityManager, daoList);
       }
     } finally {
       entityManager.close();
     }
   }
+
   /**
-   * If a batch fails, this method will re-insert each item in the batch 1 by 1
+   * If a batch fails, this method will re-upsert each item in the batch 1 by 1
    *
    * @param entityManager
-   * @param daoList list of items to insert
+   * @param aceis list of items to upsert
    */
-  private void processAceiSublist(EntityManager entityManager,
-      List<? extends AcquiredChannelEnvironmentIssueDao> daoList) {
-    entityManager.getTransaction().rollback();
-    for (AcquiredChannelEnvironmentIssueDao dao : daoList) {
+  private <T extends AcquiredChannelEnvironmentIssue<?>> void processAceiSublist(
+      EntityManager entityManager, List<T> aceis, AcquiredChannelEnvironmentIssueUpserter<T> upserter) {
+    for (T acei : aceis) {
       try {
         entityManager.getTransaction().begin();
-        entityManager.merge(dao);
+        upserter.upsert(entityManager, List.of(acei));
         entityManager.getTransaction().commit();
       } catch (Exception ex) {
         logger.error("Error performing transaction: {}",
             RepositoryExceptionUtils.wrap(ex).getMessage());
-        entityManager.getTransaction().rollback();
+        rollback(entityManager);
       }
     }
   }
-  /**
-   * Removes a collection of {@link AcquiredChannelEnvironmentIssueBoolean} state of health objects based on naturalId
-   * (channel_name, start_time, type)
-   *
-   * @param aceiBooleans the collection of aceiBooleans to remove.
-   */
-  private <T> void removeAcquiredChannelEnvironmentIssueByNaturalId(
-      Collection<? extends AcquiredChannelEnvironmentIssue> aceis, Class<T> clazz) {
 
-    EntityManager entityManager = entityManagerFactory.createEntityManager();
-    entityManager.getTransaction().begin();
-    try {
-      //get UUIDs for aceis
-      List<Integer> naturalIds = aceis.parallelStream()
-          .map(acei -> Objects.hash(
-              acei.getChannelName(),
-              acei.getStartTime(),
-              acei.getType().name()
-          ))
-          .collect(Collectors.toList());
-      var builder = entityManager.getCriteriaBuilder();
-      CriteriaDelete<T> delete =
-          builder.createCriteriaDelete(clazz);
-      Root<T> fromEntity =
-          delete.from(clazz);
-      delete.where(fromEntity.get(NATURAL_ID).in(naturalIds));
-      entityManager.createQuery(delete).executeUpdate();
-      entityManager.getTransaction().commit();
-    } catch (Exception ex) {
-      logger.error("Error performing transaction in removeAcquiredChannelEnvironmentIssueByNaturalId: {}",
-          RepositoryExceptionUtils.wrap(ex).getMessage());
+  private static void rollback(EntityManager entityManager) {
+    if (entityManager.getTransaction().isActive()) {
       entityManager.getTransaction().rollback();
-      throw ex;
-    } finally {
-      entityManager.close();
     }
   }
 
@@ -350,23 +300,42 @@ public class StationSohRepositoryJpa implements StationSohRepositoryInterface {
   }
 
   /**
-   * If an ACEI references an invalid channel, it can't be stored to the DB and should be removed
+   * If an ACEI references an invalid channel, it can't be stored to the DB and should be removed.
+   * The channel names are read from the {@link ReferenceDataCache}, so storing ACEIs does not
+   * query the channels on every call. If a channel is missing from the cached names, they are
+   * reloaded before its ACEIs are removed, since the channel may have been stored by another
+   * process after the names were cached.
    *
    * @param entityManager
    * @param aceis aceis to filter
    * @return filtered list with aceis that have invalid channel removed
    */
-  private Collection<?> filterInvalidChannels(EntityManager entityManager,
-      Collection<? extends AcquiredChannelEnvironmentIssue> aceis) {
+  private <T extends AcquiredChannelEnvironmentIssue<?>> List<T> filterInvalidChannels(
+      EntityManager entityManager, Collection<T> aceis) {
+
+    Supplier<Set<String>> channelNameLoader = () -> Set.copyOf(
+        entityManager.createNamedQuery("Channel.getChannelNames", String.class)
+            .getResultList());
 
-    Query query = entityManager
-        .createNamedQuery("Channel.getChannelNames")
-        .setHint("org.hibernate.cacheable", true);
-    List<String> channelNames = query.getResultList();
+    Set<String> cachedChannelNames = referenceDataCache.getChannelNames(channelNameLoader);
+
+    Set<String> channelNames = aceis.stream()
+        .allMatch(acei -> cachedChannelNames.contains(acei.getChannelName())) ?
+        cachedChannelNames : referenceDataCache.reloadChannelNames(channelNameLoader);
+
+    Map<Boolean, List<T>> aceisByValidity = aceis.parallelStream()
+        .collect(Collectors.partitioningBy(acei -> channelNames.contains(acei.getChannelName())));
+
+    List<T> rejected = aceisByValidity.get(false);
+    if (!rejected.isEmpty()) {
+      logger.warn("Rejected {} ACEIs for unknown channels {}", rejected.size(),
+          rejected.stream()
+              .map(AcquiredChannelEnvironmentIssue::getChannelName)
+              .collect(Collectors.toCollection(TreeSet::new)));
+      logger.debug("Rejected ACEIs: {}", rejected);
+    }
 
-    return aceis.parallelStream()
-        .filter(acei -> channelNames.contains(acei.getChannelName()))
-        .collect(Collectors.toList());
+    return aceisByValidity.get(true);
   }
 
   /**
@@ -624,6 +593,9 @@ public class StationSohRepositoryJpa implements StationSohRepositoryInterface {
       conjunctions.add(builder.equal(channelJoin.get(NAME), channelName));
       conjunctions.add(builder.greaterThanOrEqualTo(fromSoh.get(START_TIME), startTime));
       conjunctions.add(builder.lessThanOrEqualTo(fromSoh.get(END_TIME), endTime));
+      // Implied by the end time bound, but the tables are partitioned by start time, so this
+      // bound lets the database skip the partitions after the time range
+      conjunctions.add(builder.lessThanOrEqualTo(fromSoh.get(START_TIME), endTime));
       conjunctions.add(builder.equal(fromSoh.get("type"), type));
 
       sohQuery.where(builder.and(conjunctions.toArray(new Predicate[0])));
@@ -850,6 +822,9 @@ public class StationSohRepositoryJpa implements StationSohRepositoryInterface {
       List<Predicate> conjunctions = new ArrayList<>();
       conjunctions.add(builder.greaterThanOrEqualTo(fromSoh.get(START_TIME), startTime));
       conjunctions.add(builder.lessThanOrEqualTo(fromSoh.get(END_TIME), endTime));
+      // Implied by the end time bound, but the tables are partitioned by start time, so this
+      // bound lets the database skip the partitions after the time range
+      conjunctions.add(builder.lessThanOrEqualTo(fromSoh.get(START_TIME), endTime));
 
       sohQuery.where(builder.and(conjunctions.toArray(new Predicate[0])));
 
@@ -37,7 +37,10 @@ public class StationSohDaoConverter implements EntityConverter<StationSohDao, St
         .stream()
         .map(smvs -> smvsConverter
             .fromCoi(smvs, entityManager))
-        .peek(smvsDao -> smvsDao.setStationSoh(dao))
+        .peek(smvsDao -> {
+          smvsDao.setStationSoh(dao);
+          smvsDao.setCreationTime(coi.getTime());
+        })
         .collect(Collectors.toSet());
 
     dao.setSohMonitorValueAndStatuses(smvsDaos);
@@ -46,7 +49,12 @@ public class StationSohDaoConverter implements EntityConverter<StationSohDao, St
     Set<ChannelSohDao> channelSohDaos = coi.getChannelSohs()
         .stream()
         .map(channelSoh -> channelSohDaoConverter.fromCoi(channelSoh, entityManager))
-        .peek(channelSohDao -> channelSohDao.setStationSoh(dao))
+        .peek(channelSohDao -> {
+          channelSohDao.setStationSoh(dao);
+          channelSohDao.setCreationTime(coi.getTime());
+          channelSohDao.getAllMonitorValueAndStatuses()
+              .forEach(smvsDao -> smvsDao.setCreationTime(coi.getTime()));
+        })
         .collect(Collectors.toSet());
 
     dao.setChannelSohs(channelSohDaos);
@@ -56,7 +64,10 @@ public class StationSohDaoConverter implements EntityConverter<StationSohDao, St
         .stream()
         .map(stationAg -> stationAgConverter
             .fromCoi(stationAg, entityManager))
-        .peek(stationAgDao -> stationAgDao.setStationSoh(dao))
+        .peek(stationAgDao -> {
+          stationAgDao.setStationSoh(dao);
+          stationAgDao.setCreationTime(coi.getTime());
+        })
         .collect(Collectors.toSet());
     dao.setAllStationAggregate(allStationAggregateDaos);
 
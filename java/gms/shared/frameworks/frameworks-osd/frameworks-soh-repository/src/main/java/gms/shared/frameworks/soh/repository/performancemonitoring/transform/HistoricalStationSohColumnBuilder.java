@@ -0,0 +1,218 @@
+package gms.shared.frameworks.soh.repository.performancemonitoring.transform;
+
+import com.google.common.base.Preconditions;
+import gms.shared.frameworks.osd.coi.soh.SohMonitorType;
+import gms.shared.frameworks.osd.dao.soh.SohMonitorTypeConverter;
+import gms.shared.frameworks.osd.dto.soh.DurationSohMonitorValues;
+import gms.shared.frameworks.osd.dto.soh.HistoricalSohMonitorValues;
+import gms.shared.frameworks.osd.dto.soh.HistoricalStationSoh;
+import gms.shared.frameworks.osd.dto.soh.PercentSohMonitorValues;
+import gms.shared.frameworks.osd.dto.soh.SohMonitorValues;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds a {@link HistoricalStationSoh} one row of the historical StationSoh query at a time,
+ * appending each value directly to a primitive column for its channel and {@link SohMonitorType},
+ * so that the rows of a query can be consumed from a cursor without holding them in memory.
+ * <p>
+ * Rows must be added in calculation time order. Missing durations are stored as -1 milliseconds
+ * and missing percents as -1.
+ */
+public class HistoricalStationSohColumnBuilder {
+
+  private static final int CALCULATION_TIME_INDEX = 1;
+  private static final int CHANNEL_NAME_INDEX = 2;
+  private static final int MONITOR_TYPE_INDEX = 3;
+  private static final int LAG_VALUE_INDEX = 4;
+  private static final int DURATION_VALUE_INDEX = 5;
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private static final long MISSING_DURATION = -1L;
+  private static final double MISSING_PERCENT = -1.0;
+
+  private final SohMonitorTypeConverter sohMonitorTypeConverter = new SohMonitorTypeConverter();
+
+  private final String stationName;
+
+  private final LongColumn calculationTimes = new LongColumn();
+
+  private final Map<String, Map<SohMonitorType, Column>> columnsByChannel = new LinkedHashMap<>();
+
+  private HistoricalStationSohColumnBuilder(String stationName) {
+    this.stationName = stationName;
+  }
+
+  /**
+   * Create a builder for the HistoricalStationSoh of a station
+   *
+   * @param stationName stationName that the data is relevant for
+   * @return HistoricalStationSohColumnBuilder
+   */
+  public static HistoricalStationSohColumnBuilder create(String stationName) {
+    Preconditions.checkNotNull(stationName, "Station name cannot be null");
+    return new HistoricalStationSohColumnBuilder(stationName);
+  }
+
+  /**
+   * Add a row of the historical StationSoh query
+   *
+   * @param row station name, calculation time, channel name, monitor type id, lag in seconds,
+   * percent and status, in that order
+   */
+  public void add(Object[] row) {
+
+    long calculationTime = ((Timestamp) row[CALCULATION_TIME_INDEX]).getTime();
+    if (calculationTimes.size == 0
+        || calculationTimes.values[calculationTimes.size - 1] != calculationTime) {
+      calculationTimes.add(calculationTime);
+    }
+
+    SohMonitorType sohMonitorType =
+        sohMonitorTypeConverter.convertToEntityAttribute((short) row[MONITOR_TYPE_INDEX]);
+
+    Column column = columnsByChannel
+        .computeIfAbsent((String) row[CHANNEL_NAME_INDEX], name -> new LinkedHashMap<>())
+        .computeIfAbsent(sohMonitorType, type ->
+            type.getSohValueType() == SohMonitorType.SohValueType.DURATION
+                ? new LongColumn() : new DoubleColumn());
+
+    if (column instanceof LongColumn) {
+      ((LongColumn) column).add(row[LAG_VALUE_INDEX] == null ? MISSING_DURATION
+          : TimeUnit.SECONDS.toMillis(((Number) row[LAG_VALUE_INDEX]).longValue()));
+    } else {
+      ((DoubleColumn) column).add(row[DURATION_VALUE_INDEX] == null ? MISSING_PERCENT
+          : ((Number) row[DURATION_VALUE_INDEX]).doubleValue());
+    }
+  }
+
+  /**
+   * @return The HistoricalStationSoh of every row added
+   */
+  public HistoricalStationSoh build() {
+    return build(Integer.MAX_VALUE);
+  }
+
+  /**
+   * Build the HistoricalStationSoh, downsampled to at most the given number of points per series.
+   * <p>
+   * When there are more calculation times than points, the calculation times are split into that
+   * many buckets of (nearly) equal size. Each bucket becomes one point at its first calculation
+   * time, with the largest value of each series in the bucket, so that spikes in lag or missing
+   * data are still visible on a trend chart.
+   *
+   * @param maxPointsPerSeries the maximum number of points in each series
+   * @return The (downsampled) HistoricalStationSoh of every row added
+   */
+  public HistoricalStationSoh build(int maxPointsPerSeries) {
+    Preconditions.checkArgument(maxPointsPerSeries > 0,
+        "Max points per series must be positive");
+
+    int points = Math.min(calculationTimes.size, maxPointsPerSeries);
+
+    List<HistoricalSohMonitorValues> monitorValues = new ArrayList<>();
+    columnsByChannel.forEach((channelName, columns) -> {
+      Map<SohMonitorType, SohMonitorValues> valuesByType = new LinkedHashMap<>();
+      columns.forEach((type, column) -> valuesByType.put(type, column.toValues(points)));
+      monitorValues.add(HistoricalSohMonitorValues.create(channelName, valuesByType));
+    });
+
+    return HistoricalStationSoh.create(
+        stationName,
+        calculationTimes.firstOfEachBucket(points),
+        monitorValues);
+  }
+
+  /**
+   * @return The index of the first entry of the bucket, when size entries are split into the given
+   * number of buckets
+   */
+  private static int bucketStart(int bucket, int buckets, int size) {
+    return (int) ((long) bucket * size / buckets);
+  }
+
+  private interface Column {
+
+    SohMonitorValues toValues(int points);
+  }
+
+  private static final class LongColumn implements Column {
+
+    private long[] values = new long[INITIAL_CAPACITY];
+    private int size;
+
+    void add(long value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+
+    long[] firstOfEachBucket(int buckets) {
+      if (buckets >= size) {
+        return Arrays.copyOf(values, size);
+      }
+
+      long[] firsts = new long[buckets];
+      for (int bucket = 0; bucket < buckets; bucket++) {
+        firsts[bucket] = values[bucketStart(bucket, buckets, size)];
+      }
+      return firsts;
+    }
+
+    @Override
+    public SohMonitorValues toValues(int points) {
+      if (points >= size) {
+        return DurationSohMonitorValues.create(Arrays.copyOf(values, size));
+      }
+
+      long[] maxima = new long[points];
+      for (int bucket = 0; bucket < points; bucket++) {
+        int end = bucketStart(bucket + 1, points, size);
+        long max = Long.MIN_VALUE;
+        for (int i = bucketStart(bucket, points, size); i < end; i++) {
+          max = Math.max(max, values[i]);
+        }
+        maxima[bucket] = max;
+      }
+      return DurationSohMonitorValues.create(maxima);
+    }
+  }
+
+  private static final class DoubleColumn implements Column {
+
+    private double[] values = new double[INITIAL_CAPACITY];
+    private int size;
+
+    void add(double value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+
+    @Override
+    public SohMonitorValues toValues(int points) {
+      if (points >= size) {
+        return PercentSohMonitorValues.create(Arrays.copyOf(values, size));
+      }
+
+      double[] maxima = new double[points];
+      for (int bucket = 0; bucket < points; bucket++) {
+        int end = bucketStart(bucket + 1, points, size);
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = bucketStart(bucket, points, size); i < end; i++) {
+          max = Math.max(max, values[i]);
+        }
+        maxima[bucket] = max;
+      }
+      return PercentSohMonitorValues.create(maxima);
+    }
+  }
+}
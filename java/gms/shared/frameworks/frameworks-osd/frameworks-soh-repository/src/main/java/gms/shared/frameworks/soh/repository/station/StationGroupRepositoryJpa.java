@@ -8,6 +8,7 @@ import gms.shared.frameworks.osd.coi.signaldetection.StationGroup;
 import gms.shared.frameworks.osd.coi.signaldetection.StationGroupDefinition;
 import gms.shared.frameworks.osd.dao.channel.StationDao;
 import gms.shared.frameworks.osd.dao.channel.StationGroupDao;
+import gms.shared.frameworks.soh.repository.cache.ReferenceDataCache;
 import gms.shared.frameworks.soh.repository.utils.StationUtils;
 import gms.shared.frameworks.utilities.jpa.JpaConstants.EntityGraphType;
 import gms.shared.metrics.CustomMetric;
@@ -24,12 +25,15 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class StationGroupRepositoryJpa implements
     StationGroupRepositoryInterface {
 
   private EntityManagerFactory entityManagerFactory;
+  private final ReferenceDataCache referenceDataCache;
   static final Logger logger = LoggerFactory.getLogger(StationGroupRepositoryJpa.class);
 
   private static final CustomMetric<StationGroupRepositoryJpa, Long> stationGroupRepositoryRetrieveStationGroups =
@@ -56,16 +60,29 @@ public class StationGroupRepositoryJpa implements
 
   public StationGroupRepositoryJpa(EntityManagerFactory entityManagerFactory) {
     this.entityManagerFactory = entityManagerFactory;
+    this.referenceDataCache = ReferenceDataCache.of(entityManagerFactory);
   }
 
+  /**
+   * Retrieve StationGroups by name, from the {@link ReferenceDataCache} where possible
+   *
+   * @param stationGroupNames names of the StationGroups
+   * @return The StationGroups that exist
+   */
   @Override
   public List<StationGroup> retrieveStationGroups(
       Collection<String> stationGroupNames) {
     Validate.notEmpty(stationGroupNames);
 
+    return new ArrayList<>(referenceDataCache
+        .getStationGroups(stationGroupNames, this::queryStationGroups)
+        .values());
+  }
+
+  private Map<String, StationGroup> queryStationGroups(Collection<String> stationGroupNames) {
     EntityManager entityManager = entityManagerFactory.createEntityManager();
     StationUtils stationUtils = new StationUtils(entityManager);
-    List<StationGroup> result = new ArrayList<>();
+    Map<String, StationGroup> result = new LinkedHashMap<>();
 
     CriteriaBuilder cb = entityManager.getCriteriaBuilder();
     CriteriaQuery<StationGroupDao> stationGroupDaoCriteria = cb
@@ -89,7 +106,7 @@ public class StationGroupRepositoryJpa implements
         for (StationDao stationDao : stationDaos) {
           stations.add(stationUtils.generateStation(stationDao, false));
         }
-        result.add(StationGroup.from(
+        result.put(dao.getName(), StationGroup.from(
             dao.getName(),
             dao.getDescription(),
             stations
@@ -130,6 +147,7 @@ public class StationGroupRepositoryJpa implements
         entityManager.persist(stationGroupDao);
       }
       entityManager.getTransaction().commit();
+      referenceDataCache.invalidate();
     } catch (Exception e) {
       logger.error("Error committing station groups", e);
       entityManager.getTransaction().rollback();
@@ -182,6 +200,7 @@ public class StationGroupRepositoryJpa implements
         entityManager.persist(stationGroupDao);
       }
       entityManager.getTransaction().commit();
+      referenceDataCache.invalidate();
     } catch (Exception e) {
       logger.error("Error updating station groups", e);
       entityManager.getTransaction().rollback();
@@ -3,6 +3,7 @@ package gms.shared.frameworks.soh.repository.station;
 import gms.shared.frameworks.osd.api.station.StationRepositoryInterface;
 import gms.shared.frameworks.osd.coi.signaldetection.Station;
 import gms.shared.frameworks.osd.dao.channel.StationDao;
+import gms.shared.frameworks.soh.repository.cache.ReferenceDataCache;
 import gms.shared.frameworks.soh.repository.utils.StationUtils;
 import gms.shared.metrics.CustomMetric;
 import org.apache.commons.lang3.Validate;
@@ -18,12 +19,17 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class  StationRepositoryJpa implements StationRepositoryInterface {
 
   private EntityManagerFactory entityManagerFactory;
 
+  private final ReferenceDataCache referenceDataCache;
+
   private static Logger logger = LoggerFactory.getLogger(StationRepositoryJpa.class);
 
   private static final CustomMetric<StationRepositoryJpa, Long> stationRepositoryRetrieveAllStations =
@@ -41,10 +47,30 @@ public class  StationRepositoryJpa implements StationRepositoryInterface {
 
   public StationRepositoryJpa(EntityManagerFactory entityManagerFactory) {
     this.entityManagerFactory = entityManagerFactory;
+    this.referenceDataCache = ReferenceDataCache.of(entityManagerFactory);
   }
 
+  /**
+   * Retrieve Stations by name, from the {@link ReferenceDataCache} where possible
+   *
+   * @param stationNames names of the Stations, or no names to retrieve every Station
+   * @return The Stations that exist
+   */
   @Override
   public List<Station> retrieveAllStations(Collection<String> stationNames) {
+    // every Station is retrieved when no names are given, which can not be answered from the cache
+    if (stationNames.isEmpty()) {
+      return queryStations(stationNames);
+    }
+
+    return new ArrayList<>(referenceDataCache.getStations(stationNames,
+        names -> queryStations(names).stream()
+            .collect(Collectors.toMap(Station::getName, Function.identity(),
+                (first, second) -> first, LinkedHashMap::new)))
+        .values());
+  }
+
+  private List<Station> queryStations(Collection<String> stationNames) {
     EntityManager entityManager = entityManagerFactory.createEntityManager();
     StationUtils stationUtils = new StationUtils(entityManager);
 
@@ -101,6 +127,7 @@ public class  StationRepositoryJpa implements StationRepositoryInterface {
         stationUtils.storeStation(station);
       }
       entityManager.getTransaction().commit();
+      referenceDataCache.invalidate();
     } catch (Exception e) {
       logger.error(e.getMessage());
       entityManager.getTransaction().rollback();
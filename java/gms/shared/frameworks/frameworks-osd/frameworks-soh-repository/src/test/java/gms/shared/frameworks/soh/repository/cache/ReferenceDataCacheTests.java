@@ -0,0 +1,142 @@
+package gms.shared.frameworks.soh.repository.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+import gms.shared.frameworks.osd.coi.channel.Channel;
+import gms.shared.frameworks.osd.coi.signaldetection.StationGroup;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ReferenceDataCacheTests {
+
+  private static final Channel CHANNEL_A = mock(Channel.class);
+  private static final Channel CHANNEL_B = mock(Channel.class);
+  private static final Map<String, Channel> DATABASE = Map.of("A", CHANNEL_A, "B", CHANNEL_B);
+
+  private ReferenceDataCache cache;
+  private List<Set<String>> loads;
+
+  @BeforeEach
+  void setUp() {
+    cache = new ReferenceDataCache(Duration.ofMinutes(1));
+    loads = new ArrayList<>();
+  }
+
+  @Test
+  void testReadThrough() {
+
+    assertEquals(List.of(CHANNEL_B, CHANNEL_A),
+        List.copyOf(cache.getChannels(List.of("B", "A"), this::load).values()));
+    assertEquals(List.of(Set.of("A", "B")), loads);
+
+    // Only the names that are not cached are loaded
+    assertEquals(Map.of("A", CHANNEL_A), cache.getChannels(List.of("A"), this::load));
+    assertEquals(Map.of("A", CHANNEL_A, "B", CHANNEL_B),
+        cache.getChannels(List.of("A", "C", "B"), this::load));
+    assertEquals(List.of(Set.of("A", "B"), Set.of("C")), loads);
+  }
+
+  @Test
+  void testMissingNamesAreNotCached() {
+
+    assertEquals(Map.of(), cache.getChannels(List.of("C"), this::load));
+    assertEquals(Map.of(), cache.getChannels(List.of("C"), this::load));
+    assertEquals(2, loads.size());
+  }
+
+  @Test
+  void testInvalidate() {
+
+    cache.getChannels(List.of("A"), this::load);
+    var stationGroup = mock(StationGroup.class);
+    cache.getStationGroups(List.of("G"), names -> Map.of("G", stationGroup));
+
+    cache.invalidate();
+    assertEquals(1, cache.getVersion());
+
+    cache.getChannels(List.of("A"), this::load);
+    assertEquals(2, loads.size());
+
+    // Invalidation discards every kind of reference data
+    var reloaded = new AtomicInteger();
+    cache.getStationGroups(List.of("G"), names -> {
+      reloaded.incrementAndGet();
+      return Map.of("G", stationGroup);
+    });
+    assertEquals(1, reloaded.get());
+  }
+
+  @Test
+  void testLoadRacingWithStoreIsNotCached() {
+
+    // A store commits and invalidates the cache while the channels are being loaded
+    assertEquals(Map.of("A", CHANNEL_A), cache.getChannels(List.of("A"), names -> {
+      cache.invalidate();
+      return load(names);
+    }));
+
+    cache.getChannels(List.of("A"), this::load);
+    assertEquals(2, loads.size());
+  }
+
+  @Test
+  void testChannelNames() {
+
+    var channelNameLoads = new AtomicInteger();
+
+    Set<String> channelNames = cache.getChannelNames(() -> {
+      channelNameLoads.incrementAndGet();
+      return DATABASE.keySet();
+    });
+    assertEquals(Set.of("A", "B"), channelNames);
+    assertSame(channelNames, cache.getChannelNames(() -> Set.of("stale")));
+    assertEquals(1, channelNameLoads.get());
+
+    cache.invalidate();
+    assertEquals(Set.of("C"), cache.getChannelNames(() -> Set.of("C")));
+  }
+
+  @Test
+  void testReloadChannelNames() {
+
+    var database = new AtomicReference<Set<String>>(Set.of("A"));
+
+    assertEquals(Set.of("A"), cache.getChannelNames(database::get));
+
+    // Another process stores channel B, which is not picked up until the names are reloaded
+    database.set(Set.of("A", "B"));
+    assertEquals(Set.of("A"), cache.getChannelNames(database::get));
+    assertEquals(Set.of("A", "B"), cache.reloadChannelNames(database::get));
+    assertEquals(Set.of("A", "B"), cache.getChannelNames(() -> Set.of("stale")));
+  }
+
+  @Test
+  void testSharedByEntityManagerFactory() {
+
+    var entityManagerFactory = mock(EntityManagerFactory.class);
+
+    assertSame(ReferenceDataCache.of(entityManagerFactory),
+        ReferenceDataCache.of(entityManagerFactory));
+    assertThrows(NullPointerException.class, () -> ReferenceDataCache.of(null));
+  }
+
+  private Map<String, Channel> load(Set<String> names) {
+    loads.add(Set.copyOf(names));
+    return names.stream()
+        .filter(DATABASE::containsKey)
+        .collect(Collectors.toMap(Function.identity(), DATABASE::get));
+  }
+}
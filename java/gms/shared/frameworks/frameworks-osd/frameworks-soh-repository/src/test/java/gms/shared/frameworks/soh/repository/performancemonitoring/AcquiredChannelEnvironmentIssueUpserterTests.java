@@ -0,0 +1,98 @@
+package gms.shared.frameworks.soh.repository.performancemonitoring;
+
+import static gms.shared.frameworks.osd.coi.dataacquisitionstatus.DataAcquisitionStatusTestFixtures.ACQUIRED_CHANNEL_SOH_ANALOG;
+import static gms.shared.frameworks.osd.coi.dataacquisitionstatus.DataAcquisitionStatusTestFixtures.ACQUIRED_CHANNEL_SOH_ANALOG_TWO;
+import static gms.shared.frameworks.osd.coi.dataacquisitionstatus.DataAcquisitionStatusTestFixtures.ACQUIRED_CHANNEL_SOH_BOOLEAN;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import gms.shared.frameworks.osd.coi.channel.soh.AcquiredChannelEnvironmentIssue;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.jdbc.Work;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class AcquiredChannelEnvironmentIssueUpserterTests {
+
+  @Test
+  void testUpsertSql() {
+
+    String upsert = AcquiredChannelEnvironmentIssueUpserter.analog().getUpsert();
+    assertTrue(upsert.startsWith("insert into gms_soh.channel_env_issue_analog "));
+    assertTrue(upsert.contains("on conflict (channel_name, type, start_time) do update"));
+    // Unchanged redeliveries do not rewrite the row
+    assertTrue(upsert.contains("is distinct from"));
+
+    assertTrue(AcquiredChannelEnvironmentIssueUpserter.booleans().getUpsert()
+        .startsWith("insert into gms_soh.channel_env_issue_boolean "));
+  }
+
+  @Test
+  void testUpsertAnalogBatch() throws SQLException {
+
+    var connection = mock(Connection.class);
+    var statement = mock(PreparedStatement.class);
+    when(connection.prepareStatement(anyString())).thenReturn(statement);
+
+    upsert(AcquiredChannelEnvironmentIssueUpserter.analog(),
+        List.of(ACQUIRED_CHANNEL_SOH_ANALOG, ACQUIRED_CHANNEL_SOH_ANALOG_TWO))
+        .execute(connection);
+
+    verify(connection).prepareStatement(AcquiredChannelEnvironmentIssueUpserter.analog().getUpsert());
+    verify(statement, times(2)).addBatch();
+    verify(statement).executeBatch();
+    verify(statement).setObject(1, ACQUIRED_CHANNEL_SOH_ANALOG.getId());
+    verify(statement)
+        .setInt(2, AcquiredChannelEnvironmentIssueUpserter.naturalId(ACQUIRED_CHANNEL_SOH_ANALOG));
+    verify(statement).setString(3, ACQUIRED_CHANNEL_SOH_ANALOG.getChannelName());
+    verify(statement, times(2)).setDouble(7, ACQUIRED_CHANNEL_SOH_ANALOG.getStatus());
+  }
+
+  @Test
+  void testUpsertBoolean() throws SQLException {
+
+    var connection = mock(Connection.class);
+    var statement = mock(PreparedStatement.class);
+    when(connection.prepareStatement(anyString())).thenReturn(statement);
+
+    upsert(AcquiredChannelEnvironmentIssueUpserter.booleans(), List.of(ACQUIRED_CHANNEL_SOH_BOOLEAN))
+        .execute(connection);
+
+    verify(statement).setString(4, ACQUIRED_CHANNEL_SOH_BOOLEAN.getType().name());
+    verify(statement).setBoolean(7, ACQUIRED_CHANNEL_SOH_BOOLEAN.getStatus());
+    verify(statement).executeBatch();
+  }
+
+  @Test
+  void testUpsertNothing() {
+
+    var entityManager = mock(EntityManager.class);
+    AcquiredChannelEnvironmentIssueUpserter.analog().upsert(entityManager, List.of());
+    verify(entityManager, never()).unwrap(any());
+  }
+
+  private static <T extends AcquiredChannelEnvironmentIssue<?>> Work upsert(
+      AcquiredChannelEnvironmentIssueUpserter<T> upserter, List<T> aceis) {
+
+    var entityManager = mock(EntityManager.class);
+    var session = mock(Session.class);
+    when(entityManager.unwrap(Session.class)).thenReturn(session);
+
+    upserter.upsert(entityManager, aceis);
+
+    ArgumentCaptor<Work> work = ArgumentCaptor.forClass(Work.class);
+    verify(session).doWork(work.capture());
+    return work.getValue();
+  }
+}
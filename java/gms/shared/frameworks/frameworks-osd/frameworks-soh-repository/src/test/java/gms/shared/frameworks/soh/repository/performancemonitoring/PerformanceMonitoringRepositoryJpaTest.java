@@ -4,6 +4,7 @@ import static gms.shared.frameworks.osd.coi.SohTestFixtures.BAD_STATION_SOH;
 import static gms.shared.frameworks.osd.coi.SohTestFixtures.MARGINAL_STATION_SOH;
 import static gms.shared.frameworks.osd.coi.SohTestFixtures.NOW;
 import static gms.shared.frameworks.osd.coi.test.utils.UtilsTestFixtures.STATION;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -42,6 +43,7 @@ import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Stream;
@@ -101,6 +103,51 @@ class PerformanceMonitoringRepositoryJpaTest extends DbTest {
     }
   }
 
+  @Test
+  void testStoreMatchesPersist() {
+    int count = 5;
+    List<StationSoh> persisted = copies(MARGINAL_STATION_SOH, count, NOW.minusSeconds(60L * 60 * 24));
+    List<StationSoh> written = copies(MARGINAL_STATION_SOH, count, NOW);
+
+    // The previous way of storing StationSoh, persisting the DAO graph of each one with Hibernate
+    EntityManager entityManager = entityManagerFactory.createEntityManager();
+    try {
+      entityManager.getTransaction().begin();
+      StationSohDaoConverter converter = new StationSohDaoConverter();
+      for (StationSoh stationSoh : persisted) {
+        entityManager.persist(converter.fromCoi(stationSoh, entityManager));
+      }
+      entityManager.getTransaction().commit();
+    } finally {
+      entityManager.close();
+    }
+
+    performanceMonitoringRepository = new PerformanceMonitoringRepositoryJpa(entityManagerFactory);
+    performanceMonitoringRepository.storeStationSoh(written);
+
+    // Rows written both ways are read back the same, and their ids do not collide
+    List<StationSoh> retrieved = performanceMonitoringRepository.retrieveByStationsAndTimeRange(
+        StationsTimeRangeRequest.create(List.of(STATION.getName()),
+            NOW.minusSeconds(60L * 60 * 24), NOW.plusSeconds(20L * count)));
+    assertEquals(2 * count, retrieved.size());
+    assertTrue(retrieved.containsAll(persisted));
+    assertTrue(retrieved.containsAll(written));
+  }
+
+  private static List<StationSoh> copies(StationSoh stationSoh, int count, Instant start) {
+    List<StationSoh> copies = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      copies.add(StationSoh.from(UUID.randomUUID(),
+          start.plusSeconds(20L * i),
+          stationSoh.getStationName(),
+          stationSoh.getSohMonitorValueAndStatuses(),
+          stationSoh.getSohStatusRollup(),
+          stationSoh.getChannelSohs(),
+          stationSoh.getAllStationAggregates()));
+    }
+    return copies;
+  }
+
   @ParameterizedTest
   @MethodSource("getRetrieveByStationGroupIdArgs")
   void testRetrieveByStationGroupIdValidation(Class<? extends Exception> expectedException,
@@ -196,6 +243,33 @@ class PerformanceMonitoringRepositoryJpaTest extends DbTest {
     }
   }
 
+  @Test
+  void testHistoricalStationSohQueryDownsampled() {
+
+    performanceMonitoringRepository = new PerformanceMonitoringRepositoryJpa(entityManagerFactory);
+    performanceMonitoringRepository.storeStationSoh(populateHistoricalStationSohData());
+
+    HistoricalStationSohRequest request = HistoricalStationSohRequest.create(
+        STATION.getName(), NOW.toEpochMilli(), NOW.toEpochMilli() + 20000 * NUM_STATIONS_FOR_HISTORICAL_QUERY,
+        List.of(SohMonitorType.MISSING, SohMonitorType.LAG)).toBuilder()
+        .setMaxPointsPerSeries(Optional.of(4))
+        .build();
+
+    HistoricalStationSoh historicalStationSoh = performanceMonitoringRepository.retrieveHistoricalStationSoh(request);
+
+    // The 10 calculation times are split into buckets of 2, 3, 2 and 3, each keeping its largest value
+    long start = MARGINAL_STATION_SOH.getTime().toEpochMilli();
+    assertArrayEquals(new long[]{start, start + 40000, start + 100000, start + 140000},
+        historicalStationSoh.getCalculationTimes());
+    assertFalse(historicalStationSoh.getMonitorValues().isEmpty());
+    for (HistoricalSohMonitorValues hmv : historicalStationSoh.getMonitorValues()) {
+      assertArrayEquals(new long[]{1000, 4000, 6000, 9000},
+          ((DurationSohMonitorValues) hmv.getValuesByType().get(SohMonitorType.LAG)).getValues());
+      assertArrayEquals(new double[]{1, 4, 6, 9},
+          ((PercentSohMonitorValues) hmv.getValuesByType().get(SohMonitorType.MISSING)).getValues());
+    }
+  }
+
   private Collection<StationSoh> populateHistoricalStationSohData() {
     List<StationSoh> stationSohList = new ArrayList<>();
     StationSoh stationSoh = MARGINAL_STATION_SOH;
@@ -0,0 +1,104 @@
+package gms.shared.frameworks.soh.repository.performancemonitoring;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+import javax.persistence.PersistenceException;
+import javax.persistence.Query;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class SohPartitionMaintenanceTests {
+
+  private EntityManagerFactory entityManagerFactory;
+  private EntityManager entityManager;
+  private EntityTransaction transaction;
+  private Query query;
+
+  @BeforeEach
+  void setUp() {
+    entityManagerFactory = mock(EntityManagerFactory.class);
+    entityManager = mock(EntityManager.class);
+    transaction = mock(EntityTransaction.class);
+    query = mock(Query.class);
+
+    when(entityManagerFactory.createEntityManager()).thenReturn(entityManager);
+    when(entityManager.getTransaction()).thenReturn(transaction);
+    when(entityManager.createNativeQuery(SohPartitionMaintenance.MAINTAIN_PARTITIONS_CALL))
+        .thenReturn(query);
+    when(query.setParameter(any(String.class), any())).thenReturn(query);
+  }
+
+  @Test
+  void testMaintainPartitions() {
+
+    SohPartitionMaintenance.create(entityManagerFactory, 3, 31).maintainPartitions();
+
+    verify(query).setParameter("days_ahead", 3);
+    verify(query).setParameter("retention_days", 31);
+    verify(query).executeUpdate();
+    verify(transaction).commit();
+    verify(entityManager).close();
+  }
+
+  @Test
+  void testMaintainPartitionsRollsBackOnFailure() {
+
+    when(query.executeUpdate()).thenThrow(new PersistenceException("partition is locked"));
+    when(transaction.isActive()).thenReturn(true);
+
+    var maintenance = SohPartitionMaintenance.create(entityManagerFactory, 3, 31);
+    assertThrows(PersistenceException.class, maintenance::maintainPartitions);
+
+    verify(transaction, never()).commit();
+    verify(transaction).rollback();
+    verify(entityManager).close();
+  }
+
+  @Test
+  void testStartKeepsRunningAfterFailure() {
+
+    when(query.executeUpdate()).thenThrow(new PersistenceException("partition is locked"));
+    var executor = mock(ScheduledExecutorService.class);
+
+    SohPartitionMaintenance.create(entityManagerFactory, 3, 31)
+        .start(executor, Duration.ofHours(1));
+
+    ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+    verify(executor).scheduleAtFixedRate(task.capture(), eq(0L),
+        eq(Duration.ofHours(1).toMillis()), eq(TimeUnit.MILLISECONDS));
+
+    // A failed run must not throw, or the executor would stop scheduling the maintenance
+    task.getValue().run();
+    verify(query).executeUpdate();
+  }
+
+  @Test
+  void testValidation() {
+
+    var maintenance = SohPartitionMaintenance.create(entityManagerFactory, 0, 1);
+    var executor = mock(ScheduledExecutorService.class);
+
+    assertThrows(NullPointerException.class, () -> SohPartitionMaintenance.create(null, 3, 31));
+    assertThrows(IllegalArgumentException.class,
+        () -> SohPartitionMaintenance.create(entityManagerFactory, -1, 31));
+    assertThrows(IllegalArgumentException.class,
+        () -> SohPartitionMaintenance.create(entityManagerFactory, 3, 0));
+    assertThrows(IllegalArgumentException.class,
+        () -> maintenance.start(executor, Duration.ZERO));
+    verify(executor, never()).scheduleAtFixedRate(any(), anyLong(), anyLong(), any());
+  }
+}
@@ -0,0 +1,144 @@
+package gms.shared.frameworks.soh.repository.performancemonitoring;
+
+import static gms.shared.frameworks.osd.coi.SohTestFixtures.MARGINAL_STATION_SOH;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import gms.shared.frameworks.osd.coi.soh.StationSoh;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import javax.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.jdbc.Work;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class StationSohBulkWriterTests {
+
+  @Test
+  void testAllocateTakesBlocksInOneQuery() throws SQLException {
+
+    var sequence = new Sequence(5);
+    // Start past the initial value, which Hibernate treats specially
+    sequence.last = 1;
+    var allocator = new StationSohBulkWriter.IdBlockAllocator("station_soh_sequence", 5);
+
+    assertArrayEquals(new long[]{2, 3, 4, 5, 6, 7, 8}, allocator.allocate(sequence.connection, 7));
+    verify(sequence.select).setInt(1, 2);
+    assertEquals(1, sequence.queries);
+
+    // The rest of the last block is used before taking another
+    assertArrayEquals(new long[]{9, 10, 11}, allocator.allocate(sequence.connection, 3));
+    assertEquals(1, sequence.queries);
+    assertArrayEquals(new long[]{12, 13}, allocator.allocate(sequence.connection, 2));
+    assertEquals(2, sequence.queries);
+
+    assertArrayEquals(new long[]{}, allocator.allocate(sequence.connection, 0));
+    assertEquals(2, sequence.queries);
+  }
+
+  @Test
+  void testAllocateSkipsInitialValue() throws SQLException {
+
+    var sequence = new Sequence(10);
+    var allocator = new StationSohBulkWriter.IdBlockAllocator("smvs_sequence", 10);
+
+    assertArrayEquals(new long[]{2, 3, 4}, allocator.allocate(sequence.connection, 3));
+    assertEquals(2, sequence.queries);
+  }
+
+  @Test
+  void testWriteBatchesEachTable() throws SQLException {
+
+    var sequence = new Sequence(50);
+    var insert = mock(PreparedStatement.class);
+    when(sequence.connection.prepareStatement(startsWith("insert into"))).thenReturn(insert);
+
+    var entityManager = mock(EntityManager.class);
+    var session = mock(Session.class);
+    when(entityManager.unwrap(Session.class)).thenReturn(session);
+
+    new StationSohBulkWriter()
+        .write(entityManager, List.of(MARGINAL_STATION_SOH, copy(MARGINAL_STATION_SOH)));
+
+    ArgumentCaptor<Work> work = ArgumentCaptor.forClass(Work.class);
+    verify(session).doWork(work.capture());
+    work.getValue().execute(sequence.connection);
+
+    int channelSohs = MARGINAL_STATION_SOH.getChannelSohs().size();
+    int smvs = MARGINAL_STATION_SOH.getSohMonitorValueAndStatuses().size()
+        + MARGINAL_STATION_SOH.getChannelSohs().stream()
+        .mapToInt(channelSoh -> channelSoh.getAllSohMonitorValueAndStatuses().size())
+        .sum();
+    int stationAggregates = MARGINAL_STATION_SOH.getAllStationAggregates().size();
+
+    // One batch per table, with a row for each object of both StationSohs
+    verify(insert, times(2 * (1 + channelSohs + smvs + stationAggregates))).addBatch();
+    verify(insert, times(4)).executeBatch();
+    verify(insert).setObject(2, MARGINAL_STATION_SOH.getId());
+  }
+
+  @Test
+  void testWriteNothing() {
+
+    var entityManager = mock(EntityManager.class);
+    new StationSohBulkWriter().write(entityManager, List.of());
+    verify(entityManager, never()).unwrap(any());
+  }
+
+  private static StationSoh copy(StationSoh stationSoh) {
+    return StationSoh.create(stationSoh.getTime().plusSeconds(20),
+        stationSoh.getStationName(),
+        stationSoh.getSohMonitorValueAndStatuses(),
+        stationSoh.getSohStatusRollup(),
+        stationSoh.getChannelSohs(),
+        stationSoh.getAllStationAggregates());
+  }
+
+  /**
+   * A mocked sequence with the given increment, whose initial value is 1
+   */
+  private static final class Sequence {
+
+    private final Connection connection = mock(Connection.class);
+    private final PreparedStatement select = mock(PreparedStatement.class);
+    private long last;
+    private int blocks;
+    private int queries;
+
+    Sequence(int increment) throws SQLException {
+      when(connection.prepareStatement(startsWith("select nextval"))).thenReturn(select);
+      doAnswer(invocation -> {
+        blocks = invocation.getArgument(1);
+        return null;
+      }).when(select).setInt(eq(1), anyInt());
+      when(select.executeQuery()).thenAnswer(invocation -> {
+        queries++;
+        Deque<Long> values = new ArrayDeque<>();
+        for (int i = 0; i < blocks; i++) {
+          last = last == 0 ? 1 : last + increment;
+          values.add(last);
+        }
+        ResultSet results = mock(ResultSet.class);
+        when(results.next()).thenAnswer(next -> !values.isEmpty());
+        when(results.getLong(1)).thenAnswer(getLong -> values.poll());
+        return results;
+      });
+    }
+  }
+}
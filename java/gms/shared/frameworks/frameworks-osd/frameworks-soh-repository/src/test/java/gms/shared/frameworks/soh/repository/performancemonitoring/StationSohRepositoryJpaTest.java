@@ -13,6 +13,8 @@ import gms.shared.frameworks.osd.dao.util.CoiEntityManagerFactory;
 import gms.shared.frameworks.soh.repository.station.StationRepositoryJpa;
 import gms.shared.frameworks.soh.repository.util.DbTest;
 import java.math.BigInteger;
+import java.time.Instant;
+import java.util.ArrayList;
 import javax.persistence.Query;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -106,6 +108,53 @@ class StationSohRepositoryJpaTest extends DbTest {
     entityManager.close();
   }
 
+  @Test
+  void testStoreDuplicateHeavyAcquiredChannelSohAnalog() {
+    int count = 10;
+    List<AcquiredChannelEnvironmentIssueAnalog> aceis = new ArrayList<>();
+    List<AcquiredChannelEnvironmentIssueAnalog> updates = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Instant startTime = ACQUIRED_CHANNEL_SOH_ANALOG.getStartTime().plusSeconds(i);
+      aceis.add(AcquiredChannelEnvironmentIssueAnalog.from(UUID.randomUUID(),
+          ACQUIRED_CHANNEL_SOH_ANALOG.getChannelName(), ACQUIRED_CHANNEL_SOH_ANALOG.getType(),
+          startTime, startTime.plusSeconds(1), i));
+      updates.add(AcquiredChannelEnvironmentIssueAnalog.from(UUID.randomUUID(),
+          ACQUIRED_CHANNEL_SOH_ANALOG.getChannelName(), ACQUIRED_CHANNEL_SOH_ANALOG.getType(),
+          startTime, startTime.plusSeconds(2), -i));
+    }
+
+    StationSohRepositoryJpa stationSohRepositoryJpa =
+        new StationSohRepositoryJpa(entityManagerFactory);
+
+    // Replay the same ACEIs, as redelivered by kafka, before updating every other one of them
+    for (int i = 0; i < 5; i++) {
+      stationSohRepositoryJpa.storeAcquiredChannelSohAnalog(aceis);
+    }
+
+    List<AcquiredChannelEnvironmentIssueAnalog> everyOtherUpdate = new ArrayList<>();
+    for (int i = 0; i < count; i += 2) {
+      everyOtherUpdate.add(updates.get(i));
+    }
+    stationSohRepositoryJpa.storeAcquiredChannelSohAnalog(everyOtherUpdate);
+
+    EntityManager entityManager = entityManagerFactory.createEntityManager();
+    try {
+      Query query = entityManager.createNativeQuery("select count(*) from gms_soh.channel_env_issue_analog");
+      assertEquals(count, ((BigInteger) query.getSingleResult()).intValue());
+
+      for (int i = 0; i < count; i++) {
+        AcquiredChannelEnvironmentIssueAnalog expected = i % 2 == 0 ? updates.get(i) : aceis.get(i);
+        AcquiredChannelEnvironmentIssueAnalogDao actual = entityManager.find(
+            AcquiredChannelEnvironmentIssueAnalogDao.class, expected.getId());
+        assertNotNull(actual);
+        assertEquals(expected.getEndTime(), actual.getEndTime());
+        assertEquals(expected.getStatus(), actual.getStatus(), 0.0001);
+      }
+    } finally {
+      entityManager.close();
+    }
+  }
+
   @Test
   void testStoreAcquiredChannelSohBooleanValidation() {
     assertThrows(NullPointerException.class,
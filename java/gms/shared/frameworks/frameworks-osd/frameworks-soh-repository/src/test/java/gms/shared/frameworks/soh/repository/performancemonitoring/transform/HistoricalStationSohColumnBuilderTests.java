@@ -0,0 +1,144 @@
+package gms.shared.frameworks.soh.repository.performancemonitoring.transform;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import gms.shared.frameworks.osd.coi.soh.SohMonitorType;
+import gms.shared.frameworks.osd.coi.soh.SohStatus;
+import gms.shared.frameworks.osd.dto.soh.DurationSohMonitorValues;
+import gms.shared.frameworks.osd.dto.soh.HistoricalSohMonitorValues;
+import gms.shared.frameworks.osd.dto.soh.HistoricalStationSoh;
+import gms.shared.frameworks.osd.dto.soh.PercentSohMonitorValues;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+class HistoricalStationSohColumnBuilderTests {
+
+  private static final long START = Timestamp.valueOf("2020-07-14 19:00:00.000000").getTime();
+
+  @Test
+  void testColumnsGrowPastInitialCapacity() {
+
+    HistoricalStationSohColumnBuilder builder = HistoricalStationSohColumnBuilder.create("MKAR");
+    for (int i = 0; i < 1000; i++) {
+      builder.add(lag(i, "MKAR.MK08.SHZ", i));
+      builder.add(missing(i, "MKAR.MK08.SHZ", i / 10.0f));
+      builder.add(lag(i, "MKAR.MK09.SHZ", 1000 - i));
+    }
+
+    HistoricalStationSoh historicalStationSoh = builder.build();
+
+    assertEquals(1000, historicalStationSoh.getCalculationTimes().length);
+    assertEquals(START + 999 * 20000, historicalStationSoh.getCalculationTimes()[999]);
+    assertEquals(List.of("MKAR.MK08.SHZ", "MKAR.MK09.SHZ"), channelNames(historicalStationSoh));
+
+    HistoricalSohMonitorValues mk08 = historicalStationSoh.getMonitorValues().get(0);
+    assertEquals(999000, lags(mk08)[999]);
+    assertEquals(99.9f, percents(mk08)[999], 0.0);
+    assertEquals(1000000,
+        lags(historicalStationSoh.getMonitorValues().get(1))[0]);
+  }
+
+  @Test
+  void testMonitorTypesAreKeptInSeparateColumns() {
+
+    HistoricalStationSohColumnBuilder builder = HistoricalStationSohColumnBuilder.create("MKAR");
+    builder.add(row(0, "MKAR.MK08.SHZ", SohMonitorType.LAG, 5, null));
+    builder.add(row(0, "MKAR.MK08.SHZ", SohMonitorType.TIMELINESS, 7, null));
+
+    HistoricalSohMonitorValues mk08 = builder.build().getMonitorValues().get(0);
+
+    assertArrayEquals(new long[]{5000}, lags(mk08));
+    assertArrayEquals(new long[]{7000}, ((DurationSohMonitorValues) mk08.getValuesByType()
+        .get(SohMonitorType.TIMELINESS)).getValues());
+  }
+
+  @Test
+  void testMissingValues() {
+
+    HistoricalStationSohColumnBuilder builder = HistoricalStationSohColumnBuilder.create("MKAR");
+    builder.add(row(0, "MKAR.MK08.SHZ", SohMonitorType.LAG, null, null));
+    builder.add(row(0, "MKAR.MK08.SHZ", SohMonitorType.MISSING, null, null));
+
+    HistoricalSohMonitorValues mk08 = builder.build().getMonitorValues().get(0);
+
+    assertArrayEquals(new long[]{-1}, lags(mk08));
+    assertArrayEquals(new double[]{-1.0}, percents(mk08));
+  }
+
+  @Test
+  void testDownsamplingKeepsLargestValueOfEachBucket() {
+
+    HistoricalStationSohColumnBuilder builder = HistoricalStationSohColumnBuilder.create("MKAR");
+    int[] lags = {1, 9, 2, 3, 8, 4, 5, 6, 7, 0};
+    for (int i = 0; i < lags.length; i++) {
+      builder.add(lag(i, "MKAR.MK08.SHZ", lags[i]));
+      builder.add(row(i, "MKAR.MK08.SHZ", SohMonitorType.MISSING, null, i == 3 ? null : 1.0f));
+    }
+
+    HistoricalStationSoh downsampled = builder.build(4);
+
+    // 10 points are split into buckets of 2, 3, 2 and 3
+    assertArrayEquals(new long[]{START, START + 40000, START + 100000, START + 140000},
+        downsampled.getCalculationTimes());
+    HistoricalSohMonitorValues mk08 = downsampled.getMonitorValues().get(0);
+    assertArrayEquals(new long[]{9000, 8000, 5000, 7000}, lags(mk08));
+    assertArrayEquals(new double[]{1.0, 1.0, 1.0, 1.0}, percents(mk08));
+
+    // Fewer points than the maximum are not downsampled
+    assertEquals(builder.build(), builder.build(10));
+    assertEquals(builder.build(), builder.build(Integer.MAX_VALUE));
+  }
+
+  @Test
+  void testEmpty() {
+
+    HistoricalStationSoh historicalStationSoh =
+        HistoricalStationSohColumnBuilder.create("MKAR").build(100);
+
+    assertEquals(0, historicalStationSoh.getCalculationTimes().length);
+    assertEquals(List.of(), historicalStationSoh.getMonitorValues());
+  }
+
+  @Test
+  void testValidation() {
+
+    HistoricalStationSohColumnBuilder builder = HistoricalStationSohColumnBuilder.create("MKAR");
+
+    assertThrows(NullPointerException.class, () -> HistoricalStationSohColumnBuilder.create(null));
+    assertThrows(IllegalArgumentException.class, () -> builder.build(0));
+  }
+
+  private static List<String> channelNames(HistoricalStationSoh historicalStationSoh) {
+    return historicalStationSoh.getMonitorValues().stream()
+        .map(HistoricalSohMonitorValues::getChannelName)
+        .collect(Collectors.toList());
+  }
+
+  private static long[] lags(HistoricalSohMonitorValues values) {
+    return ((DurationSohMonitorValues) values.getValuesByType().get(SohMonitorType.LAG))
+        .getValues();
+  }
+
+  private static double[] percents(HistoricalSohMonitorValues values) {
+    return ((PercentSohMonitorValues) values.getValuesByType().get(SohMonitorType.MISSING))
+        .getValues();
+  }
+
+  private static Object[] lag(int time, String channelName, int lagSeconds) {
+    return row(time, channelName, SohMonitorType.LAG, lagSeconds, null);
+  }
+
+  private static Object[] missing(int time, String channelName, float percent) {
+    return row(time, channelName, SohMonitorType.MISSING, null, percent);
+  }
+
+  private static Object[] row(int time, String channelName, SohMonitorType sohMonitorType,
+      Integer lagSeconds, Float percent) {
+    return new Object[]{"MKAR", new Timestamp(START + time * 20000L), channelName,
+        sohMonitorType.getDbId(), lagSeconds, percent, SohStatus.GOOD.getDbId()};
+  }
+}
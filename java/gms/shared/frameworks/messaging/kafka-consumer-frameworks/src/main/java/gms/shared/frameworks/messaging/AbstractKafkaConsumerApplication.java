@@ -1,8 +1,10 @@
 package gms.shared.frameworks.messaging;
 
 import gms.shared.frameworks.systemconfig.SystemConfig;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -41,8 +43,11 @@ public abstract class AbstractKafkaConsumerApplication<T> {
       initialize();
 
       getLogger().info("Establishing kafka connection...");
-      consumerRunner = KafkaConsumerFactory
-          .createConsumerRunner(systemConfig, this::parseMessage, this::consumeRecords);
+      consumerRunner = isBackpressured()
+          ? KafkaConsumerFactory.createBackpressuredConsumerRunner(systemConfig,
+          this::parseMessage, this::storeRecords)
+          : KafkaConsumerFactory
+              .createConsumerRunner(systemConfig, this::parseMessage, this::consumeRecords);
 
       getLogger().info("Beginning message consumption...");
       executorService.execute(consumerRunner);
@@ -97,6 +102,22 @@ public abstract class AbstractKafkaConsumerApplication<T> {
     return THREAD_POOL_SIZE;
   }
 
+  /**
+   * Whether records are consumed with backpressure: {@link #consumeRecords(Collection)} is called
+   * on the executor service, once per batch of records of each partition, and must return only
+   * once the records are stored. Batches are sized between kafka-consumer-min-batch-size and
+   * kafka-consumer-max-batch-size, tuned from how long consumeRecords takes to store them.
+   * Offsets are committed only once their records are stored, and consumption pauses while
+   * kafka-consumer-max-in-flight-records records are waiting to be or being stored.
+   * Otherwise consumeRecords is called on the polling thread and offsets are committed as soon as
+   * it returns. Override in subclass to adjust.
+   *
+   * @return true to consume records with backpressure, false by default
+   */
+  protected boolean isBackpressured() {
+    return false;
+  }
+
   /**
    * The name of the application component, used to retrieve system configuration
    *
@@ -114,12 +135,24 @@ public abstract class AbstractKafkaConsumerApplication<T> {
 
   /**
    * Consumes records parsed from kafka messages. Used by {@link KafkaConsumerRunner} to consume
-   * records.
+   * records. See {@link #isBackpressured()} for when this is called and when it should return.
    *
    * @param records Records parsed from polled messages
    */
   protected abstract void consumeRecords(Collection<T> records);
 
+  /**
+   * Consumes records on the executor service, timing only consumeRecords so that the batch size is
+   * not tuned from the time the records waited for a thread
+   */
+  private CompletableFuture<Duration> storeRecords(Collection<T> records) {
+    return CompletableFuture.supplyAsync(() -> {
+      long startNanos = System.nanoTime();
+      consumeRecords(records);
+      return Duration.ofNanos(System.nanoTime() - startNanos);
+    }, executorService);
+  }
+
   protected void shutdownAndAwaitTermination() {
     if (consumerRunner != null) {
       getLogger().info("Shutting down KafkaConsumerRunner...");
@@ -0,0 +1,151 @@
+package gms.shared.frameworks.messaging;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Accumulates records into batches of a target size, releasing a smaller batch once its oldest
+ * record has waited a maximum latency. The target size is tuned from the observed latency of
+ * committing each batch: it grows additively while batches commit within a target latency, and is
+ * halved when they do not, staying between a minimum and maximum batch size.
+ * <p>
+ * Records are added and drained by a single thread, while commit latencies can be recorded from
+ * any thread.
+ *
+ * @param <T> The type of records to batch
+ */
+public class AdaptiveBatcher<T> {
+
+  private final int minBatchSize;
+  private final int maxBatchSize;
+  private final Duration maxBatchLatency;
+  private final Duration targetCommitLatency;
+  private final int batchSizeIncrement;
+
+  private final List<T> records = new ArrayList<>();
+  private Instant oldestRecordTime;
+  private volatile int targetBatchSize;
+
+  private AdaptiveBatcher(int minBatchSize, int maxBatchSize, Duration maxBatchLatency,
+      Duration targetCommitLatency) {
+    this.minBatchSize = minBatchSize;
+    this.maxBatchSize = maxBatchSize;
+    this.maxBatchLatency = maxBatchLatency;
+    this.targetCommitLatency = targetCommitLatency;
+    this.batchSizeIncrement = Math.max(1, minBatchSize);
+    this.targetBatchSize = minBatchSize;
+  }
+
+  /**
+   * Creates a batcher that starts with a target batch size of minBatchSize
+   *
+   * @param minBatchSize the smallest the target batch size can be tuned to, and the amount it
+   * grows by
+   * @param maxBatchSize the largest the target batch size can be tuned to
+   * @param maxBatchLatency how long the oldest record can wait before a batch is ready regardless
+   * of its size
+   * @param targetCommitLatency the commit latency above which the target batch size is halved
+   * @return An empty batcher
+   */
+  public static <T> AdaptiveBatcher<T> create(int minBatchSize, int maxBatchSize,
+      Duration maxBatchLatency, Duration targetCommitLatency) {
+    Objects.requireNonNull(maxBatchLatency);
+    Objects.requireNonNull(targetCommitLatency);
+    if (minBatchSize <= 0 || maxBatchSize < minBatchSize) {
+      throw new IllegalArgumentException(
+          "Batch sizes must satisfy 0 < minBatchSize <= maxBatchSize");
+    }
+    if (maxBatchLatency.isNegative() || targetCommitLatency.isNegative()) {
+      throw new IllegalArgumentException("Latencies must not be negative");
+    }
+
+    return new AdaptiveBatcher<>(minBatchSize, maxBatchSize, maxBatchLatency,
+        targetCommitLatency);
+  }
+
+  /**
+   * Creates a batcher whose batches are ready as soon as they hold any record, and hold every
+   * record added since the last batch
+   *
+   * @return An empty batcher
+   */
+  public static <T> AdaptiveBatcher<T> unbatched() {
+    return new AdaptiveBatcher<>(Integer.MAX_VALUE, Integer.MAX_VALUE, Duration.ZERO,
+        Duration.ZERO);
+  }
+
+  /**
+   * Adds records to the current batch
+   *
+   * @param newRecords records to add, in order
+   * @param now the time the records were received
+   */
+  public void add(Collection<T> newRecords, Instant now) {
+    if (newRecords.isEmpty()) {
+      return;
+    }
+    if (records.isEmpty()) {
+      oldestRecordTime = now;
+    }
+    records.addAll(newRecords);
+  }
+
+  /**
+   * @param now the current time
+   * @return true if the current batch has reached the target size, or its oldest record has waited
+   * the maximum latency
+   */
+  public boolean isReady(Instant now) {
+    return !records.isEmpty() && (records.size() >= targetBatchSize
+        || !oldestRecordTime.plus(maxBatchLatency).isAfter(now));
+  }
+
+  /**
+   * Removes and returns the current batch: the oldest records, up to the target size. Records
+   * added beyond the target size while the batch was ready are left for the next batch, which
+   * keeps the time of the oldest record drained, so it is ready once its records have waited the
+   * maximum latency regardless of its size.
+   *
+   * @return The records of the current batch, in the order they were added
+   */
+  public List<T> drain() {
+    List<T> drained = records.subList(0, Math.min(records.size(), targetBatchSize));
+    List<T> batch = new ArrayList<>(drained);
+    drained.clear();
+    if (records.isEmpty()) {
+      oldestRecordTime = null;
+    }
+    return batch;
+  }
+
+  /**
+   * Discards every record waiting to be batched, regardless of the target size
+   */
+  public void clear() {
+    records.clear();
+    oldestRecordTime = null;
+  }
+
+  /**
+   * Tunes the target batch size from the time it took to commit a batch
+   *
+   * @param commitLatency the time it took to commit the batch
+   */
+  public synchronized void recordCommitLatency(Duration commitLatency) {
+    targetBatchSize = commitLatency.compareTo(targetCommitLatency) <= 0
+        ? (int) Math.min(maxBatchSize, (long) targetBatchSize + batchSizeIncrement)
+        : Math.max(minBatchSize, targetBatchSize / 2);
+  }
+
+  public int size() {
+    return records.size();
+  }
+
+  public int getTargetBatchSize() {
+    return targetBatchSize;
+  }
+}
@@ -6,6 +6,7 @@ import java.time.temporal.ChronoUnit;
 import java.util.Collection;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import net.jodah.failsafe.Failsafe;
@@ -28,6 +29,12 @@ public class KafkaConsumerFactory {
 
   private static final String INPUT_TOPIC = "input-topic";
   private static final String BATCH_SIZE_IN_SECONDS = "application-batch-size-in-seconds";
+  private static final String MAX_IN_FLIGHT_RECORDS = "kafka-consumer-max-in-flight-records";
+  private static final String MAX_STORE_RETRIES = "kafka-consumer-max-store-retries";
+  private static final String MIN_BATCH_SIZE = "kafka-consumer-min-batch-size";
+  private static final String MAX_BATCH_SIZE = "kafka-consumer-max-batch-size";
+  private static final String MAX_BATCH_LATENCY = "kafka-consumer-max-batch-latency";
+  private static final String TARGET_COMMIT_LATENCY = "kafka-consumer-target-commit-latency";
 
   private static final Logger logger = LoggerFactory.getLogger(KafkaConsumerFactory.class);
 
@@ -37,10 +44,43 @@ public class KafkaConsumerFactory {
   public static <T> KafkaConsumerRunner<T> createConsumerRunner(SystemConfig systemConfig,
       Function<String, Optional<T>> recordParser, Consumer<Collection<T>> recordConsumer) {
 
+    return KafkaConsumerRunner.create(createKafkaConsumer(systemConfig),
+        systemConfig.getValue(INPUT_TOPIC), getPollingInterval(systemConfig), recordParser,
+        recordConsumer);
+  }
+
+  /**
+   * Creates a runner that commits offsets only once their records are stored, pausing consumption
+   * while the configured maximum number of records are being stored. Records are stored in
+   * batches sized between the configured minimum and maximum, tuned from the time each batch
+   * takes to store. Records that fail to be stored are retried up to the configured number of
+   * times before they are skipped. See {@link KafkaConsumerRunner#createBackpressured}.
+   */
+  public static <T> KafkaConsumerRunner<T> createBackpressuredConsumerRunner(
+      SystemConfig systemConfig, Function<String, Optional<T>> recordParser,
+      Function<Collection<T>, CompletableFuture<Duration>> recordStorer) {
+
+    return KafkaConsumerRunner.createBackpressured(createKafkaConsumer(systemConfig),
+        systemConfig.getValue(INPUT_TOPIC), getPollingInterval(systemConfig), recordParser,
+        recordStorer, systemConfig.getValueAsInt(MAX_IN_FLIGHT_RECORDS),
+        systemConfig.getValueAsInt(MAX_STORE_RETRIES), () -> createBatcher(systemConfig));
+  }
+
+  private static <T> AdaptiveBatcher<T> createBatcher(SystemConfig systemConfig) {
+    return AdaptiveBatcher.create(systemConfig.getValueAsInt(MIN_BATCH_SIZE),
+        systemConfig.getValueAsInt(MAX_BATCH_SIZE),
+        systemConfig.getValueAsDuration(MAX_BATCH_LATENCY),
+        systemConfig.getValueAsDuration(TARGET_COMMIT_LATENCY));
+  }
+
+  private static Duration getPollingInterval(SystemConfig systemConfig) {
+    return Duration.ofSeconds(systemConfig.getValueAsLong(BATCH_SIZE_IN_SECONDS));
+  }
+
+  private static org.apache.kafka.clients.consumer.Consumer<String, String> createKafkaConsumer(
+      SystemConfig systemConfig) {
+
     Properties consumerProperties = buildConsumerProperties(systemConfig);
-    String subscriptionTopic = systemConfig.getValue(INPUT_TOPIC);
-    Duration pollingInterval = Duration
-        .ofSeconds(systemConfig.getValueAsLong(BATCH_SIZE_IN_SECONDS));
 
     final RetryPolicy<Object> kafkaConnectionPolicy = new RetryPolicy<>()
         .withBackoff(50, 1000, ChronoUnit.MILLIS)
@@ -48,11 +88,7 @@ public class KafkaConsumerFactory {
         .handle(KafkaException.class)
         .onFailedAttempt(e -> logger.warn("Failed connecting to kafka broker, will try again..."));
 
-    org.apache.kafka.clients.consumer.Consumer<String, String> kafkaConsumer = Failsafe
-        .with(kafkaConnectionPolicy).get(() -> new KafkaConsumer<>(consumerProperties));
-
-    return KafkaConsumerRunner.create(kafkaConsumer, subscriptionTopic, pollingInterval,
-        recordParser, recordConsumer);
+    return Failsafe.with(kafkaConnectionPolicy).get(() -> new KafkaConsumer<>(consumerProperties));
   }
 
   /**
@@ -3,16 +3,31 @@ package gms.shared.frameworks.messaging;
 import static java.util.Collections.singleton;
 import static java.util.stream.Collectors.toList;
 
+import gms.shared.metrics.CustomMetric;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.StreamSupport;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.errors.WakeupException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,23 +36,52 @@ public class KafkaConsumerRunner<T> implements Runnable {
 
   private static final Logger logger = LoggerFactory.getLogger(KafkaConsumerRunner.class);
 
+  private static final String RECORDS_LAG = "records-lag";
+
+  // How often records waiting to be batched are checked for being ready to store
+  private static final Duration PENDING_RECORDS_POLLING_INTERVAL = Duration.ofMillis(50);
+
+  private static final CustomMetric<Long, Long> inFlightRecordsMetric =
+      CustomMetric.create(CustomMetric::updateTimingData,
+          "kafkaConsumerInFlightRecords:type=Value", 0L);
+
+  private static final CustomMetric<Long, Long> recordsLagMetric =
+      CustomMetric.create(CustomMetric::updateTimingData,
+          "kafkaConsumerRecordsLag:type=Value", 0L);
+
   private final AtomicBoolean closed = new AtomicBoolean(false);
   private final org.apache.kafka.clients.consumer.Consumer<String, String> messagePoller;
   private final String subscriptionTopic;
   private final Duration pollingInterval;
   private final Function<String, Optional<T>> recordParser;
   private final Consumer<Collection<T>> recordConsumer;
+  private final Function<Collection<T>, CompletableFuture<Duration>> recordStorer;
+  private final int maxInFlightRecords;
+  private final int maxStoreRetries;
+  private final Supplier<AdaptiveBatcher<ConsumerRecord<String, String>>> batcherSupplier;
+
+  // Backpressured consumption state, only touched by the polling thread except where atomic
+  private final AtomicLong inFlightRecords = new AtomicLong();
+  private final Map<TopicPartition, PartitionWindow> windows = new HashMap<>();
 
   private KafkaConsumerRunner(
       org.apache.kafka.clients.consumer.Consumer<String, String> messagePoller,
       String subscriptionTopic, Duration pollingInterval,
       Function<String, Optional<T>> recordParser,
-      Consumer<Collection<T>> recordConsumer) {
+      Consumer<Collection<T>> recordConsumer,
+      Function<Collection<T>, CompletableFuture<Duration>> recordStorer,
+      int maxInFlightRecords,
+      int maxStoreRetries,
+      Supplier<AdaptiveBatcher<ConsumerRecord<String, String>>> batcherSupplier) {
     this.messagePoller = messagePoller;
     this.subscriptionTopic = subscriptionTopic;
     this.pollingInterval = pollingInterval;
     this.recordParser = recordParser;
     this.recordConsumer = recordConsumer;
+    this.recordStorer = recordStorer;
+    this.maxInFlightRecords = maxInFlightRecords;
+    this.maxStoreRetries = maxStoreRetries;
+    this.batcherSupplier = batcherSupplier;
   }
 
   public static <T> KafkaConsumerRunner<T> create(
@@ -46,17 +90,86 @@ public class KafkaConsumerRunner<T> implements Runnable {
       Function<String, Optional<T>> recordParser,
       Consumer<Collection<T>> recordConsumer) {
     return new KafkaConsumerRunner<>(messagePoller, subscriptionTopic, pollingInterval,
-        recordParser, recordConsumer);
+        recordParser, recordConsumer, null, 0, 0, null);
+  }
+
+  /**
+   * Creates a runner that stores the records of each partition in order, with the records of
+   * different partitions stored in parallel, and commits the offsets of a partition's records only
+   * once they are stored. Partitions are paused while maxInFlightRecords or more records are
+   * being stored, so a slow store slows consumption instead of queueing records without bound.
+   * A partition whose records fail to be stored is rewound to its first unstored record, and
+   * paused for a pollingInterval before its records are polled again. Once the same records have
+   * failed maxStoreRetries times in a row, the batch that failed is logged and skipped, and its
+   * offsets committed, so one unstorable batch can not stall its partition forever. Skipping keeps
+   * the behavior from before records were retried, where failed records were logged and dropped,
+   * as a bounded fallback.
+   *
+   * <p>
+   * Records polled while a partition's previous records are being stored are stored together
+   * once they are.
+   *
+   * @param recordStorer stores records, returning a future that completes once they are stored
+   * with the time it took to store them, not counting any time waiting to start
+   * @param maxInFlightRecords the number of records polled but not yet stored at which partitions
+   * are paused. Each poll is accepted as a whole, so this can be exceeded by the records of one
+   * poll.
+   * @param maxStoreRetries the number of times records that fail to be stored are retried before
+   * they are skipped
+   */
+  public static <T> KafkaConsumerRunner<T> createBackpressured(
+      org.apache.kafka.clients.consumer.Consumer<String, String> messagePoller,
+      String subscriptionTopic, Duration pollingInterval,
+      Function<String, Optional<T>> recordParser,
+      Function<Collection<T>, CompletableFuture<Duration>> recordStorer,
+      int maxInFlightRecords,
+      int maxStoreRetries) {
+    return createBackpressured(messagePoller, subscriptionTopic, pollingInterval, recordParser,
+        recordStorer, maxInFlightRecords, maxStoreRetries, AdaptiveBatcher::unbatched);
+  }
+
+  /**
+   * Creates a backpressured runner, as {@link #createBackpressured(org.apache.kafka.clients.consumer.Consumer,
+   * String, Duration, Function, Function, int, int)}, that accumulates the records of each
+   * partition into batches before storing them. Each partition tunes its own batch size from the
+   * time its batches take to store, and stores at most that many records at once, leaving the
+   * records polled during a slow store for the batches after it.
+   *
+   * @param batcherSupplier supplies the batcher of each partition
+   */
+  public static <T> KafkaConsumerRunner<T> createBackpressured(
+      org.apache.kafka.clients.consumer.Consumer<String, String> messagePoller,
+      String subscriptionTopic, Duration pollingInterval,
+      Function<String, Optional<T>> recordParser,
+      Function<Collection<T>, CompletableFuture<Duration>> recordStorer,
+      int maxInFlightRecords,
+      int maxStoreRetries,
+      Supplier<AdaptiveBatcher<ConsumerRecord<String, String>>> batcherSupplier) {
+    Objects.requireNonNull(recordStorer);
+    Objects.requireNonNull(batcherSupplier);
+    if (maxInFlightRecords <= 0) {
+      throw new IllegalArgumentException("maxInFlightRecords must be positive");
+    }
+    if (maxStoreRetries < 0) {
+      throw new IllegalArgumentException("maxStoreRetries must not be negative");
+    }
+    return new KafkaConsumerRunner<>(messagePoller, subscriptionTopic, pollingInterval,
+        recordParser, null, recordStorer, maxInFlightRecords, maxStoreRetries, batcherSupplier);
   }
 
 
   @Override
   public void run() {
+    if (recordStorer != null) {
+      runBackpressured();
+      return;
+    }
+
     try {
       messagePoller.subscribe(singleton(subscriptionTopic));
       while (!closed.get()) {
         ConsumerRecords<String, String> recordStrings = messagePoller.poll(pollingInterval);
-        List<T> records = parseRecords(recordStrings);
+        List<T> records = parseRecords(recordStrings.records(subscriptionTopic));
         recordConsumer.accept(records);
         messagePoller.commitSync();
       }
@@ -72,6 +185,117 @@ public class KafkaConsumerRunner<T> implements Runnable {
 
   }
 
+  private void runBackpressured() {
+    try {
+      messagePoller.subscribe(singleton(subscriptionTopic), new WindowRebalanceListener());
+      while (!closed.get()) {
+        boolean pending = windows.values().stream().anyMatch(PartitionWindow::hasPending);
+        ConsumerRecords<String, String> recordStrings = messagePoller.poll(pending
+            ? min(pollingInterval, PENDING_RECORDS_POLLING_INTERVAL)
+            : pollingInterval);
+        Instant now = Instant.now();
+        for (TopicPartition partition : recordStrings.partitions()) {
+          List<ConsumerRecord<String, String>> partitionRecords =
+              recordStrings.records(partition);
+          windows.computeIfAbsent(partition,
+              p -> new PartitionWindow(p, partitionRecords.get(0).offset()))
+              .add(partitionRecords, now);
+        }
+
+        windows.values().forEach(window -> window.storeIfReady(now));
+        windows.values().forEach(PartitionWindow::rewindIfFailed);
+        commitStored(windows.values());
+        pauseOrResume();
+        inFlightRecordsMetric.updateMetric(inFlightRecords.get());
+        recordsLagMetric.updateMetric(getRecordsLag());
+      }
+    } catch (WakeupException e) {
+      logger.info("wakeup triggered", e);
+      // Ignore exception if closing
+      if (!closed.get()) {
+        throw e;
+      }
+    } finally {
+      try {
+        windows.values().forEach(PartitionWindow::storeRemaining);
+        commitStored(windows.values());
+      } catch (KafkaException e) {
+        logger.error("Could not commit the offsets of stored records", e);
+      } finally {
+        messagePoller.close();
+      }
+    }
+  }
+
+  private static Duration min(Duration a, Duration b) {
+    return a.compareTo(b) <= 0 ? a : b;
+  }
+
+  /**
+   * Commits the offsets of the records each window has stored since it last committed
+   */
+  private void commitStored(Collection<PartitionWindow> partitionWindows) {
+    Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+    Map<PartitionWindow, Long> storedOffsets = new HashMap<>();
+    for (PartitionWindow window : partitionWindows) {
+      long storedOffset = window.storedOffset.get();
+      if (storedOffset > window.committedOffset) {
+        offsets.put(window.partition, new OffsetAndMetadata(storedOffset));
+        storedOffsets.put(window, storedOffset);
+      }
+    }
+
+    if (!offsets.isEmpty()) {
+      messagePoller.commitSync(offsets);
+      storedOffsets.forEach((window, storedOffset) -> window.committedOffset = storedOffset);
+    }
+  }
+
+  /**
+   * Pauses every assigned partition while the window of in flight records is full, and each
+   * partition that is waiting to retry its records, resuming them otherwise
+   */
+  private void pauseOrResume() {
+    boolean windowFull = inFlightRecords.get() >= maxInFlightRecords;
+    Instant now = Instant.now();
+    Set<TopicPartition> paused = messagePoller.paused();
+    Set<TopicPartition> toPause = new HashSet<>();
+    Set<TopicPartition> toResume = new HashSet<>();
+    for (TopicPartition partition : messagePoller.assignment()) {
+      PartitionWindow window = windows.get(partition);
+      boolean pause = windowFull || (window != null && window.retryAt.isAfter(now));
+      if (pause && !paused.contains(partition)) {
+        toPause.add(partition);
+      } else if (!pause && paused.contains(partition)) {
+        toResume.add(partition);
+      }
+    }
+
+    if (!toPause.isEmpty()) {
+      logger.debug("Pausing {} with {} records in flight", toPause, inFlightRecords.get());
+      messagePoller.pause(toPause);
+    }
+    if (!toResume.isEmpty()) {
+      logger.debug("Resuming {} with {} records in flight", toResume, inFlightRecords.get());
+      messagePoller.resume(toResume);
+    }
+  }
+
+  /**
+   * @return The number of records the assigned partitions are behind the end of their logs, as
+   * last fetched by the consumer
+   */
+  private long getRecordsLag() {
+    return messagePoller.metrics().entrySet().stream()
+        .filter(entry -> RECORDS_LAG.equals(entry.getKey().name()))
+        .map(entry -> entry.getValue().metricValue())
+        .filter(Number.class::isInstance)
+        .mapToDouble(value -> ((Number) value).doubleValue())
+        .filter(value -> !Double.isNaN(value))
+        .mapToLong(value -> (long) value)
+        .sum();
+  }
+
   /**
    * Parses ConsumerRecords of string-representation records into an ordered list of typed records.
    * Ordering was deliberately maintained in order to preserve the order the messages arrived.
@@ -80,8 +304,8 @@ public class KafkaConsumerRunner<T> implements Runnable {
    * messagePoller
    * @return List of parsed records
    */
-  private List<T> parseRecords(ConsumerRecords<String, String> recordStrings) {
-    return StreamSupport.stream(recordStrings.records(subscriptionTopic).spliterator(), false)
+  private List<T> parseRecords(Iterable<ConsumerRecord<String, String>> recordStrings) {
+    return StreamSupport.stream(recordStrings.spliterator(), false)
         .map(ConsumerRecord::value)
         .map(recordParser)
         .flatMap(Optional::stream)
@@ -95,4 +319,159 @@ public class KafkaConsumerRunner<T> implements Runnable {
     closed.set(true);
     messagePoller.wakeup();
   }
+
+  /**
+   * The records of a partition waiting to be stored and being stored, one batch after another, and
+   * the offset after the last of them that is stored
+   */
+  private class PartitionWindow {
+
+    private final TopicPartition partition;
+    private final AdaptiveBatcher<ConsumerRecord<String, String>> batcher;
+    private final AtomicLong storedOffset;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    // The offset after the records of the batch that failed
+    private final AtomicLong failedOffset = new AtomicLong();
+    private CompletableFuture<Duration> stored = CompletableFuture.completedFuture(null);
+    private long committedOffset;
+    private Instant retryAt = Instant.MIN;
+    // The offset the partition was last rewound to, and how many times in a row it has been
+    private long retryOffset = -1;
+    private int retries;
+
+    private PartitionWindow(TopicPartition partition, long firstOffset) {
+      this.partition = partition;
+      this.batcher = batcherSupplier.get();
+      this.storedOffset = new AtomicLong(firstOffset);
+      this.committedOffset = firstOffset;
+    }
+
+    private void add(List<ConsumerRecord<String, String>> partitionRecords, Instant now) {
+      inFlightRecords.addAndGet(partitionRecords.size());
+      batcher.add(partitionRecords, now);
+    }
+
+    private boolean hasPending() {
+      return batcher.size() > 0;
+    }
+
+    /**
+     * Stores the current batch if it is ready and the previous batch of the partition is stored.
+     * Once records fail to be stored, no more are stored until the partition is rewound.
+     */
+    private void storeIfReady(Instant now) {
+      if (failure.get() == null && stored.isDone() && batcher.isReady(now)) {
+        store(batcher.drain());
+      }
+    }
+
+    private void store(List<ConsumerRecord<String, String>> partitionRecords) {
+      List<T> records = parseRecords(partitionRecords);
+      long nextOffset = partitionRecords.get(partitionRecords.size() - 1).offset() + 1;
+      int recordCount = partitionRecords.size();
+
+      stored = stored
+          .thenCompose(previous -> records.isEmpty()
+              ? CompletableFuture.<Duration>completedFuture(null)
+              : recordStorer.apply(records))
+          .whenComplete((commitLatency, e) -> {
+            inFlightRecords.addAndGet(-recordCount);
+            if (e == null) {
+              storedOffset.set(nextOffset);
+              if (commitLatency != null) {
+                batcher.recordCommitLatency(commitLatency);
+              }
+            } else if (failure.compareAndSet(null, e)) {
+              failedOffset.set(nextOffset);
+            }
+          });
+    }
+
+    /**
+     * Rewinds the partition to its first unstored record if storing failed, so its records are
+     * polled again once the partition is resumed. Once the records have been retried
+     * maxStoreRetries times, the batch that failed is skipped instead.
+     */
+    private void rewindIfFailed() {
+      if (failure.get() == null) {
+        return;
+      }
+
+      awaitStored();
+      discardPending();
+
+      long offset = storedOffset.get();
+      retries = offset == retryOffset ? retries + 1 : 0;
+      retryOffset = offset;
+
+      if (retries < maxStoreRetries) {
+        logger.error("Failed storing records of {}, will retry from offset {} ({} of {} retries)",
+            partition, offset, retries + 1, maxStoreRetries, failure.get());
+        retryAt = Instant.now().plus(pollingInterval);
+      } else {
+        logger.error("Failed storing records of {} after {} retries, skipping offsets {} to {}",
+            partition, maxStoreRetries, offset, failedOffset.get() - 1, failure.get());
+        storedOffset.set(failedOffset.get());
+        retryOffset = -1;
+      }
+
+      messagePoller.seek(partition, storedOffset.get());
+      failure.set(null);
+      stored = CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Stores the records waiting to be batched, regardless of the size of the last batch, and
+     * waits until every record of the partition is stored
+     */
+    private void storeRemaining() {
+      awaitStored();
+      while (failure.get() == null && hasPending()) {
+        store(batcher.drain());
+        awaitStored();
+      }
+    }
+
+    private void discardPending() {
+      inFlightRecords.addAndGet(-batcher.size());
+      batcher.clear();
+    }
+
+    private void awaitStored() {
+      stored.exceptionally(e -> null).join();
+    }
+  }
+
+  /**
+   * Commits the offsets of the stored records of revoked partitions before they are reassigned
+   */
+  private class WindowRebalanceListener implements ConsumerRebalanceListener {
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+      List<PartitionWindow> revoked = partitions.stream()
+          .map(windows::remove)
+          .filter(Objects::nonNull)
+          .collect(toList());
+      revoked.forEach(PartitionWindow::storeRemaining);
+      commitStored(revoked);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+      // Windows are created as records of each partition are polled
+    }
+
+    @Override
+    public void onPartitionsLost(Collection<TopicPartition> partitions) {
+      // The partitions may already be reassigned, so their offsets are not committed
+      partitions.stream()
+          .map(windows::remove)
+          .filter(Objects::nonNull)
+          .forEach(window -> {
+            window.discardPending();
+            window.awaitStored();
+          });
+    }
+  }
 }
@@ -0,0 +1,131 @@
+package gms.shared.frameworks.messaging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveBatcherTest {
+
+  private static final Duration MAX_BATCH_LATENCY = Duration.ofSeconds(1);
+  private static final Duration TARGET_COMMIT_LATENCY = Duration.ofMillis(500);
+
+  @Test
+  void testCreateValidation() {
+    assertThrows(IllegalArgumentException.class,
+        () -> AdaptiveBatcher.create(0, 10, MAX_BATCH_LATENCY, TARGET_COMMIT_LATENCY));
+    assertThrows(IllegalArgumentException.class,
+        () -> AdaptiveBatcher.create(10, 5, MAX_BATCH_LATENCY, TARGET_COMMIT_LATENCY));
+    assertThrows(IllegalArgumentException.class,
+        () -> AdaptiveBatcher.create(1, 5, Duration.ofSeconds(-1), TARGET_COMMIT_LATENCY));
+  }
+
+  @Test
+  void testReadyAtTargetSize() {
+    AdaptiveBatcher<Integer> batcher = AdaptiveBatcher
+        .create(3, 10, MAX_BATCH_LATENCY, TARGET_COMMIT_LATENCY);
+    Instant now = Instant.EPOCH;
+
+    assertFalse(batcher.isReady(now));
+    batcher.add(List.of(1, 2), now);
+    assertFalse(batcher.isReady(now));
+    batcher.add(List.of(3, 4), now);
+    assertTrue(batcher.isReady(now));
+
+    assertEquals(List.of(1, 2, 3), batcher.drain());
+    assertEquals(1, batcher.size());
+    assertFalse(batcher.isReady(now));
+  }
+
+  @Test
+  void testDrainLimitedToTargetSize() {
+    AdaptiveBatcher<Integer> batcher = AdaptiveBatcher
+        .create(2, 10, MAX_BATCH_LATENCY, TARGET_COMMIT_LATENCY);
+    Instant now = Instant.EPOCH;
+
+    // Records keep arriving while a batch is ready but not drained, as during a slow store
+    batcher.add(List.of(1, 2, 3), now);
+    batcher.add(List.of(4, 5), now.plusMillis(500));
+
+    assertEquals(List.of(1, 2), batcher.drain());
+    assertEquals(List.of(3, 4), batcher.drain());
+    assertEquals(1, batcher.size());
+
+    // The remaining record is ready once the oldest record drained has waited the max latency
+    assertFalse(batcher.isReady(now.plusMillis(999)));
+    assertTrue(batcher.isReady(now.plus(MAX_BATCH_LATENCY)));
+    assertEquals(List.of(5), batcher.drain());
+    assertFalse(batcher.isReady(now.plus(MAX_BATCH_LATENCY)));
+  }
+
+  @Test
+  void testReadyAtMaxLatency() {
+    AdaptiveBatcher<Integer> batcher = AdaptiveBatcher
+        .create(3, 10, MAX_BATCH_LATENCY, TARGET_COMMIT_LATENCY);
+    Instant now = Instant.EPOCH;
+
+    batcher.add(List.of(1), now);
+    batcher.add(List.of(2), now.plusMillis(900));
+    assertFalse(batcher.isReady(now.plusMillis(999)));
+    assertTrue(batcher.isReady(now.plus(MAX_BATCH_LATENCY)));
+    assertEquals(List.of(1, 2), batcher.drain());
+  }
+
+  @Test
+  void testClear() {
+    AdaptiveBatcher<Integer> batcher = AdaptiveBatcher
+        .create(2, 10, MAX_BATCH_LATENCY, TARGET_COMMIT_LATENCY);
+    Instant now = Instant.EPOCH;
+
+    batcher.add(List.of(1, 2, 3, 4, 5), now);
+    batcher.clear();
+    assertEquals(0, batcher.size());
+    assertFalse(batcher.isReady(now.plus(MAX_BATCH_LATENCY)));
+
+    // The next record starts a new batch, timed from when it was added
+    batcher.add(List.of(6), now.plus(MAX_BATCH_LATENCY));
+    assertFalse(batcher.isReady(now.plus(MAX_BATCH_LATENCY)));
+  }
+
+  @Test
+  void testRecordCommitLatency() {
+    AdaptiveBatcher<Integer> batcher = AdaptiveBatcher
+        .create(2, 7, MAX_BATCH_LATENCY, TARGET_COMMIT_LATENCY);
+    assertEquals(2, batcher.getTargetBatchSize());
+
+    // Grows additively by the minimum batch size while within the target latency, up to the max
+    batcher.recordCommitLatency(Duration.ofMillis(100));
+    assertEquals(4, batcher.getTargetBatchSize());
+    batcher.recordCommitLatency(TARGET_COMMIT_LATENCY);
+    assertEquals(6, batcher.getTargetBatchSize());
+    batcher.recordCommitLatency(Duration.ofMillis(100));
+    assertEquals(7, batcher.getTargetBatchSize());
+
+    // Halves when over the target latency, down to the min
+    batcher.recordCommitLatency(Duration.ofSeconds(1));
+    assertEquals(3, batcher.getTargetBatchSize());
+    batcher.recordCommitLatency(Duration.ofSeconds(1));
+    assertEquals(2, batcher.getTargetBatchSize());
+  }
+
+  @Test
+  void testUnbatched() {
+    AdaptiveBatcher<Integer> batcher = AdaptiveBatcher.unbatched();
+    Instant now = Instant.EPOCH;
+
+    assertFalse(batcher.isReady(now));
+    batcher.add(List.of(1), now);
+    assertTrue(batcher.isReady(now));
+
+    // Every record added is drained, and the target size does not overflow as it is tuned
+    batcher.add(List.of(2, 3), now);
+    batcher.recordCommitLatency(Duration.ZERO);
+    assertEquals(List.of(1, 2, 3), batcher.drain());
+    assertEquals(Integer.MAX_VALUE, batcher.getTargetBatchSize());
+  }
+}
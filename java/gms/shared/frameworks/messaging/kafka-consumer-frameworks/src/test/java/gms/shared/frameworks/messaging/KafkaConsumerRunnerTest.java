@@ -11,14 +11,20 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.clients.consumer.OffsetResetStrategy;
 import org.apache.kafka.common.TopicPartition;
 import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
 
 class KafkaConsumerRunnerTest {
@@ -70,6 +76,288 @@ class KafkaConsumerRunnerTest {
     assertEquals(expectedIntegers, actualIntegers);
   }
 
+  @Test
+  void testRunBackpressured() throws InterruptedException, TimeoutException {
+    String subscriptionTopic = "integers";
+    Duration pollingInterval = Duration.ofMillis(100);
+    List<Integer> expectedIntegers = List.of(5, 18, 23, 9, 72, 109, -10, 6);
+    List<Integer> actualIntegers = new ArrayList<>();
+
+    TopicPartition partition = new TopicPartition(subscriptionTopic, 0);
+    consumer.subscribe(singleton(subscriptionTopic));
+    consumer.rebalance(singleton(partition));
+    consumer.updateBeginningOffsets(Map.of(partition, 0L));
+    consumer.updateEndOffsets(Map.of(partition, (long) expectedIntegers.size()));
+
+    for (int i = 0; i < expectedIntegers.size(); i++) {
+      consumer.addRecord(new ConsumerRecord<>(subscriptionTopic, 0, i, "integer-key",
+          expectedIntegers.get(i).toString()));
+    }
+
+    CountDownLatch polledLatch = new CountDownLatch(1);
+    CompletableFuture<Duration> stored = new CompletableFuture<>();
+    KafkaConsumerRunner<Integer> consumerRunner = KafkaConsumerRunner.createBackpressured(
+        consumer, subscriptionTopic, pollingInterval,
+        KafkaConsumerRunnerTest::parseInt, records -> {
+          actualIntegers.addAll(records);
+          polledLatch.countDown();
+          return stored;
+        }, 1, 0);
+
+    Thread consumerThread = new Thread(consumerRunner);
+    assertDoesNotThrow(consumerThread::start);
+
+    assertTrue(polledLatch.await(2 * pollingInterval.getNano(), TimeUnit.NANOSECONDS));
+    assertEquals(expectedIntegers, actualIntegers);
+
+    // Offsets are not committed, and the partition is paused, until the records are stored
+    awaitCondition(() -> consumer.paused().contains(partition), pollingInterval);
+    assertTrue(consumer.committed(singleton(partition)).isEmpty());
+
+    stored.complete(null);
+    awaitCondition(() -> !consumer.paused().contains(partition), pollingInterval);
+    awaitCondition(() -> consumer.committed(singleton(partition)).containsKey(partition),
+        pollingInterval);
+    assertEquals(new OffsetAndMetadata(expectedIntegers.size()),
+        consumer.committed(singleton(partition)).get(partition));
+
+    assertDoesNotThrow(consumerRunner::shutdown);
+    consumerThread.join(500);
+    assertTrue(consumer.closed());
+    assertFalse(consumerThread.isAlive());
+  }
+
+  @Test
+  void testRunBackpressuredRetriesFailedRecords() throws InterruptedException, TimeoutException {
+    String subscriptionTopic = "integers";
+    Duration pollingInterval = Duration.ofMillis(100);
+    List<Integer> expectedIntegers = List.of(5, 18, 23, 9, 72, 109, -10, 6);
+    List<Integer> actualIntegers = new ArrayList<>();
+
+    TopicPartition partition = new TopicPartition(subscriptionTopic, 0);
+    consumer.subscribe(singleton(subscriptionTopic));
+    consumer.rebalance(singleton(partition));
+    consumer.updateBeginningOffsets(Map.of(partition, 0L));
+    consumer.updateEndOffsets(Map.of(partition, (long) expectedIntegers.size()));
+    addRecords(subscriptionTopic, 0, expectedIntegers);
+
+    AtomicInteger storeAttempts = new AtomicInteger();
+    KafkaConsumerRunner<Integer> consumerRunner = KafkaConsumerRunner.createBackpressured(
+        consumer, subscriptionTopic, pollingInterval,
+        KafkaConsumerRunnerTest::parseInt, records -> {
+          if (storeAttempts.incrementAndGet() == 1) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Store failed"));
+          }
+          synchronized (actualIntegers) {
+            actualIntegers.addAll(records);
+          }
+          return CompletableFuture.completedFuture(null);
+        }, expectedIntegers.size(), 3);
+
+    Thread consumerThread = new Thread(consumerRunner);
+    assertDoesNotThrow(consumerThread::start);
+
+    // The failed records are not committed, and the partition is rewound and paused
+    awaitCondition(() -> consumer.paused().contains(partition), pollingInterval);
+    assertEquals(1, storeAttempts.get());
+    assertTrue(consumer.committed(singleton(partition)).isEmpty());
+    assertEquals(0, consumer.position(partition));
+
+    // MockConsumer does not keep records it has returned, so they are redelivered by adding them
+    // again, and only polled because the partition was rewound
+    awaitCondition(() -> !consumer.paused().contains(partition), pollingInterval);
+    addRecords(subscriptionTopic, 0, expectedIntegers);
+
+    awaitCondition(() -> consumer.committed(singleton(partition)).containsKey(partition),
+        pollingInterval);
+    assertEquals(new OffsetAndMetadata(expectedIntegers.size()),
+        consumer.committed(singleton(partition)).get(partition));
+    assertEquals(2, storeAttempts.get());
+    synchronized (actualIntegers) {
+      assertEquals(expectedIntegers, actualIntegers);
+    }
+
+    assertDoesNotThrow(consumerRunner::shutdown);
+    consumerThread.join(500);
+    assertTrue(consumer.closed());
+    assertFalse(consumerThread.isAlive());
+  }
+
+  @Test
+  void testRunBackpressuredSkipsRecordsAfterMaxRetries()
+      throws InterruptedException, TimeoutException {
+    String subscriptionTopic = "integers";
+    Duration pollingInterval = Duration.ofMillis(100);
+    List<Integer> integers = List.of(5, 18, 23, 9);
+
+    TopicPartition partition = new TopicPartition(subscriptionTopic, 0);
+    consumer.subscribe(singleton(subscriptionTopic));
+    consumer.rebalance(singleton(partition));
+    consumer.updateBeginningOffsets(Map.of(partition, 0L));
+    consumer.updateEndOffsets(Map.of(partition, (long) integers.size()));
+    addRecords(subscriptionTopic, 0, integers);
+
+    AtomicInteger storeAttempts = new AtomicInteger();
+    KafkaConsumerRunner<Integer> consumerRunner = KafkaConsumerRunner.createBackpressured(
+        consumer, subscriptionTopic, pollingInterval,
+        KafkaConsumerRunnerTest::parseInt, records -> {
+          storeAttempts.incrementAndGet();
+          return CompletableFuture.failedFuture(new IllegalStateException("Store failed"));
+        }, integers.size(), 1);
+
+    Thread consumerThread = new Thread(consumerRunner);
+    assertDoesNotThrow(consumerThread::start);
+
+    awaitCondition(() -> consumer.paused().contains(partition), pollingInterval);
+    awaitCondition(() -> !consumer.paused().contains(partition), pollingInterval);
+    assertTrue(consumer.committed(singleton(partition)).isEmpty());
+    addRecords(subscriptionTopic, 0, integers);
+
+    // Once retried, the records that keep failing are skipped and their offsets committed
+    awaitCondition(() -> consumer.committed(singleton(partition)).containsKey(partition),
+        pollingInterval);
+    assertEquals(new OffsetAndMetadata(integers.size()),
+        consumer.committed(singleton(partition)).get(partition));
+    assertEquals(2, storeAttempts.get());
+    assertEquals(integers.size(), consumer.position(partition));
+    assertFalse(consumer.paused().contains(partition));
+
+    assertDoesNotThrow(consumerRunner::shutdown);
+    consumerThread.join(500);
+    assertTrue(consumer.closed());
+    assertFalse(consumerThread.isAlive());
+  }
+
+  @Test
+  void testRunBackpressuredBatched() throws InterruptedException, TimeoutException {
+    String subscriptionTopic = "integers";
+    Duration pollingInterval = Duration.ofMillis(100);
+    List<Integer> firstIntegers = List.of(5, 18, 23, 9, 72, 109, -10, 6, 44, 1, 0, 17);
+    List<Integer> laterIntegers = List.of(3, 8, -2, 61, 12, 7, 90, 4);
+    int integerCount = firstIntegers.size() + laterIntegers.size();
+
+    TopicPartition partition = new TopicPartition(subscriptionTopic, 0);
+    consumer.subscribe(singleton(subscriptionTopic));
+    consumer.rebalance(singleton(partition));
+    consumer.updateBeginningOffsets(Map.of(partition, 0L));
+    consumer.updateEndOffsets(Map.of(partition, (long) integerCount));
+    addRecords(subscriptionTopic, 0, firstIntegers);
+
+    List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+    CompletableFuture<Duration> firstStored = new CompletableFuture<>();
+    KafkaConsumerRunner<Integer> consumerRunner = KafkaConsumerRunner.createBackpressured(
+        consumer, subscriptionTopic, pollingInterval,
+        KafkaConsumerRunnerTest::parseInt, records -> {
+          batches.add(List.copyOf(records));
+          return batches.size() == 1
+              ? firstStored
+              : CompletableFuture.completedFuture(Duration.ZERO);
+        }, integerCount, 0,
+        () -> AdaptiveBatcher.create(2, 4, Duration.ofMillis(50), Duration.ofSeconds(1)));
+
+    Thread consumerThread = new Thread(consumerRunner);
+    assertDoesNotThrow(consumerThread::start);
+
+    // Records keep being polled while the first batch is slow to store
+    awaitCondition(() -> batches.size() == 1, pollingInterval);
+    addRecords(subscriptionTopic, firstIntegers.size(), laterIntegers);
+    awaitCondition(() -> consumer.position(partition) == integerCount, pollingInterval);
+    assertEquals(1, batches.size());
+
+    // Once it is stored, the piled up records are stored in batches of at most the target size,
+    // which grows to the max batch size as batches store within the target latency
+    firstStored.complete(Duration.ZERO);
+    awaitCondition(() -> consumer.committed(singleton(partition)).containsKey(partition)
+            && consumer.committed(singleton(partition)).get(partition).offset() == integerCount,
+        pollingInterval);
+
+    assertEquals(List.of(2, 4, 4, 4, 4, 2),
+        batches.stream().map(List::size).collect(Collectors.toList()));
+    List<Integer> expectedIntegers = new ArrayList<>(firstIntegers);
+    expectedIntegers.addAll(laterIntegers);
+    assertEquals(expectedIntegers,
+        batches.stream().flatMap(List::stream).collect(Collectors.toList()));
+
+    assertDoesNotThrow(consumerRunner::shutdown);
+    consumerThread.join(500);
+    assertTrue(consumer.closed());
+    assertFalse(consumerThread.isAlive());
+  }
+
+  @Test
+  void testRunBackpressuredBatchedRetriesFailedRecords()
+      throws InterruptedException, TimeoutException {
+    String subscriptionTopic = "integers";
+    Duration pollingInterval = Duration.ofMillis(100);
+    List<Integer> expectedIntegers = List.of(5, 18, 23, 9, 72, 109, -10, 6);
+
+    TopicPartition partition = new TopicPartition(subscriptionTopic, 0);
+    consumer.subscribe(singleton(subscriptionTopic));
+    consumer.rebalance(singleton(partition));
+    consumer.updateBeginningOffsets(Map.of(partition, 0L));
+    consumer.updateEndOffsets(Map.of(partition, (long) expectedIntegers.size()));
+    addRecords(subscriptionTopic, 0, expectedIntegers);
+
+    AtomicInteger storeAttempts = new AtomicInteger();
+    List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+    KafkaConsumerRunner<Integer> consumerRunner = KafkaConsumerRunner.createBackpressured(
+        consumer, subscriptionTopic, pollingInterval,
+        KafkaConsumerRunnerTest::parseInt, records -> {
+          if (storeAttempts.incrementAndGet() == 1) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Store failed"));
+          }
+          batches.add(List.copyOf(records));
+          return CompletableFuture.completedFuture(Duration.ZERO);
+        }, expectedIntegers.size(), 3,
+        () -> AdaptiveBatcher.create(2, 4, Duration.ofMillis(50), Duration.ofSeconds(1)));
+
+    Thread consumerThread = new Thread(consumerRunner);
+    assertDoesNotThrow(consumerThread::start);
+
+    // The first batch fails while the rest of the polled records are still waiting to be batched
+    awaitCondition(() -> consumer.paused().contains(partition), pollingInterval);
+    assertEquals(1, storeAttempts.get());
+    assertTrue(batches.isEmpty());
+    assertEquals(0, consumer.position(partition));
+
+    awaitCondition(() -> !consumer.paused().contains(partition), pollingInterval);
+    addRecords(subscriptionTopic, 0, expectedIntegers);
+
+    awaitCondition(() -> consumer.committed(singleton(partition)).containsKey(partition)
+            && consumer.committed(singleton(partition)).get(partition).offset()
+            == expectedIntegers.size(),
+        pollingInterval);
+
+    // The records waiting when the batch failed were discarded, so only the polled again copies
+    // are stored, in order
+    assertEquals(expectedIntegers,
+        batches.stream().flatMap(List::stream).collect(Collectors.toList()));
+    assertFalse(consumer.paused().contains(partition));
+
+    assertDoesNotThrow(consumerRunner::shutdown);
+    consumerThread.join(500);
+    assertTrue(consumer.closed());
+    assertFalse(consumerThread.isAlive());
+  }
+
+  private void addRecords(String topic, long firstOffset, List<Integer> integers) {
+    for (int i = 0; i < integers.size(); i++) {
+      consumer.addRecord(new ConsumerRecord<>(topic, 0, firstOffset + i, "integer-key",
+          integers.get(i).toString()));
+    }
+  }
+
+  private static void awaitCondition(BooleanSupplier condition,
+      Duration pollingInterval) throws InterruptedException, TimeoutException {
+    long deadline = System.nanoTime() + 10 * pollingInterval.toNanos();
+    while (!condition.getAsBoolean()) {
+      if (System.nanoTime() > deadline) {
+        throw new TimeoutException("Condition not met");
+      }
+      Thread.sleep(10);
+    }
+  }
+
   private static Optional<Integer> parseInt(String intString) {
     try {
       return Optional.of(Integer.parseInt(intString));
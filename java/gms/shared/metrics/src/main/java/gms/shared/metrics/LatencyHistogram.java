@@ -0,0 +1,145 @@
+package gms.shared.metrics;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * A histogram of latencies, exported through {@link CustomMetric}s. Each bucket is a cumulative
+ * counter of the latencies less than or equal to its bound, named
+ * {@code <name>:type=Histogram,le=<bound in ms>}, with a final {@code le=+Inf} bucket counting
+ * every latency. The count, sum and maximum of the latencies are exported as
+ * {@code <name>:type=Histogram,stat=count}, {@code stat=sum} and {@code stat=max}, all in
+ * milliseconds.
+ * <p>
+ * Recording is thread safe.
+ */
+public class LatencyHistogram {
+
+    /**
+     * Default bucket bounds, in milliseconds, covering the latencies of a pipeline that processes
+     * data every few seconds to every few minutes.
+     */
+    public static final long[] DEFAULT_BOUNDS_MS = {
+            100, 250, 500, 1_000, 2_500, 5_000, 10_000, 20_000, 30_000, 60_000, 120_000, 300_000
+    };
+
+    private final long[] boundsMs;
+
+    private final long[] bucketCounts;
+
+    private final CustomMetric<Long, Long>[] bucketMetrics;
+
+    private final CustomMetric<Long, Long> countMetric;
+
+    private final CustomMetric<Long, Long> sumMetric;
+
+    private final CustomMetric<Long, Long> maxMetric;
+
+    private long count;
+
+    private long sum;
+
+    private long max;
+
+    @SuppressWarnings("unchecked")
+    private LatencyHistogram(String name, long[] boundsMs) {
+        this.boundsMs = boundsMs;
+        this.bucketCounts = new long[boundsMs.length + 1];
+        this.bucketMetrics = new CustomMetric[boundsMs.length + 1];
+
+        for (int i = 0; i < boundsMs.length; i++) {
+            bucketMetrics[i] = CustomMetric.create(CustomMetric::updateTimingData,
+                    name + ":type=Histogram,le=" + boundsMs[i], 0L);
+        }
+        bucketMetrics[boundsMs.length] = CustomMetric.create(CustomMetric::updateTimingData,
+                name + ":type=Histogram,le=+Inf", 0L);
+
+        countMetric = CustomMetric.create(CustomMetric::updateTimingData,
+                name + ":type=Histogram,stat=count", 0L);
+        sumMetric = CustomMetric.create(CustomMetric::updateTimingData,
+                name + ":type=Histogram,stat=sum", 0L);
+        maxMetric = CustomMetric.create(CustomMetric::updateTimingData,
+                name + ":type=Histogram,stat=max", 0L);
+    }
+
+    /**
+     * Create a histogram with the default bucket bounds.
+     *
+     * @param name the name of the histogram, which must be a valid ObjectName domain
+     * @return A new histogram
+     */
+    public static LatencyHistogram create(String name) {
+        return create(name, DEFAULT_BOUNDS_MS);
+    }
+
+    /**
+     * Create a histogram with the given bucket bounds.
+     *
+     * @param name the name of the histogram, which must be a valid ObjectName domain
+     * @param boundsMs the upper bound of each bucket, in milliseconds, in increasing order
+     * @return A new histogram
+     */
+    public static LatencyHistogram create(String name, long... boundsMs) {
+        if (boundsMs.length == 0) {
+            throw new IllegalArgumentException("At least one bucket bound is required");
+        }
+        for (int i = 1; i < boundsMs.length; i++) {
+            if (boundsMs[i] <= boundsMs[i - 1]) {
+                throw new IllegalArgumentException("Bucket bounds must be increasing");
+            }
+        }
+        return new LatencyHistogram(name, Arrays.copyOf(boundsMs, boundsMs.length));
+    }
+
+    /**
+     * Record a latency. Negative latencies, which come from clock differences between hosts, are
+     * recorded as zero.
+     *
+     * @param latency the latency to record
+     */
+    public void record(Duration latency) {
+        record(latency.toMillis());
+    }
+
+    /**
+     * Record a latency, in milliseconds. Negative latencies, which come from clock differences
+     * between hosts, are recorded as zero.
+     *
+     * @param latencyMs the latency to record, in milliseconds
+     */
+    public synchronized void record(long latencyMs) {
+        long latency = Math.max(latencyMs, 0L);
+
+        for (int i = 0; i < boundsMs.length; i++) {
+            if (latency <= boundsMs[i]) {
+                bucketCounts[i]++;
+                bucketMetrics[i].updateMetric(bucketCounts[i]);
+            }
+        }
+        bucketCounts[boundsMs.length]++;
+        bucketMetrics[boundsMs.length].updateMetric(bucketCounts[boundsMs.length]);
+
+        count++;
+        sum += latency;
+        max = Math.max(max, latency);
+
+        countMetric.updateMetric(count);
+        sumMetric.updateMetric(sum);
+        maxMetric.updateMetric(max);
+    }
+
+    /**
+     * @return the number of latencies recorded
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the cumulative count of the latencies less than or equal to each bucket bound, with
+     * the count of every latency last
+     */
+    public synchronized long[] getBucketCounts() {
+        return Arrays.copyOf(bucketCounts, bucketCounts.length);
+    }
+}
@@ -0,0 +1,181 @@
+package gms.shared.metrics;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The times at which a piece of data passed through each stage of a pipeline, carried from one
+ * service to the next in the {@link #HEADER} Kafka record header, so that each service can measure
+ * how long the data took to reach it.
+ * <p>
+ * A trace is immutable. It is encoded as {@code stage=epochMillis} pairs separated by semicolons,
+ * in the order the stages were added.
+ */
+public final class LatencyTrace {
+
+    /**
+     * Name of the Kafka record header that carries the trace.
+     */
+    public static final String HEADER = "gms-latency-trace";
+
+    /**
+     * The newest RawStationDataFrame reflected in the data was received from the station.
+     */
+    public static final String RSDF_RECEIVED = "rsdfReceived";
+
+    /**
+     * The StationSoh was sent by the SOH control.
+     */
+    public static final String STATION_SOH_SENT = "stationSohSent";
+
+    /**
+     * The CapabilitySohRollup was sent by the SOH control.
+     */
+    public static final String CAPABILITY_SOH_ROLLUP_SENT = "capabilitySohRollupSent";
+
+    /**
+     * The StationSoh was received by the station SOH analysis manager.
+     */
+    public static final String STATION_SOH_RECEIVED = "stationSohReceived";
+
+    /**
+     * The UI materialized view was sent by the station SOH analysis manager.
+     */
+    public static final String MATERIALIZED_VIEW_SENT = "materializedViewSent";
+
+    private static final LatencyTrace EMPTY = new LatencyTrace(Map.of());
+
+    private final Map<String, Instant> timeByStage;
+
+    private LatencyTrace(Map<String, Instant> timeByStage) {
+        this.timeByStage = timeByStage;
+    }
+
+    /**
+     * @return A trace with no stages
+     */
+    public static LatencyTrace empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Create a trace starting with the given stage.
+     *
+     * @param stage name of the stage
+     * @param time when the data passed through the stage
+     * @return A new trace
+     */
+    public static LatencyTrace start(String stage, Instant time) {
+        return EMPTY.with(stage, time);
+    }
+
+    /**
+     * Decode a trace from the value of a {@link #HEADER} header. Malformed stages are skipped.
+     *
+     * @param headerValue the header value, which may be null if the header is missing
+     * @return The decoded trace, which is empty if the header is missing
+     */
+    public static LatencyTrace decode(byte[] headerValue) {
+        if (headerValue == null || headerValue.length == 0) {
+            return EMPTY;
+        }
+
+        Map<String, Instant> timeByStage = new LinkedHashMap<>();
+        for (String pair : new String(headerValue, StandardCharsets.UTF_8).split(";")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                try {
+                    timeByStage.put(pair.substring(0, separator),
+                            Instant.ofEpochMilli(Long.parseLong(pair.substring(separator + 1))));
+                } catch (NumberFormatException e) {
+                    // Skip the malformed stage, the rest of the trace is still useful
+                }
+            }
+        }
+        return new LatencyTrace(Collections.unmodifiableMap(timeByStage));
+    }
+
+    /**
+     * Add a stage to the trace, replacing the time of the stage if it is already in the trace.
+     *
+     * @param stage name of the stage, which may not contain '=' or ';'
+     * @param time when the data passed through the stage
+     * @return A new trace with the stage added
+     */
+    public LatencyTrace with(String stage, Instant time) {
+        Objects.requireNonNull(stage, "Null stage");
+        Objects.requireNonNull(time, "Null time");
+        if (stage.isEmpty() || stage.indexOf('=') >= 0 || stage.indexOf(';') >= 0) {
+            throw new IllegalArgumentException("Invalid stage name: " + stage);
+        }
+
+        Map<String, Instant> timeByStage = new LinkedHashMap<>(this.timeByStage);
+        timeByStage.put(stage, time);
+        return new LatencyTrace(Collections.unmodifiableMap(timeByStage));
+    }
+
+    /**
+     * @return When the data passed through the stage, if it is in the trace
+     */
+    public Optional<Instant> get(String stage) {
+        return Optional.ofNullable(timeByStage.get(stage));
+    }
+
+    /**
+     * @return How long the data took to get from one stage to another, if both are in the trace
+     */
+    public Optional<Duration> between(String fromStage, String toStage) {
+        Instant from = timeByStage.get(fromStage);
+        Instant to = timeByStage.get(toStage);
+        return from == null || to == null ? Optional.empty()
+                : Optional.of(Duration.between(from, to));
+    }
+
+    /**
+     * @return Whether the trace has no stages
+     */
+    public boolean isEmpty() {
+        return timeByStage.isEmpty();
+    }
+
+    /**
+     * @return The trace encoded as the value of a {@link #HEADER} header
+     */
+    public byte[] encode() {
+        StringBuilder encoded = new StringBuilder();
+        timeByStage.forEach((stage, time) -> {
+            if (encoded.length() > 0) {
+                encoded.append(';');
+            }
+            encoded.append(stage).append('=').append(time.toEpochMilli());
+        });
+        return encoded.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return timeByStage.equals(((LatencyTrace) o).timeByStage);
+    }
+
+    @Override
+    public int hashCode() {
+        return timeByStage.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyTrace" + timeByStage;
+    }
+}